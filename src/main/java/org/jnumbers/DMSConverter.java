@@ -24,6 +24,9 @@
  */
 package org.jnumbers;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +63,8 @@ public final class DMSConverter {
 	public static final double HOUR_IN_MIN = 60d;
 	/** threshold for rounding millis (truncating) */
 	public static final double MILLIS_ROUND_THRESHOLD = 0.5e-3d;
+	/** minimum number of values per parallel column task */
+	public static final int PARALLEL_THRESHOLD = 1 << 14;
 
 	private DMSConverter() {
 		// utility class
@@ -72,7 +77,7 @@ public final class DMSConverter {
 	 *
 	 * @return the angle in degrees or NaN if invalid value
 	 */
-	public static double parseHMS(final String hms) {
+	public static double parseHMS_REF(final String hms) {
 
 		// HMS can be given as HH:MM:SS.TT or HH MM SS.TT. 
 		// Replace ':' by ' ', and remove trailing and leading space
@@ -117,6 +122,565 @@ public final class DMSConverter {
 		return angle;
 	}
 
+	/**
+	 * Convert the given HMS value.
+	 *
+	 * @param hms the value as a HH:MM:SS.TT or HH MM SS.TT string.
+	 *
+	 * @return the angle in degrees or NaN if invalid value
+	 */
+	public static double parseHMS(final CharSequence hms) {
+		// Convert to degrees (NaN if invalid):
+		final double angle = parseSexagesimal(hms, 0, hms.length()) * HOUR_IN_DEGREES;
+
+		if (_logger.isDebugEnabled()) {
+			if (Double.isNaN(angle)) {
+				_logger.debug("format exception: invalid value '" + hms + "'");
+			} else {
+				_logger.debug("HMS : ’" + hms + "' = '" + angle + "'.");
+			}
+		}
+
+		return angle;
+	}
+
+	/**
+	 * Convert the given HMS value in one pass (same results as parseHMS_REF):
+	 * leading and trailing spaces or colons are ignored, fields are separated by a single ':' or ' ', parsed like
+	 * Double.parseDouble (surrounding white spaces trimmed) and any field after the seconds is ignored.
+	 *
+	 * @param hms the value as a [+/-]HH:MM:SS.TT or [+/-]HH MM SS.TT string.
+	 * @param cursor reusable cursor (parse status: EMPTY or INVALID at the value start on failure)
+	 *
+	 * @return the angle in degrees or NaN if invalid value
+	 */
+	public static double parseHMS(final CharSequence hms, final ParseResult cursor) {
+		final int length = hms.length();
+		final double angle = parseHMS(hms);
+
+		if (Double.isNaN(angle)) {
+			int start = 0;
+			while ((start < length) && isPadding(hms.charAt(start))) {
+				start++;
+			}
+			cursor.setError((start == length) ? ParseResult.EMPTY : ParseResult.INVALID, start);
+		} else {
+			cursor.setOk(length);
+		}
+		return angle;
+	}
+
+	/**
+	 * Convert the column of HMS values (like parseHMS) into degrees:
+	 * invalid values are set to NaN and flagged in the invalid bitmap (no exception, no logging).
+	 * @param values HMS values (HH:MM:SS.TT or HH MM SS.TT)
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid, cleared
+	 * otherwise) compatible with BitSet.valueOf(long[]) or null
+	 * @return number of invalid values
+	 */
+	public static int parseHMSColumn(final CharSequence[] values, final int from, final int to, final double[] out,
+									 final long[] invalid) {
+		return parseHMSColumn(values, from, to, out, invalid, null);
+	}
+
+	/**
+	 * Convert the column of HMS values (like parseHMS) into degrees in parallel
+	 * (chunks of PARALLEL_THRESHOLD values at least): invalid values are set to NaN and flagged in the invalid bitmap
+	 * @param values HMS values (HH:MM:SS.TT or HH MM SS.TT)
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid) or null
+	 * @param pool fork-join pool or null to convert in the current thread
+	 * @return number of invalid values
+	 */
+	public static int parseHMSColumn(final CharSequence[] values, final int from, final int to, final double[] out,
+									 final long[] invalid, final ForkJoinPool pool) {
+		return parseColumn(new ColumnTask(values, null, null, null, HOUR_IN_DEGREES, from, to, out, invalid), pool);
+	}
+
+	/**
+	 * Convert the column of ASCII HMS values (like parseHMS) into degrees:
+	 * invalid values are set to NaN and flagged in the invalid bitmap (no exception, no logging)
+	 * @param bytes ASCII buffer
+	 * @param offsets start offset of each value
+	 * @param lengths length of each value
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid) or null
+	 * @return number of invalid values
+	 */
+	public static int parseHMSColumn(final byte[] bytes, final int[] offsets, final int[] lengths,
+									 final int from, final int to, final double[] out, final long[] invalid) {
+		return parseHMSColumn(bytes, offsets, lengths, from, to, out, invalid, null);
+	}
+
+	/**
+	 * Convert the column of ASCII HMS values (like parseHMS) into degrees in parallel
+	 * (chunks of PARALLEL_THRESHOLD values at least): invalid values are set to NaN and flagged in the invalid bitmap
+	 * @param bytes ASCII buffer
+	 * @param offsets start offset of each value
+	 * @param lengths length of each value
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid) or null
+	 * @param pool fork-join pool or null to convert in the current thread
+	 * @return number of invalid values
+	 */
+	public static int parseHMSColumn(final byte[] bytes, final int[] offsets, final int[] lengths,
+									 final int from, final int to, final double[] out, final long[] invalid,
+									 final ForkJoinPool pool) {
+		return parseColumn(new ColumnTask(null, bytes, offsets, lengths, HOUR_IN_DEGREES, from, to, out, invalid), pool);
+	}
+
+	/**
+	 * Convert the column of DMS values (like parseDMS_REF) into degrees:
+	 * invalid values are set to NaN and flagged in the invalid bitmap (no exception, no logging).
+	 * @param values DMS values ([+/-]DD:MM:SS.TT or [+/-]DD MM SS.TT)
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid, cleared
+	 * otherwise) compatible with BitSet.valueOf(long[]) or null
+	 * @return number of invalid values
+	 */
+	public static int parseDMSColumn(final CharSequence[] values, final int from, final int to, final double[] out,
+									 final long[] invalid) {
+		return parseDMSColumn(values, from, to, out, invalid, null);
+	}
+
+	/**
+	 * Convert the column of DMS values (like parseDMS_REF) into degrees in parallel
+	 * (chunks of PARALLEL_THRESHOLD values at least): invalid values are set to NaN and flagged in the invalid bitmap
+	 * @param values DMS values ([+/-]DD:MM:SS.TT or [+/-]DD MM SS.TT)
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid) or null
+	 * @param pool fork-join pool or null to convert in the current thread
+	 * @return number of invalid values
+	 */
+	public static int parseDMSColumn(final CharSequence[] values, final int from, final int to, final double[] out,
+									 final long[] invalid, final ForkJoinPool pool) {
+		return parseColumn(new ColumnTask(values, null, null, null, 1d, from, to, out, invalid), pool);
+	}
+
+	/**
+	 * Convert the column of ASCII DMS values (like parseDMS_REF) into degrees:
+	 * invalid values are set to NaN and flagged in the invalid bitmap (no exception, no logging)
+	 * @param bytes ASCII buffer
+	 * @param offsets start offset of each value
+	 * @param lengths length of each value
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid) or null
+	 * @return number of invalid values
+	 */
+	public static int parseDMSColumn(final byte[] bytes, final int[] offsets, final int[] lengths,
+									 final int from, final int to, final double[] out, final long[] invalid) {
+		return parseDMSColumn(bytes, offsets, lengths, from, to, out, invalid, null);
+	}
+
+	/**
+	 * Convert the column of ASCII DMS values (like parseDMS_REF) into degrees in parallel
+	 * (chunks of PARALLEL_THRESHOLD values at least): invalid values are set to NaN and flagged in the invalid bitmap
+	 * @param bytes ASCII buffer
+	 * @param offsets start offset of each value
+	 * @param lengths length of each value
+	 * @param from first index (inclusive)
+	 * @param to last index (exclusive)
+	 * @param out angles in degrees (same indices)
+	 * @param invalid optional bitmap (bit (i &amp; 63) of invalid[i &gt;&gt; 6] set if the value i is invalid) or null
+	 * @param pool fork-join pool or null to convert in the current thread
+	 * @return number of invalid values
+	 */
+	public static int parseDMSColumn(final byte[] bytes, final int[] offsets, final int[] lengths,
+									 final int from, final int to, final double[] out, final long[] invalid,
+									 final ForkJoinPool pool) {
+		return parseColumn(new ColumnTask(null, bytes, offsets, lengths, 1d, from, to, out, invalid), pool);
+	}
+
+	private static int parseColumn(final ColumnTask task, final ForkJoinPool pool) {
+		if (task.from >= task.to) {
+			return 0;
+		}
+		if ((pool == null) || ((task.to - task.from) < 2 * PARALLEL_THRESHOLD)) {
+			return task.parseRows();
+		}
+		return pool.invoke(task);
+	}
+
+	/**
+	 * Parse the sexagesimal value [+/-]XX:MM:SS.TT or [+/-]XX MM SS.TT in one pass (no logging, no allocation):
+	 * leading and trailing spaces or colons are ignored, fields are separated by a single ':' or ' '
+	 * and any field after the seconds is ignored (like parseHMS_REF / parseDMS_REF).
+	 * @param csq value to parse
+	 * @param offset value start
+	 * @param end value end
+	 * @return XX + MM / 60 + SS.TT / 3600 (sign propagated) or NaN if invalid
+	 */
+	private static double parseSexagesimal(final CharSequence csq, final int offset, final int end) {
+		int start = offset;
+		int last = end;
+
+		// remove trailing and leading spaces (or colons):
+		while ((start < last) && isPadding(csq.charAt(start))) {
+			start++;
+		}
+		while ((last > start) && isPadding(csq.charAt(last - 1))) {
+			last--;
+		}
+
+		if (start == last) {
+			return Double.NaN;
+		}
+
+		double xm = 0d, xs = 0d;
+
+		int next = indexOfSeparator(csq, start, last);
+		final double xx = parseField(csq, start, next);
+
+		if (next != last) {
+			int pos = next + 1;
+			next = indexOfSeparator(csq, pos, last);
+			xm = parseField(csq, pos, next);
+
+			if (next != last) {
+				pos = next + 1;
+				xs = parseField(csq, pos, indexOfSeparator(csq, pos, last));
+			}
+		}
+
+		// Get sign of xx which has to be propagated to xm and xs
+		final double sign = (csq.charAt(start) == '-') ? -1d : 1d;
+
+		// note : xx already includes the sign (NaN if any field is invalid) :
+		return xx + sign * (xm * ARCMIN_IN_DEGREES + xs * ARCSEC_IN_DEGREES);
+	}
+
+	/**
+	 * Parse one sexagesimal field [off, end[ like Double.parseDouble (trimmed) with an integer fast path
+	 * @param csq the sexagesimal value
+	 * @param offset field start
+	 * @param end field end
+	 * @return field value (NaN if invalid)
+	 */
+	private static double parseField(final CharSequence csq, final int offset, final int end) {
+		int off = offset;
+		int last = end;
+		// remove white spaces like String.trim():
+		while ((off < last) && (csq.charAt(off) <= ' ')) {
+			off++;
+		}
+		while ((last > off) && (csq.charAt(last - 1) <= ' ')) {
+			last--;
+		}
+		if (off == last) {
+			return Double.NaN;
+		}
+		final char first = csq.charAt(off);
+		int pos = ((first == '-') || (first == '+')) ? off + 1 : off;
+
+		if (pos < last) {
+			long value = 0L;
+			char ch;
+			while ((pos < last) && ((ch = csq.charAt(pos)) >= '0') && (ch <= '9') && (value <= Integer.MAX_VALUE)) {
+				value = value * 10L + (ch - '0');
+				pos++;
+			}
+			if ((pos == last) && (value <= Integer.MAX_VALUE)) {
+				return (first == '-') ? -((double) value) : value;
+			}
+		}
+		if (isDecimal(csq, off, last)) {
+			return NumberParser.parseDouble(csq, off, last, null);
+		}
+		// other Double.parseDouble syntax (Infinity, hexadecimal, d / f suffix) or invalid (rare):
+		try {
+			return Double.parseDouble(csq.subSequence(off, last).toString());
+		} catch (NumberFormatException nfe) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * Return true if [off, end[ is [+/-]DDD[.DDD][(e|E)[+/-]DDD] (one digit at least in the mantissa and exponent)
+	 * @param csq the sexagesimal value
+	 * @param off field start
+	 * @param end field end
+	 * @return true if the field is a decimal number
+	 */
+	private static boolean isDecimal(final CharSequence csq, final int off, final int end) {
+		int pos = off;
+		char ch = csq.charAt(pos);
+		if ((ch == '-') || (ch == '+')) {
+			pos++;
+		}
+		int digits = 0;
+		for (; (pos < end) && ((ch = csq.charAt(pos)) >= '0') && (ch <= '9'); pos++) {
+			digits++;
+		}
+		if ((pos < end) && (csq.charAt(pos) == '.')) {
+			for (pos++; (pos < end) && ((ch = csq.charAt(pos)) >= '0') && (ch <= '9'); pos++) {
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if ((pos < end) && (((ch = csq.charAt(pos)) == 'e') || (ch == 'E'))) {
+			pos++;
+			if ((pos < end) && (((ch = csq.charAt(pos)) == '-') || (ch == '+'))) {
+				pos++;
+			}
+			final int expDigits = pos;
+			for (; (pos < end) && ((ch = csq.charAt(pos)) >= '0') && (ch <= '9'); pos++) {
+				// skip exponent digits
+			}
+			if (pos == expDigits) {
+				return false;
+			}
+		}
+		return (pos == end);
+	}
+
+	private static int indexOfSeparator(final CharSequence csq, final int off, final int end) {
+		for (int i = off; i < end; i++) {
+			if (isSeparator(csq.charAt(i))) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Parse the ASCII sexagesimal value [+/-]XX:MM:SS.TT or [+/-]XX MM SS.TT in one pass (no logging, no allocation)
+	 * @param bytes ASCII buffer
+	 * @param offset value start
+	 * @param end value end
+	 * @return XX + MM / 60 + SS.TT / 3600 (sign propagated) or NaN if invalid
+	 */
+	private static double parseSexagesimal(final byte[] bytes, final int offset, final int end) {
+		int start = offset;
+		int last = end;
+
+		// remove trailing and leading spaces (or colons):
+		while ((start < last) && isPadding((char) bytes[start])) {
+			start++;
+		}
+		while ((last > start) && isPadding((char) bytes[last - 1])) {
+			last--;
+		}
+
+		if (start == last) {
+			return Double.NaN;
+		}
+
+		double xm = 0d, xs = 0d;
+
+		int next = indexOfSeparator(bytes, start, last);
+		final double xx = parseField(bytes, start, next);
+
+		if (next != last) {
+			int pos = next + 1;
+			next = indexOfSeparator(bytes, pos, last);
+			xm = parseField(bytes, pos, next);
+
+			if (next != last) {
+				pos = next + 1;
+				xs = parseField(bytes, pos, indexOfSeparator(bytes, pos, last));
+			}
+		}
+
+		// Get sign of xx which has to be propagated to xm and xs
+		final double sign = (bytes[start] == '-') ? -1d : 1d;
+
+		// note : xx already includes the sign (NaN if any field is invalid) :
+		return xx + sign * (xm * ARCMIN_IN_DEGREES + xs * ARCSEC_IN_DEGREES);
+	}
+
+	/**
+	 * Parse one ASCII sexagesimal field [off, end[ like Double.parseDouble (trimmed) with an integer fast path
+	 * @param bytes ASCII buffer
+	 * @param offset field start
+	 * @param end field end
+	 * @return field value (NaN if invalid)
+	 */
+	private static double parseField(final byte[] bytes, final int offset, final int end) {
+		int off = offset;
+		int last = end;
+		// remove white spaces like String.trim() (ASCII):
+		while ((off < last) && ((bytes[off] & 0xFF) <= ' ')) {
+			off++;
+		}
+		while ((last > off) && ((bytes[last - 1] & 0xFF) <= ' ')) {
+			last--;
+		}
+		if (off == last) {
+			return Double.NaN;
+		}
+		final byte first = bytes[off];
+		int pos = ((first == '-') || (first == '+')) ? off + 1 : off;
+
+		if (pos < last) {
+			long value = 0L;
+			byte ch;
+			while ((pos < last) && ((ch = bytes[pos]) >= '0') && (ch <= '9') && (value <= Integer.MAX_VALUE)) {
+				value = value * 10L + (ch - '0');
+				pos++;
+			}
+			if ((pos == last) && (value <= Integer.MAX_VALUE)) {
+				return (first == '-') ? -((double) value) : value;
+			}
+		}
+		if (isDecimal(bytes, off, last)) {
+			return NumberParser.parseDouble(bytes, off, last, null);
+		}
+		// other Double.parseDouble syntax (Infinity, hexadecimal, d / f suffix) or invalid (rare):
+		try {
+			return Double.parseDouble(new String(bytes, off, last - off, StandardCharsets.ISO_8859_1));
+		} catch (NumberFormatException nfe) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * Return true if [off, end[ is [+/-]DDD[.DDD][(e|E)[+/-]DDD] (one digit at least in the mantissa and exponent)
+	 * @param bytes ASCII buffer
+	 * @param off field start
+	 * @param end field end
+	 * @return true if the field is a decimal number
+	 */
+	private static boolean isDecimal(final byte[] bytes, final int off, final int end) {
+		int pos = off;
+		byte ch = bytes[pos];
+		if ((ch == '-') || (ch == '+')) {
+			pos++;
+		}
+		int digits = 0;
+		for (; (pos < end) && ((ch = bytes[pos]) >= '0') && (ch <= '9'); pos++) {
+			digits++;
+		}
+		if ((pos < end) && (bytes[pos] == '.')) {
+			for (pos++; (pos < end) && ((ch = bytes[pos]) >= '0') && (ch <= '9'); pos++) {
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if ((pos < end) && (((ch = bytes[pos]) == 'e') || (ch == 'E'))) {
+			pos++;
+			if ((pos < end) && (((ch = bytes[pos]) == '-') || (ch == '+'))) {
+				pos++;
+			}
+			final int expDigits = pos;
+			for (; (pos < end) && ((ch = bytes[pos]) >= '0') && (ch <= '9'); pos++) {
+				// skip exponent digits
+			}
+			if (pos == expDigits) {
+				return false;
+			}
+		}
+		return (pos == end);
+	}
+
+	private static int indexOfSeparator(final byte[] bytes, final int off, final int end) {
+		for (int i = off; i < end; i++) {
+			if (isSeparator((char) bytes[i])) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	private static boolean isSeparator(final char ch) {
+		return (ch == ':') || (ch == ' ');
+	}
+
+	private static boolean isPadding(final char ch) {
+		// as String.trim() once ':' is replaced by ' ':
+		return (ch <= ' ') || (ch == ':');
+	}
+
+	/** Fork-join task converting a range of a sexagesimal column (CharSequence[] or byte[]) */
+	private static final class ColumnTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		/* members */
+		private final CharSequence[] values;
+		private final byte[] bytes;
+		private final int[] offsets;
+		private final int[] lengths;
+		/** degrees per unit of the first field (15 for hours) */
+		private final double scale;
+		private final int from;
+		private final int to;
+		private final double[] out;
+		private final long[] invalid;
+
+		ColumnTask(final CharSequence[] values, final byte[] bytes, final int[] offsets, final int[] lengths,
+				   final double scale, final int from, final int to, final double[] out, final long[] invalid) {
+			this.values = values;
+			this.bytes = bytes;
+			this.offsets = offsets;
+			this.lengths = lengths;
+			this.scale = scale;
+			this.from = from;
+			this.to = to;
+			this.out = out;
+			this.invalid = invalid;
+		}
+
+		@Override
+		protected Integer compute() {
+			if ((to - from) < 2 * PARALLEL_THRESHOLD) {
+				return parseRows();
+			}
+			// split on a bitmap word boundary (no word shared between tasks):
+			final int mid = ((from + to) >>> 1) & ~63;
+			final ColumnTask left = new ColumnTask(values, bytes, offsets, lengths, scale, from, mid, out, invalid);
+			left.fork();
+			final int right = new ColumnTask(values, bytes, offsets, lengths, scale, mid, to, out, invalid).compute();
+			return left.join() + right;
+		}
+
+		int parseRows() {
+			int count = 0;
+
+			for (int i = from; i < to; i++) {
+				final double value;
+				if (values != null) {
+					final CharSequence csq = values[i];
+					value = (csq == null) ? Double.NaN : parseSexagesimal(csq, 0, csq.length());
+				} else {
+					final int offset = offsets[i];
+					value = parseSexagesimal(bytes, offset, offset + lengths[i]);
+				}
+				if (!Double.isNaN(value)) {
+					out[i] = value * scale;
+					if (invalid != null) {
+						invalid[i >> 6] &= ~(1L << i);
+					}
+				} else {
+					out[i] = Double.NaN;
+					count++;
+					if (invalid != null) {
+						invalid[i >> 6] |= (1L << i);
+					}
+				}
+			}
+			return count;
+		}
+	}
+
 	/**
 	 * Convert the given DMS value.
 	 *
@@ -176,53 +740,65 @@ public final class DMSConverter {
 	 *
 	 * @return the angle as a double in degrees or NaN if invalid value
 	 */
-	public static double parseDMS_OLD(final CharSequence dms) {
-		return parseDMS_OLD(dms, ':');
+	public static double parseDMS(final CharSequence dms) {
+		return DMSConverter.parseDMS(dms, ':');
 	}
 
 	/**
 	 * Convert the given DMS value.
 	 *
-	 * @param dms the value as a DD<sep>MM<sep>SS.TT string.
+	 * @param dms the value as a [+/-]DDD<sep>MM<sep>SS.TT string.
 	 * @param sep separator character
 	 *
 	 * @return the angle as a double in degrees or NaN if invalid value
 	 */
-	public static double parseDMS_OLD(final CharSequence dms, final char sep) {
+	public static double parseDMS(final CharSequence dms, final char sep) {
+		final int length = dms.length();
 
-		double dd, dm, ds;
+		double dd, dm = 0d, ds = 0d;
 
-		// Parse the given string:
-		try {
-			final int length = dms.length();
-			int pos1 = NumberParser.indexOf(dms, sep, 0, length);
+		if (length == 0) {
+			dd = Double.NaN;
+		} else {
+			// 1st value as integer (sign handled below):
+			final char first = dms.charAt(0);
+			int pos = ((first == '-') || (first == '+')) ? 1 : 0;
+			int next = indexOfNotDigit(dms, pos, length);
+			final int deg = getIntegerField(dms, pos, next);
 
-			if (pos1 == -1) {
+			if ((deg < 0) || ((next != length) && (dms.charAt(next) != sep))) {
 				// no separator: 1st value as double ?
-				dd = NumberParser.getDouble(dms);
-				dm = ds = 0d;
+				dd = NumberParser.parseDouble(dms, 0, length, null);
 			} else {
-				dd = NumberParser.getDouble(dms, 0, pos1);
-				pos1++;
-
-				int pos2 = NumberParser.indexOf(dms, sep, pos1, length);
-
-				if (pos2 == -1) {
-					// no separator: 2th value as double ?
-					dm = NumberParser.getDouble(dms, pos1, length);
-					ds = 0d;
-				} else {
-					dm = NumberParser.getDouble(dms, pos1, pos2);
-					pos2++;
-
-					// 3rd value as double ?
-					ds = NumberParser.getDouble(dms, pos2, length);
+				dd = (first == '-') ? -((double) deg) : deg;
+
+				if (next != length) {
+					pos = next + 1;
+
+					// 2nd value as positive integer:
+					next = indexOfNotDigit(dms, pos, length);
+					final int min = getIntegerField(dms, pos, next);
+
+					if ((min >= 0) && ((next == length) || (dms.charAt(next) == sep))) {
+						dm = min;
+
+						if (next != length) {
+							// 3rd value as double ?
+							ds = NumberParser.parseDouble(dms, next + 1, length, null);
+						}
+					} else {
+						// no separator: 2th value as double ?
+						dm = NumberParser.parseDouble(dms, pos, length, null);
+					}
 				}
 			}
+		}
 
-		} catch (NumberFormatException nfe) {
-			_logger.debug("format exception: ", nfe);
-			dd = dm = ds = Double.NaN;
+		if (Double.isNaN(dd) || Double.isNaN(dm) || Double.isNaN(ds)) {
+			if (_logger.isDebugEnabled()) {
+				_logger.debug("format exception: invalid value '" + dms + "'");
+			}
+			return Double.NaN;
 		}
 
 		// Get sign of dd which has to be propagated to dm and ds
@@ -240,59 +816,63 @@ public final class DMSConverter {
 	}
 
 	/**
-	 * Convert the given DMS value.
-	 *
-	 * @param dms the value as a DD:MM:SS.TT string.
-	 *
-	 * @return the angle as a double in degrees or NaN if invalid value
-	 */
-	public static double parseDMS(final CharSequence dms) {
-		return DMSConverter.parseDMS(dms, ':');
-	}
-
-	/**
-	 * Convert the given DMS value.
+	 * Convert the given DMS value in one pass (no separator lookup)
 	 *
 	 * @param dms the value as a [+/-]DDD<sep>MM<sep>SS.TT string.
 	 * @param sep separator character
+	 * @param cursor reusable cursor (parse status)
 	 *
 	 * @return the angle as a double in degrees or NaN if invalid value
 	 */
-	public static double parseDMS(final CharSequence dms, final char sep) {
+	public static double parseDMS(final CharSequence dms, final char sep, final ParseResult cursor) {
+		final int length = dms.length();
 
-		double dd, dm, ds;
+		if (length == 0) {
+			cursor.setError(ParseResult.EMPTY, 0);
+			return Double.NaN;
+		}
 
-		// Parse the given string:
-		try {
-			final int length = dms.length();
-			int pos1 = NumberParser.indexOf(dms, sep, 0, length);
+		double dd, dm = 0d, ds = 0d;
 
-			if (pos1 == -1) {
-				// no separator: 1st value as double ?
-				dd = NumberParser.getDouble(dms);
-				dm = ds = 0d;
-			} else {
-				dd = NumberParser.getIntegerUnsafeAsDouble(dms, 0, pos1);
-				pos1++;
+		// 1st value as integer (sign handled below):
+		final char first = dms.charAt(0);
+		int pos = ((first == '-') || (first == '+')) ? 1 : 0;
+		char ch = (pos < length) ? dms.charAt(pos) : 0;
 
-				int pos2 = NumberParser.indexOf(dms, sep, pos1, length);
+		final int deg = ((ch >= '0') && (ch <= '9')) ? NumberParser.scanInteger(dms, pos, length, cursor) : -1;
 
-				if (pos2 == -1) {
-					// no separator: 2th value as double ?
-					dm = NumberParser.getDouble(dms, pos1, length);
-					ds = 0d;
-				} else {
-					dm = NumberParser.getPositiveIntegerUnsafeAsDouble(dms, pos1, pos2);
-					pos2++;
+		if ((deg < 0) || ((cursor.getIndex() != length) && (dms.charAt(cursor.getIndex()) != sep))) {
+			// no separator: 1st value as double ?
+			dd = NumberParser.parseDouble(dms, 0, length, cursor);
+		} else {
+			dd = (first == '-') ? -((double) deg) : deg;
+
+			if (cursor.getIndex() != length) {
+				pos = cursor.getIndex() + 1;
+
+				// 2nd value as positive integer:
+				ch = (pos < length) ? dms.charAt(pos) : 0;
+				final int min = ((ch >= '0') && (ch <= '9')) ? NumberParser.scanInteger(dms, pos, length, cursor) : -1;
+
+				if ((min >= 0) && (cursor.getIndex() == length)) {
+					dm = min;
+				} else if ((min >= 0) && (dms.charAt(cursor.getIndex()) == sep)) {
+					dm = min;
 
 					// 3rd value as double ?
-					ds = NumberParser.getDouble(dms, pos2, length);
+					ds = NumberParser.parseDouble(dms, cursor.getIndex() + 1, length, cursor);
+				} else {
+					// no separator: 2th value as double ?
+					dm = NumberParser.parseDouble(dms, pos, length, cursor);
 				}
 			}
+		}
 
-		} catch (NumberFormatException nfe) {
-			_logger.debug("format exception: ", nfe);
-			dd = dm = ds = Double.NaN;
+		if (!cursor.isOk()) {
+			if (_logger.isDebugEnabled()) {
+				_logger.debug("format exception: " + cursor + " in '" + dms + "'");
+			}
+			return Double.NaN;
 		}
 
 		// Get sign of dd which has to be propagated to dm and ds
@@ -309,6 +889,32 @@ public final class DMSConverter {
 		return angle;
 	}
 
+	/* index of the first non digit character in [off, end[ or end */
+	private static int indexOfNotDigit(final CharSequence csq, final int off, final int end) {
+		for (int i = off; i < end; i++) {
+			final char ch = csq.charAt(i);
+			if ((ch < '0') || (ch > '9')) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	/* positive int value of the digits [pos, next[ or -1 if empty or overflow */
+	private static int getIntegerField(final CharSequence csq, final int pos, final int next) {
+		if (next == pos) {
+			return -1;
+		}
+		long value = 0L;
+		for (int i = pos; i < next; i++) {
+			value = value * 10L + (csq.charAt(i) - '0');
+			if (value > Integer.MAX_VALUE) {
+				return -1;
+			}
+		}
+		return (int) value;
+	}
+
 	/**
 	 * Return the DMS format of the given angle
 	 * 
@@ -372,10 +978,7 @@ public final class DMSConverter {
 
 		/* always print sign '+' as DEC is typically within range [-90; 90] */
 		sb.append((negative) ? '-' : '+');
-		if (iDeg < 10) {
-			sb.append('0');
-		}
-		sb.append(iDeg);
+		NumberFormatter.appendInt(sb, iDeg, 2);
 
 		return toMS(sb, remainder);
 	}
@@ -410,14 +1013,253 @@ public final class DMSConverter {
 		if (negative) {
 			sb.append('-');
 		}
-		if (iHour < 10) {
-			sb.append('0');
-		}
-		sb.append(iHour);
+		NumberFormatter.appendInt(sb, iHour, 2);
 
 		return toMS(sb, remainder);
 	}
 
+	/**
+	 * Write the DMS format [+/-]DD:MM:SS[.F] of the given angle (rounded to the given number of fractional
+	 * second digits with carry into minutes and degrees) at the given offset:
+	 * 9 characters (10 if degrees &gt;= 100) + digits + 1 if digits &gt; 0, or "~" if out of range (or NaN)
+	 * @param buf byte buffer
+	 * @param off offset
+	 * @param angle angle in degrees within range [-360; 360]
+	 * @param digits number of fractional second digits [0; 9]
+	 * @return offset following the last written byte
+	 * @throws IllegalArgumentException if digits is out of range [0; 9]
+	 */
+	public static int toDMS(final byte[] buf, final int off, final double angle, final int digits)
+			throws IllegalArgumentException {
+		final long pow10 = checkDigits(digits);
+		final double absAngle = Math.abs(angle);
+		/* check boundaries */
+		if (!(absAngle <= 360d)) {
+			buf[off] = '~';
+			return off + 1;
+		}
+		/* round once in fractional arcseconds (carry) */
+		final long total = roundScaled(absAngle, 3600L, digits);
+		final long seconds = total / pow10;
+		final int iDeg = (int) (seconds / 3600L);
+		final int iSeconds = (int) (seconds - iDeg * 3600L);
+
+		/* always print sign '+' as DEC is typically within range [-90; 90] */
+		buf[off] = (byte) ((angle < 0d) ? '-' : '+');
+		int pos = off + 1;
+		if (iDeg >= 100) {
+			buf[pos++] = (byte) ('0' + iDeg / 100);
+		}
+		pos = appendPair(buf, pos, iDeg % 100);
+
+		return appendMS(buf, pos, iSeconds, total - seconds * pow10, digits);
+	}
+
+	/**
+	 * Write the DMS format [+/-]DD:MM:SS[.F] of the given angle (rounded to the given number of fractional
+	 * second digits with carry into minutes and degrees) at the given offset:
+	 * 9 characters (10 if degrees &gt;= 100) + digits + 1 if digits &gt; 0, or "~" if out of range (or NaN)
+	 * @param buf char buffer
+	 * @param off offset
+	 * @param angle angle in degrees within range [-360; 360]
+	 * @param digits number of fractional second digits [0; 9]
+	 * @return offset following the last written character
+	 * @throws IllegalArgumentException if digits is out of range [0; 9]
+	 */
+	public static int toDMS(final char[] buf, final int off, final double angle, final int digits)
+			throws IllegalArgumentException {
+		final long pow10 = checkDigits(digits);
+		final double absAngle = Math.abs(angle);
+		/* check boundaries */
+		if (!(absAngle <= 360d)) {
+			buf[off] = '~';
+			return off + 1;
+		}
+		/* round once in fractional arcseconds (carry) */
+		final long total = roundScaled(absAngle, 3600L, digits);
+		final long seconds = total / pow10;
+		final int iDeg = (int) (seconds / 3600L);
+		final int iSeconds = (int) (seconds - iDeg * 3600L);
+
+		/* always print sign '+' as DEC is typically within range [-90; 90] */
+		buf[off] = (angle < 0d) ? '-' : '+';
+		int pos = off + 1;
+		if (iDeg >= 100) {
+			buf[pos++] = (char) ('0' + iDeg / 100);
+		}
+		pos = appendPair(buf, pos, iDeg % 100);
+
+		return appendMS(buf, pos, iSeconds, total - seconds * pow10, digits);
+	}
+
+	/**
+	 * Write the HMS format [-]HH:MM:SS[.F] of the given angle (rounded to the given number of fractional
+	 * second digits with carry into minutes and hours) at the given offset:
+	 * 8 characters (9 if negative) + digits + 1 if digits &gt; 0, or "~" if out of range (or NaN)
+	 * @param buf byte buffer
+	 * @param off offset
+	 * @param angle angle in degrees within range [-360; 360]
+	 * @param digits number of fractional second digits [0; 9]
+	 * @return offset following the last written byte
+	 * @throws IllegalArgumentException if digits is out of range [0; 9]
+	 */
+	public static int toHMS(final byte[] buf, final int off, final double angle, final int digits)
+			throws IllegalArgumentException {
+		final long pow10 = checkDigits(digits);
+		final double absAngle = Math.abs(angle);
+		/* check boundaries (24 hours) */
+		if (!(absAngle <= 360d)) {
+			buf[off] = '~';
+			return off + 1;
+		}
+		/* round once in fractional seconds of time (carry): 240 seconds per degree */
+		final long total = roundScaled(absAngle, 240L, digits);
+		final long seconds = total / pow10;
+		final int iHour = (int) (seconds / 3600L);
+
+		int pos = off;
+		/* avoid '+' for positive values as RA is typically within range [0.0; 24.0[ */
+		if (angle < 0d) {
+			buf[pos++] = '-';
+		}
+		pos = appendPair(buf, pos, iHour);
+
+		return appendMS(buf, pos, (int) (seconds - iHour * 3600L), total - seconds * pow10, digits);
+	}
+
+	/**
+	 * Write the HMS format [-]HH:MM:SS[.F] of the given angle (rounded to the given number of fractional
+	 * second digits with carry into minutes and hours) at the given offset:
+	 * 8 characters (9 if negative) + digits + 1 if digits &gt; 0, or "~" if out of range (or NaN)
+	 * @param buf char buffer
+	 * @param off offset
+	 * @param angle angle in degrees within range [-360; 360]
+	 * @param digits number of fractional second digits [0; 9]
+	 * @return offset following the last written character
+	 * @throws IllegalArgumentException if digits is out of range [0; 9]
+	 */
+	public static int toHMS(final char[] buf, final int off, final double angle, final int digits)
+			throws IllegalArgumentException {
+		final long pow10 = checkDigits(digits);
+		final double absAngle = Math.abs(angle);
+		/* check boundaries (24 hours) */
+		if (!(absAngle <= 360d)) {
+			buf[off] = '~';
+			return off + 1;
+		}
+		/* round once in fractional seconds of time (carry): 240 seconds per degree */
+		final long total = roundScaled(absAngle, 240L, digits);
+		final long seconds = total / pow10;
+		final int iHour = (int) (seconds / 3600L);
+
+		int pos = off;
+		/* avoid '+' for positive values as RA is typically within range [0.0; 24.0[ */
+		if (angle < 0d) {
+			buf[pos++] = '-';
+		}
+		pos = appendPair(buf, pos, iHour);
+
+		return appendMS(buf, pos, (int) (seconds - iHour * 3600L), total - seconds * pow10, digits);
+	}
+
+	/**
+	 * Return value x mul x 10^digits rounded half up from the exact binary value of the double (no intermediate
+	 * double rounding)
+	 * @param value positive finite value (value x mul x 10^digits &lt; 2^51)
+	 * @param mul integer multiplier
+	 * @param digits number of fractional digits [0; 9]
+	 * @return rounded value
+	 */
+	private static long roundScaled(final double value, final long mul, final int digits) {
+		final long bits = Double.doubleToRawLongBits(value);
+		if (bits == 0L) {
+			return 0L;
+		}
+		final int biasedExp = (int) (bits >>> 52);
+		long mant = bits & 0xFFFFFFFFFFFFFL;
+		int e2;
+		if (biasedExp != 0) {
+			mant |= 1L << 52;
+			e2 = biasedExp - 1075;
+		} else {
+			e2 = -1074;
+		}
+		/* value x mul x 10^digits = (mant x odd(mul) x 5^digits) x 2^e2 */
+		final int tz = Long.numberOfTrailingZeros(mul);
+		e2 += tz + digits;
+		final long m = mant * (mul >> tz);
+		final long pow5 = NumberParser.LONG_POW10[digits] >>> digits;
+
+		if (e2 >= 0) {
+			return (m * pow5) << e2;
+		}
+		/* 96 bits product m x 5^digits = b x 2^32 + a */
+		final long a = (m & 0xFFFFFFFFL) * pow5;
+		final long b = (m >>> 32) * pow5;
+		/* product / 2^(-e2 - 1) then round half up on its last bit */
+		final int shift = -e2 - 1;
+		final long twice;
+		if (shift < 32) {
+			twice = (b << (32 - shift)) + (a >>> shift);
+		} else if (shift < 32 + 63) {
+			twice = (b + (a >>> 32)) >>> (shift - 32);
+		} else {
+			twice = 0L;
+		}
+		return (twice + 1L) >>> 1;
+	}
+
+	private static long checkDigits(final int digits) throws IllegalArgumentException {
+		if ((digits < 0) || (digits > 9)) {
+			throw new IllegalArgumentException("Invalid number of fractional digits: " + digits);
+		}
+		return NumberParser.LONG_POW10[digits];
+	}
+
+	/* write :MM:SS[.F] */
+	private static int appendMS(final byte[] buf, final int off, final int seconds, final long fraction,
+								final int digits) {
+		final int iMinute = seconds / 60;
+		buf[off] = ':';
+		int pos = appendPair(buf, off + 1, iMinute);
+		buf[pos] = ':';
+		pos = appendPair(buf, pos + 1, seconds - iMinute * 60);
+		if (digits == 0) {
+			return pos;
+		}
+		buf[pos] = '.';
+		return NumberFormatter.appendDigits(buf, pos + 1, fraction, digits);
+	}
+
+	/* write :MM:SS[.F] */
+	private static int appendMS(final char[] buf, final int off, final int seconds, final long fraction,
+								final int digits) {
+		final int iMinute = seconds / 60;
+		buf[off] = ':';
+		int pos = appendPair(buf, off + 1, iMinute);
+		buf[pos] = ':';
+		pos = appendPair(buf, pos + 1, seconds - iMinute * 60);
+		if (digits == 0) {
+			return pos;
+		}
+		buf[pos] = '.';
+		return NumberFormatter.appendDigits(buf, pos + 1, fraction, digits);
+	}
+
+	/* write 2 digits in [00; 99] */
+	private static int appendPair(final byte[] buf, final int off, final int value) {
+		buf[off] = NumberFormatter.DIGIT_PAIRS[value << 1];
+		buf[off + 1] = NumberFormatter.DIGIT_PAIRS[(value << 1) + 1];
+		return off + 2;
+	}
+
+	/* write 2 digits in [00; 99] */
+	private static int appendPair(final char[] buf, final int off, final int value) {
+		buf[off] = (char) NumberFormatter.DIGIT_PAIRS[value << 1];
+		buf[off + 1] = (char) NumberFormatter.DIGIT_PAIRS[(value << 1) + 1];
+		return off + 2;
+	}
+
 	private static StringBuilder toMS(final StringBuilder sb, final double angle) {
 		final double fMinute = DEG_IN_ARCMIN * angle;
 		final int iMinute = (int) Math.floor(fMinute);
@@ -432,28 +1274,16 @@ public final class DMSConverter {
 
 		/* print min field */
 		sb.append(':');
-		if (iMinute < 10) {
-			sb.append('0');
-		}
-		sb.append(iMinute);
+		NumberFormatter.appendInt(sb, iMinute, 2);
 
 		/* print min field */
 		sb.append(':');
-		if (iSecond < 10) {
-			sb.append('0');
-		}
-		sb.append(iSecond);
+		NumberFormatter.appendInt(sb, iSecond, 2);
 
 		if (remainder >= MILLIS_ROUND_THRESHOLD) {
 			final int iMillis = (int) Math.round(1e3d * remainder);
 			sb.append('.');
-			if (iMillis < 100) {
-				sb.append('0');
-			}
-			if (iMillis < 10) {
-				sb.append('0');
-			}
-			sb.append(iMillis);
+			NumberFormatter.appendInt(sb, iMillis, 3);
 		}
 		return sb;
 	}
@@ -0,0 +1,161 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+/**
+ * Small cache of recent date prefixes "yyyy-mm-dd-hh" (packed int key) to their epoch milliseconds (NOT Thread-safe)
+ *
+ * It keeps the date parsing fast path for interleaved or out-of-order timestamp streams (several sources, several
+ * hours or days): entries are checked from the most recent hit, and evicted in round-robin order (no allocation).
+ *
+ * @author Laurent Bourges
+ */
+public final class DateCache {
+
+    /** default capacity (one day of hours) */
+    public final static int DEFAULT_CAPACITY = 24;
+    /** maximum capacity (linear scan) */
+    public final static int MAX_CAPACITY = 1024;
+    /** empty entry key */
+    private final static int EMPTY = -1;
+    /** milliseconds per hour */
+    private final static long MILLIS_PER_HOUR = 3600000L;
+
+    /* members */
+    /** packed keys */
+    private final int[] keys;
+    /** epoch milliseconds of the hours */
+    private final long[] values;
+    /** index of the last hit */
+    private int last = 0;
+    /** index of the next entry to evict */
+    private int next = 0;
+    /** accesses */
+    private long accesses;
+    /** misses */
+    private long misses;
+
+    /**
+     * Create a new cache with the default capacity (24 hours)
+     */
+    public DateCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new cache with the given capacity (number of hours)
+     * @param capacity maximum number of cached hours [1..1024]
+     * @throws IllegalArgumentException if the capacity is out of range
+     */
+    public DateCache(final int capacity) throws IllegalArgumentException {
+        if ((capacity < 1) || (capacity > MAX_CAPACITY)) {
+            throw new IllegalArgumentException("Invalid capacity [1.." + MAX_CAPACITY + "]: " + capacity);
+        }
+        this.keys = new int[capacity];
+        this.values = new long[capacity];
+        clear();
+    }
+
+    /**
+     * @return capacity (number of hours)
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Return the epoch milliseconds of the given hour (GMT), validated and computed on cache misses
+     * @param year year [0..9999]
+     * @param month month [1..12]
+     * @param day day of month [1..31]
+     * @param hour hour [0..23]
+     * @return epoch milliseconds or NumberUtils.NULL_LONG if the date is invalid
+     */
+    public long getHourMillis(final int year, final int month, final int day, final int hour) {
+        if ((year < 0) || (year > 9999) || (month < 1) || (month > 12) || (day < 1) || (day > 31)
+                || (hour < 0) || (hour > 23)) {
+            return NumberUtils.NULL_LONG;
+        }
+        final int key = (((((year << 4) | month) << 5) | day) << 5) | hour;
+        accesses++;
+
+        final int[] k = keys;
+        // most recent hit first:
+        if (k[last] == key) {
+            return values[last];
+        }
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] == key) {
+                last = i;
+                return values[i];
+            }
+        }
+        misses++;
+        if (!DateParser.isValid(year, month, day, hour, 0, 0)) {
+            return NumberUtils.NULL_LONG;
+        }
+        final long millis = DateParser.epochDay(year, month, day) * 86400000L + hour * MILLIS_PER_HOUR;
+
+        // round-robin eviction:
+        final int i = next;
+        next = (i + 1 == k.length) ? 0 : (i + 1);
+        k[i] = key;
+        values[i] = millis;
+        last = i;
+        return millis;
+    }
+
+    /**
+     * Remove all entries and reset statistics
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = EMPTY;
+        }
+        last = next = 0;
+        accesses = misses = 0L;
+    }
+
+    public long getAccesses() {
+        return accesses;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        return (accesses == 0L) ? 0.0 : ((double) (accesses - misses)) / accesses;
+    }
+
+    public double getMissRatio() {
+        return (accesses == 0L) ? 0.0 : ((double) misses) / accesses;
+    }
+
+    @Override
+    public String toString() {
+        return "DateCache[capacity: " + keys.length + " accesses: " + accesses + " misses: " + misses + ']';
+    }
+}
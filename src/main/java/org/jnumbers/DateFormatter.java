@@ -0,0 +1,237 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+/**
+ * Fast Date formatter (GMT), counterpart of DateParser.parseFastDate:
+ * writes epoch milliseconds as "yyyyXmmXddXhhXmmXss.SSS" (X being configurable separators) into a byte[] or char[]
+ * without any allocation.
+ *
+ * Pure arithmetic (proleptic gregorian calendar, years 0000 to 9999) and the formatted "yyyy-mm-dd:hh" prefix is
+ * reused while successive timestamps remain in the same hour.
+ * Note: instances are not thread-safe (cached prefix): use one formatter per writer (or thread)
+ *
+ * @author Laurent Bourges
+ */
+public final class DateFormatter {
+
+    /** maximum length of formatted dates "yyyy-mm-dd:hh:mm:ss.SSS" */
+    public final static int LENGTH = 23;
+    /** length of the cached prefix "yyyy-mm-dd:hh" */
+    private final static int PREFIX_LENGTH = 13;
+    /** milliseconds per hour */
+    private final static long MILLIS_PER_HOUR = 3600000L;
+    /** epoch milliseconds of 0000-01-01:00:00:00.000 */
+    private final static long MIN_MILLIS = -62167219200000L;
+    /** epoch milliseconds of 10000-01-01:00:00:00.000 (exclusive) */
+    private final static long MAX_MILLIS = 253402300800000L;
+    /** days from 0000-03-01 to 1970-01-01 */
+    private final static int DAYS_0000_TO_1970 = 719468;
+    /** days per 400 year cycle */
+    private final static int DAYS_PER_CYCLE = 146097;
+
+    /* members */
+    /** time separator (hh:mm:ss) */
+    private final byte timeSeparator;
+    /** flag to write milliseconds */
+    private final boolean millis;
+    /** formatted prefix "yyyy-mm-dd:hh" */
+    private final byte[] prefix = new byte[PREFIX_LENGTH];
+    /** epoch hour of the formatted prefix */
+    private long prefixHour = Long.MIN_VALUE;
+
+    /**
+     * Create a formatter for "yyyy-mm-dd:hh:mm:ss.SSS" (like DateParser's benchmark format)
+     */
+    public DateFormatter() {
+        this('-', ':', ':', true);
+    }
+
+    /**
+     * Create a formatter for "yyyyXmmXddYhhZmmZss[.SSS]"
+     * @param dateSeparator date separator (X)
+     * @param dateTimeSeparator separator between date and time (Y)
+     * @param timeSeparator time separator (Z)
+     * @param millis true to write milliseconds (.SSS)
+     * @throws IllegalArgumentException if any separator is a digit or not an ASCII character
+     */
+    public DateFormatter(final char dateSeparator, final char dateTimeSeparator, final char timeSeparator,
+                         final boolean millis) throws IllegalArgumentException {
+        prefix[4] = checkSeparator(dateSeparator);
+        prefix[7] = prefix[4];
+        prefix[10] = checkSeparator(dateTimeSeparator);
+        this.timeSeparator = checkSeparator(timeSeparator);
+        this.millis = millis;
+    }
+
+    /**
+     * @return length of formatted dates (23 or 19 without milliseconds)
+     */
+    public int getLength() {
+        return (millis) ? LENGTH : 19;
+    }
+
+    /**
+     * Return the given epoch milliseconds as a date string
+     * @param epochMillis epoch milliseconds (GMT)
+     * @return date string
+     * @throws IllegalArgumentException if the year is out of range [0000; 9999]
+     */
+    public String format(final long epochMillis) throws IllegalArgumentException {
+        final char[] buf = new char[LENGTH];
+        return new String(buf, 0, append(epochMillis, buf, 0));
+    }
+
+    /**
+     * Write the given epoch milliseconds as a date at the given offset (getLength() characters)
+     * @param epochMillis epoch milliseconds (GMT)
+     * @param buf byte buffer
+     * @param off offset
+     * @return offset following the last written byte
+     * @throws IllegalArgumentException if the year is out of range [0000; 9999]
+     */
+    public int append(final long epochMillis, final byte[] buf, final int off) throws IllegalArgumentException {
+        final int time = prepare(epochMillis);
+        System.arraycopy(prefix, 0, buf, off, PREFIX_LENGTH);
+
+        int pos = off + PREFIX_LENGTH;
+        // mm:ss[.SSS] from milliseconds in the hour:
+        final int min = time / 60000;
+        final int sec = (time - min * 60000) / 1000;
+
+        buf[pos] = timeSeparator;
+        buf[pos + 1] = NumberFormatter.DIGIT_PAIRS[min << 1];
+        buf[pos + 2] = NumberFormatter.DIGIT_PAIRS[(min << 1) + 1];
+        buf[pos + 3] = timeSeparator;
+        buf[pos + 4] = NumberFormatter.DIGIT_PAIRS[sec << 1];
+        buf[pos + 5] = NumberFormatter.DIGIT_PAIRS[(sec << 1) + 1];
+        pos += 6;
+        if (millis) {
+            final int ms = time - min * 60000 - sec * 1000;
+            final int low = ms % 100;
+            buf[pos] = '.';
+            buf[pos + 1] = (byte) ('0' + ms / 100);
+            buf[pos + 2] = NumberFormatter.DIGIT_PAIRS[low << 1];
+            buf[pos + 3] = NumberFormatter.DIGIT_PAIRS[(low << 1) + 1];
+            pos += 4;
+        }
+        return pos;
+    }
+
+    /**
+     * Write the given epoch milliseconds as a date at the given offset (getLength() characters)
+     * @param epochMillis epoch milliseconds (GMT)
+     * @param buf char buffer
+     * @param off offset
+     * @return offset following the last written character
+     * @throws IllegalArgumentException if the year is out of range [0000; 9999]
+     */
+    public int append(final long epochMillis, final char[] buf, final int off) throws IllegalArgumentException {
+        final int time = prepare(epochMillis);
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            buf[off + i] = (char) prefix[i];
+        }
+
+        int pos = off + PREFIX_LENGTH;
+        // mm:ss[.SSS] from milliseconds in the hour:
+        final int min = time / 60000;
+        final int sec = (time - min * 60000) / 1000;
+
+        buf[pos] = (char) timeSeparator;
+        buf[pos + 1] = (char) NumberFormatter.DIGIT_PAIRS[min << 1];
+        buf[pos + 2] = (char) NumberFormatter.DIGIT_PAIRS[(min << 1) + 1];
+        buf[pos + 3] = (char) timeSeparator;
+        buf[pos + 4] = (char) NumberFormatter.DIGIT_PAIRS[sec << 1];
+        buf[pos + 5] = (char) NumberFormatter.DIGIT_PAIRS[(sec << 1) + 1];
+        pos += 6;
+        if (millis) {
+            final int ms = time - min * 60000 - sec * 1000;
+            final int low = ms % 100;
+            buf[pos] = '.';
+            buf[pos + 1] = (char) ('0' + ms / 100);
+            buf[pos + 2] = (char) NumberFormatter.DIGIT_PAIRS[low << 1];
+            buf[pos + 3] = (char) NumberFormatter.DIGIT_PAIRS[(low << 1) + 1];
+            pos += 4;
+        }
+        return pos;
+    }
+
+    /* Update the prefix if the hour changed and return the milliseconds in the hour */
+    private int prepare(final long epochMillis) throws IllegalArgumentException {
+        if ((epochMillis < MIN_MILLIS) || (epochMillis >= MAX_MILLIS)) {
+            throw new IllegalArgumentException("Year out of range [0000; 9999]: " + epochMillis);
+        }
+        long hour = epochMillis / MILLIS_PER_HOUR;
+        if (epochMillis < hour * MILLIS_PER_HOUR) {
+            // floor division:
+            hour--;
+        }
+        // Same hour (reuse the formatted prefix) ?
+        if (hour != prefixHour) {
+            updatePrefix(hour);
+        }
+        return (int) (epochMillis - hour * MILLIS_PER_HOUR);
+    }
+
+    /* Format "yyyy-mm-dd:hh" from epoch hours (civil from days) */
+    private void updatePrefix(final long epochHour) {
+        int days = (int) (epochHour / 24L);
+        int hour = (int) (epochHour - days * 24L);
+        if (hour < 0) {
+            days--;
+            hour += 24;
+        }
+        // days since 0000-03-01 (year starting in march to have the leap day at the end):
+        final int z = days + DAYS_0000_TO_1970;
+        final int era = ((z >= 0) ? z : (z - DAYS_PER_CYCLE + 1)) / DAYS_PER_CYCLE;
+        final int doe = z - era * DAYS_PER_CYCLE;
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final int mp = (5 * doy + 2) / 153;
+        final int day = doy - (153 * mp + 2) / 5 + 1;
+        final int month = (mp < 10) ? (mp + 3) : (mp - 9);
+        final int year = yoe + era * 400 + ((month <= 2) ? 1 : 0);
+
+        final byte[] p = prefix;
+        writePair(p, 0, year / 100);
+        writePair(p, 2, year % 100);
+        writePair(p, 5, month);
+        writePair(p, 8, day);
+        writePair(p, 11, hour);
+        prefixHour = epochHour;
+    }
+
+    private static void writePair(final byte[] buf, final int pos, final int value) {
+        buf[pos] = NumberFormatter.DIGIT_PAIRS[value << 1];
+        buf[pos + 1] = NumberFormatter.DIGIT_PAIRS[(value << 1) + 1];
+    }
+
+    private static byte checkSeparator(final char ch) throws IllegalArgumentException {
+        if ((ch > 127) || ((ch >= '0') && (ch <= '9'))) {
+            throw new IllegalArgumentException("Invalid separator (digit or not ASCII): " + ch);
+        }
+        return (byte) ch;
+    }
+}
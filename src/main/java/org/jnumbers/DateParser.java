@@ -24,76 +24,470 @@
  */
 package org.jnumbers;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
-import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
- * Fast Date parser
+ * Fast Date parser (GMT)
+ *
+ * Stateless (thread-safe): dates are converted by pure integer arithmetic (proleptic gregorian calendar, like
+ * java.time) and validated (month, day of month, hour, minute, second ranges).
+ * parseISODate / parseISODateNanos read ISO-8601 dates with optional fraction (up to nanoseconds) and zone offset
+ * without any allocation (instead of OffsetDateTime.parse).
+ * parse*DateNanos / parse*DateSeconds scale the fraction by its digit count (microseconds, nanoseconds) unlike
+ * parseFastDate that reads the fraction as an integer of milliseconds (like SimpleDateFormat "SSS").
+ *
+ * DateParser instances own their cache of recent hours (DateCache): they are NOT thread-safe but can be passed
+ * explicitly or pooled (memory scales with concurrency, not with the number of threads like ThreadLocal state).
  *
  * @author Laurent Bourges
  */
 public final class DateParser {
 
-    /** Per-thread GregorianCalendar instance */
-    private static final ThreadLocal<GregorianCalendar> calStateThreadLocal = new ThreadLocal<GregorianCalendar>() {
-        @Override
-        protected GregorianCalendar initialValue() {
-            return new GregorianCalendar(TimeZone.getTimeZone("GMT"));
-        }
-    };
+    /** default date format */
+    private final static String FORMAT = "yyyy/mm/dd-hh:mm:ss.SSS";
+    /** ISO-8601 date format */
+    private final static String ISO_FORMAT = "yyyy-mm-ddThh:mm[:ss[.S{1,9}]][Z|+hh[[:]mm]|-hh[[:]mm]]";
+    /** minimum number of values per parallel column task */
+    public final static int PARALLEL_THRESHOLD = 1 << 14;
+    /** length of the date prefix "yyyyXmmXddXhh" */
+    private final static int PREFIX_LENGTH = 13;
+    /** parseISO unit: epoch milliseconds */
+    private final static int ISO_MILLIS = 0;
+    /** parseISO unit: epoch nanoseconds */
+    private final static int ISO_NANOS = 1;
+    /** parseISO unit: epoch seconds (nanoseconds in the ParseResult) */
+    private final static int ISO_SECONDS = 2;
+    /** seconds per day */
+    private final static long SECONDS_PER_DAY = 86400L;
+    /** maximum zone offset in seconds (18 hours like java.time) */
+    private final static int MAX_OFFSET_SECONDS = 18 * 3600;
+    /** smallest epoch second in epoch nanoseconds range */
+    private final static long MIN_NANOS_SECOND = -9223372037L;
+    /** largest epoch second in epoch nanoseconds range */
+    private final static long MAX_NANOS_SECOND = 9223372036L;
+    /** days from 0000-03-01 to 1970-01-01 */
+    private final static int DAYS_0000_TO_1970 = 719468;
+    /** days per 400 year cycle */
+    private final static int DAYS_PER_CYCLE = 146097;
+
+    /* members */
+    /** cache of recent hours */
+    private final DateCache cache;
+
+    /**
+     * Create a new parser with a cache of 24 hours
+     */
+    public DateParser() {
+        this(DateCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new parser with a cache of the given number of hours
+     * @param cacheCapacity maximum number of cached hours [1..1024]
+     * @throws IllegalArgumentException if the capacity is out of range
+     */
+    public DateParser(final int cacheCapacity) throws IllegalArgumentException {
+        this.cache = new DateCache(cacheCapacity);
+    }
+
+    /**
+     * @return cache of recent hours (statistics)
+     */
+    public DateCache getCache() {
+        return cache;
+    }
 
-    public static long parseFastDate_OLD(final CharSequence date) throws NumberFormatException {
+    /**
+     * Clear the cache of recent hours (before reusing this parser for another stream)
+     */
+    public void reset() {
+        cache.clear();
+    }
+
+    /**
+     * Parse a date "yyyyXmmXddXhhXmmXss[.SSS]" like parseFastDate(date) using the cache of this parser
+     * @param date date to parse
+     * @return epoch milliseconds
+     * @throws NumberFormatException if the date is invalid
+     */
+    public long parse(final CharSequence date) throws NumberFormatException {
+        return parseFastDate(date, cache);
+    }
+
+    /**
+     * Parse a date "yyyyXmmXddXhhXmmXss[.S{1,9}]" like parseFastDateNanos(date) using the cache of this parser
+     * @param date date to parse
+     * @return epoch nanoseconds
+     * @throws NumberFormatException if the date is invalid or out of the epoch nanoseconds range
+     */
+    public long parseNanos(final CharSequence date) throws NumberFormatException {
+        return toEpochNanos(FORMAT, date, parseFastEpochSecond(date, cache), parseFastFraction(date));
+    }
+
+    public static long parseFastDate(final CharSequence date) throws NumberFormatException {
         // Fast DATE format "yyyy/mm/dd-hh:mm:ss.SSS"
         // efficient formatter for “yyyyXmmXddXhhXmmXss.sss” where X is any separator character (except a digit).
+        final long seconds = parseFastEpochSecond(date);
 
+        // optional milliseconds (integer like SimpleDateFormat "SSS"):
         final int length = date.length();
+        final int millis;
+        if (length > 20) {
+            millis = NumberParser.getPositiveIntegerUnsafe(date, 20, length);
+        } else {
+            millis = 0;
+        }
+        if (millis < 0) {
+            throwFormatException(date);
+        }
+        return seconds * 1000L + millis;
+    }
 
-        if (length < 19) {
+    /**
+     * Parse a date "yyyyXmmXddXhhXmmXss[.SSS]" like parseFastDate(date) using the given cache of recent hours
+     * (interleaved or out-of-order timestamp streams)
+     * @param date date to parse
+     * @param cache cache of recent hours
+     * @return epoch milliseconds
+     * @throws NumberFormatException if the date is invalid
+     */
+    public static long parseFastDate(final CharSequence date, final DateCache cache) throws NumberFormatException {
+        final long seconds = parseFastEpochSecond(date, cache);
+
+        // optional milliseconds (integer like SimpleDateFormat "SSS"):
+        final int length = date.length();
+        final int millis;
+        if (length > 20) {
+            millis = NumberParser.getPositiveIntegerUnsafe(date, 20, length);
+        } else {
+            millis = 0;
+        }
+        if (millis < 0) {
             throwFormatException(date);
         }
+        return seconds * 1000L + millis;
+    }
 
-        // yyyyX
-        final int year = NumberParser.getInteger(date, 0, 4);
+    /* Parse "yyyyXmmXddXhhXmmXss" (fixed offsets) into epoch seconds using the given cache of recent hours */
+    private static long parseFastEpochSecond(final CharSequence date,
+                                             final DateCache cache) throws NumberFormatException {
+        if (date.length() < 19) {
+            throwFormatException(date);
+        }
 
-        // XmmX
-        final int month = NumberParser.getInteger(date, 5, 7);
+        // yyyyXmmXddXhh (cached):
+        final long hourMillis = cache.getHourMillis(NumberParser.getPositiveIntegerUnsafe(date, 0, 4),
+                NumberParser.getPositiveIntegerUnsafe(date, 5, 7),
+                NumberParser.getPositiveIntegerUnsafe(date, 8, 10),
+                NumberParser.getPositiveIntegerUnsafe(date, 11, 13));
 
-        // XddX
-        final int day = NumberParser.getInteger(date, 8, 10);
+        // XmmXss
+        final int min = NumberParser.getPositiveIntegerUnsafe(date, 14, 16);
+        final int sec = NumberParser.getPositiveIntegerUnsafe(date, 17, 19);
 
-        // XhhX
-        final int hour = NumberParser.getInteger(date, 11, 13);
+        if ((hourMillis == NumberUtils.NULL_LONG) || (min > 59) || (sec > 59)) {
+            throwFormatException(date);
+        }
+        return hourMillis / 1000L + min * 60 + sec;
+    }
 
-        // XmmX
-        final int min = NumberParser.getInteger(date, 14, 16);
+    /**
+     * Parse the column of dates "yyyyXmmXddXhhXmmXss[.SSS]" into epoch milliseconds with the same results as
+     * parseFastDate (any separator, fraction as an integer number of milliseconds) for each value:
+     * invalid values are set to NumberUtils.NULL_LONG (no exception).
+     * Runs of values sharing the same "yyyyXmmXddXhh" prefix compute the hour once.
+     * @param dates dates to parse
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param out epoch milliseconds (same indices)
+     * @return number of invalid values
+     */
+    public static int parseColumn(final CharSequence[] dates, final int from, final int to, final long[] out) {
+        return parseColumn(dates, from, to, out, null);
+    }
 
-        // Xss.
-        final int sec = NumberParser.getInteger(date, 17, 19);
+    /**
+     * Parse the column of dates "yyyyXmmXddXhhXmmXss[.SSS]" (like parseFastDate) into epoch milliseconds
+     * in parallel (chunks of PARALLEL_THRESHOLD values at least): invalid values are set to NumberUtils.NULL_LONG
+     * @param dates dates to parse
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param out epoch milliseconds (same indices)
+     * @param pool fork-join pool or null to parse in the current thread
+     * @return number of invalid values
+     */
+    public static int parseColumn(final CharSequence[] dates, final int from, final int to, final long[] out,
+                                  final ForkJoinPool pool) {
+        if (from >= to) {
+            return 0;
+        }
+        if ((pool == null) || ((to - from) < 2 * PARALLEL_THRESHOLD)) {
+            return parseRows(dates, from, to, out);
+        }
+        return pool.invoke(new ColumnTask(dates, null, null, null, from, to, out));
+    }
 
-        // optional milliseconds:
-        final int millis;
-        if (length > 20) {
-            millis = NumberParser.getInteger(date, 20, length);
-        } else {
-            millis = 0;
+    /**
+     * Parse the column of ASCII dates "yyyyXmmXddXhhXmmXss[.SSS]" (like parseFastDate) into epoch milliseconds:
+     * invalid values are set to NumberUtils.NULL_LONG (no exception)
+     * @param bytes ASCII buffer
+     * @param offsets start offset of each date
+     * @param lengths length of each date
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param out epoch milliseconds (same indices)
+     * @return number of invalid values
+     */
+    public static int parseColumn(final byte[] bytes, final int[] offsets, final int[] lengths,
+                                  final int from, final int to, final long[] out) {
+        return parseColumn(bytes, offsets, lengths, from, to, out, null);
+    }
+
+    /**
+     * Parse the column of ASCII dates "yyyyXmmXddXhhXmmXss[.SSS]" (like parseFastDate) into epoch milliseconds
+     * in parallel (chunks of PARALLEL_THRESHOLD values at least): invalid values are set to NumberUtils.NULL_LONG
+     * @param bytes ASCII buffer
+     * @param offsets start offset of each date
+     * @param lengths length of each date
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param out epoch milliseconds (same indices)
+     * @param pool fork-join pool or null to parse in the current thread
+     * @return number of invalid values
+     */
+    public static int parseColumn(final byte[] bytes, final int[] offsets, final int[] lengths,
+                                  final int from, final int to, final long[] out, final ForkJoinPool pool) {
+        if (from >= to) {
+            return 0;
         }
+        if ((pool == null) || ((to - from) < 2 * PARALLEL_THRESHOLD)) {
+            return parseRows(bytes, offsets, lengths, from, to, out);
+        }
+        return pool.invoke(new ColumnTask(null, bytes, offsets, lengths, from, to, out));
+    }
 
-        // Check valid date ?
-        final GregorianCalendar cal = calStateThreadLocal.get();
-        cal.set(year, month - 1, day, hour, min, sec);
-        cal.set(Calendar.MILLISECOND, millis);
+    private static int parseRows(final CharSequence[] dates, final int from, final int to, final long[] out) {
+        int invalid = 0;
+        // previous prefix:
+        CharSequence prev = null;
+        long hourMillis = NumberUtils.NULL_LONG;
+
+        for (int i = from; i < to; i++) {
+            final CharSequence date = dates[i];
+            final int length;
+            if ((date == null) || ((length = date.length()) < 19)) {
+                out[i] = NumberUtils.NULL_LONG;
+                invalid++;
+                continue;
+            }
+            // Same prefix (hour digits first) ?
+            if ((prev == null) || !samePrefix(date, prev)) {
+                hourMillis = hourMillis(get4(date, 0), get2(date, 5), get2(date, 8), get2(date, 11));
+                prev = date;
+            }
+            final int min = get2(date, 14);
+            final int sec = get2(date, 17);
+            // optional milliseconds (integer like parseFastDate):
+            final int millis = (length > 20) ? getMillis(date, 20, length) : 0;
+
+            if ((hourMillis == NumberUtils.NULL_LONG)
+                    || (min < 0) || (min > 59) || (sec < 0) || (sec > 59) || (millis < 0)) {
+                out[i] = NumberUtils.NULL_LONG;
+                invalid++;
+            } else {
+                out[i] = hourMillis + (min * 60 + sec) * 1000L + millis;
+            }
+        }
+        return invalid;
+    }
 
-        return cal.getTimeInMillis();
+    private static int parseRows(final byte[] bytes, final int[] offsets, final int[] lengths,
+                                 final int from, final int to, final long[] out) {
+        int invalid = 0;
+        // previous prefix:
+        int prev = -1;
+        long hourMillis = NumberUtils.NULL_LONG;
+
+        for (int i = from; i < to; i++) {
+            final int off = offsets[i];
+            final int length = lengths[i];
+            if (length < 19) {
+                out[i] = NumberUtils.NULL_LONG;
+                invalid++;
+                continue;
+            }
+            // Same prefix (hour digits first) ?
+            if ((prev == -1) || !samePrefix(bytes, off, prev)) {
+                hourMillis = hourMillis(get4(bytes, off), get2(bytes, off + 5), get2(bytes, off + 8),
+                        get2(bytes, off + 11));
+                prev = off;
+            }
+            final int min = get2(bytes, off + 14);
+            final int sec = get2(bytes, off + 17);
+            // optional milliseconds (integer like parseFastDate):
+            final int millis = (length > 20) ? getMillis(bytes, off + 20, off + length) : 0;
+
+            if ((hourMillis == NumberUtils.NULL_LONG)
+                    || (min < 0) || (min > 59) || (sec < 0) || (sec > 59) || (millis < 0)) {
+                out[i] = NumberUtils.NULL_LONG;
+                invalid++;
+            } else {
+                out[i] = hourMillis + (min * 60 + sec) * 1000L + millis;
+            }
+        }
+        return invalid;
     }
 
-    public static long parseFastDate(final CharSequence date) throws NumberFormatException {
-        // Fast DATE format "yyyy/mm/dd-hh:mm:ss.SSS"
-        // efficient formatter for “yyyyXmmXddXhhXmmXss.sss” where X is any separator character (except a digit).
+    /* Return the epoch milliseconds of the given hour or NumberUtils.NULL_LONG if invalid (negative fields) */
+    private static long hourMillis(final int year, final int month, final int day, final int hour) {
+        if ((year < 0) || !isValid(year, month, day, hour, 0, 0)) {
+            return NumberUtils.NULL_LONG;
+        }
+        return epochSecond(year, month, day, hour, 0, 0) * 1000L;
+    }
 
-        final int length = date.length();
+    private static boolean samePrefix(final CharSequence date, final CharSequence prev) {
+        for (int i = PREFIX_LENGTH - 1; i >= 0; i--) {
+            if (date.charAt(i) != prev.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        if (length < 19) {
+    private static boolean samePrefix(final byte[] bytes, final int off, final int prev) {
+        for (int i = PREFIX_LENGTH - 1; i >= 0; i--) {
+            if (bytes[off + i] != bytes[prev + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Return the 4 digits value or a negative value if not digits */
+    private static int get4(final CharSequence csq, final int off) {
+        final int high = get2(csq, off);
+        final int low = get2(csq, off + 2);
+        return ((high | low) < 0) ? -1 : (high * 100 + low);
+    }
+
+    /* Return the 4 digits value or a negative value if not digits */
+    private static int get4(final byte[] bytes, final int off) {
+        final int high = get2(bytes, off);
+        final int low = get2(bytes, off + 2);
+        return ((high | low) < 0) ? -1 : (high * 100 + low);
+    }
+
+    /* Return the 2 digits value or a negative value if not digits */
+    private static int get2(final CharSequence csq, final int off) {
+        final int d1 = csq.charAt(off) - '0';
+        final int d2 = csq.charAt(off + 1) - '0';
+        return ((d1 | d2 | (9 - d1) | (9 - d2)) < 0) ? -1000 : (d1 * 10 + d2);
+    }
+
+    /* Return the 2 digits value or a negative value if not digits */
+    private static int get2(final byte[] bytes, final int off) {
+        final int d1 = bytes[off] - '0';
+        final int d2 = bytes[off + 1] - '0';
+        return ((d1 | d2 | (9 - d1) | (9 - d2)) < 0) ? -1000 : (d1 * 10 + d2);
+    }
+
+    /* Return the milliseconds (digits as an integer like parseFastDate) or -1 if not digits */
+    private static int getMillis(final CharSequence csq, final int off, final int end) {
+        int value = 0;
+        for (int i = off; i < end; i++) {
+            final int d = csq.charAt(i) - '0';
+            if ((d < 0) || (d > 9)) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /* Return the milliseconds (digits as an integer like parseFastDate) or -1 if not digits */
+    private static int getMillis(final byte[] bytes, final int off, final int end) {
+        int value = 0;
+        for (int i = off; i < end; i++) {
+            final int d = bytes[i] - '0';
+            if ((d < 0) || (d > 9)) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /** Fork-join task parsing a range of a date column (CharSequence[] or byte[]) */
+    private static final class ColumnTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        /* members */
+        private final CharSequence[] dates;
+        private final byte[] bytes;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final int from;
+        private final int to;
+        private final long[] out;
+
+        ColumnTask(final CharSequence[] dates, final byte[] bytes, final int[] offsets, final int[] lengths,
+                   final int from, final int to, final long[] out) {
+            this.dates = dates;
+            this.bytes = bytes;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.from = from;
+            this.to = to;
+            this.out = out;
+        }
+
+        @Override
+        protected Integer compute() {
+            if ((to - from) < 2 * PARALLEL_THRESHOLD) {
+                return (dates != null) ? parseRows(dates, from, to, out)
+                        : parseRows(bytes, offsets, lengths, from, to, out);
+            }
+            final int mid = (from + to) >>> 1;
+            final ColumnTask left = new ColumnTask(dates, bytes, offsets, lengths, from, mid, out);
+            left.fork();
+            final int right = new ColumnTask(dates, bytes, offsets, lengths, mid, to, out).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Parse a date "yyyyXmmXddXhhXmmXss[.S{1,9}]" into epoch nanoseconds (1677-09-21 to 2262-04-11):
+     * the fraction is scaled by its digit count (".1" = 100 ms, ".123456789" = 123456789 ns)
+     * @param date date to parse
+     * @return epoch nanoseconds
+     * @throws NumberFormatException if the date is invalid or out of the epoch nanoseconds range
+     */
+    public static long parseFastDateNanos(final CharSequence date) throws NumberFormatException {
+        return toEpochNanos(FORMAT, date, parseFastEpochSecond(date), parseFastFraction(date));
+    }
+
+    /**
+     * Parse a date "yyyyXmmXddXhhXmmXss[.S{1,9}]" into epoch seconds and nanoseconds (any year):
+     * the fraction is scaled by its digit count (".1" = 100 ms, ".123456789" = 123456789 ns)
+     * @param date date to parse
+     * @param result result giving the nanoseconds [0..999999999] (getNanos)
+     * @return epoch seconds
+     * @throws NumberFormatException if the date is invalid
+     */
+    public static long parseFastDateSeconds(final CharSequence date,
+                                            final ParseResult result) throws NumberFormatException {
+        final long seconds = parseFastEpochSecond(date);
+        result.nanos = parseFastFraction(date);
+        result.setOk(date.length());
+        return seconds;
+    }
+
+    /* Parse "yyyyXmmXddXhhXmmXss" (fixed offsets) into epoch seconds */
+    private static long parseFastEpochSecond(final CharSequence date) throws NumberFormatException {
+        if (date.length() < 19) {
             throwFormatException(date);
         }
 
@@ -101,7 +495,7 @@ public final class DateParser {
         final int year = NumberParser.getPositiveIntegerUnsafe(date, 0, 4);
 
         // XmmX
-        final int month = NumberParser.getPositiveIntegerUnsafe(date, 5, 7) - 1; // for calendar [0 = january]
+        final int month = NumberParser.getPositiveIntegerUnsafe(date, 5, 7);
 
         // XddX
         final int day = NumberParser.getPositiveIntegerUnsafe(date, 8, 10);
@@ -115,51 +509,24 @@ public final class DateParser {
         // Xss.
         final int sec = NumberParser.getPositiveIntegerUnsafe(date, 17, 19);
 
-        // optional milliseconds:
-        final int millis;
-        if (length > 20) {
-            millis = NumberParser.getPositiveIntegerUnsafe(date, 20, length);
-        } else {
-            millis = 0;
-        }
-
-        final GregorianCalendar cal = calStateThreadLocal.get();
-
-        // Same date or same date+hour (depends on required precision) ?
-        if ((cal.get(Calendar.YEAR) == year)
-                && (cal.get(Calendar.MONTH) == month)
-                && (cal.get(Calendar.DATE) == day)
-                && (cal.get(Calendar.HOUR_OF_DAY) == hour)) {
-
-            // same hour:
-            return cal.getTimeInMillis() + ((min * 60 + sec) * 1000) + millis;
-        }
+        return toEpochSecond(FORMAT, date, year, month, day, hour, min, sec);
+    }
 
-        // Check previous date in case of duplicates ?
-        if (cal.get(Calendar.YEAR) != year) {
-            cal.set(Calendar.YEAR, year);
-        }
-        if (cal.get(Calendar.MONTH) != month) {
-            cal.set(Calendar.MONTH, month);
-        }
-        if (cal.get(Calendar.DATE) != day) {
-            cal.set(Calendar.DATE, day);
-        }
-        if (cal.get(Calendar.HOUR_OF_DAY) != hour) {
-            cal.set(Calendar.HOUR_OF_DAY, hour);
-        }
-        if (cal.get(Calendar.MINUTE) != 0) {
-            cal.set(Calendar.MINUTE, 0);
-        }
-        if (cal.get(Calendar.SECOND) != 0) {
-            cal.set(Calendar.SECOND, 0);
+    /* Parse the optional fraction ".S{1,9}" into nanoseconds */
+    private static int parseFastFraction(final CharSequence date) throws NumberFormatException {
+        final int length = date.length();
+        if (length <= 20) {
+            if (length == 20) {
+                // missing digits:
+                throwFormatException(date);
+            }
+            return 0;
         }
-        if (cal.get(Calendar.MILLISECOND) != 0) {
-            cal.set(Calendar.MILLISECOND, 0);
+        final int digits = length - 20;
+        if (digits > 9) {
+            throwFormatException(date);
         }
-        // cal is good hour:
-
-        return cal.getTimeInMillis() + ((min * 60 + sec) * 1000) + millis;
+        return NumberParser.getPositiveIntegerUnsafe(date, 20, length) * (int) NumberParser.LONG_POW10[9 - digits];
     }
 
     public static long parseFullDate(final CharSequence date) throws NumberFormatException {
@@ -172,78 +539,310 @@ public final class DateParser {
             throwFormatException(date);
         }
 
+        // single pass: find the end of each field then skip its separator
         // yyyyX
-        int p1 = 0;
-        int p2 = NumberParser.indexOfNotDigit(date, p1, length);
+        int pos = 0;
+        int next = fieldEnd(date, pos, length);
+        final int year = fieldValue(date, pos, next);
 
-        if (p2 == -1) {
-            throwFormatException(date);
-        }
-        final int year = NumberParser.getInteger(date, p1, p2);
-        p1 = ++p2;
+        // XmmX
+        pos = next + 1;
+        next = fieldEnd(date, pos, length);
+        final int month = fieldValue(date, pos, next);
+
+        // XddX
+        pos = next + 1;
+        next = fieldEnd(date, pos, length);
+        final int day = fieldValue(date, pos, next);
+
+        // XhhX
+        pos = next + 1;
+        next = fieldEnd(date, pos, length);
+        final int hour = fieldValue(date, pos, next);
 
         // XmmX
-        p2 = NumberParser.indexOfNotDigit(date, p1, length);
-        if (p2 == -1) {
-            throwFormatException(date);
+        pos = next + 1;
+        next = fieldEnd(date, pos, length);
+        final int min = fieldValue(date, pos, next);
+
+        // Xss. (only seconds: Xss)
+        pos = next + 1;
+        next = fieldEnd(date, pos, length);
+        final int sec = fieldValue(date, pos, next);
+
+        // optional milliseconds (ignore any other char at end):
+        final int millis;
+        if (next < length) {
+            pos = next + 1;
+            next = fieldEnd(date, pos, length);
+            millis = fieldValue(date, pos, next);
+        } else {
+            millis = 0;
         }
-        final int month = NumberParser.getInteger(date, p1, p2);
-        p1 = ++p2;
 
-        // XddX
-        p2 = NumberParser.indexOfNotDigit(date, p1, length);
-        if (p2 == -1) {
-            throwFormatException(date);
+        return toEpochMillis(date, year, month, day, hour, min, sec, millis);
+    }
+
+    /**
+     * Parse an ISO-8601 date "yyyy-mm-ddThh:mm[:ss[.S{1,9}]][Z|+hh:mm|-hhmm|+hh]" (GMT if no offset)
+     * into epoch milliseconds (fraction truncated like Instant.toEpochMilli)
+     * @param date date to parse
+     * @return epoch milliseconds
+     * @throws NumberFormatException if the date is invalid
+     */
+    public static long parseISODate(final CharSequence date) throws NumberFormatException {
+        return parseISO(date, ISO_MILLIS, null);
+    }
+
+    /**
+     * Parse an ISO-8601 date "yyyy-mm-ddThh:mm[:ss[.S{1,9}]][Z|+hh:mm|-hhmm|+hh]" (GMT if no offset)
+     * into epoch nanoseconds (1677-09-21 to 2262-04-11)
+     * @param date date to parse
+     * @return epoch nanoseconds
+     * @throws NumberFormatException if the date is invalid or out of the epoch nanoseconds range
+     */
+    public static long parseISODateNanos(final CharSequence date) throws NumberFormatException {
+        return parseISO(date, ISO_NANOS, null);
+    }
+
+    /**
+     * Parse an ISO-8601 date "yyyy-mm-ddThh:mm[:ss[.S{1,9}]][Z|+hh:mm|-hhmm|+hh]" (GMT if no offset)
+     * into epoch seconds and nanoseconds (any year)
+     * @param date date to parse
+     * @param result result giving the nanoseconds [0..999999999] (getNanos)
+     * @return epoch seconds
+     * @throws NumberFormatException if the date is invalid
+     */
+    public static long parseISODateSeconds(final CharSequence date,
+                                           final ParseResult result) throws NumberFormatException {
+        return parseISO(date, ISO_SECONDS, result);
+    }
+
+    private static long parseISO(final CharSequence date, final int unit,
+                                 final ParseResult result) throws NumberFormatException {
+        // ISO-8601 format "yyyy-mm-ddThh:mm:ss.SSS+hh:mm" (T, t or space between date and time)
+        final int length = date.length();
+
+        if ((length < 16) || (date.charAt(4) != '-') || (date.charAt(7) != '-') || (date.charAt(13) != ':')) {
+            throwFormatException(ISO_FORMAT, date);
+        }
+        final char sep = date.charAt(10);
+        if ((sep != 'T') && (sep != 't') && (sep != ' ')) {
+            throwFormatException(ISO_FORMAT, date);
         }
-        final int day = NumberParser.getInteger(date, p1, p2);
-        p1 = ++p2;
 
-        // XhhX
-        p2 = NumberParser.indexOfNotDigit(date, p1, length);
-        if (p2 == -1) {
-            throwFormatException(date);
+        // yyyy-mm-dd
+        final int year = NumberParser.getPositiveIntegerUnsafe(date, 0, 4);
+        final int month = NumberParser.getPositiveIntegerUnsafe(date, 5, 7);
+        final int day = NumberParser.getPositiveIntegerUnsafe(date, 8, 10);
+
+        // Thh:mm
+        final int hour = NumberParser.getPositiveIntegerUnsafe(date, 11, 13);
+        final int min = NumberParser.getPositiveIntegerUnsafe(date, 14, 16);
+
+        int off = 16;
+
+        // optional :ss
+        int sec = 0;
+        // fraction in nanoseconds:
+        int fraction = 0;
+        if ((off < length) && (date.charAt(off) == ':')) {
+            if (off + 3 > length) {
+                throwFormatException(ISO_FORMAT, date);
+            }
+            sec = NumberParser.getPositiveIntegerUnsafe(date, off + 1, off + 3);
+            off += 3;
+
+            // optional .S{1,9}
+            if ((off < length) && ((date.charAt(off) == '.') || (date.charAt(off) == ','))) {
+                final int start = ++off;
+                while ((off < length) && (date.charAt(off) >= '0') && (date.charAt(off) <= '9')) {
+                    off++;
+                }
+                final int digits = off - start;
+                if ((digits == 0) || (digits > 9)) {
+                    throwFormatException(ISO_FORMAT, date);
+                }
+                fraction = NumberParser.getPositiveIntegerUnsafe(date, start, off)
+                        * (int) NumberParser.LONG_POW10[9 - digits];
+            }
         }
-        final int hour = NumberParser.getInteger(date, p1, p2);
-        p1 = ++p2;
 
-        // XmmX
-        p2 = NumberParser.indexOfNotDigit(date, p1, length);
-        if (p2 == -1) {
+        // optional zone offset:
+        int offset = 0;
+        if (off < length) {
+            final char ch = date.charAt(off);
+            if ((ch == 'Z') || (ch == 'z')) {
+                off++;
+            } else if ((ch == '+') || (ch == '-')) {
+                if (off + 3 > length) {
+                    throwFormatException(ISO_FORMAT, date);
+                }
+                final int offsetHour = NumberParser.getPositiveIntegerUnsafe(date, off + 1, off + 3);
+                off += 3;
+
+                int offsetMin = 0;
+                if (off < length) {
+                    if (date.charAt(off) == ':') {
+                        off++;
+                    }
+                    if (off + 2 != length) {
+                        throwFormatException(ISO_FORMAT, date);
+                    }
+                    offsetMin = NumberParser.getPositiveIntegerUnsafe(date, off, off + 2);
+                    off += 2;
+                }
+                offset = offsetHour * 3600 + offsetMin * 60;
+                if ((offsetMin > 59) || (offset > MAX_OFFSET_SECONDS)) {
+                    throwFormatException(ISO_FORMAT, date);
+                }
+                if (ch == '-') {
+                    offset = -offset;
+                }
+            }
+            if (off != length) {
+                throwFormatException(ISO_FORMAT, date);
+            }
+        }
+
+        final long seconds = toEpochSecond(ISO_FORMAT, date, year, month, day, hour, min, sec) - offset;
+
+        switch (unit) {
+            case ISO_NANOS:
+                return toEpochNanos(ISO_FORMAT, date, seconds, fraction);
+            case ISO_SECONDS:
+                result.nanos = fraction;
+                result.setOk(length);
+                return seconds;
+            default:
+                return seconds * 1000L + fraction / 1000000;
+        }
+    }
+
+    /* Validate fields and convert to epoch milliseconds (GMT) */
+    private static long toEpochMillis(final CharSequence date, final int year, final int month, final int day,
+                                      final int hour, final int min, final int sec,
+                                      final int millis) throws NumberFormatException {
+        if (millis < 0) {
             throwFormatException(date);
         }
-        final int min = NumberParser.getInteger(date, p1, p2);
-        p1 = ++p2;
+        return toEpochSecond(FORMAT, date, year, month, day, hour, min, sec) * 1000L + millis;
+    }
 
-        // Xss.
-        p2 = NumberParser.indexOfNotDigit(date, p1, length);
-        if (p2 == -1) {
-            // only seconds: Xss"
-            p2 = length;
+    /* Validate fields and convert to epoch seconds (GMT) */
+    private static long toEpochSecond(final String format, final CharSequence date,
+                                      final int year, final int month, final int day,
+                                      final int hour, final int min, final int sec) throws NumberFormatException {
+        if (!isValid(year, month, day, hour, min, sec)) {
+            throwFormatException(format, date);
+        }
+        return epochSecond(year, month, day, hour, min, sec);
+    }
+
+    /* Convert epoch seconds and nanoseconds [0..999999999] to epoch nanoseconds (overflow checked) */
+    private static long toEpochNanos(final String format, final CharSequence date,
+                                     final long seconds, final int nanos) throws NumberFormatException {
+        if (!isNanosRange(seconds, nanos)) {
+            throw new NumberFormatException("Date out of the epoch nanoseconds range: " + date);
         }
-        final int sec = NumberParser.getInteger(date, p1, p2);
-        p1 = ++p2;
+        return seconds * 1000000000L + nanos;
+    }
+
+    /**
+     * @return true if the given fields are a valid date and time (month, day of month, hour, minute, second ranges)
+     */
+    static boolean isValid(final int year, final int month, final int day,
+                           final int hour, final int min, final int sec) {
+        return (month >= 1) && (month <= 12) && (day >= 1) && (day <= daysInMonth(year, month))
+                && (hour >= 0) && (hour <= 23) && (min >= 0) && (min <= 59) && (sec >= 0) && (sec <= 59);
+    }
+
+    /**
+     * @return epoch seconds of the given (valid) date and time
+     */
+    static long epochSecond(final int year, final int month, final int day,
+                            final int hour, final int min, final int sec) {
+        return epochDay(year, month, day) * SECONDS_PER_DAY + (hour * 60 + min) * 60 + sec;
+    }
+
+    /**
+     * @return true if the given epoch seconds and nanoseconds [0..999999999] fit in epoch nanoseconds (long)
+     */
+    static boolean isNanosRange(final long seconds, final int nanos) {
+        return (seconds >= MIN_NANOS_SECOND) && (seconds <= MAX_NANOS_SECOND)
+                && ((seconds != MIN_NANOS_SECOND) || (nanos >= 145224192))
+                && ((seconds != MAX_NANOS_SECOND) || (nanos <= 854775807));
+    }
+
+    /**
+     * Return the number of days since 1970-01-01 of the given date (days from civil, proleptic gregorian calendar)
+     * @param year year
+     * @param month month [1..12]
+     * @param day day of month [1..31]
+     * @return epoch day
+     */
+    static long epochDay(final int year, final int month, final int day) {
+        // year starting in march to have the leap day at the end:
+        final int y = (month <= 2) ? (year - 1) : year;
+        final int era = ((y >= 0) ? y : (y - 399)) / 400;
+        final int yoe = y - era * 400;
+        final int doy = (153 * ((month > 2) ? (month - 3) : (month + 9)) + 2) / 5 + day - 1;
+        final int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return (long) era * DAYS_PER_CYCLE + doe - DAYS_0000_TO_1970;
+    }
 
-        // optional milliseconds:
-        p2 = NumberParser.indexOfNotDigit(date, p1, length);
-        if (p2 == -1) {
-            // only millisseconds: no white spaces or other char at end
-            p2 = length;
+    /**
+     * @param year year
+     * @param month month [1..12]
+     * @return number of days in the given month
+     */
+    static int daysInMonth(final int year, final int month) {
+        if (month == 2) {
+            return (((year & 3) == 0) && (((year % 100) != 0) || ((year % 400) == 0))) ? 29 : 28;
         }
-        final int millis = (p2 >= p1) ? NumberParser.getInteger(date, p1, p2) : 0;
+        // 31 days except april, june, september and november:
+        return 30 + ((0x15AA >> month) & 1);
+    }
 
-        // Check valid date ?
-        final GregorianCalendar cal = calStateThreadLocal.get();
-        cal.set(year, month - 1, day, hour, min, sec);
-        cal.set(Calendar.MILLISECOND, millis);
+    /* end of the digits field starting at offset */
+    private static int fieldEnd(final CharSequence date, final int offset, final int end)
+            throws NumberFormatException {
+        int pos = offset;
+        char ch;
+        while ((pos < end) && ((ch = date.charAt(pos)) >= '0') && (ch <= '9')) {
+            pos++;
+        }
+        if (pos == offset) {
+            // missing field or sign:
+            throwFormatException(date);
+        }
+        return pos;
+    }
 
-        return cal.getTimeInMillis();
+    /* positive int value of the digits [offset, end[ */
+    private static int fieldValue(final CharSequence date, final int offset, final int end)
+            throws NumberFormatException {
+        long value = 0L;
+        for (int i = offset; i < end; i++) {
+            value = value * 10L + (date.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) {
+                throwFormatException(date);
+            }
+        }
+        return (int) value;
     }
 
     private static void throwFormatException(final CharSequence value) throws NumberFormatException {
-        throw new NumberFormatException("Invalid date format [yyyy/mm/dd-hh:mm:ss.SSS]: " + value);
+        throwFormatException(FORMAT, value);
+    }
+
+    private static void throwFormatException(final String format, final CharSequence value)
+            throws NumberFormatException {
+        throw new NumberFormatException("Invalid date format [" + format + "]: " + value);
     }
 
-    private DateParser() {
-        // utility class
+    @Override
+    public String toString() {
+        return "DateParser[" + cache + ']';
     }
 }
@@ -0,0 +1,349 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+/**
+ * Compiled date pattern: DatePattern.compile("dd/MM/yyyy HH:mm:ss.SSS") interprets the pattern once into an
+ * immutable (thread-safe) parse plan of fixed field offsets to parse dates (GMT) like DateParser.parseFastDate
+ *
+ * Supported fields (fixed width, SimpleDateFormat letters): yyyy, MM, dd, HH, mm, ss and S{1,9} (fraction scaled
+ * by its digit count); other characters and 'quoted' text ('' for a quote) are literals checked while parsing.
+ * The year is required; missing month / day default to 1 and missing time fields to 0.
+ *
+ * @author Laurent Bourges
+ */
+public final class DatePattern {
+
+    /** quote character */
+    private final static char QUOTE = '\'';
+
+    /* members */
+    /** pattern */
+    private final String pattern;
+    /** length of parsed dates */
+    private final int length;
+    /** field offsets (-1 if absent) */
+    private final int yearOffset;
+    private final int monthOffset;
+    private final int dayOffset;
+    private final int hourOffset;
+    private final int minOffset;
+    private final int secOffset;
+    private final int fractionOffset;
+    /** fraction digits [1..9] */
+    private final int fractionDigits;
+    /** literal offsets */
+    private final int[] literalOffsets;
+    /** literal characters */
+    private final char[] literals;
+
+    /**
+     * Compile the given date pattern
+     * @param pattern date pattern like "yyyy-MM-dd'T'HH:mm:ss.SSS"
+     * @return compiled pattern
+     * @throws IllegalArgumentException if the pattern is invalid or unsupported
+     */
+    public static DatePattern compile(final String pattern) throws IllegalArgumentException {
+        // field offsets: y, M, d, H, m, s, S
+        final int[] offsets = new int[]{-1, -1, -1, -1, -1, -1, -1};
+        int fractionDigits = 0;
+        final int[] literalOffsets = new int[pattern.length()];
+        final char[] literals = new char[pattern.length()];
+        int nLiterals = 0;
+        int pos = 0;
+
+        for (int i = 0, len = pattern.length(); i < len;) {
+            final char ch = pattern.charAt(i);
+            if (ch == QUOTE) {
+                // quoted literal ('' = quote):
+                if ((i + 1 < len) && (pattern.charAt(i + 1) == QUOTE)) {
+                    literalOffsets[nLiterals] = pos++;
+                    literals[nLiterals++] = QUOTE;
+                    i += 2;
+                    continue;
+                }
+                i++;
+                for (;;) {
+                    if (i == len) {
+                        throw new IllegalArgumentException("Unterminated quote in pattern: " + pattern);
+                    }
+                    final char c = pattern.charAt(i++);
+                    if (c == QUOTE) {
+                        if ((i < len) && (pattern.charAt(i) == QUOTE)) {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    literalOffsets[nLiterals] = pos++;
+                    literals[nLiterals++] = c;
+                }
+            } else if (((ch >= 'a') && (ch <= 'z')) || ((ch >= 'A') && (ch <= 'Z'))) {
+                int end = i + 1;
+                while ((end < len) && (pattern.charAt(end) == ch)) {
+                    end++;
+                }
+                final int count = end - i;
+                final int field = "yMdHmsS".indexOf(ch);
+                if (field == -1) {
+                    throw new IllegalArgumentException("Unsupported letter '" + ch + "' in pattern: " + pattern);
+                }
+                if (offsets[field] != -1) {
+                    throw new IllegalArgumentException("Duplicated field '" + ch + "' in pattern: " + pattern);
+                }
+                if ((ch == 'S') ? (count > 9) : (count != ((ch == 'y') ? 4 : 2))) {
+                    throw new IllegalArgumentException("Invalid width of field '" + ch + "' in pattern: " + pattern);
+                }
+                if (ch == 'S') {
+                    fractionDigits = count;
+                }
+                offsets[field] = pos;
+                pos += count;
+                i = end;
+            } else {
+                literalOffsets[nLiterals] = pos++;
+                literals[nLiterals++] = ch;
+                i++;
+            }
+        }
+        if (offsets[0] == -1) {
+            throw new IllegalArgumentException("Missing year (yyyy) in pattern: " + pattern);
+        }
+        final int[] litOffsets = new int[nLiterals];
+        final char[] litChars = new char[nLiterals];
+        System.arraycopy(literalOffsets, 0, litOffsets, 0, nLiterals);
+        System.arraycopy(literals, 0, litChars, 0, nLiterals);
+
+        return new DatePattern(pattern, pos, offsets, fractionDigits, litOffsets, litChars);
+    }
+
+    private DatePattern(final String pattern, final int length, final int[] offsets, final int fractionDigits,
+                        final int[] literalOffsets, final char[] literals) {
+        this.pattern = pattern;
+        this.length = length;
+        this.yearOffset = offsets[0];
+        this.monthOffset = offsets[1];
+        this.dayOffset = offsets[2];
+        this.hourOffset = offsets[3];
+        this.minOffset = offsets[4];
+        this.secOffset = offsets[5];
+        this.fractionOffset = offsets[6];
+        this.fractionDigits = fractionDigits;
+        this.literalOffsets = literalOffsets;
+        this.literals = literals;
+    }
+
+    /**
+     * @return pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return length of parsed dates
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Parse the given date (whole text) into epoch milliseconds (fraction truncated)
+     * @param date date to parse
+     * @return epoch milliseconds
+     * @throws NumberFormatException if the date does not match the pattern or is invalid
+     */
+    public long parse(final CharSequence date) throws NumberFormatException {
+        if (date.length() != length) {
+            throwFormatException(date);
+        }
+        return parseSeconds(date, 0) * 1000L + parseFraction(date, 0) / 1000000;
+    }
+
+    /**
+     * Parse the date at the given offset (getLength() characters) into epoch milliseconds (fraction truncated)
+     * @param csq text to parse
+     * @param offset start offset
+     * @return epoch milliseconds
+     * @throws NumberFormatException if the date does not match the pattern or is invalid
+     */
+    public long parse(final CharSequence csq, final int offset) throws NumberFormatException {
+        if (offset + length > csq.length()) {
+            throwFormatException(csq);
+        }
+        return parseSeconds(csq, offset) * 1000L + parseFraction(csq, offset) / 1000000;
+    }
+
+    /**
+     * Parse the given date (whole text) into epoch nanoseconds (1677-09-21 to 2262-04-11)
+     * @param date date to parse
+     * @return epoch nanoseconds
+     * @throws NumberFormatException if the date does not match the pattern, is invalid or out of range
+     */
+    public long parseNanos(final CharSequence date) throws NumberFormatException {
+        if (date.length() != length) {
+            throwFormatException(date);
+        }
+        return parseNanos(date, 0);
+    }
+
+    /**
+     * Parse the date at the given offset (getLength() characters) into epoch nanoseconds (1677-09-21 to 2262-04-11)
+     * @param csq text to parse
+     * @param offset start offset
+     * @return epoch nanoseconds
+     * @throws NumberFormatException if the date does not match the pattern, is invalid or out of range
+     */
+    public long parseNanos(final CharSequence csq, final int offset) throws NumberFormatException {
+        if (offset + length > csq.length()) {
+            throwFormatException(csq);
+        }
+        final long seconds = parseSeconds(csq, offset);
+        final int nanos = parseFraction(csq, offset);
+        if (!DateParser.isNanosRange(seconds, nanos)) {
+            throw new NumberFormatException("Date out of the epoch nanoseconds range: " + csq);
+        }
+        return seconds * 1000000000L + nanos;
+    }
+
+    /**
+     * Parse the date at the given offset (getLength() bytes) into epoch milliseconds (fraction truncated)
+     * @param bytes ASCII bytes to parse
+     * @param offset start offset
+     * @return epoch milliseconds
+     * @throws NumberFormatException if the date does not match the pattern or is invalid
+     */
+    public long parse(final byte[] bytes, final int offset) throws NumberFormatException {
+        if (offset + length > bytes.length) {
+            throwFormatException(bytes, offset);
+        }
+        return parseSeconds(bytes, offset) * 1000L + parseFraction(bytes, offset) / 1000000;
+    }
+
+    /**
+     * Parse the date at the given offset (getLength() bytes) into epoch nanoseconds (1677-09-21 to 2262-04-11)
+     * @param bytes ASCII bytes to parse
+     * @param offset start offset
+     * @return epoch nanoseconds
+     * @throws NumberFormatException if the date does not match the pattern, is invalid or out of range
+     */
+    public long parseNanos(final byte[] bytes, final int offset) throws NumberFormatException {
+        if (offset + length > bytes.length) {
+            throwFormatException(bytes, offset);
+        }
+        final long seconds = parseSeconds(bytes, offset);
+        final int nanos = parseFraction(bytes, offset);
+        if (!DateParser.isNanosRange(seconds, nanos)) {
+            throw new NumberFormatException("Date out of the epoch nanoseconds range: "
+                    + NumberParser.toString(bytes, offset, offset + length));
+        }
+        return seconds * 1000000000L + nanos;
+    }
+
+    /* Check literals, parse fields at their fixed offsets and return epoch seconds */
+    private long parseSeconds(final CharSequence csq, final int offset) throws NumberFormatException {
+        final int[] litOffsets = literalOffsets;
+        final char[] litChars = literals;
+        for (int i = 0; i < litOffsets.length; i++) {
+            if (csq.charAt(offset + litOffsets[i]) != litChars[i]) {
+                throwFormatException(csq);
+            }
+        }
+        final int year = NumberParser.getPositiveIntegerUnsafe(csq, offset + yearOffset, offset + yearOffset + 4);
+        final int month = (monthOffset != -1) ? getField(csq, offset + monthOffset) : 1;
+        final int day = (dayOffset != -1) ? getField(csq, offset + dayOffset) : 1;
+        final int hour = (hourOffset != -1) ? getField(csq, offset + hourOffset) : 0;
+        final int min = (minOffset != -1) ? getField(csq, offset + minOffset) : 0;
+        final int sec = (secOffset != -1) ? getField(csq, offset + secOffset) : 0;
+
+        if (!DateParser.isValid(year, month, day, hour, min, sec)) {
+            throwFormatException(csq);
+        }
+        return DateParser.epochSecond(year, month, day, hour, min, sec);
+    }
+
+    /* Parse the fraction into nanoseconds */
+    private int parseFraction(final CharSequence csq, final int offset) throws NumberFormatException {
+        if (fractionOffset == -1) {
+            return 0;
+        }
+        final int start = offset + fractionOffset;
+        return NumberParser.getPositiveIntegerUnsafe(csq, start, start + fractionDigits)
+                * (int) NumberParser.LONG_POW10[9 - fractionDigits];
+    }
+
+    private static int getField(final CharSequence csq, final int offset) throws NumberFormatException {
+        return NumberParser.getPositiveIntegerUnsafe(csq, offset, offset + 2);
+    }
+
+    /* Check literals, parse fields at their fixed offsets and return epoch seconds */
+    private long parseSeconds(final byte[] bytes, final int offset) throws NumberFormatException {
+        final int[] litOffsets = literalOffsets;
+        final char[] litChars = literals;
+        for (int i = 0; i < litOffsets.length; i++) {
+            if (bytes[offset + litOffsets[i]] != litChars[i]) {
+                throwFormatException(bytes, offset);
+            }
+        }
+        final int year = NumberParser.getPositiveIntegerUnsafe(bytes, offset + yearOffset, offset + yearOffset + 4);
+        final int month = (monthOffset != -1) ? getField(bytes, offset + monthOffset) : 1;
+        final int day = (dayOffset != -1) ? getField(bytes, offset + dayOffset) : 1;
+        final int hour = (hourOffset != -1) ? getField(bytes, offset + hourOffset) : 0;
+        final int min = (minOffset != -1) ? getField(bytes, offset + minOffset) : 0;
+        final int sec = (secOffset != -1) ? getField(bytes, offset + secOffset) : 0;
+
+        if (!DateParser.isValid(year, month, day, hour, min, sec)) {
+            throwFormatException(bytes, offset);
+        }
+        return DateParser.epochSecond(year, month, day, hour, min, sec);
+    }
+
+    /* Parse the fraction into nanoseconds */
+    private int parseFraction(final byte[] bytes, final int offset) throws NumberFormatException {
+        if (fractionOffset == -1) {
+            return 0;
+        }
+        final int start = offset + fractionOffset;
+        return NumberParser.getPositiveIntegerUnsafe(bytes, start, start + fractionDigits)
+                * (int) NumberParser.LONG_POW10[9 - fractionDigits];
+    }
+
+    private static int getField(final byte[] bytes, final int offset) throws NumberFormatException {
+        return NumberParser.getPositiveIntegerUnsafe(bytes, offset, offset + 2);
+    }
+
+    private void throwFormatException(final CharSequence value) throws NumberFormatException {
+        throw new NumberFormatException("Invalid date format [" + pattern + "]: " + value);
+    }
+
+    private void throwFormatException(final byte[] bytes, final int offset) throws NumberFormatException {
+        throwFormatException(NumberParser.toString(bytes, offset, Math.min(offset + length, bytes.length)));
+    }
+
+    @Override
+    public String toString() {
+        return "DatePattern[" + pattern + ']';
+    }
+}
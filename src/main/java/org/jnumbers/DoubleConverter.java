@@ -0,0 +1,483 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.math.BigInteger;
+
+/**
+ * Correctly rounded conversion of a decimal number (w * 10^q) into a double or a float:
+ * - Clinger fast path: a single multiply or divide when the mantissa and the power of ten are exact doubles
+ * - Eisel-Lemire algorithm: 64 bits decimal mantissa (up to 19 digits) and
+ *   128 bits (truncated) power of five table covering the full double exponent range
+ * 
+ * See "Number Parsing at a Gigabyte per Second" (Daniel Lemire, 2021)
+ * and "Fast Number Parsing Without Fallback" (Noble Mushtak and Daniel Lemire, 2023)
+ *
+ * @author Laurent Bourges
+ */
+final class DoubleConverter {
+
+    /** maximum number of decimal digits stored in the 64 bits mantissa */
+    final static int MAX_MANTISSA_DIGITS = 19;
+
+    // double format:
+    private final static int DOUBLE_MANTISSA_BITS = 52;
+    private final static int DOUBLE_MIN_EXPONENT = -1023;
+    private final static int DOUBLE_INFINITE_POWER = 0x7FF;
+    private final static int DOUBLE_MIN_EXPONENT_ROUND_TO_EVEN = -4;
+    private final static int DOUBLE_MAX_EXPONENT_ROUND_TO_EVEN = 23;
+    private final static int DOUBLE_SMALLEST_POWER_OF_TEN = -342;
+    private final static int DOUBLE_LARGEST_POWER_OF_TEN = 308;
+
+    // float format:
+    private final static int FLOAT_MANTISSA_BITS = 23;
+    private final static int FLOAT_MIN_EXPONENT = -127;
+    private final static int FLOAT_INFINITE_POWER = 0xFF;
+    private final static int FLOAT_MIN_EXPONENT_ROUND_TO_EVEN = -17;
+    private final static int FLOAT_MAX_EXPONENT_ROUND_TO_EVEN = 10;
+    private final static int FLOAT_SMALLEST_POWER_OF_TEN = -64;
+    private final static int FLOAT_LARGEST_POWER_OF_TEN = 38;
+
+    // Clinger fast path: exact powers of ten (10^22 is the largest one exactly representable as a double)
+    private final static int MAX_EXACT_POW10 = 22;
+    private final static double[] EXACT_POW10 = new double[MAX_EXACT_POW10 + 1];
+    /** mantissa bits exactly representable as a double (2^53) */
+    private final static int EXACT_MANTISSA_BITS = DOUBLE_MANTISSA_BITS + 1;
+
+    // Clinger fast path: exact powers of ten (10^10 is the largest one exactly representable as a float)
+    private final static int MAX_EXACT_FLOAT_POW10 = 10;
+    private final static float[] EXACT_FLOAT_POW10 = new float[MAX_EXACT_FLOAT_POW10 + 1];
+    /** mantissa bits exactly representable as a float (2^24) */
+    private final static int EXACT_FLOAT_MANTISSA_BITS = FLOAT_MANTISSA_BITS + 1;
+
+    static {
+        double pow10 = 1d;
+        for (int i = 0; i <= MAX_EXACT_POW10; i++) {
+            EXACT_POW10[i] = pow10;
+            if (i <= MAX_EXACT_FLOAT_POW10) {
+                EXACT_FLOAT_POW10[i] = (float) pow10;
+            }
+            pow10 *= 10d;
+        }
+    }
+
+    // Precompute 5^q as 128 bits values (truncated) for q in [-342; 308]:
+    private final static int SMALLEST_POWER_OF_FIVE = DOUBLE_SMALLEST_POWER_OF_TEN;
+    private final static int LARGEST_POWER_OF_FIVE = DOUBLE_LARGEST_POWER_OF_TEN;
+    /** interleaved high / low 64 bits words */
+    private final static long[] POWER_OF_FIVE_128 = new long[2 * (LARGEST_POWER_OF_FIVE - SMALLEST_POWER_OF_FIVE + 1)];
+
+    static {
+        final BigInteger five = BigInteger.valueOf(5L);
+        final BigInteger two127 = BigInteger.ONE.shiftLeft(127);
+        final BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+
+        for (int q = SMALLEST_POWER_OF_FIVE, i = 0; q <= LARGEST_POWER_OF_FIVE; q++, i += 2) {
+            BigInteger c;
+            if (q < 0) {
+                final BigInteger power5 = five.pow(-q);
+                // z = ceil(log2(5^-q)):
+                final int z = power5.subtract(BigInteger.ONE).bitLength();
+                if (q >= -27) {
+                    c = BigInteger.ONE.shiftLeft(z + 127).divide(power5).add(BigInteger.ONE);
+                } else {
+                    c = BigInteger.ONE.shiftLeft(2 * z + 128).divide(power5).add(BigInteger.ONE);
+                    // truncate:
+                    final int extra = c.bitLength() - 128;
+                    if (extra > 0) {
+                        c = c.shiftRight(extra);
+                    }
+                }
+            } else {
+                c = five.pow(q);
+                // move the most significant bit in position (128 bits):
+                if (c.compareTo(two127) < 0) {
+                    c = c.shiftLeft(128 - c.bitLength());
+                }
+                // truncate:
+                if (c.compareTo(two128) >= 0) {
+                    c = c.shiftRight(c.bitLength() - 128);
+                }
+            }
+            POWER_OF_FIVE_128[i] = c.shiftRight(64).longValue();
+            POWER_OF_FIVE_128[i + 1] = c.longValue();
+        }
+    }
+
+    /**
+     * Convert the decimal number w * 10^q into a double (positive)
+     * @param w decimal mantissa (unsigned 64 bits)
+     * @param q decimal exponent
+     * @return double value (positive)
+     */
+    static double toDouble(final long w, final int q) {
+        // Clinger fast path: both w and 10^|q| are exact doubles
+        // so a single multiply or divide is correctly rounded:
+        if (((w >>> EXACT_MANTISSA_BITS) == 0L) && (q >= -MAX_EXACT_POW10) && (q <= MAX_EXACT_POW10)) {
+            return (q < 0) ? (w / EXACT_POW10[-q]) : (w * EXACT_POW10[q]);
+        }
+        return Double.longBitsToDouble(toDoubleBits(w, q));
+    }
+
+    /**
+     * Convert the decimal number w * 10^q into double bits (positive)
+     * when the decimal mantissa has been truncated to 19 digits:
+     * the result is only valid if w * 10^q and (w + 1) * 10^q give the same double
+     * @param w truncated decimal mantissa (unsigned 64 bits)
+     * @param q decimal exponent
+     * @return double value (positive) or NaN if the slow path is required
+     */
+    static double toDoubleTruncated(final long w, final int q) {
+        final long bits = toDoubleBits(w, q);
+        if (bits != toDoubleBits(w + 1L, q)) {
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Eisel-Lemire algorithm: compute the double bits of w * 10^q (correctly rounded, 1/2 ulp)
+     * @param w decimal mantissa (unsigned 64 bits)
+     * @param q decimal exponent
+     * @return double bits (positive)
+     */
+    static long toDoubleBits(long w, final int q) {
+        if ((w == 0L) || (q < DOUBLE_SMALLEST_POWER_OF_TEN)) {
+            return 0L;
+        }
+        if (q > DOUBLE_LARGEST_POWER_OF_TEN) {
+            return ((long) DOUBLE_INFINITE_POWER) << DOUBLE_MANTISSA_BITS;
+        }
+        // normalize w:
+        final int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+
+        // compute the 128 bits product w * 5^q (approximation with enough precision):
+        final int index = (q - SMALLEST_POWER_OF_FIVE) << 1;
+        final long pow5Hi = POWER_OF_FIVE_128[index];
+
+        long productHi = unsignedMultiplyHigh(w, pow5Hi);
+        long productLo = w * pow5Hi;
+
+        // precision mask = 2^(64 - (mantissa bits + 3)) - 1
+        if ((productHi & 0x1FFL) == 0x1FFL) {
+            // more precision needed:
+            final long secondHi = unsignedMultiplyHigh(w, POWER_OF_FIVE_128[index + 1]);
+            productLo += secondHi;
+            if (unsignedLess(productLo, secondHi)) {
+                productHi++;
+            }
+        }
+
+        final int upperbit = (int) (productHi >>> 63);
+        final int shift = upperbit + 64 - DOUBLE_MANTISSA_BITS - 3;
+
+        long mantissa = productHi >>> shift;
+        int power2 = power(q) + upperbit - lz - DOUBLE_MIN_EXPONENT;
+
+        if (power2 <= 0) {
+            // subnormal ?
+            if (-power2 + 1 >= 64) {
+                // more than 64 bits below the minimum exponent: zero
+                return 0L;
+            }
+            mantissa >>>= -power2 + 1;
+            // round up:
+            mantissa += (mantissa & 1L);
+            mantissa >>>= 1;
+            // subnormal if smaller than the threshold (after rounding):
+            power2 = (mantissa < (1L << DOUBLE_MANTISSA_BITS)) ? 0 : 1;
+            return (((long) power2) << DOUBLE_MANTISSA_BITS) | (mantissa & ~(1L << DOUBLE_MANTISSA_BITS));
+        }
+
+        // usually, round up but if the value falls right in between two floats and the mantissa is even,
+        // round down (only possible when 5^q fits in a single 64 bits word):
+        if ((productLo == 0L || productLo == 1L)
+                && (q >= DOUBLE_MIN_EXPONENT_ROUND_TO_EVEN) && (q <= DOUBLE_MAX_EXPONENT_ROUND_TO_EVEN)
+                && ((mantissa & 3L) == 1L)
+                && ((mantissa << shift) == productHi)) {
+            // only zeros were dropped: do not round up
+            mantissa &= ~1L;
+        }
+
+        // round up:
+        mantissa += (mantissa & 1L);
+        mantissa >>>= 1;
+
+        if (mantissa >= (2L << DOUBLE_MANTISSA_BITS)) {
+            mantissa = (1L << DOUBLE_MANTISSA_BITS);
+            power2++;
+        }
+        mantissa &= ~(1L << DOUBLE_MANTISSA_BITS);
+
+        if (power2 >= DOUBLE_INFINITE_POWER) {
+            // infinity
+            return ((long) DOUBLE_INFINITE_POWER) << DOUBLE_MANTISSA_BITS;
+        }
+        return (((long) power2) << DOUBLE_MANTISSA_BITS) | mantissa;
+    }
+
+    /**
+     * Convert the decimal number w * 10^q into a float (positive)
+     * @param w decimal mantissa (unsigned 64 bits)
+     * @param q decimal exponent
+     * @return float value (positive)
+     */
+    static float toFloat(final long w, final int q) {
+        // Clinger fast path: both w and 10^|q| are exact floats
+        // so a single multiply or divide is correctly rounded:
+        if (((w >>> EXACT_FLOAT_MANTISSA_BITS) == 0L) && (q >= -MAX_EXACT_FLOAT_POW10) && (q <= MAX_EXACT_FLOAT_POW10)) {
+            return (q < 0) ? (w / EXACT_FLOAT_POW10[-q]) : (w * EXACT_FLOAT_POW10[q]);
+        }
+        return Float.intBitsToFloat(toFloatBits(w, q));
+    }
+
+    /**
+     * Convert the decimal number w * 10^q into a float (positive)
+     * when the decimal mantissa has been truncated to 19 digits:
+     * the result is only valid if w * 10^q and (w + 1) * 10^q give the same float
+     * @param w truncated decimal mantissa (unsigned 64 bits)
+     * @param q decimal exponent
+     * @return float value (positive) or NaN if the slow path is required
+     */
+    static float toFloatTruncated(final long w, final int q) {
+        final int bits = toFloatBits(w, q);
+        if (bits != toFloatBits(w + 1L, q)) {
+            return Float.NaN;
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    /**
+     * Eisel-Lemire algorithm: compute the float bits of w * 10^q (correctly rounded, 1/2 ulp)
+     * @param w decimal mantissa (unsigned 64 bits)
+     * @param q decimal exponent
+     * @return float bits (positive)
+     */
+    static int toFloatBits(long w, final int q) {
+        if ((w == 0L) || (q < FLOAT_SMALLEST_POWER_OF_TEN)) {
+            return 0;
+        }
+        if (q > FLOAT_LARGEST_POWER_OF_TEN) {
+            return FLOAT_INFINITE_POWER << FLOAT_MANTISSA_BITS;
+        }
+        // normalize w:
+        final int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+
+        // compute the 128 bits product w * 5^q (approximation with enough precision):
+        final int index = (q - SMALLEST_POWER_OF_FIVE) << 1;
+        final long pow5Hi = POWER_OF_FIVE_128[index];
+
+        long productHi = unsignedMultiplyHigh(w, pow5Hi);
+        long productLo = w * pow5Hi;
+
+        // precision mask = 2^(64 - (mantissa bits + 3)) - 1
+        if ((productHi & 0x3FFFFFFFFFL) == 0x3FFFFFFFFFL) {
+            // more precision needed:
+            final long secondHi = unsignedMultiplyHigh(w, POWER_OF_FIVE_128[index + 1]);
+            productLo += secondHi;
+            if (unsignedLess(productLo, secondHi)) {
+                productHi++;
+            }
+        }
+
+        final int upperbit = (int) (productHi >>> 63);
+        final int shift = upperbit + 64 - FLOAT_MANTISSA_BITS - 3;
+
+        long mantissa = productHi >>> shift;
+        int power2 = power(q) + upperbit - lz - FLOAT_MIN_EXPONENT;
+
+        if (power2 <= 0) {
+            // subnormal ?
+            if (-power2 + 1 >= 64) {
+                // more than 64 bits below the minimum exponent: zero
+                return 0;
+            }
+            mantissa >>>= -power2 + 1;
+            // round up:
+            mantissa += (mantissa & 1L);
+            mantissa >>>= 1;
+            // subnormal if smaller than the threshold (after rounding):
+            power2 = (mantissa < (1L << FLOAT_MANTISSA_BITS)) ? 0 : 1;
+            return (power2 << FLOAT_MANTISSA_BITS) | (int) (mantissa & ~(1L << FLOAT_MANTISSA_BITS));
+        }
+
+        // usually, round up but if the value falls right in between two floats and the mantissa is even,
+        // round down (only possible when 5^q fits in a single 64 bits word):
+        if ((productLo == 0L || productLo == 1L)
+                && (q >= FLOAT_MIN_EXPONENT_ROUND_TO_EVEN) && (q <= FLOAT_MAX_EXPONENT_ROUND_TO_EVEN)
+                && ((mantissa & 3L) == 1L)
+                && ((mantissa << shift) == productHi)) {
+            // only zeros were dropped: do not round up
+            mantissa &= ~1L;
+        }
+
+        // round up:
+        mantissa += (mantissa & 1L);
+        mantissa >>>= 1;
+
+        if (mantissa >= (2L << FLOAT_MANTISSA_BITS)) {
+            mantissa = (1L << FLOAT_MANTISSA_BITS);
+            power2++;
+        }
+        mantissa &= ~(1L << FLOAT_MANTISSA_BITS);
+
+        if (power2 >= FLOAT_INFINITE_POWER) {
+            // infinity
+            return FLOAT_INFINITE_POWER << FLOAT_MANTISSA_BITS;
+        }
+        return (power2 << FLOAT_MANTISSA_BITS) | (int) mantissa;
+    }
+
+    /**
+     * Round the binary value m * 2^e2 to the nearest double or float (ties to even)
+     * @param m unsigned 64 bits mantissa
+     * @param sticky true if non-zero bits were truncated below m
+     * @param e2 binary exponent
+     * @param toFloat true to round to a float value
+     * @return double value (positive) or the float value as double
+     */
+    static double toDoubleBinary(long m, final boolean sticky, final int e2, final boolean toFloat) {
+        if (m == 0L) {
+            return 0.0;
+        }
+        final int mantissaBits = (toFloat) ? FLOAT_MANTISSA_BITS : DOUBLE_MANTISSA_BITS;
+        final int bias = (toFloat) ? -FLOAT_MIN_EXPONENT : -DOUBLE_MIN_EXPONENT;
+
+        final int lz = Long.numberOfLeadingZeros(m);
+        m <<= lz;
+        // exponent of the leading bit (saturated):
+        final long e = (long) e2 - lz + 63L;
+
+        if (e > bias) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // kept bits: mantissaBits + 1 if normal, less if subnormal:
+        final long keep = (e > -bias) ? (mantissaBits + 1) : (e + bias + mantissaBits);
+        if (keep < 0L) {
+            // below half of the smallest subnormal:
+            return 0.0;
+        }
+        final int shift = 64 - (int) keep;
+
+        long kept;
+        final boolean round;
+        final boolean rest;
+        if (shift == 64) {
+            kept = 0L;
+            round = true; // leading bit
+            rest = ((m << 1) != 0L) || sticky;
+        } else {
+            kept = m >>> shift;
+            round = ((m >>> (shift - 1)) & 1L) != 0L;
+            rest = ((m & ((1L << (shift - 1)) - 1L)) != 0L) || sticky;
+        }
+        if (round && (rest || ((kept & 1L) != 0L))) {
+            kept++;
+        }
+
+        long bits;
+        if (keep == mantissaBits + 1) {
+            long power2 = e + bias;
+            if (kept == (2L << mantissaBits)) {
+                kept >>>= 1;
+                power2++;
+            }
+            if (power2 >= 2 * bias + 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            bits = (power2 << mantissaBits) | (kept & ((1L << mantissaBits) - 1L));
+        } else {
+            // subnormal (may round up to the smallest normal value):
+            bits = kept;
+        }
+        return (toFloat) ? Float.intBitsToFloat((int) bits) : Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Slow path relying on the JDK (correctly rounded) parser
+     * @param csq char sequence containing the decimal digits [digits][.digits]
+     * @param offset start of the decimal digits (after the sign)
+     * @param end end of the decimal digits (before the exponent)
+     * @param exponent explicit exponent
+     * @return double value (positive)
+     */
+    static double parseSlow(final CharSequence csq, final int offset, final int end, final int exponent) {
+        return Double.parseDouble(toSlowString(csq, offset, end, exponent));
+    }
+
+    /**
+     * Slow path relying on the JDK (correctly rounded) parser
+     * @param csq char sequence containing the decimal digits [digits][.digits]
+     * @param offset start of the decimal digits (after the sign)
+     * @param end end of the decimal digits (before the exponent)
+     * @param exponent explicit exponent
+     * @return float value (positive)
+     */
+    static float parseSlowFloat(final CharSequence csq, final int offset, final int end, final int exponent) {
+        return Float.parseFloat(toSlowString(csq, offset, end, exponent));
+    }
+
+    private static String toSlowString(final CharSequence csq, final int offset, final int end, final int exponent) {
+        final StringBuilder sb = new StringBuilder(end - offset + 12);
+        sb.append(csq, offset, end).append('E').append(exponent);
+        return sb.toString();
+    }
+
+    /**
+     * @param q decimal exponent in [-342; 308]
+     * @return floor(log2(10^q)) + 63
+     */
+    private static int power(final int q) {
+        return (((152170 + 65536) * q) >> 16) + 63;
+    }
+
+    /**
+     * @return high 64 bits of the unsigned 128 bits product x * y
+     */
+    static long unsignedMultiplyHigh(final long x, final long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+
+        final long t = x1 * y0 + ((x0 * y0) >>> 32);
+        final long w1 = (t & 0xFFFFFFFFL) + x0 * y1;
+
+        return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+    }
+
+    /**
+     * @return true if x < y (unsigned 64 bits)
+     */
+    static boolean unsignedLess(final long x, final long y) {
+        return (x + Long.MIN_VALUE) < (y + Long.MIN_VALUE);
+    }
+
+    private DoubleConverter() {
+        // utility class
+    }
+}
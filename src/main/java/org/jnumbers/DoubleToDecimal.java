@@ -0,0 +1,210 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.math.BigInteger;
+
+/**
+ * Shortest decimal conversion of doubles (Schubfach algorithm by Raffaello Giulietti, see
+ * "The Schubfach way to render doubles", 2020): the decimal f x 10^e is the shortest one rounding to the given double
+ * (at least 2 digits and closest to the double among the shortest ones, like Double.toString in JDK 19+)
+ *
+ * Finite non-zero doubles only: use digits(bits) and exponent(bits) with the raw bits of |v|
+ *
+ * @author Laurent Bourges
+ */
+final class DoubleToDecimal {
+
+    /** mantissa precision (bits) */
+    private final static int P = 53;
+    /** biased exponent width (bits) */
+    private final static int W = 11;
+    /** minimum binary exponent of the mantissa c (subnormals) */
+    private final static int Q_MIN = -1074;
+    /** smallest mantissa needing 2 digits (subnormals: 2 x 4.9E-324 = 9.9E-324) */
+    private final static long C_TINY = 3L;
+    /** normalized mantissa hidden bit */
+    private final static long C_MIN = 1L << (P - 1);
+    private final static int BQ_MASK = (1 << W) - 1;
+    private final static long T_MASK = (1L << (P - 1)) - 1L;
+    private final static long MASK_63 = (1L << 63) - 1L;
+
+    // Precompute g = floor(10^-k x 2^-r) + 1 as 126 bits values (2^125 <= g < 2^126) for k in [-324; 292]:
+    private final static int K_MIN = -324;
+    private final static int K_MAX = 292;
+    /** interleaved high (g1 = g / 2^63) and low (g0 = g mod 2^63) 63 bits words */
+    private final static long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    static {
+        final BigInteger ten = BigInteger.TEN;
+        final BigInteger mask63 = BigInteger.valueOf(MASK_63);
+
+        for (int k = K_MIN, i = 0; k <= K_MAX; k++, i += 2) {
+            BigInteger g;
+            if (k <= 0) {
+                // 10^-k is an integer:
+                g = ten.pow(-k);
+                final int shift = g.bitLength() - 126;
+                g = (shift >= 0) ? g.shiftRight(shift) : g.shiftLeft(-shift);
+            } else {
+                final BigInteger pow10 = ten.pow(k);
+                g = BigInteger.ONE.shiftLeft(pow10.bitLength() + 125).divide(pow10);
+            }
+            g = g.add(BigInteger.ONE);
+
+            G[i] = g.shiftRight(63).longValue();
+            G[i + 1] = g.and(mask63).longValue();
+        }
+    }
+
+    /**
+     * @param bits raw bits of a finite positive double
+     * @return decimal digits f (may have trailing zeros) such as value = f x 10^exponent(bits)
+     */
+    static long digits(final long bits) {
+        final long t = bits & T_MASK;
+        final int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+
+        if (bq != 0) {
+            // normal value:
+            final int mq = -Q_MIN + 1 - bq;
+            final long c = C_MIN | t;
+            if (isInteger(mq, c)) {
+                return c >> mq;
+            }
+            return toDecimal(-mq, c);
+        }
+        // subnormal value:
+        return (t < C_TINY) ? toDecimal(Q_MIN, 10L * t) : toDecimal(Q_MIN, t);
+    }
+
+    /**
+     * @param bits raw bits of a finite positive double
+     * @return decimal exponent e such as value = digits(bits) x 10^e
+     */
+    static int exponent(final long bits) {
+        final long t = bits & T_MASK;
+        final int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+
+        if (bq != 0) {
+            // normal value:
+            final int mq = -Q_MIN + 1 - bq;
+            final long c = C_MIN | t;
+            if (isInteger(mq, c)) {
+                return 0;
+            }
+            return decimalExponent(-mq, c);
+        }
+        // subnormal value (c = 10 t for tiny values):
+        return (t < C_TINY) ? decimalExponent(Q_MIN, 10L * t) - 1 : decimalExponent(Q_MIN, t);
+    }
+
+    /* Fast path: c x 2^-mq is an integer below 2^53 */
+    private static boolean isInteger(final int mq, final long c) {
+        return (0 < mq) && (mq < P) && (((c >> mq) << mq) == c);
+    }
+
+    /* Decimal exponent k of the interval of decimals rounding to c x 2^q */
+    private static int decimalExponent(final int q, final long c) {
+        return ((c != C_MIN) || (q == Q_MIN)) ? flog10pow2(q) : flog10threeQuartersPow2(q);
+    }
+
+    /* Shortest decimal digits of c x 2^q at the exponent k = decimalExponent(q, c) */
+    private static long toDecimal(final int q, final long c) {
+        final int out = (int) c & 0x1;
+        final long cb = c << 2;
+        final long cbr = cb + 2L;
+        final long cbl;
+        final int k;
+
+        if ((c != C_MIN) || (q == Q_MIN)) {
+            cbl = cb - 2L;
+            k = flog10pow2(q);
+        } else {
+            // irregular spacing (power of 2):
+            cbl = cb - 1L;
+            k = flog10threeQuartersPow2(q);
+        }
+        final int h = q + flog2pow10(-k) + 2;
+
+        final int i = (k - K_MIN) << 1;
+        final long g1 = G[i];
+        final long g0 = G[i + 1];
+
+        final long vb = rop(g1, g0, cb << h);
+        final long vbl = rop(g1, g0, cbl << h);
+        final long vbr = rop(g1, g0, cbr << h);
+
+        final long s = vb >> 2;
+        if (s >= 100L) {
+            // try one digit less (s / 10) x 10 (never for tiny values):
+            final long sp10 = 10L * DoubleConverter.unsignedMultiplyHigh(s, 115292150460684698L << 4);
+            final long tp10 = sp10 + 10L;
+            final boolean upin = (vbl + out) <= (sp10 << 2);
+            final boolean wpin = ((tp10 << 2) + out) <= vbr;
+            if (upin != wpin) {
+                return (upin) ? sp10 : tp10;
+            }
+        }
+        final long t = s + 1L;
+        final boolean uin = (vbl + out) <= (s << 2);
+        final boolean win = ((t << 2) + out) <= vbr;
+        if (uin != win) {
+            return (uin) ? s : t;
+        }
+        // both in the interval: the closest one (or even):
+        final long cmp = vb - ((s + t) << 1);
+        return ((cmp < 0L) || ((cmp == 0L) && ((s & 0x1L) == 0L))) ? s : t;
+    }
+
+    /* Round to odd the product g x cp / 2^127 (g = g1 x 2^63 + g0) */
+    private static long rop(final long g1, final long g0, final long cp) {
+        final long x1 = DoubleConverter.unsignedMultiplyHigh(g0, cp);
+        final long y0 = g1 * cp;
+        final long y1 = DoubleConverter.unsignedMultiplyHigh(g1, cp);
+        final long z = (y0 >>> 1) + x1;
+        final long vbp = y1 + (z >>> 63);
+        return vbp | (((z & MASK_63) + MASK_63) >>> 63);
+    }
+
+    /* floor(log10(2^e)) for e in [-5456721; 5456721] */
+    private static int flog10pow2(final int e) {
+        return (int) ((e * 661971961083L) >> 41);
+    }
+
+    /* floor(log10(3/4 x 2^e)) for e in [-2990; 2990] */
+    private static int flog10threeQuartersPow2(final int e) {
+        return (int) ((e * 661971961083L - 274743187321L) >> 41);
+    }
+
+    /* floor(log2(10^e)) for e in [-1233; 1233] */
+    private static int flog2pow10(final int e) {
+        return (int) ((e * 913124641741L) >> 38);
+    }
+
+    private DoubleToDecimal() {
+        // utility class
+    }
+}
@@ -0,0 +1,273 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Correctly rounded fixed-point conversion of doubles: round(|v| x 10^k) is computed from the exact binary value
+ * (53 x 64 bits product and shift) so no double rounding happens (like new BigDecimal(v).setScale(k, mode))
+ *
+ * The fast path handles results up to 18 digits (k in [-18; 18]); other cases return -1 and callers use the rare
+ * BigDecimal slow path (slowFixed / slowScientific) that allocates.
+ *
+ * @author Laurent Bourges
+ */
+final class DoubleToFixed {
+
+    /** largest scaled value handled by the fast path (18 digits) */
+    private final static long MAX_SCALED = 999999999999999999L;
+    /** maximum significant digits handled by the fast path */
+    final static int MAX_DIGITS = 18;
+    /** exponent value meaning the slow path is required */
+    final static int SLOW_EXPONENT = Integer.MIN_VALUE;
+    /** normalized mantissa hidden bit */
+    private final static long C_MIN = 1L << 52;
+    private final static long T_MASK = C_MIN - 1L;
+
+    /**
+     * @param bits raw bits of a finite positive double (zero included)
+     * @param k decimal scale
+     * @param negative true to round the negative value (CEILING / FLOOR)
+     * @param mode rounding mode
+     * @return round(|v| x 10^k) in [0; 10^18] or -1 if the slow path is required
+     * @throws ArithmeticException if mode is UNNECESSARY and rounding is necessary
+     */
+    static long scaled(final long bits, final int k, final boolean negative, final RoundingMode mode) {
+        if ((k > MAX_DIGITS) || (k < -MAX_DIGITS)) {
+            return -1L;
+        }
+        if (bits == 0L) {
+            return 0L;
+        }
+        final long t = bits & T_MASK;
+        final int bq = (int) (bits >>> 52);
+        final long c;
+        final int q;
+        if (bq != 0) {
+            c = C_MIN | t;
+            q = bq - 1075;
+        } else {
+            // subnormal value:
+            c = t;
+            q = -1074;
+        }
+        // value x 10^k = n + fraction:
+        final long n;
+        // comparison between the discarded fraction and 1/2:
+        final int cmpHalf;
+        final boolean inexact;
+
+        if (k >= 0) {
+            // p = c x 10^k (128 bits) then p x 2^q:
+            final long pow10 = NumberParser.LONG_POW10[k];
+            final long hi = DoubleConverter.unsignedMultiplyHigh(c, pow10);
+            final long lo = c * pow10;
+
+            if (q >= 0) {
+                // integer value (exact):
+                if ((hi != 0L) || (lo < 0L) || (q >= 63) || (lo > (MAX_SCALED >> q))) {
+                    return -1L;
+                }
+                return lo << q;
+            }
+            final int s = -q;
+            if (s >= 128) {
+                // p < 2^117 so p / 2^s < 1/2:
+                n = 0L;
+                cmpHalf = -1;
+                inexact = true;
+            } else if (s >= 64) {
+                final int s2 = s - 64;
+                n = hi >>> s2;
+                if (s2 == 0) {
+                    // half = 2^63 (unsigned lo):
+                    cmpHalf = (lo == Long.MIN_VALUE) ? 0 : ((lo < 0L) ? 1 : -1);
+                    inexact = (lo != 0L);
+                } else {
+                    final long remHi = hi & ((1L << s2) - 1L);
+                    final long halfHi = 1L << (s2 - 1);
+                    cmpHalf = (remHi < halfHi) ? -1 : (((remHi == halfHi) && (lo == 0L)) ? 0 : 1);
+                    inexact = (remHi != 0L) || (lo != 0L);
+                }
+            } else {
+                if ((hi >>> s) != 0L) {
+                    return -1L;
+                }
+                n = (hi << (64 - s)) | (lo >>> s);
+                final long rem = lo & ((1L << s) - 1L);
+                final long half = 1L << (s - 1);
+                cmpHalf = DoubleConverter.unsignedLess(rem, half) ? -1 : ((rem == half) ? 0 : 1);
+                inexact = (rem != 0L);
+            }
+        } else {
+            // w = floor(value) and its fraction:
+            final long w;
+            final boolean fraction;
+            if (q >= 0) {
+                if (q > 10) {
+                    return -1L;
+                }
+                w = c << q;
+                fraction = false;
+            } else if (q > -64) {
+                w = c >>> -q;
+                fraction = (c & ((1L << -q) - 1L)) != 0L;
+            } else {
+                w = 0L;
+                fraction = true;
+            }
+            final long pow10 = NumberParser.LONG_POW10[-k];
+            n = w / pow10;
+            final long rem = w - n * pow10;
+            // half = 10^-k / 2 is an integer:
+            final long half = pow10 >>> 1;
+            cmpHalf = (rem < half) ? -1 : (((rem == half) && !fraction) ? 0 : 1);
+            inexact = (rem != 0L) || fraction;
+        }
+        if ((n < 0L) || (n > MAX_SCALED)) {
+            return -1L;
+        }
+        if (!inexact) {
+            return n;
+        }
+        final boolean increment;
+
+        switch (mode) {
+            case UP:
+                increment = true;
+                break;
+            case CEILING:
+                increment = !negative;
+                break;
+            case FLOOR:
+                increment = negative;
+                break;
+            case HALF_UP:
+                increment = (cmpHalf >= 0);
+                break;
+            case HALF_DOWN:
+                increment = (cmpHalf > 0);
+                break;
+            case HALF_EVEN:
+                increment = (cmpHalf > 0) || ((cmpHalf == 0) && ((n & 1L) != 0L));
+                break;
+            case UNNECESSARY:
+                throw new ArithmeticException("Rounding necessary");
+            case DOWN:
+            default:
+                increment = false;
+        }
+        return (increment) ? (n + 1L) : n;
+    }
+
+    /**
+     * @param bits raw bits of a finite positive double (zero included)
+     * @param digits significant digits in [1; MAX_DIGITS]
+     * @return e = floor(log10(|v|)) (0 for zero) or SLOW_EXPONENT if the slow path is required
+     */
+    static int exponent(final long bits, final int digits) {
+        if (bits == 0L) {
+            return 0;
+        }
+        final long low = NumberParser.LONG_POW10[digits - 1];
+        final long high = (digits == MAX_DIGITS) ? MAX_SCALED : (NumberParser.LONG_POW10[digits] - 1L);
+
+        // estimate may be wrong by one:
+        int e = (int) Math.floor(Math.log10(Double.longBitsToDouble(bits)));
+        for (int i = 0; i < 3; i++) {
+            // 10^e <= v < 10^(e+1) <=> 10^(digits-1) <= floor(v x 10^(digits-1-e)) < 10^digits:
+            final long floor = scaled(bits, digits - 1 - e, false, RoundingMode.DOWN);
+            if (floor < 0L) {
+                return SLOW_EXPONENT;
+            }
+            if (floor < low) {
+                e--;
+            } else if (floor > high) {
+                e++;
+            } else {
+                return e;
+            }
+        }
+        return SLOW_EXPONENT;
+    }
+
+    /* Rare path: |v| with the given fraction digits (plain notation) */
+    static String slowFixed(final double abs, final int fractionDigits,
+                            final boolean negative, final RoundingMode mode) {
+        return new BigDecimal(abs).setScale(fractionDigits, magnitudeMode(negative, mode)).toPlainString();
+    }
+
+    /*
+     Rare path: |v| with the given significant digits in scientific notation (d.dddE-x)
+     or in plain notation if plainMin <= exponent < digits
+     */
+    static String slowScientific(final double abs, final int digits, final int plainMin,
+                                 final boolean negative, final RoundingMode mode) {
+        if (abs == 0.0) {
+            return slowLayout("0", digits, 0, plainMin);
+        }
+        final BigDecimal rounded = new BigDecimal(abs).round(new MathContext(digits, magnitudeMode(negative, mode)));
+        final String unscaled = rounded.unscaledValue().toString();
+        return slowLayout(unscaled, digits, unscaled.length() - 1 - rounded.scale(), plainMin);
+    }
+
+    /* Rounding mode to apply on |v| (CEILING and FLOOR are swapped for negative values) */
+    static RoundingMode magnitudeMode(final boolean negative, final RoundingMode mode) {
+        if (negative) {
+            if (mode == RoundingMode.CEILING) {
+                return RoundingMode.FLOOR;
+            }
+            if (mode == RoundingMode.FLOOR) {
+                return RoundingMode.CEILING;
+            }
+        }
+        return mode;
+    }
+
+    private static String slowLayout(final String unscaled, final int digits, final int exp, final int plainMin) {
+        if ((exp >= plainMin) && (exp < digits)) {
+            // plain notation with digits - 1 - exp fraction digits:
+            final BigDecimal value = new BigDecimal(unscaled).movePointLeft(unscaled.length() - 1 - exp);
+            return value.setScale(digits - 1 - exp, RoundingMode.UNNECESSARY).toPlainString();
+        }
+        final StringBuilder sb = new StringBuilder(digits + 8);
+        sb.append(unscaled.charAt(0));
+        if (digits > 1) {
+            sb.append('.');
+            sb.append(unscaled, 1, Math.min(unscaled.length(), digits));
+            for (int i = unscaled.length(); i < digits; i++) {
+                sb.append('0');
+            }
+        }
+        return sb.append('E').append(exp).toString();
+    }
+
+    private DoubleToFixed() {
+        // utility class
+    }
+}
@@ -0,0 +1,958 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.math.RoundingMode;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Fast number formatter writing ASCII digits into StringBuilder, char[], byte[] or ByteBuffer without any allocation
+ *
+ * Array variants write at the given offset (enough room is expected) and return the offset following the last
+ * written character.
+ *
+ * @author Laurent Bourges
+ */
+public final class NumberFormatter {
+
+    /** 10^19 as unsigned long */
+    private final static long UNSIGNED_POW10_19 = -8446744073709551616L;
+    /** smallest exponent written in plain notation by appendSignificant (like "%g") */
+    private final static int PLAIN_MIN_EXPONENT = -4;
+    /** maximum fraction / significant digits of fixed-precision formatting (like BigDecimal.toPlainString limits) */
+    private final static int MAX_FORMAT_DIGITS = 340;
+    /** two digits per lookup: "00", "01" ... "99" */
+    final static byte[] DIGIT_PAIRS = new byte[200];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    /* Append the given value (like Integer.toString) */
+    public static StringBuilder appendInt(final StringBuilder sb, final int value) {
+        return appendLong(sb, value, 0);
+    }
+
+    /* Append the given value with at least width digits (zero padded, the sign is not counted) */
+    public static StringBuilder appendInt(final StringBuilder sb, final int value, final int width) {
+        return appendLong(sb, value, width);
+    }
+
+    /* Append the given value (like Long.toString) */
+    public static StringBuilder appendLong(final StringBuilder sb, final long value) {
+        return appendLong(sb, value, 0);
+    }
+
+    /* Append the given value with at least width digits (zero padded, the sign is not counted) */
+    public static StringBuilder appendLong(final StringBuilder sb, final long value, final int width) {
+        long v = value;
+        if (v < 0L) {
+            sb.append('-');
+            // Long.MIN_VALUE stays 2^63 as unsigned:
+            v = -v;
+        }
+        return appendDigits(sb, v, Math.max(unsignedDigitCount(v), width));
+    }
+
+    /* Append the unsigned 32 bits value [0; 4294967295] (like Integer.toUnsignedString) */
+    public static StringBuilder appendUnsignedInt(final StringBuilder sb, final int value) {
+        return appendUnsignedLong(sb, value & 0xFFFFFFFFL);
+    }
+
+    /* Append the unsigned 64 bits value [0; 18446744073709551615] (like Long.toUnsignedString) */
+    public static StringBuilder appendUnsignedLong(final StringBuilder sb, final long value) {
+        return appendDigits(sb, value, unsignedDigitCount(value));
+    }
+
+    public static int appendInt(final char[] buf, final int off, final int value) {
+        return appendLong(buf, off, value, 0);
+    }
+
+    public static int appendInt(final char[] buf, final int off, final int value, final int width) {
+        return appendLong(buf, off, value, width);
+    }
+
+    public static int appendLong(final char[] buf, final int off, final long value) {
+        return appendLong(buf, off, value, 0);
+    }
+
+    public static int appendLong(final char[] buf, final int off, final long value, final int width) {
+        int pos = off;
+        long v = value;
+        if (v < 0L) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        return appendDigits(buf, pos, v, Math.max(unsignedDigitCount(v), width));
+    }
+
+    public static int appendUnsignedInt(final char[] buf, final int off, final int value) {
+        return appendUnsignedLong(buf, off, value & 0xFFFFFFFFL);
+    }
+
+    public static int appendUnsignedLong(final char[] buf, final int off, final long value) {
+        return appendDigits(buf, off, value, unsignedDigitCount(value));
+    }
+
+    public static int appendInt(final byte[] buf, final int off, final int value) {
+        return appendLong(buf, off, value, 0);
+    }
+
+    public static int appendInt(final byte[] buf, final int off, final int value, final int width) {
+        return appendLong(buf, off, value, width);
+    }
+
+    public static int appendLong(final byte[] buf, final int off, final long value) {
+        return appendLong(buf, off, value, 0);
+    }
+
+    public static int appendLong(final byte[] buf, final int off, final long value, final int width) {
+        int pos = off;
+        long v = value;
+        if (v < 0L) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        return appendDigits(buf, pos, v, Math.max(unsignedDigitCount(v), width));
+    }
+
+    public static int appendUnsignedInt(final byte[] buf, final int off, final int value) {
+        return appendUnsignedLong(buf, off, value & 0xFFFFFFFFL);
+    }
+
+    public static int appendUnsignedLong(final byte[] buf, final int off, final long value) {
+        return appendDigits(buf, off, value, unsignedDigitCount(value));
+    }
+
+    // ByteBuffer variants (ASCII, heap or direct): write at the buffer position and move it after the last character
+    public static ByteBuffer appendInt(final ByteBuffer buffer, final int value) {
+        return appendLong(buffer, value, 0);
+    }
+
+    public static ByteBuffer appendInt(final ByteBuffer buffer, final int value, final int width) {
+        return appendLong(buffer, value, width);
+    }
+
+    public static ByteBuffer appendLong(final ByteBuffer buffer, final long value) {
+        return appendLong(buffer, value, 0);
+    }
+
+    public static ByteBuffer appendLong(final ByteBuffer buffer, final long value, final int width) {
+        int pos = buffer.position();
+        long v = value;
+        if (v < 0L) {
+            buffer.put(pos++, (byte) '-');
+            v = -v;
+        }
+        final int end = pos + Math.max(unsignedDigitCount(v), width);
+        if (buffer.hasArray()) {
+            final int arrayOffset = buffer.arrayOffset();
+            writeDigits(buffer.array(), arrayOffset + pos, arrayOffset + end, v);
+        } else {
+            writeDigits(buffer, pos, end, v);
+        }
+        // Buffer.position(int) links on Java 7/8 runtimes (covariant ByteBuffer override since Java 9):
+        ((Buffer) buffer).position(end);
+        return buffer;
+    }
+
+    /*
+     Append the shortest decimal representation of the given double that rounds to the same value
+     (same layout as Double.toString: 1.0E-5, 0.001, 123.45, 1234567.0, 1.0E7 ...)
+     */
+    public static StringBuilder appendDouble(final StringBuilder sb, final double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final String special = specialValue(bits);
+        if (special != null) {
+            return sb.append(special);
+        }
+        if (bits < 0L) {
+            sb.append('-');
+        }
+        final long abs = bits & Long.MAX_VALUE;
+        return appendDecimal(sb, DoubleToDecimal.digits(abs), DoubleToDecimal.exponent(abs));
+    }
+
+    /* Append the decimal f x 10^e (f > 0) like Double.toString */
+    private static StringBuilder appendDecimal(final StringBuilder sb, final long f, final int e) {
+        // remove trailing zeros:
+        long digits = f;
+        int exp = e;
+        if ((digits % 100000000L) == 0L) {
+            digits /= 100000000L;
+            exp += 8;
+        }
+        while ((digits % 10L) == 0L) {
+            digits /= 10L;
+            exp++;
+        }
+        final int n = digitCount(digits);
+        // value = 0.DDD x 10^exp:
+        exp += n;
+
+        if ((exp > 0) && (exp <= 7)) {
+            // plain notation:
+            if (n <= exp) {
+                appendDigits(sb, digits, n);
+                for (int i = n; i < exp; i++) {
+                    sb.append('0');
+                }
+                sb.append('.');
+                sb.append('0');
+            } else {
+                final long pow10 = NumberParser.LONG_POW10[n - exp];
+                final long high = digits / pow10;
+                appendDigits(sb, high, exp);
+                sb.append('.');
+                appendDigits(sb, digits - high * pow10, n - exp);
+            }
+        } else if ((exp > -3) && (exp <= 0)) {
+            // plain notation with leading zeros:
+            sb.append('0');
+            sb.append('.');
+            for (int i = exp; i < 0; i++) {
+                sb.append('0');
+            }
+            appendDigits(sb, digits, n);
+        } else {
+            // computerized scientific notation:
+            final long pow10 = NumberParser.LONG_POW10[n - 1];
+            final long high = digits / pow10;
+            sb.append((char) ('0' + high));
+            sb.append('.');
+            if (n == 1) {
+                sb.append('0');
+            } else {
+                appendDigits(sb, digits - high * pow10, n - 1);
+            }
+            sb.append('E');
+            int x = exp - 1;
+            if (x < 0) {
+                sb.append('-');
+                x = -x;
+            }
+            appendDigits(sb, x, (x < 10) ? 1 : ((x < 100) ? 2 : 3));
+        }
+        return sb;
+    }
+
+    /* Append exactly count digits of the given unsigned value (zero padded) */
+    static StringBuilder appendDigits(final StringBuilder sb, final long value, final int count) {
+        final int start = sb.length();
+        int pos = start + count;
+        sb.setLength(pos);
+
+        long v = value;
+        if (v < 0L) {
+            // unsigned division by 10:
+            final long q = (v >>> 1) / 5L;
+            sb.setCharAt(--pos, (char) ('0' + (v - q * 10L)));
+            v = q;
+        }
+        while (v >= 100L) {
+            final long q = v / 100L;
+            final int r = (int) (v - q * 100L) << 1;
+            sb.setCharAt(--pos, (char) DIGIT_PAIRS[r + 1]);
+            sb.setCharAt(--pos, (char) DIGIT_PAIRS[r]);
+            v = q;
+        }
+        if (v >= 10L) {
+            final int r = (int) v << 1;
+            sb.setCharAt(--pos, (char) DIGIT_PAIRS[r + 1]);
+            sb.setCharAt(--pos, (char) DIGIT_PAIRS[r]);
+        } else {
+            sb.setCharAt(--pos, (char) ('0' + v));
+        }
+        while (pos > start) {
+            sb.setCharAt(--pos, '0');
+        }
+        return sb;
+    }
+
+    public static int appendDouble(final char[] buf, final int off, final double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final String special = specialValue(bits);
+        int pos = off;
+        if (special != null) {
+            for (int i = 0, len = special.length(); i < len; i++) {
+                buf[pos++] = special.charAt(i);
+            }
+            return pos;
+        }
+        if (bits < 0L) {
+            buf[pos++] = '-';
+        }
+        final long abs = bits & Long.MAX_VALUE;
+        return appendDecimal(buf, pos, DoubleToDecimal.digits(abs), DoubleToDecimal.exponent(abs));
+    }
+
+    /* Write the decimal f x 10^e (f > 0) like Double.toString */
+    private static int appendDecimal(final char[] buf, final int off, final long f, final int e) {
+        int pos = off;
+        // remove trailing zeros:
+        long digits = f;
+        int exp = e;
+        if ((digits % 100000000L) == 0L) {
+            digits /= 100000000L;
+            exp += 8;
+        }
+        while ((digits % 10L) == 0L) {
+            digits /= 10L;
+            exp++;
+        }
+        final int n = digitCount(digits);
+        // value = 0.DDD x 10^exp:
+        exp += n;
+
+        if ((exp > 0) && (exp <= 7)) {
+            // plain notation:
+            if (n <= exp) {
+                pos = appendDigits(buf, pos, digits, n);
+                for (int i = n; i < exp; i++) {
+                    buf[pos++] = '0';
+                }
+                buf[pos++] = '.';
+                buf[pos++] = '0';
+            } else {
+                final long pow10 = NumberParser.LONG_POW10[n - exp];
+                final long high = digits / pow10;
+                pos = appendDigits(buf, pos, high, exp);
+                buf[pos++] = '.';
+                pos = appendDigits(buf, pos, digits - high * pow10, n - exp);
+            }
+        } else if ((exp > -3) && (exp <= 0)) {
+            // plain notation with leading zeros:
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for (int i = exp; i < 0; i++) {
+                buf[pos++] = '0';
+            }
+            pos = appendDigits(buf, pos, digits, n);
+        } else {
+            // computerized scientific notation:
+            final long pow10 = NumberParser.LONG_POW10[n - 1];
+            final long high = digits / pow10;
+            buf[pos++] = (char) ('0' + high);
+            buf[pos++] = '.';
+            if (n == 1) {
+                buf[pos++] = '0';
+            } else {
+                pos = appendDigits(buf, pos, digits - high * pow10, n - 1);
+            }
+            buf[pos++] = 'E';
+            int x = exp - 1;
+            if (x < 0) {
+                buf[pos++] = '-';
+                x = -x;
+            }
+            pos = appendDigits(buf, pos, x, (x < 10) ? 1 : ((x < 100) ? 2 : 3));
+        }
+        return pos;
+    }
+
+    /* Write exactly count digits of the given unsigned value (zero padded) */
+    static int appendDigits(final char[] buf, final int off, final long value, final int count) {
+        final int end = off + count;
+        int pos = end;
+
+        long v = value;
+        if (v < 0L) {
+            // unsigned division by 10:
+            final long q = (v >>> 1) / 5L;
+            buf[--pos] = (char) ('0' + (v - q * 10L));
+            v = q;
+        }
+        while (v > Integer.MAX_VALUE) {
+            final long q = v / 100L;
+            final int r = (int) (v - q * 100L) << 1;
+            buf[--pos] = (char) DIGIT_PAIRS[r + 1];
+            buf[--pos] = (char) DIGIT_PAIRS[r];
+            v = q;
+        }
+        // int arithmetic:
+        int i = (int) v;
+        while (i >= 100) {
+            final int q = i / 100;
+            final int r = (i - q * 100) << 1;
+            buf[--pos] = (char) DIGIT_PAIRS[r + 1];
+            buf[--pos] = (char) DIGIT_PAIRS[r];
+            i = q;
+        }
+        if (i >= 10) {
+            buf[--pos] = (char) DIGIT_PAIRS[(i << 1) + 1];
+            buf[--pos] = (char) DIGIT_PAIRS[i << 1];
+        } else {
+            buf[--pos] = (char) ('0' + i);
+        }
+        while (pos > off) {
+            buf[--pos] = '0';
+        }
+        return end;
+    }
+
+    public static int appendDouble(final byte[] buf, final int off, final double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final String special = specialValue(bits);
+        int pos = off;
+        if (special != null) {
+            for (int i = 0, len = special.length(); i < len; i++) {
+                buf[pos++] = (byte) special.charAt(i);
+            }
+            return pos;
+        }
+        if (bits < 0L) {
+            buf[pos++] = '-';
+        }
+        final long abs = bits & Long.MAX_VALUE;
+        return appendDecimal(buf, pos, DoubleToDecimal.digits(abs), DoubleToDecimal.exponent(abs));
+    }
+
+    /* Write the decimal f x 10^e (f > 0) like Double.toString */
+    private static int appendDecimal(final byte[] buf, final int off, final long f, final int e) {
+        int pos = off;
+        // remove trailing zeros:
+        long digits = f;
+        int exp = e;
+        if ((digits % 100000000L) == 0L) {
+            digits /= 100000000L;
+            exp += 8;
+        }
+        while ((digits % 10L) == 0L) {
+            digits /= 10L;
+            exp++;
+        }
+        final int n = digitCount(digits);
+        // value = 0.DDD x 10^exp:
+        exp += n;
+
+        if ((exp > 0) && (exp <= 7)) {
+            // plain notation:
+            if (n <= exp) {
+                pos = appendDigits(buf, pos, digits, n);
+                for (int i = n; i < exp; i++) {
+                    buf[pos++] = '0';
+                }
+                buf[pos++] = '.';
+                buf[pos++] = '0';
+            } else {
+                final long pow10 = NumberParser.LONG_POW10[n - exp];
+                final long high = digits / pow10;
+                pos = appendDigits(buf, pos, high, exp);
+                buf[pos++] = '.';
+                pos = appendDigits(buf, pos, digits - high * pow10, n - exp);
+            }
+        } else if ((exp > -3) && (exp <= 0)) {
+            // plain notation with leading zeros:
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for (int i = exp; i < 0; i++) {
+                buf[pos++] = '0';
+            }
+            pos = appendDigits(buf, pos, digits, n);
+        } else {
+            // computerized scientific notation:
+            final long pow10 = NumberParser.LONG_POW10[n - 1];
+            final long high = digits / pow10;
+            buf[pos++] = (byte) ('0' + high);
+            buf[pos++] = '.';
+            if (n == 1) {
+                buf[pos++] = '0';
+            } else {
+                pos = appendDigits(buf, pos, digits - high * pow10, n - 1);
+            }
+            buf[pos++] = 'E';
+            int x = exp - 1;
+            if (x < 0) {
+                buf[pos++] = '-';
+                x = -x;
+            }
+            pos = appendDigits(buf, pos, x, (x < 10) ? 1 : ((x < 100) ? 2 : 3));
+        }
+        return pos;
+    }
+
+    /* Write exactly count digits of the given unsigned value (zero padded) */
+    static int appendDigits(final byte[] buf, final int off, final long value, final int count) {
+        final int end = off + count;
+        writeDigits(buf, off, end, value);
+        return end;
+    }
+
+    /* Write the digits of the given unsigned value backwards from end and pad with zeros down to start */
+    private static void writeDigits(final byte[] buf, final int start, final int end, final long value) {
+        int pos = end;
+
+        long v = value;
+        if (v < 0L) {
+            // unsigned division by 10:
+            final long q = (v >>> 1) / 5L;
+            buf[--pos] = (byte) ('0' + (v - q * 10L));
+            v = q;
+        }
+        while (v > Integer.MAX_VALUE) {
+            final long q = v / 100L;
+            final int r = (int) (v - q * 100L) << 1;
+            buf[--pos] = DIGIT_PAIRS[r + 1];
+            buf[--pos] = DIGIT_PAIRS[r];
+            v = q;
+        }
+        // int arithmetic:
+        int i = (int) v;
+        while (i >= 100) {
+            final int q = i / 100;
+            final int r = (i - q * 100) << 1;
+            buf[--pos] = DIGIT_PAIRS[r + 1];
+            buf[--pos] = DIGIT_PAIRS[r];
+            i = q;
+        }
+        if (i >= 10) {
+            buf[--pos] = DIGIT_PAIRS[(i << 1) + 1];
+            buf[--pos] = DIGIT_PAIRS[i << 1];
+        } else {
+            buf[--pos] = (byte) ('0' + i);
+        }
+        while (pos > start) {
+            buf[--pos] = '0';
+        }
+    }
+
+    /* Write the digits of the given unsigned value backwards from end and pad with zeros down to start */
+    private static void writeDigits(final ByteBuffer buffer, final int start, final int end, final long value) {
+        int pos = end;
+
+        long v = value;
+        if (v < 0L) {
+            // unsigned division by 10:
+            final long q = (v >>> 1) / 5L;
+            buffer.put(--pos, (byte) ('0' + (v - q * 10L)));
+            v = q;
+        }
+        while (v >= 100L) {
+            final long q = v / 100L;
+            final int r = (int) (v - q * 100L) << 1;
+            buffer.put(--pos, DIGIT_PAIRS[r + 1]);
+            buffer.put(--pos, DIGIT_PAIRS[r]);
+            v = q;
+        }
+        if (v >= 10L) {
+            final int r = (int) v << 1;
+            buffer.put(--pos, DIGIT_PAIRS[r + 1]);
+            buffer.put(--pos, DIGIT_PAIRS[r]);
+        } else {
+            buffer.put(--pos, (byte) ('0' + v));
+        }
+        while (pos > start) {
+            buffer.put(--pos, (byte) '0');
+        }
+    }
+
+    /*
+     Fixed-precision formatting (allocation-free DecimalFormat / String.format replacement): the exact double value is
+     correctly rounded with the given mode (like BigDecimal) then written as:
+     - appendFixed: fractionDigits digits after the decimal point ("%.3f" or "0.000" patterns): -12.340
+     - appendScientific: 1 digit, fractionDigits digits then the exponent ("0.000E0" pattern): -1.234E1
+     - appendSignificant: digits significant digits in plain notation if 1E-4 <= |v| < 10^digits, else in
+     scientific notation ("%.Ng" layout): 0.0001234, 12.34, 1.234E8
+     NaN and infinities are written like Double.toString. Only values out of the 18 digits range use a BigDecimal.
+     */
+    public static StringBuilder appendFixed(final StringBuilder sb, final double value,
+                                            final int fractionDigits, final RoundingMode mode) {
+        checkDigits(fractionDigits, 0);
+        final long bits = Double.doubleToRawLongBits(value);
+        final long abs = bits & Long.MAX_VALUE;
+        if (abs >= 0x7FF0000000000000L) {
+            return sb.append(specialValue(bits));
+        }
+        final boolean negative = (bits < 0L);
+        // round before writing the sign (UNNECESSARY may throw an ArithmeticException):
+        final long scaled = DoubleToFixed.scaled(abs, fractionDigits, negative, mode);
+        // rare slow path:
+        final String slow = (scaled < 0L)
+                ? DoubleToFixed.slowFixed(Double.longBitsToDouble(abs), fractionDigits, negative, mode) : null;
+        if (negative) {
+            sb.append('-');
+        }
+        if (slow != null) {
+            return sb.append(slow);
+        }
+        return writeFixed(sb, scaled, fractionDigits);
+    }
+
+    public static StringBuilder appendScientific(final StringBuilder sb, final double value,
+                                                 final int fractionDigits, final RoundingMode mode) {
+        checkDigits(fractionDigits, 0);
+        return appendRounded(sb, value, fractionDigits + 1, Integer.MAX_VALUE, mode);
+    }
+
+    public static StringBuilder appendSignificant(final StringBuilder sb, final double value,
+                                                  final int digits, final RoundingMode mode) {
+        checkDigits(digits, 1);
+        return appendRounded(sb, value, digits, PLAIN_MIN_EXPONENT, mode);
+    }
+
+    /* Append the given double rounded to digits significant digits (plain notation if plainMin <= exponent < digits) */
+    private static StringBuilder appendRounded(final StringBuilder sb, final double value,
+                                               final int digits, final int plainMin, final RoundingMode mode) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final long abs = bits & Long.MAX_VALUE;
+        if (abs >= 0x7FF0000000000000L) {
+            return sb.append(specialValue(bits));
+        }
+        final boolean negative = (bits < 0L);
+        // round before writing the sign (UNNECESSARY may throw an ArithmeticException):
+        int exp = DoubleToFixed.SLOW_EXPONENT;
+        long scaled = -1L;
+        if (digits <= DoubleToFixed.MAX_DIGITS) {
+            exp = DoubleToFixed.exponent(abs, digits);
+            if (exp != DoubleToFixed.SLOW_EXPONENT) {
+                scaled = DoubleToFixed.scaled(abs, digits - 1 - exp, negative, mode);
+            }
+        }
+        // rare slow path:
+        final String slow = (scaled < 0L)
+                ? DoubleToFixed.slowScientific(Double.longBitsToDouble(abs), digits, plainMin, negative, mode) : null;
+        if (negative) {
+            sb.append('-');
+        }
+        if (slow != null) {
+            return sb.append(slow);
+        }
+        if (scaled == NumberParser.LONG_POW10[digits]) {
+            // rounded up to the next power of 10 (9.99 to 10.0):
+            scaled /= 10L;
+            exp++;
+        }
+        if ((exp >= plainMin) && (exp < digits)) {
+            return writeFixed(sb, scaled, digits - 1 - exp);
+        }
+        return writeScientific(sb, scaled, digits - 1, exp);
+    }
+
+    /* Append scaled x 10^-fractionDigits in plain notation */
+    private static StringBuilder writeFixed(final StringBuilder sb, final long scaled, final int fractionDigits) {
+        if (fractionDigits == 0) {
+            return appendDigits(sb, scaled, digitCount(scaled));
+        }
+        final long pow10 = NumberParser.LONG_POW10[fractionDigits];
+        final long high = scaled / pow10;
+        appendDigits(sb, high, digitCount(high));
+        sb.append('.');
+        return appendDigits(sb, scaled - high * pow10, fractionDigits);
+    }
+
+    /* Append scaled x 10^(exp - fractionDigits) as d.ddd E exp */
+    private static StringBuilder writeScientific(final StringBuilder sb, final long scaled,
+                                                 final int fractionDigits, final int exp) {
+        final long pow10 = NumberParser.LONG_POW10[fractionDigits];
+        final long high = scaled / pow10;
+        sb.append((char) ('0' + high));
+        if (fractionDigits != 0) {
+            sb.append('.');
+            appendDigits(sb, scaled - high * pow10, fractionDigits);
+        }
+        sb.append('E');
+        int x = exp;
+        if (x < 0) {
+            sb.append('-');
+            x = -x;
+        }
+        return appendDigits(sb, x, digitCount(x));
+    }
+
+    public static int appendFixed(final char[] buf, final int off, final double value,
+                                  final int fractionDigits, final RoundingMode mode) {
+        checkDigits(fractionDigits, 0);
+        final long bits = Double.doubleToRawLongBits(value);
+        final long abs = bits & Long.MAX_VALUE;
+        if (abs >= 0x7FF0000000000000L) {
+            return appendAscii(buf, off, specialValue(bits));
+        }
+        int pos = off;
+        final boolean negative = (bits < 0L);
+        // round before writing the sign (UNNECESSARY may throw an ArithmeticException):
+        final long scaled = DoubleToFixed.scaled(abs, fractionDigits, negative, mode);
+        // rare slow path:
+        final String slow = (scaled < 0L)
+                ? DoubleToFixed.slowFixed(Double.longBitsToDouble(abs), fractionDigits, negative, mode) : null;
+        if (negative) {
+            buf[pos++] = '-';
+        }
+        if (slow != null) {
+            return appendAscii(buf, pos, slow);
+        }
+        return writeFixed(buf, pos, scaled, fractionDigits);
+    }
+
+    public static int appendScientific(final char[] buf, final int off, final double value,
+                                       final int fractionDigits, final RoundingMode mode) {
+        checkDigits(fractionDigits, 0);
+        return appendRounded(buf, off, value, fractionDigits + 1, Integer.MAX_VALUE, mode);
+    }
+
+    public static int appendSignificant(final char[] buf, final int off, final double value,
+                                        final int digits, final RoundingMode mode) {
+        checkDigits(digits, 1);
+        return appendRounded(buf, off, value, digits, PLAIN_MIN_EXPONENT, mode);
+    }
+
+    /* Write the given double rounded to digits significant digits (plain notation if plainMin <= exponent < digits) */
+    private static int appendRounded(final char[] buf, final int off, final double value,
+                                     final int digits, final int plainMin, final RoundingMode mode) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final long abs = bits & Long.MAX_VALUE;
+        if (abs >= 0x7FF0000000000000L) {
+            return appendAscii(buf, off, specialValue(bits));
+        }
+        int pos = off;
+        final boolean negative = (bits < 0L);
+        // round before writing the sign (UNNECESSARY may throw an ArithmeticException):
+        int exp = DoubleToFixed.SLOW_EXPONENT;
+        long scaled = -1L;
+        if (digits <= DoubleToFixed.MAX_DIGITS) {
+            exp = DoubleToFixed.exponent(abs, digits);
+            if (exp != DoubleToFixed.SLOW_EXPONENT) {
+                scaled = DoubleToFixed.scaled(abs, digits - 1 - exp, negative, mode);
+            }
+        }
+        // rare slow path:
+        final String slow = (scaled < 0L)
+                ? DoubleToFixed.slowScientific(Double.longBitsToDouble(abs), digits, plainMin, negative, mode) : null;
+        if (negative) {
+            buf[pos++] = '-';
+        }
+        if (slow != null) {
+            return appendAscii(buf, pos, slow);
+        }
+        if (scaled == NumberParser.LONG_POW10[digits]) {
+            // rounded up to the next power of 10 (9.99 to 10.0):
+            scaled /= 10L;
+            exp++;
+        }
+        if ((exp >= plainMin) && (exp < digits)) {
+            return writeFixed(buf, pos, scaled, digits - 1 - exp);
+        }
+        return writeScientific(buf, pos, scaled, digits - 1, exp);
+    }
+
+    /* Write scaled x 10^-fractionDigits in plain notation */
+    private static int writeFixed(final char[] buf, final int off, final long scaled, final int fractionDigits) {
+        if (fractionDigits == 0) {
+            return appendDigits(buf, off, scaled, digitCount(scaled));
+        }
+        final long pow10 = NumberParser.LONG_POW10[fractionDigits];
+        final long high = scaled / pow10;
+        int pos = appendDigits(buf, off, high, digitCount(high));
+        buf[pos++] = '.';
+        return appendDigits(buf, pos, scaled - high * pow10, fractionDigits);
+    }
+
+    /* Write scaled x 10^(exp - fractionDigits) as d.ddd E exp */
+    private static int writeScientific(final char[] buf, final int off, final long scaled,
+                                       final int fractionDigits, final int exp) {
+        int pos = off;
+        final long pow10 = NumberParser.LONG_POW10[fractionDigits];
+        final long high = scaled / pow10;
+        buf[pos++] = (char) ('0' + high);
+        if (fractionDigits != 0) {
+            buf[pos++] = '.';
+            pos = appendDigits(buf, pos, scaled - high * pow10, fractionDigits);
+        }
+        buf[pos++] = 'E';
+        int x = exp;
+        if (x < 0) {
+            buf[pos++] = '-';
+            x = -x;
+        }
+        return appendDigits(buf, pos, x, digitCount(x));
+    }
+
+    static int appendAscii(final char[] buf, final int off, final String value) {
+        int pos = off;
+        for (int i = 0, len = value.length(); i < len; i++) {
+            buf[pos++] = value.charAt(i);
+        }
+        return pos;
+    }
+
+    public static int appendFixed(final byte[] buf, final int off, final double value,
+                                  final int fractionDigits, final RoundingMode mode) {
+        checkDigits(fractionDigits, 0);
+        final long bits = Double.doubleToRawLongBits(value);
+        final long abs = bits & Long.MAX_VALUE;
+        if (abs >= 0x7FF0000000000000L) {
+            return appendAscii(buf, off, specialValue(bits));
+        }
+        int pos = off;
+        final boolean negative = (bits < 0L);
+        // round before writing the sign (UNNECESSARY may throw an ArithmeticException):
+        final long scaled = DoubleToFixed.scaled(abs, fractionDigits, negative, mode);
+        // rare slow path:
+        final String slow = (scaled < 0L)
+                ? DoubleToFixed.slowFixed(Double.longBitsToDouble(abs), fractionDigits, negative, mode) : null;
+        if (negative) {
+            buf[pos++] = '-';
+        }
+        if (slow != null) {
+            return appendAscii(buf, pos, slow);
+        }
+        return writeFixed(buf, pos, scaled, fractionDigits);
+    }
+
+    public static int appendScientific(final byte[] buf, final int off, final double value,
+                                       final int fractionDigits, final RoundingMode mode) {
+        checkDigits(fractionDigits, 0);
+        return appendRounded(buf, off, value, fractionDigits + 1, Integer.MAX_VALUE, mode);
+    }
+
+    public static int appendSignificant(final byte[] buf, final int off, final double value,
+                                        final int digits, final RoundingMode mode) {
+        checkDigits(digits, 1);
+        return appendRounded(buf, off, value, digits, PLAIN_MIN_EXPONENT, mode);
+    }
+
+    /* Write the given double rounded to digits significant digits (plain notation if plainMin <= exponent < digits) */
+    private static int appendRounded(final byte[] buf, final int off, final double value,
+                                     final int digits, final int plainMin, final RoundingMode mode) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final long abs = bits & Long.MAX_VALUE;
+        if (abs >= 0x7FF0000000000000L) {
+            return appendAscii(buf, off, specialValue(bits));
+        }
+        int pos = off;
+        final boolean negative = (bits < 0L);
+        // round before writing the sign (UNNECESSARY may throw an ArithmeticException):
+        int exp = DoubleToFixed.SLOW_EXPONENT;
+        long scaled = -1L;
+        if (digits <= DoubleToFixed.MAX_DIGITS) {
+            exp = DoubleToFixed.exponent(abs, digits);
+            if (exp != DoubleToFixed.SLOW_EXPONENT) {
+                scaled = DoubleToFixed.scaled(abs, digits - 1 - exp, negative, mode);
+            }
+        }
+        // rare slow path:
+        final String slow = (scaled < 0L)
+                ? DoubleToFixed.slowScientific(Double.longBitsToDouble(abs), digits, plainMin, negative, mode) : null;
+        if (negative) {
+            buf[pos++] = '-';
+        }
+        if (slow != null) {
+            return appendAscii(buf, pos, slow);
+        }
+        if (scaled == NumberParser.LONG_POW10[digits]) {
+            // rounded up to the next power of 10 (9.99 to 10.0):
+            scaled /= 10L;
+            exp++;
+        }
+        if ((exp >= plainMin) && (exp < digits)) {
+            return writeFixed(buf, pos, scaled, digits - 1 - exp);
+        }
+        return writeScientific(buf, pos, scaled, digits - 1, exp);
+    }
+
+    /* Write scaled x 10^-fractionDigits in plain notation */
+    private static int writeFixed(final byte[] buf, final int off, final long scaled, final int fractionDigits) {
+        if (fractionDigits == 0) {
+            return appendDigits(buf, off, scaled, digitCount(scaled));
+        }
+        final long pow10 = NumberParser.LONG_POW10[fractionDigits];
+        final long high = scaled / pow10;
+        int pos = appendDigits(buf, off, high, digitCount(high));
+        buf[pos++] = '.';
+        return appendDigits(buf, pos, scaled - high * pow10, fractionDigits);
+    }
+
+    /* Write scaled x 10^(exp - fractionDigits) as d.ddd E exp */
+    private static int writeScientific(final byte[] buf, final int off, final long scaled,
+                                       final int fractionDigits, final int exp) {
+        int pos = off;
+        final long pow10 = NumberParser.LONG_POW10[fractionDigits];
+        final long high = scaled / pow10;
+        buf[pos++] = (byte) ('0' + high);
+        if (fractionDigits != 0) {
+            buf[pos++] = '.';
+            pos = appendDigits(buf, pos, scaled - high * pow10, fractionDigits);
+        }
+        buf[pos++] = 'E';
+        int x = exp;
+        if (x < 0) {
+            buf[pos++] = '-';
+            x = -x;
+        }
+        return appendDigits(buf, pos, x, digitCount(x));
+    }
+
+    static int appendAscii(final byte[] buf, final int off, final String value) {
+        int pos = off;
+        for (int i = 0, len = value.length(); i < len; i++) {
+            buf[pos++] = (byte) value.charAt(i);
+        }
+        return pos;
+    }
+
+    private static void checkDigits(final int digits, final int min) {
+        if ((digits < min) || (digits > MAX_FORMAT_DIGITS)) {
+            throw new IllegalArgumentException("digits " + digits
+                                               + " out of range [" + min + "; " + MAX_FORMAT_DIGITS + "]");
+        }
+    }
+
+    /* Return the Double.toString value for NaN, infinities and zeros or null */
+    private static String specialValue(final long bits) {
+        final long abs = bits & Long.MAX_VALUE;
+        if (abs == 0L) {
+            return (bits == 0L) ? "0.0" : "-0.0";
+        }
+        if (abs >= 0x7FF0000000000000L) {
+            return (abs != 0x7FF0000000000000L) ? "NaN" : ((bits > 0L) ? "Infinity" : "-Infinity");
+        }
+        return null;
+    }
+
+    /* Number of decimal digits of the given unsigned value */
+    static int unsignedDigitCount(final long value) {
+        if (value < 0L) {
+            // >= 2^63: 19 or 20 digits
+            return DoubleConverter.unsignedLess(value, UNSIGNED_POW10_19) ? 19 : 20;
+        }
+        return digitCount(value);
+    }
+
+    /* Number of decimal digits of the given positive value */
+    static int digitCount(final long value) {
+        // estimate floor(log10(2^bits)) = bits x 1233 / 4096 then fix it by one comparison:
+        // (value | 1) gives 1 digit for 0 and does not change the comparison with even powers of 10:
+        final long v = value | 1L;
+        final int n = ((64 - Long.numberOfLeadingZeros(v)) * 1233) >>> 12;
+        return (v >= NumberParser.LONG_POW10[n]) ? n + 1 : n;
+    }
+
+    private NumberFormatter() {
+        // utility class
+    }
+}
@@ -24,9 +24,17 @@
  */
 package org.jnumbers;
 
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 /**
  * Fast number Parser
  *
+ * Inputs: CharSequence, byte[] (ASCII) or ByteBuffer (ASCII, heap or direct)
+ * with [offset, end[ ranges, giving identical results
+ *
  * TODO: 
  * - move into a dedicated package + Fix License.
  * - check overflows !
@@ -36,32 +44,35 @@ package org.jnumbers;
  */
 public final class NumberParser {
 
-    private final static boolean USE_POW_TABLE = true;
+    // marker result: throw NumberFormatException on failure (never modified):
+    private final static ParseResult THROW_ERRORS = new ParseResult();
 
-    // Precompute Math.pow(10, n) as table:
-    private final static int POW_RANGE = (USE_POW_TABLE) ? 256 : 0;
-    private final static double[] POS_EXPS = new double[POW_RANGE];
-    private final static double[] NEG_EXPS = new double[POW_RANGE];
+    // Powers of ten as long values [10^0; 10^18]:
+    final static long[] LONG_POW10 = new long[19];
 
     static {
-        for (int i = 0; i < POW_RANGE; i++) {
-            POS_EXPS[i] = Math.pow(10., i);
-            NEG_EXPS[i] = Math.pow(10., -i);
+        long pow10 = 1L;
+        for (int i = 0; i < LONG_POW10.length; i++) {
+            LONG_POW10[i] = pow10;
+            pow10 *= 10L;
         }
     }
 
-    // Calculate the value of the specified exponent - reuse a precalculated value if possible
-    private final static double getPow10(final int exp) {
-        if (USE_POW_TABLE) {
-            if (exp > -POW_RANGE) {
-                if (exp <= 0) {
-                    return NEG_EXPS[-exp];
-                } else if (exp < POW_RANGE) {
-                    return POS_EXPS[exp];
-                }
-            }
+    // (2^64 - 1) / 10 as unsigned long:
+    private final static long UNSIGNED_MAX_DIV10 = 1844674407370955161L;
+
+    // Digit values of ASCII characters in radix 36 (-1 if not a digit):
+    private final static byte[] RADIX_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(RADIX_DIGITS, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            RADIX_DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 26; i++) {
+            RADIX_DIGITS['a' + i] = (byte) (10 + i);
+            RADIX_DIGITS['A' + i] = (byte) (10 + i);
         }
-        return Math.pow(10., exp);
     }
 
     public static int getInteger(final CharSequence csq) throws NumberFormatException {
@@ -70,32 +81,72 @@ public final class NumberParser {
 
     public static int getInteger(final CharSequence csq,
                                  final int offset, final int end) throws NumberFormatException {
+        return parseInteger(csq, offset, end, THROW_ERRORS, false);
+    }
+
+    public static int parseInteger(final CharSequence csq, final ParseResult result) {
+        return parseInteger(csq, 0, csq.length(), result);
+    }
+
+    /*
+     Parse [-]DDDDD without any exception: return NumberUtils.NULL_INT and set the (optional) result status on failure
+     */
+    public static int parseInteger(final CharSequence csq,
+                                   final int offset, final int end,
+                                   final ParseResult result) {
+        return parseInteger(csq, offset, end, result, false);
+    }
+
+    /*
+     Scan [-]DDDDD as far as possible (any character may follow): the cursor gives the next offset
+     (or the INVALID status if no digit)
+     */
+    public static int scanInteger(final CharSequence csq,
+                                  final int offset, final int end,
+                                  final ParseResult cursor) {
+        return parseInteger(csq, offset, end, cursor, true);
+    }
 
+    private static int parseInteger(final CharSequence csq,
+                                    final int offset, final int end,
+                                    final ParseResult result, final boolean scan) {
         int off = offset;
 
         boolean sign = false;
         char ch;
 
-        if ((end == 0)
+        if ((offset == end)
                 || (((ch = csq.charAt(off)) < '0') || (ch > '9'))
                 && (!(sign = ch == '-') || (++off == end) || (((ch = csq.charAt(off)) < '0') || (ch > '9')))) {
-            throw new NumberFormatException(csq.toString());
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, off, "", csq);
+            return NumberUtils.NULL_INT;
         }
-        // check overflow:
-        final int limit = (sign) ? (-Integer.MAX_VALUE / 10) : (-Integer.MIN_VALUE / 10); // inline
+        int ival = 0;
 
-        for (int ival = 0;; ival *= 10) {
+        for (;; ival *= 10) {
             ival += '0' - ch; // negative
             if (++off == end) {
-                return sign ? ival : -ival;
+                break;
             }
             if (((ch = csq.charAt(off)) < '0') || (ch > '9')) {
-                throw new NumberFormatException(csq.toString());
+                if (scan) {
+                    break;
+                }
+                onError(result, ParseResult.INVALID, off, "", csq);
+                return NumberUtils.NULL_INT;
             }
-            if (ival < limit) {
-                throw new NumberFormatException(csq.toString());
+            // check overflow (negative accumulator, the last addition may wrap):
+            if ((ival < (Integer.MIN_VALUE / 10)) || (ival > 0)) {
+                onError(result, ParseResult.OVERFLOW, off, "", csq);
+                return NumberUtils.NULL_INT;
             }
         }
+        if ((ival > 0) || (!sign && (ival == Integer.MIN_VALUE))) {
+            onError(result, ParseResult.OVERFLOW, off - 1, "", csq);
+            return NumberUtils.NULL_INT;
+        }
+        onSuccess(result, off);
+        return sign ? ival : -ival;
     }
 
     /*
@@ -216,45 +267,367 @@ public final class NumberParser {
 
     public static long getLong(final CharSequence csq,
                                final int offset, final int end) throws NumberFormatException {
+        return parseLong(csq, offset, end, THROW_ERRORS, false);
+    }
+
+    public static long parseLong(final CharSequence csq, final ParseResult result) {
+        return parseLong(csq, 0, csq.length(), result);
+    }
+
+    /*
+     Parse [-]DDDDD without any exception: return NumberUtils.NULL_LONG and set the (optional) result status on failure
+     */
+    public static long parseLong(final CharSequence csq,
+                                 final int offset, final int end,
+                                 final ParseResult result) {
+        return parseLong(csq, offset, end, result, false);
+    }
+
+    /*
+     Scan [-]DDDDD as far as possible (any character may follow): the cursor gives the next offset
+     (or the INVALID status if no digit)
+     */
+    public static long scanLong(final CharSequence csq,
+                                final int offset, final int end,
+                                final ParseResult cursor) {
+        return parseLong(csq, offset, end, cursor, true);
+    }
 
+    private static long parseLong(final CharSequence csq,
+                                  final int offset, final int end,
+                                  final ParseResult result, final boolean scan) {
         int off = offset;
 
         boolean sign = false;
         char ch;
 
-        if ((end == 0)
+        if ((offset == end)
                 || (((ch = csq.charAt(off)) < '0') || (ch > '9'))
                 && (!(sign = ch == '-') || (++off == end) || (((ch = csq.charAt(off)) < '0') || (ch > '9')))) {
-            throw new NumberFormatException(csq.toString());
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, off, "", csq);
+            return NumberUtils.NULL_LONG;
         }
-        // check overflow:
-        final long limit = (sign) ? (-Long.MAX_VALUE / 10l) : (-Long.MIN_VALUE / 10l); // inline
+        long lval = 0l;
 
-        for (long lval = 0l;; lval *= 10l) {
+        for (;; lval *= 10l) {
             lval += '0' - ch; // negative
             if (++off == end) {
-                return sign ? lval : -lval;
+                break;
             }
             if (((ch = csq.charAt(off)) < '0') || (ch > '9')) {
-                throw new NumberFormatException(csq.toString());
+                if (scan) {
+                    break;
+                }
+                onError(result, ParseResult.INVALID, off, "", csq);
+                return NumberUtils.NULL_LONG;
             }
-            if (lval < limit) {
-                throw new NumberFormatException(csq.toString());
+            // check overflow (negative accumulator, the last addition may wrap):
+            if ((lval < (Long.MIN_VALUE / 10l)) || (lval > 0l)) {
+                onError(result, ParseResult.OVERFLOW, off, "", csq);
+                return NumberUtils.NULL_LONG;
+            }
+        }
+        if ((lval > 0l) || (!sign && (lval == Long.MIN_VALUE))) {
+            onError(result, ParseResult.OVERFLOW, off - 1, "", csq);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, off);
+        return sign ? lval : -lval;
+    }
+
+    public static int getUnsignedInteger(final CharSequence csq) throws NumberFormatException {
+        return getUnsignedInteger(csq, 0, csq.length());
+    }
+
+    /*
+     Parse DDDDD as an unsigned 32 bits value [0; 4294967295] (like Integer.parseUnsignedInt)
+     */
+    public static int getUnsignedInteger(final CharSequence csq,
+                                         final int offset, final int end) throws NumberFormatException {
+        return (int) parseUnsigned(csq, offset, end, true, THROW_ERRORS);
+    }
+
+    public static int parseUnsignedInteger(final CharSequence csq,
+                                           final int offset, final int end,
+                                           final ParseResult result) {
+        final long value = parseUnsigned(csq, offset, end, true, result);
+        return (value == NumberUtils.NULL_LONG) ? NumberUtils.NULL_INT : (int) value;
+    }
+
+    public static long getUnsignedLong(final CharSequence csq) throws NumberFormatException {
+        return getUnsignedLong(csq, 0, csq.length());
+    }
+
+    /*
+     Parse DDDDD as an unsigned 64 bits value [0; 18446744073709551615] (like Long.parseUnsignedLong)
+     */
+    public static long getUnsignedLong(final CharSequence csq,
+                                       final int offset, final int end) throws NumberFormatException {
+        return parseUnsigned(csq, offset, end, false, THROW_ERRORS);
+    }
+
+    public static long parseUnsignedLong(final CharSequence csq,
+                                         final int offset, final int end,
+                                         final ParseResult result) {
+        return parseUnsigned(csq, offset, end, false, result);
+    }
+
+    /*
+     Parse unsigned digits: return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseUnsigned(final CharSequence csq,
+                                      final int offset, final int end, final boolean toInt,
+                                      final ParseResult result) throws NumberFormatException {
+        if (offset == end) {
+            onError(result, ParseResult.EMPTY, offset, "", csq);
+            return NumberUtils.NULL_LONG;
+        }
+        int off = offset;
+        char ch;
+        long lval = 0L;
+
+        // up to 19 digits can not overflow an unsigned 64 bits value:
+        for (final int safeEnd = Math.min(end, offset + 19); off < safeEnd; off++) {
+            if (((ch = csq.charAt(off)) < '0') || (ch > '9')) {
+                onError(result, ParseResult.INVALID, off, "", csq);
+                return NumberUtils.NULL_LONG;
+            }
+            lval = 10L * lval + (ch - '0');
+        }
+        for (; off < end; off++) {
+            if (((ch = csq.charAt(off)) < '0') || (ch > '9')) {
+                onError(result, ParseResult.INVALID, off, "", csq);
+                return NumberUtils.NULL_LONG;
+            }
+            // check overflow: lval * 10 + digit <= 2^64 - 1
+            if (DoubleConverter.unsignedLess(UNSIGNED_MAX_DIV10, lval)
+                    || ((lval == UNSIGNED_MAX_DIV10) && (ch > '5'))) {
+                onError(result, ParseResult.OVERFLOW, off, "", csq);
+                return NumberUtils.NULL_LONG;
+            }
+            lval = 10L * lval + (ch - '0');
+        }
+        if (toInt && ((lval >>> 32) != 0L)) {
+            onError(result, ParseResult.OVERFLOW, end - 1, "", csq);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, end);
+        return lval;
+    }
+
+    /*
+     Parse [-]DDDDD in the given radix [2; 36] (like Integer.parseInt(String, int))
+     */
+    public static int getInteger(final CharSequence csq,
+                                 final int offset, final int end, final int radix) throws NumberFormatException {
+        return (int) parseRadix(csq, offset, end, radix, Integer.MAX_VALUE, THROW_ERRORS);
+    }
+
+    public static int parseInteger(final CharSequence csq,
+                                   final int offset, final int end, final int radix,
+                                   final ParseResult result) {
+        final long value = parseRadix(csq, offset, end, radix, Integer.MAX_VALUE, result);
+        return (value == NumberUtils.NULL_LONG) ? NumberUtils.NULL_INT : (int) value;
+    }
+
+    /*
+     Parse [-]DDDDD in the given radix [2; 36] (like Long.parseLong(String, int))
+     */
+    public static long getLong(final CharSequence csq,
+                               final int offset, final int end, final int radix) throws NumberFormatException {
+        return parseRadix(csq, offset, end, radix, Long.MAX_VALUE, THROW_ERRORS);
+    }
+
+    public static long parseLong(final CharSequence csq,
+                                 final int offset, final int end, final int radix,
+                                 final ParseResult result) {
+        return parseRadix(csq, offset, end, radix, Long.MAX_VALUE, result);
+    }
+
+    /*
+     Parse [+/-](0x|0X|#)HHHH, [+/-](0b|0B)BBBB, [+/-]0OOOO (octal) or [+/-]DDDD (like Integer.decode)
+     */
+    public static int decodeInteger(final CharSequence csq,
+                                    final int offset, final int end) throws NumberFormatException {
+        return (int) decode(csq, offset, end, Integer.MAX_VALUE);
+    }
+
+    /*
+     Parse [+/-](0x|0X|#)HHHH, [+/-](0b|0B)BBBB, [+/-]0OOOO (octal) or [+/-]DDDD (like Long.decode)
+     */
+    public static long decodeLong(final CharSequence csq,
+                                  final int offset, final int end) throws NumberFormatException {
+        return decode(csq, offset, end, Long.MAX_VALUE);
+    }
+
+    private static long decode(final CharSequence csq,
+                               final int offset, final int end, final long maxValue) throws NumberFormatException {
+        int off = offset;
+
+        boolean sign = false;
+        char ch;
+
+        if ((off != end) && (((ch = csq.charAt(off)) == '-') || (ch == '+'))) {
+            sign = (ch == '-');
+            off++;
+        }
+        int radix = 10;
+
+        if ((off + 1 < end) && (csq.charAt(off) == '0')) {
+            if (((ch = csq.charAt(off + 1)) == 'x') || (ch == 'X')) {
+                radix = 16;
+                off += 2;
+            } else if ((ch == 'b') || (ch == 'B')) {
+                radix = 2;
+                off += 2;
+            } else {
+                radix = 8;
+                off++;
+            }
+        } else if ((off < end) && (csq.charAt(off) == '#')) {
+            radix = 16;
+            off++;
+        }
+        return parseRadixDigits(csq, offset, end, off, sign, radix, maxValue, THROW_ERRORS);
+    }
+
+    private static long parseRadix(final CharSequence csq,
+                                   final int offset, final int end, final int radix,
+                                   final long maxValue, final ParseResult result) throws NumberFormatException {
+        checkRadix(radix);
+        final boolean sign = (offset != end) && (csq.charAt(offset) == '-');
+
+        return parseRadixDigits(csq, offset, end, (sign) ? (offset + 1) : offset, sign, radix, maxValue, result);
+    }
+
+    /*
+     Parse digits in the given radix: return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseRadixDigits(final CharSequence csq,
+                                         final int offset, final int end, final int digitsOffset,
+                                         final boolean sign, final int radix,
+                                         final long maxValue, final ParseResult result) throws NumberFormatException {
+        if (digitsOffset == end) {
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, digitsOffset, "", csq);
+            return NumberUtils.NULL_LONG;
+        }
+        // check overflow (negative accumulator):
+        final long limit = (sign) ? (-maxValue - 1L) : -maxValue;
+        final long multLimit = limit / radix;
+
+        long lval = 0L;
+
+        for (int off = digitsOffset; off < end; off++) {
+            final int digit = radixDigit(csq.charAt(off));
+
+            if ((digit < 0) || (digit >= radix)) {
+                onError(result, ParseResult.INVALID, off, "", csq);
+                return NumberUtils.NULL_LONG;
+            }
+            if (lval < multLimit) {
+                onError(result, ParseResult.OVERFLOW, off, "", csq);
+                return NumberUtils.NULL_LONG;
             }
+            lval *= radix;
+            if (lval < limit + digit) {
+                onError(result, ParseResult.OVERFLOW, off, "", csq);
+                return NumberUtils.NULL_LONG;
+            }
+            lval -= digit;
         }
+        onSuccess(result, end);
+        return (sign) ? lval : -lval;
     }
 
     public static double getDouble(final CharSequence csq) throws NumberFormatException {
         return getDouble(csq, 0, csq.length());
     }
 
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity (correctly rounded ie 1/2 ulp)
+     */
     public static double getDouble(final CharSequence csq,
                                    final int offset, final int end) throws NumberFormatException {
+        return getDecimal(csq, offset, end, false, THROW_ERRORS, false);
+    }
+
+    public static double parseDouble(final CharSequence csq, final ParseResult result) {
+        return parseDouble(csq, 0, csq.length(), result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity without any exception:
+     return NaN and set the (optional) result status on failure
+     */
+    public static double parseDouble(final CharSequence csq,
+                                     final int offset, final int end,
+                                     final ParseResult result) {
+        return getDecimal(csq, offset, end, false, result, false);
+    }
+
+    /*
+     Scan [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity as far as possible (any character may follow):
+     the cursor gives the next offset (or the INVALID status if no digit)
+     */
+    public static double scanDouble(final CharSequence csq,
+                                    final int offset, final int end,
+                                    final ParseResult cursor) {
+        return getDecimal(csq, offset, end, false, cursor, true);
+    }
+
+    public static float getFloat(final CharSequence csq) throws NumberFormatException {
+        return getFloat(csq, 0, csq.length());
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity (correctly rounded ie 1/2 ulp)
+     */
+    public static float getFloat(final CharSequence csq,
+                                 final int offset, final int end) throws NumberFormatException {
+        // note: the float value is exactly represented as a double:
+        return (float) getDecimal(csq, offset, end, true, THROW_ERRORS, false);
+    }
+
+    public static float parseFloat(final CharSequence csq, final ParseResult result) {
+        return parseFloat(csq, 0, csq.length(), result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity without any exception:
+     return NaN and set the (optional) result status on failure
+     */
+    public static float parseFloat(final CharSequence csq,
+                                   final int offset, final int end,
+                                   final ParseResult result) {
+        return (float) getDecimal(csq, offset, end, true, result, false);
+    }
+
+    /*
+     Scan [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity as far as possible (any character may follow):
+     the cursor gives the next offset (or the INVALID status if no digit)
+     */
+    public static float scanFloat(final CharSequence csq,
+                                  final int offset, final int end,
+                                  final ParseResult cursor) {
+        return (float) getDecimal(csq, offset, end, true, cursor, true);
+    }
+
+    /*
+     Parse decimal numbers as double or float (correctly rounded ie 1/2 ulp)
+     */
+    private static double getDecimal(final CharSequence csq,
+                                     final int offset, final int end,
+                                     final boolean toFloat,
+                                     final ParseResult result, final boolean scan) throws NumberFormatException {
 
         int off = offset;
         int len = end - offset;
 
         if (len == 0) {
+            // note: empty input gives NaN (no exception):
+            if (result != THROW_ERRORS) {
+                onError(result, ParseResult.EMPTY, off, "", csq);
+            }
             return Double.NaN;
         }
 
@@ -280,6 +653,7 @@ public final class NumberParser {
                 && ((ch = csq.charAt(off + 2)) == 'n' || ch == 'N')) {
 
             number = Double.NaN;
+            off += 3;
 
             // Look for the longer csqing first then try the shorter.
         } else if (len >= 8
@@ -293,6 +667,7 @@ public final class NumberParser {
                 && ((ch = csq.charAt(off + 7)) == 'y' || ch == 'Y')) {
 
             number = Double.POSITIVE_INFINITY;
+            off += 8;
 
         } else if (len >= 3
                 && ((ch = csq.charAt(off)) == 'i' || ch == 'I')
@@ -300,28 +675,21 @@ public final class NumberParser {
                 && ((ch = csq.charAt(off + 2)) == 'f' || ch == 'F')) {
 
             number = Double.POSITIVE_INFINITY;
+            off += 3;
 
         } else {
+            final int digitsOffset = off;
 
-            boolean error = true;
-
-            int startOffset = off;
-            double dval;
-
-            // TODO: check too many digits (overflow) 
-            for (dval = 0d; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
-                dval *= 10d;
-                dval += ch - '0';
+            // 64 bits mantissa (may overflow if more than 19 digits, see below):
+            long mantissa = 0L;
+            for (; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
+                mantissa = 10L * mantissa + (ch - '0');
                 off++;
                 len--;
             }
-            int numberLength = off - startOffset;
-
-            number = dval;
-
-            if (numberLength > 0) {
-                error = false;
-            }
+            final int pointOffset = off;
+            int digitCount = off - digitsOffset;
+            int exponent = 0;
 
             // Check for fractional values after decimal
             if ((len > 0) && (csq.charAt(off) == '.')) {
@@ -329,37 +697,39 @@ public final class NumberParser {
                 off++;
                 len--;
 
-                startOffset = off;
+                final int startOffset = off;
 
-                // TODO: check too many digits (overflow) 
-                for (dval = 0d; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
-                    dval *= 10d;
-                    dval += ch - '0';
+                for (; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
+                    mantissa = 10L * mantissa + (ch - '0');
                     off++;
                     len--;
                 }
-                numberLength = off - startOffset;
-
-                if (numberLength > 0) {
-                    // TODO: try factorizing pow10 with exponent below: only 1 long + operation
-                    number += getPow10(-numberLength) * dval;
-                    error = false;
-                }
+                // decimal exponent = - fraction length:
+                exponent = startOffset - off;
+                digitCount -= exponent;
             }
 
-            if (error) {
-                throw new NumberFormatException("Invalid Double : " + csq);
+            if (digitCount == 0) {
+                onError(result, ParseResult.INVALID, off, "Invalid Double : ", csq);
+                return Double.NaN;
             }
 
+            final int digitsEnd = off;
+
             // Look for an exponent
+            int explicitExponent = 0;
+
             if (len > 0) {
                 // note: ignore any non-digit character at end:
 
                 if ((ch = csq.charAt(off)) == 'e' || ch == 'E') {
+                    final int expOffset = off;
 
                     off++;
                     len--;
 
+                    int expDigitsOffset = off;
+
                     if (len > 0) {
                         boolean expSign = true;
 
@@ -372,72 +742,2975 @@ public final class NumberParser {
                             off++;
                             len--;
                         }
-
-                        int exponent = 0;
+                        expDigitsOffset = off;
 
                         // note: ignore any non-digit character at end:
-                        for (exponent = 0; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
-                            exponent *= 10;
-                            exponent += ch - '0';
+                        for (; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
+                            // saturate huge exponents (overflow):
+                            if (explicitExponent < 0x10000) {
+                                explicitExponent = 10 * explicitExponent + (ch - '0');
+                            }
                             off++;
                             len--;
                         }
 
-                        // TODO: check exponent < 1024 (overflow)
                         if (!expSign) {
-                            exponent = -exponent;
-                        }
-
-                        // For very small numbers we try to miminize
-                        // effects of denormalization.
-                        if (exponent > -300) {
-                            // TODO: cache Math.pow ?? see web page
-                            number *= getPow10(exponent);
-                        } else {
-                            number = 1.0E-300 * (number * getPow10(exponent + 300));
+                            explicitExponent = -explicitExponent;
                         }
                     }
+                    if (scan && (off == expDigitsOffset)) {
+                        // no exponent digit: stop before 'e'
+                        len += off - expOffset;
+                        off = expOffset;
+                    }
                 }
             }
+            if ((off == pointOffset) && (digitCount == 1) && (mantissa == 0L) && (len > 1)
+                    && (((ch = csq.charAt(off)) == 'x') || (ch == 'X'))) {
+                // hexadecimal floating-point value (0x1.8p3):
+                return getHexDecimal(csq, offset, end, off + 1, numSign, toFloat, result, scan);
+            }
+
             // check other characters:
-            if (len > 0) {
-                throw new NumberFormatException("Invalid Double : " + csq);
+            if (!scan && (len > 0)) {
+                onError(result, ParseResult.INVALID, off, "Invalid Double : ", csq);
+                return Double.NaN;
+            }
+
+            if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+                exponent += explicitExponent;
+                number = (toFloat) ? DoubleConverter.toFloat(mantissa, exponent) : DoubleConverter.toDouble(mantissa, exponent);
+            } else {
+                number = getDecimalManyDigits(csq, digitsOffset, pointOffset, digitsEnd, digitCount, explicitExponent, toFloat);
             }
         }
 
+        onSuccess(result, off);
         return (numSign) ? number : -number;
     }
 
-    public static int indexOf(final CharSequence csq, final char c, final int off, final int end) {
-        for (int i = off; i < end; i++) {
-            if (csq.charAt(i) == c) {
-                return i;
+    /*
+     Rare path: more than 19 digits (leading zeros, truncated mantissa or slow path)
+     */
+    private static double getDecimalManyDigits(final CharSequence csq, final int digitsOffset,
+                                               final int pointOffset, final int digitsEnd,
+                                               int digitCount, final int explicitExponent,
+                                               final boolean toFloat) {
+        char ch;
+        int off = digitsOffset;
+
+        // skip leading zeros:
+        for (; (off < digitsEnd) && (((ch = csq.charAt(off)) == '0') || (ch == '.')); off++) {
+            if (ch == '0') {
+                digitCount--;
             }
         }
-        return -1;
-    }
 
-    public static int indexOfNotDigit(final CharSequence csq, final int off, final int end) {
-        for (int i = off; i < end; i++) {
-            char ch = csq.charAt(i);
-            if ((ch < '0') || (ch > '9')) {
-                return i;
+        // keep only the 19 first significant digits:
+        long mantissa = 0L;
+        int n = 0;
+        for (; (off < digitsEnd) && (n < DoubleConverter.MAX_MANTISSA_DIGITS); off++) {
+            if ((ch = csq.charAt(off)) != '.') {
+                mantissa = 10L * mantissa + (ch - '0');
+                n++;
             }
         }
-        return -1;
+        final int exponent = ((off <= pointOffset) ? (pointOffset - off) : (pointOffset + 1 - off)) + explicitExponent;
+
+        if (toFloat) {
+            if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+                return DoubleConverter.toFloat(mantissa, exponent);
+            }
+            // truncated mantissa:
+            final float number = DoubleConverter.toFloatTruncated(mantissa, exponent);
+            if (!Float.isNaN(number)) {
+                return number;
+            }
+            return DoubleConverter.parseSlowFloat(csq, digitsOffset, digitsEnd, explicitExponent);
+        }
+        if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+            return DoubleConverter.toDouble(mantissa, exponent);
+        }
+        // truncated mantissa:
+        final double number = DoubleConverter.toDoubleTruncated(mantissa, exponent);
+        if (!Double.isNaN(number)) {
+            return number;
+        }
+        return DoubleConverter.parseSlow(csq, digitsOffset, digitsEnd, explicitExponent);
     }
 
     /*
-     * White space is defined as ' ', '\t', '\n' or '\r'
+     Parse the hexadecimal floating-point value after the 0x prefix: HHH[.HHH](p|P)[+/-]DDD (correctly rounded)
      */
-    public static int indexOfNotWhiteSpace(final CharSequence csq, final int off, final int end) {
-        for (int i = off; i < end; i++) {
-            char ch = csq.charAt(i);
-            if ((ch != ' ') && (ch != '\t') && (ch != '\n') && (ch != '\r')) {
-                return i;
+    private static double getHexDecimal(final CharSequence csq,
+                                        final int offset, final int end, final int hexOffset,
+                                        final boolean numSign, final boolean toFloat,
+                                        final ParseResult result, final boolean scan) throws NumberFormatException {
+        int off = hexOffset;
+        char ch;
+        int digit;
+
+        // 64 bits mantissa (extra digits are truncated):
+        long mantissa = 0L;
+        boolean sticky = false;
+        int exponent = 0;
+
+        for (; (off < end) && ((digit = hexDigit(csq.charAt(off))) >= 0); off++) {
+            if ((mantissa >>> 60) == 0L) {
+                mantissa = (mantissa << 4) | digit;
+            } else {
+                exponent += 4;
+                sticky |= (digit != 0);
             }
         }
-        return off;
+        int digitCount = off - hexOffset;
+
+        if ((off < end) && (csq.charAt(off) == '.')) {
+            off++;
+
+            final int startOffset = off;
+
+            for (; (off < end) && ((digit = hexDigit(csq.charAt(off))) >= 0); off++) {
+                if ((mantissa >>> 60) == 0L) {
+                    mantissa = (mantissa << 4) | digit;
+                    exponent -= 4;
+                } else {
+                    sticky |= (digit != 0);
+                }
+            }
+            digitCount += off - startOffset;
+        }
+
+        // binary exponent is mandatory:
+        boolean valid = (digitCount != 0) && (off < end) && (((ch = csq.charAt(off)) == 'p') || (ch == 'P'));
+
+        if (valid) {
+            off++;
+
+            boolean expSign = true;
+            if (off < end) {
+                ch = csq.charAt(off);
+                if (ch == '+') {
+                    off++;
+                } else if (ch == '-') {
+                    expSign = false;
+                    off++;
+                }
+            }
+            final int expDigitsOffset = off;
+            int explicitExponent = 0;
+
+            for (; (off < end) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9'); off++) {
+                // saturate huge exponents (overflow):
+                if (explicitExponent < 0x10000) {
+                    explicitExponent = 10 * explicitExponent + (ch - '0');
+                }
+            }
+            exponent += (expSign) ? explicitExponent : -explicitExponent;
+
+            valid = (off != expDigitsOffset) && (scan || (off == end));
+        }
+        if (!valid) {
+            if (scan) {
+                // only the leading zero:
+                onSuccess(result, hexOffset - 1);
+                return (numSign) ? 0.0 : -0.0;
+            }
+            onError(result, ParseResult.INVALID, off, "Invalid Double : ", csq);
+            return Double.NaN;
+        }
+
+        final double number = DoubleConverter.toDoubleBinary(mantissa, sticky, exponent, toFloat);
+
+        onSuccess(result, off);
+        return (numSign) ? number : -number;
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD] as an exact decimal (like BigDecimal): return the unscaled value and set the
+     scale in the given (required) result (value = unscaled x 10^-scale) or NumberUtils.NULL_LONG on failure
+     */
+    public static long parseUnscaledLong(final CharSequence csq,
+                                         final int offset, final int end,
+                                         final ParseResult result) {
+        return parseFixed(csq, offset, end, false, 0, null, result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD] as a long at the given scale (value x 10^scale) rounded with the given mode
+     (like BigDecimal.setScale(scale, mode).unscaledValue().longValueExact(): "1.25" at scale 2 gives 125)
+     */
+    public static long getScaledLong(final CharSequence csq,
+                                     final int offset, final int end,
+                                     final int scale, final RoundingMode mode) throws NumberFormatException {
+        return parseFixed(csq, offset, end, true, scale, mode, THROW_ERRORS);
+    }
+
+    public static long parseScaledLong(final CharSequence csq,
+                                       final int offset, final int end,
+                                       final int scale, final RoundingMode mode,
+                                       final ParseResult result) {
+        return parseFixed(csq, offset, end, true, scale, mode, result);
+    }
+
+    /*
+     Parse fixed-point decimal numbers (no double accumulation): return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseFixed(final CharSequence csq,
+                                   final int offset, final int end,
+                                   final boolean rescale, final int targetScale, final RoundingMode mode,
+                                   final ParseResult result) throws NumberFormatException {
+        if (offset == end) {
+            onError(result, ParseResult.EMPTY, offset, "", csq);
+            return NumberUtils.NULL_LONG;
+        }
+        int off = offset;
+        char ch;
+        boolean sign = false;
+
+        ch = csq.charAt(off);
+        if (ch == '+') {
+            off++;
+        } else if (ch == '-') {
+            sign = true;
+            off++;
+        }
+
+        final int digitsOffset = off;
+
+        // unscaled value (negative accumulator):
+        long lval = 0L;
+        // trailing zeros not accumulated yet:
+        int pendingZeros = 0;
+        // digits dropped beyond the long range (rescale only) and their rounding tail (first digit x 2 + sticky bit):
+        int dropped = 0;
+        int tail = 0;
+        // accumulator limit (positive rescaled values drop the digits beyond Long.MAX_VALUE):
+        final long limit = (sign || !rescale) ? Long.MIN_VALUE : -Long.MAX_VALUE;
+
+        for (; (off < end) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9'); off++) {
+            if (dropped != 0) {
+                // beyond the long range (rescale only): sticky bit
+                dropped++;
+                tail |= (ch != '0') ? 1 : 0;
+                continue;
+            }
+            if (ch == '0') {
+                pendingZeros++;
+                continue;
+            }
+            for (; (pendingZeros != 0) && (lval >= (Long.MIN_VALUE / 10L)); pendingZeros--) {
+                lval *= 10L;
+            }
+            // check overflow (the subtraction may wrap):
+            final long next = 10L * lval - (ch - '0');
+            if ((pendingZeros != 0) || (lval < (Long.MIN_VALUE / 10L)) || (next > 0L) || (next < limit)) {
+                if (!rescale) {
+                    onError(result, ParseResult.OVERFLOW, off, "Invalid Decimal : ", csq);
+                    return NumberUtils.NULL_LONG;
+                }
+                // drop this digit and the next ones (only rounded at the target scale):
+                tail = (pendingZeros != 0) ? 1 : ((ch - '0') << 1);
+                dropped = pendingZeros + 1;
+                pendingZeros = 0;
+                continue;
+            }
+            lval = next;
+        }
+        int digitCount = off - digitsOffset;
+        int fractionDigits = 0;
+
+        if ((off < end) && (csq.charAt(off) == '.')) {
+            off++;
+
+            final int startOffset = off;
+
+            for (; (off < end) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9'); off++) {
+                if (dropped != 0) {
+                    // beyond the long range (rescale only): sticky bit
+                    dropped++;
+                    tail |= (ch != '0') ? 1 : 0;
+                    continue;
+                }
+                if (ch == '0') {
+                    pendingZeros++;
+                    continue;
+                }
+                for (; (pendingZeros != 0) && (lval >= (Long.MIN_VALUE / 10L)); pendingZeros--) {
+                    lval *= 10L;
+                }
+                // check overflow (the subtraction may wrap):
+                final long next = 10L * lval - (ch - '0');
+                if ((pendingZeros != 0) || (lval < (Long.MIN_VALUE / 10L)) || (next > 0L) || (next < limit)) {
+                    if (!rescale) {
+                        onError(result, ParseResult.OVERFLOW, off, "Invalid Decimal : ", csq);
+                        return NumberUtils.NULL_LONG;
+                    }
+                    // drop this digit and the next ones (only rounded at the target scale):
+                    tail = (pendingZeros != 0) ? 1 : ((ch - '0') << 1);
+                    dropped = pendingZeros + 1;
+                    pendingZeros = 0;
+                    continue;
+                }
+                lval = next;
+            }
+            fractionDigits = off - startOffset;
+            digitCount += fractionDigits;
+        }
+
+        if (digitCount == 0) {
+            onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", csq);
+            return NumberUtils.NULL_LONG;
+        }
+
+        // Look for an exponent (saturated beyond the int range):
+        long exponent = 0L;
+
+        if ((off < end) && (((ch = csq.charAt(off)) == 'e') || (ch == 'E'))) {
+            off++;
+
+            boolean expSign = true;
+            if (off < end) {
+                ch = csq.charAt(off);
+                if (ch == '+') {
+                    off++;
+                } else if (ch == '-') {
+                    expSign = false;
+                    off++;
+                }
+            }
+            final int expDigitsOffset = off;
+
+            for (; (off < end) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9'); off++) {
+                if (exponent <= Integer.MAX_VALUE) {
+                    exponent = 10L * exponent + (ch - '0');
+                }
+            }
+            if (off == expDigitsOffset) {
+                onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", csq);
+                return NumberUtils.NULL_LONG;
+            }
+            if (!expSign) {
+                exponent = -exponent;
+            }
+        }
+        // check other characters:
+        if (off != end) {
+            onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", csq);
+            return NumberUtils.NULL_LONG;
+        }
+
+        if (!rescale) {
+            // keep trailing zeros (exact representation like BigDecimal) else
+            // they only lower the scale to avoid any useless overflow:
+            for (; pendingZeros != 0; pendingZeros--) {
+                if (lval < (Long.MIN_VALUE / 10L)) {
+                    onError(result, ParseResult.OVERFLOW, end - 1, "Invalid Decimal : ", csq);
+                    return NumberUtils.NULL_LONG;
+                }
+                lval *= 10L;
+            }
+        }
+        if (!sign && (lval == Long.MIN_VALUE)) {
+            onError(result, ParseResult.OVERFLOW, end - 1, "Invalid Decimal : ", csq);
+            return NumberUtils.NULL_LONG;
+        }
+        final long unscaled = (sign) ? lval : -lval;
+        final long scale = (fractionDigits - pendingZeros - dropped) - exponent;
+
+        if (rescale) {
+            final long shift = targetScale - scale;
+            final int status = rescaleStatus(unscaled, shift, mode, tail);
+
+            if (status != ParseResult.OK) {
+                onError(result, status, offset, "Invalid Decimal : ", csq);
+                return NumberUtils.NULL_LONG;
+            }
+            onSuccess(result, end);
+            return rescale(unscaled, shift, mode, tail);
+        }
+        if ((scale < Integer.MIN_VALUE) || (scale > Integer.MAX_VALUE)) {
+            onError(result, ParseResult.OVERFLOW, offset, "Invalid Decimal : ", csq);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, end);
+        result.scale = (int) scale;
+        return unscaled;
+    }
+
+    public static int indexOf(final CharSequence csq, final char c, final int off, final int end) {
+        for (int i = off; i < end; i++) {
+            if (csq.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int indexOfNotDigit(final CharSequence csq, final int off, final int end) {
+        for (int i = off; i < end; i++) {
+            char ch = csq.charAt(i);
+            if ((ch < '0') || (ch > '9')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * White space is defined as ' ', '\t', '\n' or '\r'
+     */
+    public static int indexOfNotWhiteSpace(final CharSequence csq, final int off, final int end) {
+        for (int i = off; i < end; i++) {
+            char ch = csq.charAt(i);
+            if ((ch != ' ') && (ch != '\t') && (ch != '\n') && (ch != '\r')) {
+                return i;
+            }
+        }
+        return off;
+    }
+
+    // byte[] variants (ASCII):
+    public static int getInteger(final byte[] bytes) throws NumberFormatException {
+        return getInteger(bytes, 0, bytes.length);
+    }
+
+    public static int getInteger(final byte[] bytes,
+                                 final int offset, final int end) throws NumberFormatException {
+        return parseInteger(bytes, offset, end, THROW_ERRORS, false);
+    }
+
+    public static int parseInteger(final byte[] bytes, final ParseResult result) {
+        return parseInteger(bytes, 0, bytes.length, result);
+    }
+
+    /*
+     Parse [-]DDDDD without any exception: return NumberUtils.NULL_INT and set the (optional) result status on failure
+     */
+    public static int parseInteger(final byte[] bytes,
+                                   final int offset, final int end,
+                                   final ParseResult result) {
+        return parseInteger(bytes, offset, end, result, false);
+    }
+
+    /*
+     Scan [-]DDDDD as far as possible (any character may follow): the cursor gives the next offset
+     (or the INVALID status if no digit)
+     */
+    public static int scanInteger(final byte[] bytes,
+                                  final int offset, final int end,
+                                  final ParseResult cursor) {
+        return parseInteger(bytes, offset, end, cursor, true);
+    }
+
+    private static int parseInteger(final byte[] bytes,
+                                    final int offset, final int end,
+                                    final ParseResult result, final boolean scan) {
+        // SWAR fast path: 8 digits at a time for [-]DDDDDDDD (8 or 9 digits, no overflow possible)
+        final int digitOffset = ((offset != end) && (bytes[offset] == '-')) ? (offset + 1) : offset;
+        final int digits = end - digitOffset;
+        if ((digits >= 8) && (digits <= 9)) {
+            final int value = (int) SWARDigits.parseDigits(bytes, digitOffset, end);
+            if (value >= 0) {
+                onSuccess(result, end);
+                return (digitOffset != offset) ? -value : value;
+            }
+            // invalid character: see below
+        }
+
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((offset == end)
+                || (((ch = bytes[off]) < '0') || (ch > '9'))
+                && (!(sign = ch == '-') || (++off == end) || (((ch = bytes[off]) < '0') || (ch > '9')))) {
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, off, "", bytes, offset, end);
+            return NumberUtils.NULL_INT;
+        }
+        int ival = 0;
+
+        for (;; ival *= 10) {
+            ival += '0' - ch; // negative
+            if (++off == end) {
+                break;
+            }
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                if (scan) {
+                    break;
+                }
+                onError(result, ParseResult.INVALID, off, "", bytes, offset, end);
+                return NumberUtils.NULL_INT;
+            }
+            // check overflow (negative accumulator, the last addition may wrap):
+            if ((ival < (Integer.MIN_VALUE / 10)) || (ival > 0)) {
+                onError(result, ParseResult.OVERFLOW, off, "", bytes, offset, end);
+                return NumberUtils.NULL_INT;
+            }
+        }
+        if ((ival > 0) || (!sign && (ival == Integer.MIN_VALUE))) {
+            onError(result, ParseResult.OVERFLOW, off - 1, "", bytes, offset, end);
+            return NumberUtils.NULL_INT;
+        }
+        onSuccess(result, off);
+        return sign ? ival : -ival;
+    }
+
+    /*
+     Parse [-]DDDDD (no length and overflow checks)
+     */
+    public static int getIntegerUnsafe(final byte[] bytes) throws NumberFormatException {
+        return getIntegerUnsafe(bytes, 0, bytes.length);
+    }
+
+    /*
+     Parse [-]DDDDD (no length and overflow checks)
+     */
+    public static int getIntegerUnsafe(final byte[] bytes,
+                                       final int offset, final int end) throws NumberFormatException {
+
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((((ch = bytes[off]) < '0') || (ch > '9'))
+                && (!(sign = ch == '-') || (++off == end) || (((ch = bytes[off]) < '0') || (ch > '9')))) {
+            throw new NumberFormatException(toString(bytes, offset, end));
+        }
+
+        for (int ival = 0;; ival *= 10) {
+            ival += '0' - ch; // negative
+            if (++off == end) {
+                return sign ? ival : -ival;
+            }
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(bytes, offset, end));
+            }
+        }
+    }
+
+    /*
+     Parse [+/-]DDDDD (no length and overflow checks)
+     */
+    public static double getIntegerUnsafeAsDouble(final byte[] bytes,
+                                                  final int offset, final int end) throws NumberFormatException {
+
+        int off = offset;
+
+        boolean sign = true;
+        byte ch;
+
+        if ((((ch = bytes[off]) < '0') || (ch > '9'))
+                && (!((sign = ch == '+') || (ch == '-')) || (++off == end) || (((ch = bytes[off]) < '0') || (ch > '9')))) {
+            throw new NumberFormatException(toString(bytes, offset, end));
+        }
+
+        for (double dval = 0;; dval *= 10d) {
+            dval += ch - '0'; // positive
+            if (++off == end) {
+                return sign ? dval : -dval;
+            }
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(bytes, offset, end));
+            }
+        }
+    }
+
+    /*
+     Parse DDDDD (no length and overflow checks)
+     */
+    public static int getPositiveIntegerUnsafe(final byte[] bytes,
+                                               final int offset, final int end) throws NumberFormatException {
+
+        int off = offset;
+
+        byte ch;
+
+        if (((ch = bytes[off]) < '0') || (ch > '9')) {
+            throw new NumberFormatException(toString(bytes, offset, end));
+        }
+
+        for (int ival = 0;; ival *= 10) {
+            ival += ch - '0'; // positive
+            if (++off == end) {
+                return ival;
+            }
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(bytes, offset, end));
+            }
+        }
+    }
+
+    /*
+     Parse DDDDD (no length and overflow checks)
+     */
+    public static double getPositiveIntegerUnsafeAsDouble(final byte[] bytes,
+                                                          final int offset, final int end) throws NumberFormatException {
+
+        int off = offset;
+
+        byte ch;
+
+        if (((ch = bytes[off]) < '0') || (ch > '9')) {
+            throw new NumberFormatException(toString(bytes, offset, end));
+        }
+
+        for (double dval = 0.0;; dval *= 10d) {
+            dval += ch - '0'; // positive
+            if (++off == end) {
+                return dval;
+            }
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(bytes, offset, end));
+            }
+        }
+    }
+
+    public static long getLong(final byte[] bytes) throws NumberFormatException {
+        return getLong(bytes, 0, bytes.length);
+    }
+
+    public static long getLong(final byte[] bytes,
+                               final int offset, final int end) throws NumberFormatException {
+        return parseLong(bytes, offset, end, THROW_ERRORS, false);
+    }
+
+    public static long parseLong(final byte[] bytes, final ParseResult result) {
+        return parseLong(bytes, 0, bytes.length, result);
+    }
+
+    /*
+     Parse [-]DDDDD without any exception: return NumberUtils.NULL_LONG and set the (optional) result status on failure
+     */
+    public static long parseLong(final byte[] bytes,
+                                 final int offset, final int end,
+                                 final ParseResult result) {
+        return parseLong(bytes, offset, end, result, false);
+    }
+
+    /*
+     Scan [-]DDDDD as far as possible (any character may follow): the cursor gives the next offset
+     (or the INVALID status if no digit)
+     */
+    public static long scanLong(final byte[] bytes,
+                                final int offset, final int end,
+                                final ParseResult cursor) {
+        return parseLong(bytes, offset, end, cursor, true);
+    }
+
+    private static long parseLong(final byte[] bytes,
+                                  final int offset, final int end,
+                                  final ParseResult result, final boolean scan) {
+        // SWAR fast path: 8 digits at a time for [-]DDDDDDDD (8 to 18 digits, no overflow possible)
+        final int digitOffset = ((offset != end) && (bytes[offset] == '-')) ? (offset + 1) : offset;
+        final int digits = end - digitOffset;
+        if ((digits >= 8) && (digits <= 18)) {
+            final long value = SWARDigits.parseDigits(bytes, digitOffset, end);
+            if (value >= 0L) {
+                onSuccess(result, end);
+                return (digitOffset != offset) ? -value : value;
+            }
+            // invalid character: see below
+        }
+
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((offset == end)
+                || (((ch = bytes[off]) < '0') || (ch > '9'))
+                && (!(sign = ch == '-') || (++off == end) || (((ch = bytes[off]) < '0') || (ch > '9')))) {
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, off, "", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        long lval = 0l;
+
+        for (;; lval *= 10l) {
+            lval += '0' - ch; // negative
+            if (++off == end) {
+                break;
+            }
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                if (scan) {
+                    break;
+                }
+                onError(result, ParseResult.INVALID, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            // check overflow (negative accumulator, the last addition may wrap):
+            if ((lval < (Long.MIN_VALUE / 10l)) || (lval > 0l)) {
+                onError(result, ParseResult.OVERFLOW, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+        }
+        if ((lval > 0l) || (!sign && (lval == Long.MIN_VALUE))) {
+            onError(result, ParseResult.OVERFLOW, off - 1, "", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, off);
+        return sign ? lval : -lval;
+    }
+
+    public static int getUnsignedInteger(final byte[] bytes) throws NumberFormatException {
+        return getUnsignedInteger(bytes, 0, bytes.length);
+    }
+
+    /*
+     Parse DDDDD as an unsigned 32 bits value [0; 4294967295] (like Integer.parseUnsignedInt)
+     */
+    public static int getUnsignedInteger(final byte[] bytes,
+                                         final int offset, final int end) throws NumberFormatException {
+        return (int) parseUnsigned(bytes, offset, end, true, THROW_ERRORS);
+    }
+
+    public static int parseUnsignedInteger(final byte[] bytes,
+                                           final int offset, final int end,
+                                           final ParseResult result) {
+        final long value = parseUnsigned(bytes, offset, end, true, result);
+        return (value == NumberUtils.NULL_LONG) ? NumberUtils.NULL_INT : (int) value;
+    }
+
+    public static long getUnsignedLong(final byte[] bytes) throws NumberFormatException {
+        return getUnsignedLong(bytes, 0, bytes.length);
+    }
+
+    /*
+     Parse DDDDD as an unsigned 64 bits value [0; 18446744073709551615] (like Long.parseUnsignedLong)
+     */
+    public static long getUnsignedLong(final byte[] bytes,
+                                       final int offset, final int end) throws NumberFormatException {
+        return parseUnsigned(bytes, offset, end, false, THROW_ERRORS);
+    }
+
+    public static long parseUnsignedLong(final byte[] bytes,
+                                         final int offset, final int end,
+                                         final ParseResult result) {
+        return parseUnsigned(bytes, offset, end, false, result);
+    }
+
+    /*
+     Parse unsigned digits: return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseUnsigned(final byte[] bytes,
+                                      final int offset, final int end, final boolean toInt,
+                                      final ParseResult result) throws NumberFormatException {
+        if (offset == end) {
+            onError(result, ParseResult.EMPTY, offset, "", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        // SWAR fast path: 8 digits at a time (8 to 18 digits):
+        final int digits = end - offset;
+        if ((digits >= 8) && (digits <= 18)) {
+            final long value = SWARDigits.parseDigits(bytes, offset, end);
+            if ((value >= 0L) && (!toInt || ((value >>> 32) == 0L))) {
+                onSuccess(result, end);
+                return value;
+            }
+            // invalid character or overflow: see below
+        }
+        int off = offset;
+        byte ch;
+        long lval = 0L;
+
+        // up to 19 digits can not overflow an unsigned 64 bits value:
+        for (final int safeEnd = Math.min(end, offset + 19); off < safeEnd; off++) {
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                onError(result, ParseResult.INVALID, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval = 10L * lval + (ch - '0');
+        }
+        for (; off < end; off++) {
+            if (((ch = bytes[off]) < '0') || (ch > '9')) {
+                onError(result, ParseResult.INVALID, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            // check overflow: lval * 10 + digit <= 2^64 - 1
+            if (DoubleConverter.unsignedLess(UNSIGNED_MAX_DIV10, lval)
+                    || ((lval == UNSIGNED_MAX_DIV10) && (ch > '5'))) {
+                onError(result, ParseResult.OVERFLOW, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval = 10L * lval + (ch - '0');
+        }
+        if (toInt && ((lval >>> 32) != 0L)) {
+            onError(result, ParseResult.OVERFLOW, end - 1, "", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, end);
+        return lval;
+    }
+
+    /*
+     Parse [-]DDDDD in the given radix [2; 36] (like Integer.parseInt(String, int))
+     */
+    public static int getInteger(final byte[] bytes,
+                                 final int offset, final int end, final int radix) throws NumberFormatException {
+        return (int) parseRadix(bytes, offset, end, radix, Integer.MAX_VALUE, THROW_ERRORS);
+    }
+
+    public static int parseInteger(final byte[] bytes,
+                                   final int offset, final int end, final int radix,
+                                   final ParseResult result) {
+        final long value = parseRadix(bytes, offset, end, radix, Integer.MAX_VALUE, result);
+        return (value == NumberUtils.NULL_LONG) ? NumberUtils.NULL_INT : (int) value;
+    }
+
+    /*
+     Parse [-]DDDDD in the given radix [2; 36] (like Long.parseLong(String, int))
+     */
+    public static long getLong(final byte[] bytes,
+                               final int offset, final int end, final int radix) throws NumberFormatException {
+        return parseRadix(bytes, offset, end, radix, Long.MAX_VALUE, THROW_ERRORS);
+    }
+
+    public static long parseLong(final byte[] bytes,
+                                 final int offset, final int end, final int radix,
+                                 final ParseResult result) {
+        return parseRadix(bytes, offset, end, radix, Long.MAX_VALUE, result);
+    }
+
+    /*
+     Parse [+/-](0x|0X|#)HHHH, [+/-](0b|0B)BBBB, [+/-]0OOOO (octal) or [+/-]DDDD (like Integer.decode)
+     */
+    public static int decodeInteger(final byte[] bytes,
+                                    final int offset, final int end) throws NumberFormatException {
+        return (int) decode(bytes, offset, end, Integer.MAX_VALUE);
+    }
+
+    /*
+     Parse [+/-](0x|0X|#)HHHH, [+/-](0b|0B)BBBB, [+/-]0OOOO (octal) or [+/-]DDDD (like Long.decode)
+     */
+    public static long decodeLong(final byte[] bytes,
+                                  final int offset, final int end) throws NumberFormatException {
+        return decode(bytes, offset, end, Long.MAX_VALUE);
+    }
+
+    private static long decode(final byte[] bytes,
+                               final int offset, final int end, final long maxValue) throws NumberFormatException {
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((off != end) && (((ch = bytes[off]) == '-') || (ch == '+'))) {
+            sign = (ch == '-');
+            off++;
+        }
+        int radix = 10;
+
+        if ((off + 1 < end) && (bytes[off] == '0')) {
+            if (((ch = bytes[off + 1]) == 'x') || (ch == 'X')) {
+                radix = 16;
+                off += 2;
+            } else if ((ch == 'b') || (ch == 'B')) {
+                radix = 2;
+                off += 2;
+            } else {
+                radix = 8;
+                off++;
+            }
+        } else if ((off < end) && (bytes[off] == '#')) {
+            radix = 16;
+            off++;
+        }
+        return parseRadixDigits(bytes, offset, end, off, sign, radix, maxValue, THROW_ERRORS);
+    }
+
+    private static long parseRadix(final byte[] bytes,
+                                   final int offset, final int end, final int radix,
+                                   final long maxValue, final ParseResult result) throws NumberFormatException {
+        checkRadix(radix);
+        final boolean sign = (offset != end) && (bytes[offset] == '-');
+
+        return parseRadixDigits(bytes, offset, end, (sign) ? (offset + 1) : offset, sign, radix, maxValue, result);
+    }
+
+    /*
+     Parse digits in the given radix: return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseRadixDigits(final byte[] bytes,
+                                         final int offset, final int end, final int digitsOffset,
+                                         final boolean sign, final int radix,
+                                         final long maxValue, final ParseResult result) throws NumberFormatException {
+        if (digitsOffset == end) {
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, digitsOffset, "", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        // SWAR fast path: 8 hexadecimal digits at a time (8 to 15 digits):
+        final int digits = end - digitsOffset;
+        if ((radix == 16) && (digits >= 8) && (digits <= 15)) {
+            final long value = SWARDigits.parseHexDigits(bytes, digitsOffset, end);
+            if ((value >= 0L) && (value <= maxValue)) {
+                onSuccess(result, end);
+                return (sign) ? -value : value;
+            }
+            // invalid character or overflow: see below
+        }
+        // check overflow (negative accumulator):
+        final long limit = (sign) ? (-maxValue - 1L) : -maxValue;
+        final long multLimit = limit / radix;
+
+        long lval = 0L;
+
+        for (int off = digitsOffset; off < end; off++) {
+            final int digit = radixDigit(bytes[off]);
+
+            if ((digit < 0) || (digit >= radix)) {
+                onError(result, ParseResult.INVALID, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            if (lval < multLimit) {
+                onError(result, ParseResult.OVERFLOW, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval *= radix;
+            if (lval < limit + digit) {
+                onError(result, ParseResult.OVERFLOW, off, "", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval -= digit;
+        }
+        onSuccess(result, end);
+        return (sign) ? lval : -lval;
+    }
+
+    public static double getDouble(final byte[] bytes) throws NumberFormatException {
+        return getDouble(bytes, 0, bytes.length);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity (correctly rounded ie 1/2 ulp)
+     */
+    public static double getDouble(final byte[] bytes,
+                                   final int offset, final int end) throws NumberFormatException {
+        return getDecimal(bytes, offset, end, false, THROW_ERRORS, false);
+    }
+
+    public static double parseDouble(final byte[] bytes, final ParseResult result) {
+        return parseDouble(bytes, 0, bytes.length, result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity without any exception:
+     return NaN and set the (optional) result status on failure
+     */
+    public static double parseDouble(final byte[] bytes,
+                                     final int offset, final int end,
+                                     final ParseResult result) {
+        return getDecimal(bytes, offset, end, false, result, false);
+    }
+
+    /*
+     Scan [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity as far as possible (any character may follow):
+     the cursor gives the next offset (or the INVALID status if no digit)
+     */
+    public static double scanDouble(final byte[] bytes,
+                                    final int offset, final int end,
+                                    final ParseResult cursor) {
+        return getDecimal(bytes, offset, end, false, cursor, true);
+    }
+
+    public static float getFloat(final byte[] bytes) throws NumberFormatException {
+        return getFloat(bytes, 0, bytes.length);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity (correctly rounded ie 1/2 ulp)
+     */
+    public static float getFloat(final byte[] bytes,
+                                 final int offset, final int end) throws NumberFormatException {
+        // note: the float value is exactly represented as a double:
+        return (float) getDecimal(bytes, offset, end, true, THROW_ERRORS, false);
+    }
+
+    public static float parseFloat(final byte[] bytes, final ParseResult result) {
+        return parseFloat(bytes, 0, bytes.length, result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity without any exception:
+     return NaN and set the (optional) result status on failure
+     */
+    public static float parseFloat(final byte[] bytes,
+                                   final int offset, final int end,
+                                   final ParseResult result) {
+        return (float) getDecimal(bytes, offset, end, true, result, false);
+    }
+
+    /*
+     Scan [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity as far as possible (any character may follow):
+     the cursor gives the next offset (or the INVALID status if no digit)
+     */
+    public static float scanFloat(final byte[] bytes,
+                                  final int offset, final int end,
+                                  final ParseResult cursor) {
+        return (float) getDecimal(bytes, offset, end, true, cursor, true);
+    }
+
+    /*
+     Parse decimal numbers as double or float (correctly rounded ie 1/2 ulp)
+     */
+    private static double getDecimal(final byte[] bytes,
+                                     final int offset, final int end,
+                                     final boolean toFloat,
+                                     final ParseResult result, final boolean scan) throws NumberFormatException {
+
+        int off = offset;
+        int len = end - offset;
+
+        if (len == 0) {
+            // note: empty input gives NaN (no exception):
+            if (result != THROW_ERRORS) {
+                onError(result, ParseResult.EMPTY, off, "", bytes, offset, end);
+            }
+            return Double.NaN;
+        }
+
+        byte ch;
+        boolean numSign = true;
+
+        ch = bytes[off];
+        if (ch == '+') {
+            off++;
+            len--;
+        } else if (ch == '-') {
+            numSign = false;
+            off++;
+            len--;
+        }
+
+        double number;
+
+        // Look for the special strings NaN, Inf,
+        if (len >= 3
+                && ((ch = bytes[off]) == 'n' || ch == 'N')
+                && ((ch = bytes[off + 1]) == 'a' || ch == 'A')
+                && ((ch = bytes[off + 2]) == 'n' || ch == 'N')) {
+
+            number = Double.NaN;
+            off += 3;
+
+            // Look for the longer string first then try the shorter.
+        } else if (len >= 8
+                && ((ch = bytes[off]) == 'i' || ch == 'I')
+                && ((ch = bytes[off + 1]) == 'n' || ch == 'N')
+                && ((ch = bytes[off + 2]) == 'f' || ch == 'F')
+                && ((ch = bytes[off + 3]) == 'i' || ch == 'I')
+                && ((ch = bytes[off + 4]) == 'n' || ch == 'N')
+                && ((ch = bytes[off + 5]) == 'i' || ch == 'I')
+                && ((ch = bytes[off + 6]) == 't' || ch == 'T')
+                && ((ch = bytes[off + 7]) == 'y' || ch == 'Y')) {
+
+            number = Double.POSITIVE_INFINITY;
+            off += 8;
+
+        } else if (len >= 3
+                && ((ch = bytes[off]) == 'i' || ch == 'I')
+                && ((ch = bytes[off + 1]) == 'n' || ch == 'N')
+                && ((ch = bytes[off + 2]) == 'f' || ch == 'F')) {
+
+            number = Double.POSITIVE_INFINITY;
+            off += 3;
+
+        } else {
+            final int digitsOffset = off;
+
+            // 64 bits mantissa (may overflow if more than 19 digits, see below):
+            long mantissa = 0L;
+            for (; (len > 0) && ((ch = bytes[off]) >= '0') && (ch <= '9');) {
+                mantissa = 10L * mantissa + (ch - '0');
+                off++;
+                len--;
+            }
+            final int pointOffset = off;
+            int digitCount = off - digitsOffset;
+            int exponent = 0;
+
+            // Check for fractional values after decimal
+            if ((len > 0) && (bytes[off] == '.')) {
+
+                off++;
+                len--;
+
+                final int startOffset = off;
+
+                for (; (len > 0) && ((ch = bytes[off]) >= '0') && (ch <= '9');) {
+                    mantissa = 10L * mantissa + (ch - '0');
+                    off++;
+                    len--;
+                }
+                // decimal exponent = - fraction length:
+                exponent = startOffset - off;
+                digitCount -= exponent;
+            }
+
+            if (digitCount == 0) {
+                onError(result, ParseResult.INVALID, off, "Invalid Double : ", bytes, offset, end);
+                return Double.NaN;
+            }
+
+            final int digitsEnd = off;
+
+            // Look for an exponent
+            int explicitExponent = 0;
+
+            if (len > 0) {
+                // note: ignore any non-digit character at end:
+
+                if ((ch = bytes[off]) == 'e' || ch == 'E') {
+                    final int expOffset = off;
+
+                    off++;
+                    len--;
+
+                    int expDigitsOffset = off;
+
+                    if (len > 0) {
+                        boolean expSign = true;
+
+                        ch = bytes[off];
+                        if (ch == '+') {
+                            off++;
+                            len--;
+                        } else if (ch == '-') {
+                            expSign = false;
+                            off++;
+                            len--;
+                        }
+                        expDigitsOffset = off;
+
+                        // note: ignore any non-digit character at end:
+                        for (; (len > 0) && ((ch = bytes[off]) >= '0') && (ch <= '9');) {
+                            // saturate huge exponents (overflow):
+                            if (explicitExponent < 0x10000) {
+                                explicitExponent = 10 * explicitExponent + (ch - '0');
+                            }
+                            off++;
+                            len--;
+                        }
+
+                        if (!expSign) {
+                            explicitExponent = -explicitExponent;
+                        }
+                    }
+                    if (scan && (off == expDigitsOffset)) {
+                        // no exponent digit: stop before 'e'
+                        len += off - expOffset;
+                        off = expOffset;
+                    }
+                }
+            }
+            if ((off == pointOffset) && (digitCount == 1) && (mantissa == 0L) && (len > 1)
+                    && (((ch = bytes[off]) == 'x') || (ch == 'X'))) {
+                // hexadecimal floating-point value (0x1.8p3):
+                return getHexDecimal(bytes, offset, end, off + 1, numSign, toFloat, result, scan);
+            }
+
+            // check other characters:
+            if (!scan && (len > 0)) {
+                onError(result, ParseResult.INVALID, off, "Invalid Double : ", bytes, offset, end);
+                return Double.NaN;
+            }
+
+            if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+                exponent += explicitExponent;
+                number = (toFloat) ? DoubleConverter.toFloat(mantissa, exponent) : DoubleConverter.toDouble(mantissa, exponent);
+            } else {
+                number = getDecimalManyDigits(bytes, digitsOffset, pointOffset, digitsEnd, digitCount, explicitExponent, toFloat);
+            }
+        }
+
+        onSuccess(result, off);
+        return (numSign) ? number : -number;
+    }
+
+    /*
+     Rare path: more than 19 digits (leading zeros, truncated mantissa or slow path)
+     */
+    private static double getDecimalManyDigits(final byte[] bytes, final int digitsOffset,
+                                               final int pointOffset, final int digitsEnd,
+                                               int digitCount, final int explicitExponent,
+                                               final boolean toFloat) {
+        byte ch;
+        int off = digitsOffset;
+
+        // skip leading zeros:
+        for (; (off < digitsEnd) && (((ch = bytes[off]) == '0') || (ch == '.')); off++) {
+            if (ch == '0') {
+                digitCount--;
+            }
+        }
+
+        // keep only the 19 first significant digits:
+        long mantissa = 0L;
+        int n = 0;
+        for (; (off < digitsEnd) && (n < DoubleConverter.MAX_MANTISSA_DIGITS); off++) {
+            if ((ch = bytes[off]) != '.') {
+                mantissa = 10L * mantissa + (ch - '0');
+                n++;
+            }
+        }
+        final int exponent = ((off <= pointOffset) ? (pointOffset - off) : (pointOffset + 1 - off)) + explicitExponent;
+
+        if (toFloat) {
+            if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+                return DoubleConverter.toFloat(mantissa, exponent);
+            }
+            // truncated mantissa:
+            final float number = DoubleConverter.toFloatTruncated(mantissa, exponent);
+            if (!Float.isNaN(number)) {
+                return number;
+            }
+            final String digits = toString(bytes, digitsOffset, digitsEnd);
+            return DoubleConverter.parseSlowFloat(digits, 0, digits.length(), explicitExponent);
+        }
+        if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+            return DoubleConverter.toDouble(mantissa, exponent);
+        }
+        // truncated mantissa:
+        final double number = DoubleConverter.toDoubleTruncated(mantissa, exponent);
+        if (!Double.isNaN(number)) {
+            return number;
+        }
+        final String digits = toString(bytes, digitsOffset, digitsEnd);
+        return DoubleConverter.parseSlow(digits, 0, digits.length(), explicitExponent);
+    }
+
+    /*
+     Parse the hexadecimal floating-point value after the 0x prefix: HHH[.HHH](p|P)[+/-]DDD (correctly rounded)
+     */
+    private static double getHexDecimal(final byte[] bytes,
+                                        final int offset, final int end, final int hexOffset,
+                                        final boolean numSign, final boolean toFloat,
+                                        final ParseResult result, final boolean scan) throws NumberFormatException {
+        int off = hexOffset;
+        byte ch;
+        int digit;
+
+        // 64 bits mantissa (extra digits are truncated):
+        long mantissa = 0L;
+        boolean sticky = false;
+        int exponent = 0;
+
+        for (; (off < end) && ((digit = hexDigit(bytes[off])) >= 0); off++) {
+            if ((mantissa >>> 60) == 0L) {
+                mantissa = (mantissa << 4) | digit;
+            } else {
+                exponent += 4;
+                sticky |= (digit != 0);
+            }
+        }
+        int digitCount = off - hexOffset;
+
+        if ((off < end) && (bytes[off] == '.')) {
+            off++;
+
+            final int startOffset = off;
+
+            for (; (off < end) && ((digit = hexDigit(bytes[off])) >= 0); off++) {
+                if ((mantissa >>> 60) == 0L) {
+                    mantissa = (mantissa << 4) | digit;
+                    exponent -= 4;
+                } else {
+                    sticky |= (digit != 0);
+                }
+            }
+            digitCount += off - startOffset;
+        }
+
+        // binary exponent is mandatory:
+        boolean valid = (digitCount != 0) && (off < end) && (((ch = bytes[off]) == 'p') || (ch == 'P'));
+
+        if (valid) {
+            off++;
+
+            boolean expSign = true;
+            if (off < end) {
+                ch = bytes[off];
+                if (ch == '+') {
+                    off++;
+                } else if (ch == '-') {
+                    expSign = false;
+                    off++;
+                }
+            }
+            final int expDigitsOffset = off;
+            int explicitExponent = 0;
+
+            for (; (off < end) && ((ch = bytes[off]) >= '0') && (ch <= '9'); off++) {
+                // saturate huge exponents (overflow):
+                if (explicitExponent < 0x10000) {
+                    explicitExponent = 10 * explicitExponent + (ch - '0');
+                }
+            }
+            exponent += (expSign) ? explicitExponent : -explicitExponent;
+
+            valid = (off != expDigitsOffset) && (scan || (off == end));
+        }
+        if (!valid) {
+            if (scan) {
+                // only the leading zero:
+                onSuccess(result, hexOffset - 1);
+                return (numSign) ? 0.0 : -0.0;
+            }
+            onError(result, ParseResult.INVALID, off, "Invalid Double : ", bytes, offset, end);
+            return Double.NaN;
+        }
+
+        final double number = DoubleConverter.toDoubleBinary(mantissa, sticky, exponent, toFloat);
+
+        onSuccess(result, off);
+        return (numSign) ? number : -number;
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD] as an exact decimal (like BigDecimal): return the unscaled value and set the
+     scale in the given (required) result (value = unscaled x 10^-scale) or NumberUtils.NULL_LONG on failure
+     */
+    public static long parseUnscaledLong(final byte[] bytes,
+                                         final int offset, final int end,
+                                         final ParseResult result) {
+        return parseFixed(bytes, offset, end, false, 0, null, result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD] as a long at the given scale (value x 10^scale) rounded with the given mode
+     (like BigDecimal.setScale(scale, mode).unscaledValue().longValueExact(): "1.25" at scale 2 gives 125)
+     */
+    public static long getScaledLong(final byte[] bytes,
+                                     final int offset, final int end,
+                                     final int scale, final RoundingMode mode) throws NumberFormatException {
+        return parseFixed(bytes, offset, end, true, scale, mode, THROW_ERRORS);
+    }
+
+    public static long parseScaledLong(final byte[] bytes,
+                                       final int offset, final int end,
+                                       final int scale, final RoundingMode mode,
+                                       final ParseResult result) {
+        return parseFixed(bytes, offset, end, true, scale, mode, result);
+    }
+
+    /*
+     Parse fixed-point decimal numbers (no double accumulation): return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseFixed(final byte[] bytes,
+                                   final int offset, final int end,
+                                   final boolean rescale, final int targetScale, final RoundingMode mode,
+                                   final ParseResult result) throws NumberFormatException {
+        if (offset == end) {
+            onError(result, ParseResult.EMPTY, offset, "", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        int off = offset;
+        byte ch;
+        boolean sign = false;
+
+        ch = bytes[off];
+        if (ch == '+') {
+            off++;
+        } else if (ch == '-') {
+            sign = true;
+            off++;
+        }
+
+        final int digitsOffset = off;
+
+        // unscaled value (negative accumulator):
+        long lval = 0L;
+        // trailing zeros not accumulated yet:
+        int pendingZeros = 0;
+        // digits dropped beyond the long range (rescale only) and their rounding tail (first digit x 2 + sticky bit):
+        int dropped = 0;
+        int tail = 0;
+        // accumulator limit (positive rescaled values drop the digits beyond Long.MAX_VALUE):
+        final long limit = (sign || !rescale) ? Long.MIN_VALUE : -Long.MAX_VALUE;
+
+        for (; (off < end) && ((ch = bytes[off]) >= '0') && (ch <= '9'); off++) {
+            if (dropped != 0) {
+                // beyond the long range (rescale only): sticky bit
+                dropped++;
+                tail |= (ch != '0') ? 1 : 0;
+                continue;
+            }
+            if (ch == '0') {
+                pendingZeros++;
+                continue;
+            }
+            for (; (pendingZeros != 0) && (lval >= (Long.MIN_VALUE / 10L)); pendingZeros--) {
+                lval *= 10L;
+            }
+            // check overflow (the subtraction may wrap):
+            final long next = 10L * lval - (ch - '0');
+            if ((pendingZeros != 0) || (lval < (Long.MIN_VALUE / 10L)) || (next > 0L) || (next < limit)) {
+                if (!rescale) {
+                    onError(result, ParseResult.OVERFLOW, off, "Invalid Decimal : ", bytes, offset, end);
+                    return NumberUtils.NULL_LONG;
+                }
+                // drop this digit and the next ones (only rounded at the target scale):
+                tail = (pendingZeros != 0) ? 1 : ((ch - '0') << 1);
+                dropped = pendingZeros + 1;
+                pendingZeros = 0;
+                continue;
+            }
+            lval = next;
+        }
+        int digitCount = off - digitsOffset;
+        int fractionDigits = 0;
+
+        if ((off < end) && (bytes[off] == '.')) {
+            off++;
+
+            final int startOffset = off;
+
+            for (; (off < end) && ((ch = bytes[off]) >= '0') && (ch <= '9'); off++) {
+                if (dropped != 0) {
+                    // beyond the long range (rescale only): sticky bit
+                    dropped++;
+                    tail |= (ch != '0') ? 1 : 0;
+                    continue;
+                }
+                if (ch == '0') {
+                    pendingZeros++;
+                    continue;
+                }
+                for (; (pendingZeros != 0) && (lval >= (Long.MIN_VALUE / 10L)); pendingZeros--) {
+                    lval *= 10L;
+                }
+                // check overflow (the subtraction may wrap):
+                final long next = 10L * lval - (ch - '0');
+                if ((pendingZeros != 0) || (lval < (Long.MIN_VALUE / 10L)) || (next > 0L) || (next < limit)) {
+                    if (!rescale) {
+                        onError(result, ParseResult.OVERFLOW, off, "Invalid Decimal : ", bytes, offset, end);
+                        return NumberUtils.NULL_LONG;
+                    }
+                    // drop this digit and the next ones (only rounded at the target scale):
+                    tail = (pendingZeros != 0) ? 1 : ((ch - '0') << 1);
+                    dropped = pendingZeros + 1;
+                    pendingZeros = 0;
+                    continue;
+                }
+                lval = next;
+            }
+            fractionDigits = off - startOffset;
+            digitCount += fractionDigits;
+        }
+
+        if (digitCount == 0) {
+            onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+
+        // Look for an exponent (saturated beyond the int range):
+        long exponent = 0L;
+
+        if ((off < end) && (((ch = bytes[off]) == 'e') || (ch == 'E'))) {
+            off++;
+
+            boolean expSign = true;
+            if (off < end) {
+                ch = bytes[off];
+                if (ch == '+') {
+                    off++;
+                } else if (ch == '-') {
+                    expSign = false;
+                    off++;
+                }
+            }
+            final int expDigitsOffset = off;
+
+            for (; (off < end) && ((ch = bytes[off]) >= '0') && (ch <= '9'); off++) {
+                if (exponent <= Integer.MAX_VALUE) {
+                    exponent = 10L * exponent + (ch - '0');
+                }
+            }
+            if (off == expDigitsOffset) {
+                onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            if (!expSign) {
+                exponent = -exponent;
+            }
+        }
+        // check other characters:
+        if (off != end) {
+            onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+
+        if (!rescale) {
+            // keep trailing zeros (exact representation like BigDecimal) else
+            // they only lower the scale to avoid any useless overflow:
+            for (; pendingZeros != 0; pendingZeros--) {
+                if (lval < (Long.MIN_VALUE / 10L)) {
+                    onError(result, ParseResult.OVERFLOW, end - 1, "Invalid Decimal : ", bytes, offset, end);
+                    return NumberUtils.NULL_LONG;
+                }
+                lval *= 10L;
+            }
+        }
+        if (!sign && (lval == Long.MIN_VALUE)) {
+            onError(result, ParseResult.OVERFLOW, end - 1, "Invalid Decimal : ", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        final long unscaled = (sign) ? lval : -lval;
+        final long scale = (fractionDigits - pendingZeros - dropped) - exponent;
+
+        if (rescale) {
+            final long shift = targetScale - scale;
+            final int status = rescaleStatus(unscaled, shift, mode, tail);
+
+            if (status != ParseResult.OK) {
+                onError(result, status, offset, "Invalid Decimal : ", bytes, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            onSuccess(result, end);
+            return rescale(unscaled, shift, mode, tail);
+        }
+        if ((scale < Integer.MIN_VALUE) || (scale > Integer.MAX_VALUE)) {
+            onError(result, ParseResult.OVERFLOW, offset, "Invalid Decimal : ", bytes, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, end);
+        result.scale = (int) scale;
+        return unscaled;
+    }
+
+    public static int indexOf(final byte[] bytes, final char c, final int off, final int end) {
+        for (int i = off; i < end; i++) {
+            if (bytes[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int indexOfNotDigit(final byte[] bytes, final int off, final int end) {
+        for (int i = off; i < end; i++) {
+            byte ch = bytes[i];
+            if ((ch < '0') || (ch > '9')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * White space is defined as ' ', '\t', '\n' or '\r'
+     */
+    public static int indexOfNotWhiteSpace(final byte[] bytes, final int off, final int end) {
+        for (int i = off; i < end; i++) {
+            byte ch = bytes[i];
+            if ((ch != ' ') && (ch != '\t') && (ch != '\n') && (ch != '\r')) {
+                return i;
+            }
+        }
+        return off;
+    }
+
+    // ByteBuffer variants (ASCII, heap or direct):
+    public static int getInteger(final ByteBuffer buffer) throws NumberFormatException {
+        return getInteger(buffer, buffer.position(), buffer.limit());
+    }
+
+    public static int getInteger(final ByteBuffer buffer,
+                                 final int offset, final int end) throws NumberFormatException {
+        return parseInteger(buffer, offset, end, THROW_ERRORS, false);
+    }
+
+    public static int parseInteger(final ByteBuffer buffer, final ParseResult result) {
+        return parseInteger(buffer, buffer.position(), buffer.limit(), result);
+    }
+
+    /*
+     Parse [-]DDDDD without any exception: return NumberUtils.NULL_INT and set the (optional) result status on failure
+     */
+    public static int parseInteger(final ByteBuffer buffer,
+                                   final int offset, final int end,
+                                   final ParseResult result) {
+        return parseInteger(buffer, offset, end, result, false);
+    }
+
+    /*
+     Scan [-]DDDDD as far as possible (any character may follow): the cursor gives the next offset
+     (or the INVALID status if no digit)
+     */
+    public static int scanInteger(final ByteBuffer buffer,
+                                  final int offset, final int end,
+                                  final ParseResult cursor) {
+        return parseInteger(buffer, offset, end, cursor, true);
+    }
+
+    private static int parseInteger(final ByteBuffer buffer,
+                                    final int offset, final int end,
+                                    final ParseResult result, final boolean scan) {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final int value = parseInteger(buffer.array(), base + offset, base + end, result, scan);
+            rebase(result, base);
+            return value;
+        }
+        // SWAR fast path: 8 digits at a time for [-]DDDDDDDD (8 or 9 digits, no overflow possible)
+        final int digitOffset = ((offset != end) && (buffer.get(offset) == '-')) ? (offset + 1) : offset;
+        final int digits = end - digitOffset;
+        if ((digits >= 8) && (digits <= 9)) {
+            final int value = (int) SWARDigits.parseDigits(buffer, digitOffset, end);
+            if (value >= 0) {
+                onSuccess(result, end);
+                return (digitOffset != offset) ? -value : value;
+            }
+            // invalid character: see below
+        }
+
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((offset == end)
+                || (((ch = buffer.get(off)) < '0') || (ch > '9'))
+                && (!(sign = ch == '-') || (++off == end) || (((ch = buffer.get(off)) < '0') || (ch > '9')))) {
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, off, "", buffer, offset, end);
+            return NumberUtils.NULL_INT;
+        }
+        int ival = 0;
+
+        for (;; ival *= 10) {
+            ival += '0' - ch; // negative
+            if (++off == end) {
+                break;
+            }
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                if (scan) {
+                    break;
+                }
+                onError(result, ParseResult.INVALID, off, "", buffer, offset, end);
+                return NumberUtils.NULL_INT;
+            }
+            // check overflow (negative accumulator, the last addition may wrap):
+            if ((ival < (Integer.MIN_VALUE / 10)) || (ival > 0)) {
+                onError(result, ParseResult.OVERFLOW, off, "", buffer, offset, end);
+                return NumberUtils.NULL_INT;
+            }
+        }
+        if ((ival > 0) || (!sign && (ival == Integer.MIN_VALUE))) {
+            onError(result, ParseResult.OVERFLOW, off - 1, "", buffer, offset, end);
+            return NumberUtils.NULL_INT;
+        }
+        onSuccess(result, off);
+        return sign ? ival : -ival;
+    }
+
+    /*
+     Parse [-]DDDDD (no length and overflow checks)
+     */
+    public static int getIntegerUnsafe(final ByteBuffer buffer) throws NumberFormatException {
+        return getIntegerUnsafe(buffer, buffer.position(), buffer.limit());
+    }
+
+    /*
+     Parse [-]DDDDD (no length and overflow checks)
+     */
+    public static int getIntegerUnsafe(final ByteBuffer buffer,
+                                       final int offset, final int end) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            return getIntegerUnsafe(buffer.array(), base + offset, base + end);
+        }
+
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((((ch = buffer.get(off)) < '0') || (ch > '9'))
+                && (!(sign = ch == '-') || (++off == end) || (((ch = buffer.get(off)) < '0') || (ch > '9')))) {
+            throw new NumberFormatException(toString(buffer, offset, end));
+        }
+
+        for (int ival = 0;; ival *= 10) {
+            ival += '0' - ch; // negative
+            if (++off == end) {
+                return sign ? ival : -ival;
+            }
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(buffer, offset, end));
+            }
+        }
+    }
+
+    /*
+     Parse [+/-]DDDDD (no length and overflow checks)
+     */
+    public static double getIntegerUnsafeAsDouble(final ByteBuffer buffer,
+                                                  final int offset, final int end) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            return getIntegerUnsafeAsDouble(buffer.array(), base + offset, base + end);
+        }
+
+        int off = offset;
+
+        boolean sign = true;
+        byte ch;
+
+        if ((((ch = buffer.get(off)) < '0') || (ch > '9'))
+                && (!((sign = ch == '+') || (ch == '-')) || (++off == end) || (((ch = buffer.get(off)) < '0') || (ch > '9')))) {
+            throw new NumberFormatException(toString(buffer, offset, end));
+        }
+
+        for (double dval = 0;; dval *= 10d) {
+            dval += ch - '0'; // positive
+            if (++off == end) {
+                return sign ? dval : -dval;
+            }
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(buffer, offset, end));
+            }
+        }
+    }
+
+    /*
+     Parse DDDDD (no length and overflow checks)
+     */
+    public static int getPositiveIntegerUnsafe(final ByteBuffer buffer,
+                                               final int offset, final int end) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            return getPositiveIntegerUnsafe(buffer.array(), base + offset, base + end);
+        }
+
+        int off = offset;
+
+        byte ch;
+
+        if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+            throw new NumberFormatException(toString(buffer, offset, end));
+        }
+
+        for (int ival = 0;; ival *= 10) {
+            ival += ch - '0'; // positive
+            if (++off == end) {
+                return ival;
+            }
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(buffer, offset, end));
+            }
+        }
+    }
+
+    /*
+     Parse DDDDD (no length and overflow checks)
+     */
+    public static double getPositiveIntegerUnsafeAsDouble(final ByteBuffer buffer,
+                                                          final int offset, final int end) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            return getPositiveIntegerUnsafeAsDouble(buffer.array(), base + offset, base + end);
+        }
+
+        int off = offset;
+
+        byte ch;
+
+        if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+            throw new NumberFormatException(toString(buffer, offset, end));
+        }
+
+        for (double dval = 0.0;; dval *= 10d) {
+            dval += ch - '0'; // positive
+            if (++off == end) {
+                return dval;
+            }
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                throw new NumberFormatException(toString(buffer, offset, end));
+            }
+        }
+    }
+
+    public static long getLong(final ByteBuffer buffer) throws NumberFormatException {
+        return getLong(buffer, buffer.position(), buffer.limit());
+    }
+
+    public static long getLong(final ByteBuffer buffer,
+                               final int offset, final int end) throws NumberFormatException {
+        return parseLong(buffer, offset, end, THROW_ERRORS, false);
+    }
+
+    public static long parseLong(final ByteBuffer buffer, final ParseResult result) {
+        return parseLong(buffer, buffer.position(), buffer.limit(), result);
+    }
+
+    /*
+     Parse [-]DDDDD without any exception: return NumberUtils.NULL_LONG and set the (optional) result status on failure
+     */
+    public static long parseLong(final ByteBuffer buffer,
+                                 final int offset, final int end,
+                                 final ParseResult result) {
+        return parseLong(buffer, offset, end, result, false);
+    }
+
+    /*
+     Scan [-]DDDDD as far as possible (any character may follow): the cursor gives the next offset
+     (or the INVALID status if no digit)
+     */
+    public static long scanLong(final ByteBuffer buffer,
+                                final int offset, final int end,
+                                final ParseResult cursor) {
+        return parseLong(buffer, offset, end, cursor, true);
+    }
+
+    private static long parseLong(final ByteBuffer buffer,
+                                  final int offset, final int end,
+                                  final ParseResult result, final boolean scan) {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final long value = parseLong(buffer.array(), base + offset, base + end, result, scan);
+            rebase(result, base);
+            return value;
+        }
+        // SWAR fast path: 8 digits at a time for [-]DDDDDDDD (8 to 18 digits, no overflow possible)
+        final int digitOffset = ((offset != end) && (buffer.get(offset) == '-')) ? (offset + 1) : offset;
+        final int digits = end - digitOffset;
+        if ((digits >= 8) && (digits <= 18)) {
+            final long value = SWARDigits.parseDigits(buffer, digitOffset, end);
+            if (value >= 0L) {
+                onSuccess(result, end);
+                return (digitOffset != offset) ? -value : value;
+            }
+            // invalid character: see below
+        }
+
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((offset == end)
+                || (((ch = buffer.get(off)) < '0') || (ch > '9'))
+                && (!(sign = ch == '-') || (++off == end) || (((ch = buffer.get(off)) < '0') || (ch > '9')))) {
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, off, "", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        long lval = 0l;
+
+        for (;; lval *= 10l) {
+            lval += '0' - ch; // negative
+            if (++off == end) {
+                break;
+            }
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                if (scan) {
+                    break;
+                }
+                onError(result, ParseResult.INVALID, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            // check overflow (negative accumulator, the last addition may wrap):
+            if ((lval < (Long.MIN_VALUE / 10l)) || (lval > 0l)) {
+                onError(result, ParseResult.OVERFLOW, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+        }
+        if ((lval > 0l) || (!sign && (lval == Long.MIN_VALUE))) {
+            onError(result, ParseResult.OVERFLOW, off - 1, "", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, off);
+        return sign ? lval : -lval;
+    }
+
+    public static int getUnsignedInteger(final ByteBuffer buffer) throws NumberFormatException {
+        return getUnsignedInteger(buffer, buffer.position(), buffer.limit());
+    }
+
+    /*
+     Parse DDDDD as an unsigned 32 bits value [0; 4294967295] (like Integer.parseUnsignedInt)
+     */
+    public static int getUnsignedInteger(final ByteBuffer buffer,
+                                         final int offset, final int end) throws NumberFormatException {
+        return (int) parseUnsigned(buffer, offset, end, true, THROW_ERRORS);
+    }
+
+    public static int parseUnsignedInteger(final ByteBuffer buffer,
+                                           final int offset, final int end,
+                                           final ParseResult result) {
+        final long value = parseUnsigned(buffer, offset, end, true, result);
+        return (value == NumberUtils.NULL_LONG) ? NumberUtils.NULL_INT : (int) value;
+    }
+
+    public static long getUnsignedLong(final ByteBuffer buffer) throws NumberFormatException {
+        return getUnsignedLong(buffer, buffer.position(), buffer.limit());
+    }
+
+    /*
+     Parse DDDDD as an unsigned 64 bits value [0; 18446744073709551615] (like Long.parseUnsignedLong)
+     */
+    public static long getUnsignedLong(final ByteBuffer buffer,
+                                       final int offset, final int end) throws NumberFormatException {
+        return parseUnsigned(buffer, offset, end, false, THROW_ERRORS);
+    }
+
+    public static long parseUnsignedLong(final ByteBuffer buffer,
+                                         final int offset, final int end,
+                                         final ParseResult result) {
+        return parseUnsigned(buffer, offset, end, false, result);
+    }
+
+    /*
+     Parse unsigned digits: return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseUnsigned(final ByteBuffer buffer,
+                                      final int offset, final int end, final boolean toInt,
+                                      final ParseResult result) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final long value = parseUnsigned(buffer.array(), base + offset, base + end, toInt, result);
+            rebase(result, base);
+            return value;
+        }
+        if (offset == end) {
+            onError(result, ParseResult.EMPTY, offset, "", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        // SWAR fast path: 8 digits at a time (8 to 18 digits):
+        final int digits = end - offset;
+        if ((digits >= 8) && (digits <= 18)) {
+            final long value = SWARDigits.parseDigits(buffer, offset, end);
+            if ((value >= 0L) && (!toInt || ((value >>> 32) == 0L))) {
+                onSuccess(result, end);
+                return value;
+            }
+            // invalid character or overflow: see below
+        }
+        int off = offset;
+        byte ch;
+        long lval = 0L;
+
+        // up to 19 digits can not overflow an unsigned 64 bits value:
+        for (final int safeEnd = Math.min(end, offset + 19); off < safeEnd; off++) {
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                onError(result, ParseResult.INVALID, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval = 10L * lval + (ch - '0');
+        }
+        for (; off < end; off++) {
+            if (((ch = buffer.get(off)) < '0') || (ch > '9')) {
+                onError(result, ParseResult.INVALID, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            // check overflow: lval * 10 + digit <= 2^64 - 1
+            if (DoubleConverter.unsignedLess(UNSIGNED_MAX_DIV10, lval)
+                    || ((lval == UNSIGNED_MAX_DIV10) && (ch > '5'))) {
+                onError(result, ParseResult.OVERFLOW, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval = 10L * lval + (ch - '0');
+        }
+        if (toInt && ((lval >>> 32) != 0L)) {
+            onError(result, ParseResult.OVERFLOW, end - 1, "", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, end);
+        return lval;
+    }
+
+    /*
+     Parse [-]DDDDD in the given radix [2; 36] (like Integer.parseInt(String, int))
+     */
+    public static int getInteger(final ByteBuffer buffer,
+                                 final int offset, final int end, final int radix) throws NumberFormatException {
+        return (int) parseRadix(buffer, offset, end, radix, Integer.MAX_VALUE, THROW_ERRORS);
+    }
+
+    public static int parseInteger(final ByteBuffer buffer,
+                                   final int offset, final int end, final int radix,
+                                   final ParseResult result) {
+        final long value = parseRadix(buffer, offset, end, radix, Integer.MAX_VALUE, result);
+        return (value == NumberUtils.NULL_LONG) ? NumberUtils.NULL_INT : (int) value;
+    }
+
+    /*
+     Parse [-]DDDDD in the given radix [2; 36] (like Long.parseLong(String, int))
+     */
+    public static long getLong(final ByteBuffer buffer,
+                               final int offset, final int end, final int radix) throws NumberFormatException {
+        return parseRadix(buffer, offset, end, radix, Long.MAX_VALUE, THROW_ERRORS);
+    }
+
+    public static long parseLong(final ByteBuffer buffer,
+                                 final int offset, final int end, final int radix,
+                                 final ParseResult result) {
+        return parseRadix(buffer, offset, end, radix, Long.MAX_VALUE, result);
+    }
+
+    /*
+     Parse [+/-](0x|0X|#)HHHH, [+/-](0b|0B)BBBB, [+/-]0OOOO (octal) or [+/-]DDDD (like Integer.decode)
+     */
+    public static int decodeInteger(final ByteBuffer buffer,
+                                    final int offset, final int end) throws NumberFormatException {
+        return (int) decode(buffer, offset, end, Integer.MAX_VALUE);
+    }
+
+    /*
+     Parse [+/-](0x|0X|#)HHHH, [+/-](0b|0B)BBBB, [+/-]0OOOO (octal) or [+/-]DDDD (like Long.decode)
+     */
+    public static long decodeLong(final ByteBuffer buffer,
+                                  final int offset, final int end) throws NumberFormatException {
+        return decode(buffer, offset, end, Long.MAX_VALUE);
+    }
+
+    private static long decode(final ByteBuffer buffer,
+                               final int offset, final int end, final long maxValue) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            return decode(buffer.array(), base + offset, base + end, maxValue);
+        }
+        int off = offset;
+
+        boolean sign = false;
+        byte ch;
+
+        if ((off != end) && (((ch = buffer.get(off)) == '-') || (ch == '+'))) {
+            sign = (ch == '-');
+            off++;
+        }
+        int radix = 10;
+
+        if ((off + 1 < end) && (buffer.get(off) == '0')) {
+            if (((ch = buffer.get(off + 1)) == 'x') || (ch == 'X')) {
+                radix = 16;
+                off += 2;
+            } else if ((ch == 'b') || (ch == 'B')) {
+                radix = 2;
+                off += 2;
+            } else {
+                radix = 8;
+                off++;
+            }
+        } else if ((off < end) && (buffer.get(off) == '#')) {
+            radix = 16;
+            off++;
+        }
+        return parseRadixDigits(buffer, offset, end, off, sign, radix, maxValue, THROW_ERRORS);
+    }
+
+    private static long parseRadix(final ByteBuffer buffer,
+                                   final int offset, final int end, final int radix,
+                                   final long maxValue, final ParseResult result) throws NumberFormatException {
+        checkRadix(radix);
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final long value = parseRadix(buffer.array(), base + offset, base + end, radix, maxValue, result);
+            rebase(result, base);
+            return value;
+        }
+        final boolean sign = (offset != end) && (buffer.get(offset) == '-');
+
+        return parseRadixDigits(buffer, offset, end, (sign) ? (offset + 1) : offset, sign, radix, maxValue, result);
+    }
+
+    /*
+     Parse digits in the given radix: return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseRadixDigits(final ByteBuffer buffer,
+                                         final int offset, final int end, final int digitsOffset,
+                                         final boolean sign, final int radix,
+                                         final long maxValue, final ParseResult result) throws NumberFormatException {
+        if (digitsOffset == end) {
+            onError(result, (offset == end) ? ParseResult.EMPTY : ParseResult.INVALID, digitsOffset, "", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        // SWAR fast path: 8 hexadecimal digits at a time (8 to 15 digits):
+        final int digits = end - digitsOffset;
+        if ((radix == 16) && (digits >= 8) && (digits <= 15)) {
+            final long value = SWARDigits.parseHexDigits(buffer, digitsOffset, end);
+            if ((value >= 0L) && (value <= maxValue)) {
+                onSuccess(result, end);
+                return (sign) ? -value : value;
+            }
+            // invalid character or overflow: see below
+        }
+        // check overflow (negative accumulator):
+        final long limit = (sign) ? (-maxValue - 1L) : -maxValue;
+        final long multLimit = limit / radix;
+
+        long lval = 0L;
+
+        for (int off = digitsOffset; off < end; off++) {
+            final int digit = radixDigit(buffer.get(off));
+
+            if ((digit < 0) || (digit >= radix)) {
+                onError(result, ParseResult.INVALID, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            if (lval < multLimit) {
+                onError(result, ParseResult.OVERFLOW, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval *= radix;
+            if (lval < limit + digit) {
+                onError(result, ParseResult.OVERFLOW, off, "", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            lval -= digit;
+        }
+        onSuccess(result, end);
+        return (sign) ? lval : -lval;
+    }
+
+    public static double getDouble(final ByteBuffer buffer) throws NumberFormatException {
+        return getDouble(buffer, buffer.position(), buffer.limit());
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity (correctly rounded ie 1/2 ulp)
+     */
+    public static double getDouble(final ByteBuffer buffer,
+                                   final int offset, final int end) throws NumberFormatException {
+        return getDecimal(buffer, offset, end, false, THROW_ERRORS, false);
+    }
+
+    public static double parseDouble(final ByteBuffer buffer, final ParseResult result) {
+        return parseDouble(buffer, buffer.position(), buffer.limit(), result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity without any exception:
+     return NaN and set the (optional) result status on failure
+     */
+    public static double parseDouble(final ByteBuffer buffer,
+                                     final int offset, final int end,
+                                     final ParseResult result) {
+        return getDecimal(buffer, offset, end, false, result, false);
+    }
+
+    /*
+     Scan [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity as far as possible (any character may follow):
+     the cursor gives the next offset (or the INVALID status if no digit)
+     */
+    public static double scanDouble(final ByteBuffer buffer,
+                                    final int offset, final int end,
+                                    final ParseResult cursor) {
+        return getDecimal(buffer, offset, end, false, cursor, true);
+    }
+
+    public static float getFloat(final ByteBuffer buffer) throws NumberFormatException {
+        return getFloat(buffer, buffer.position(), buffer.limit());
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity (correctly rounded ie 1/2 ulp)
+     */
+    public static float getFloat(final ByteBuffer buffer,
+                                 final int offset, final int end) throws NumberFormatException {
+        // note: the float value is exactly represented as a double:
+        return (float) getDecimal(buffer, offset, end, true, THROW_ERRORS, false);
+    }
+
+    public static float parseFloat(final ByteBuffer buffer, final ParseResult result) {
+        return parseFloat(buffer, buffer.position(), buffer.limit(), result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity without any exception:
+     return NaN and set the (optional) result status on failure
+     */
+    public static float parseFloat(final ByteBuffer buffer,
+                                   final int offset, final int end,
+                                   final ParseResult result) {
+        return (float) getDecimal(buffer, offset, end, true, result, false);
+    }
+
+    /*
+     Scan [+/-]DDD[.DDD][(e|E)[+/-]DDD], NaN or Infinity as far as possible (any character may follow):
+     the cursor gives the next offset (or the INVALID status if no digit)
+     */
+    public static float scanFloat(final ByteBuffer buffer,
+                                  final int offset, final int end,
+                                  final ParseResult cursor) {
+        return (float) getDecimal(buffer, offset, end, true, cursor, true);
+    }
+
+    /*
+     Parse decimal numbers as double or float (correctly rounded ie 1/2 ulp)
+     */
+    private static double getDecimal(final ByteBuffer buffer,
+                                     final int offset, final int end,
+                                     final boolean toFloat,
+                                     final ParseResult result, final boolean scan) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final double value = getDecimal(buffer.array(), base + offset, base + end, toFloat, result, scan);
+            rebase(result, base);
+            return value;
+        }
+
+        int off = offset;
+        int len = end - offset;
+
+        if (len == 0) {
+            // note: empty input gives NaN (no exception):
+            if (result != THROW_ERRORS) {
+                onError(result, ParseResult.EMPTY, off, "", buffer, offset, end);
+            }
+            return Double.NaN;
+        }
+
+        byte ch;
+        boolean numSign = true;
+
+        ch = buffer.get(off);
+        if (ch == '+') {
+            off++;
+            len--;
+        } else if (ch == '-') {
+            numSign = false;
+            off++;
+            len--;
+        }
+
+        double number;
+
+        // Look for the special strings NaN, Inf,
+        if (len >= 3
+                && ((ch = buffer.get(off)) == 'n' || ch == 'N')
+                && ((ch = buffer.get(off + 1)) == 'a' || ch == 'A')
+                && ((ch = buffer.get(off + 2)) == 'n' || ch == 'N')) {
+
+            number = Double.NaN;
+            off += 3;
+
+            // Look for the longer string first then try the shorter.
+        } else if (len >= 8
+                && ((ch = buffer.get(off)) == 'i' || ch == 'I')
+                && ((ch = buffer.get(off + 1)) == 'n' || ch == 'N')
+                && ((ch = buffer.get(off + 2)) == 'f' || ch == 'F')
+                && ((ch = buffer.get(off + 3)) == 'i' || ch == 'I')
+                && ((ch = buffer.get(off + 4)) == 'n' || ch == 'N')
+                && ((ch = buffer.get(off + 5)) == 'i' || ch == 'I')
+                && ((ch = buffer.get(off + 6)) == 't' || ch == 'T')
+                && ((ch = buffer.get(off + 7)) == 'y' || ch == 'Y')) {
+
+            number = Double.POSITIVE_INFINITY;
+            off += 8;
+
+        } else if (len >= 3
+                && ((ch = buffer.get(off)) == 'i' || ch == 'I')
+                && ((ch = buffer.get(off + 1)) == 'n' || ch == 'N')
+                && ((ch = buffer.get(off + 2)) == 'f' || ch == 'F')) {
+
+            number = Double.POSITIVE_INFINITY;
+            off += 3;
+
+        } else {
+            final int digitsOffset = off;
+
+            // 64 bits mantissa (may overflow if more than 19 digits, see below):
+            long mantissa = 0L;
+            for (; (len > 0) && ((ch = buffer.get(off)) >= '0') && (ch <= '9');) {
+                mantissa = 10L * mantissa + (ch - '0');
+                off++;
+                len--;
+            }
+            final int pointOffset = off;
+            int digitCount = off - digitsOffset;
+            int exponent = 0;
+
+            // Check for fractional values after decimal
+            if ((len > 0) && (buffer.get(off) == '.')) {
+
+                off++;
+                len--;
+
+                final int startOffset = off;
+
+                for (; (len > 0) && ((ch = buffer.get(off)) >= '0') && (ch <= '9');) {
+                    mantissa = 10L * mantissa + (ch - '0');
+                    off++;
+                    len--;
+                }
+                // decimal exponent = - fraction length:
+                exponent = startOffset - off;
+                digitCount -= exponent;
+            }
+
+            if (digitCount == 0) {
+                onError(result, ParseResult.INVALID, off, "Invalid Double : ", buffer, offset, end);
+                return Double.NaN;
+            }
+
+            final int digitsEnd = off;
+
+            // Look for an exponent
+            int explicitExponent = 0;
+
+            if (len > 0) {
+                // note: ignore any non-digit character at end:
+
+                if ((ch = buffer.get(off)) == 'e' || ch == 'E') {
+                    final int expOffset = off;
+
+                    off++;
+                    len--;
+
+                    int expDigitsOffset = off;
+
+                    if (len > 0) {
+                        boolean expSign = true;
+
+                        ch = buffer.get(off);
+                        if (ch == '+') {
+                            off++;
+                            len--;
+                        } else if (ch == '-') {
+                            expSign = false;
+                            off++;
+                            len--;
+                        }
+                        expDigitsOffset = off;
+
+                        // note: ignore any non-digit character at end:
+                        for (; (len > 0) && ((ch = buffer.get(off)) >= '0') && (ch <= '9');) {
+                            // saturate huge exponents (overflow):
+                            if (explicitExponent < 0x10000) {
+                                explicitExponent = 10 * explicitExponent + (ch - '0');
+                            }
+                            off++;
+                            len--;
+                        }
+
+                        if (!expSign) {
+                            explicitExponent = -explicitExponent;
+                        }
+                    }
+                    if (scan && (off == expDigitsOffset)) {
+                        // no exponent digit: stop before 'e'
+                        len += off - expOffset;
+                        off = expOffset;
+                    }
+                }
+            }
+            if ((off == pointOffset) && (digitCount == 1) && (mantissa == 0L) && (len > 1)
+                    && (((ch = buffer.get(off)) == 'x') || (ch == 'X'))) {
+                // hexadecimal floating-point value (0x1.8p3):
+                return getHexDecimal(buffer, offset, end, off + 1, numSign, toFloat, result, scan);
+            }
+
+            // check other characters:
+            if (!scan && (len > 0)) {
+                onError(result, ParseResult.INVALID, off, "Invalid Double : ", buffer, offset, end);
+                return Double.NaN;
+            }
+
+            if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+                exponent += explicitExponent;
+                number = (toFloat) ? DoubleConverter.toFloat(mantissa, exponent) : DoubleConverter.toDouble(mantissa, exponent);
+            } else {
+                number = getDecimalManyDigits(buffer, digitsOffset, pointOffset, digitsEnd, digitCount, explicitExponent, toFloat);
+            }
+        }
+
+        onSuccess(result, off);
+        return (numSign) ? number : -number;
+    }
+
+    /*
+     Rare path: more than 19 digits (leading zeros, truncated mantissa or slow path)
+     */
+    private static double getDecimalManyDigits(final ByteBuffer buffer, final int digitsOffset,
+                                               final int pointOffset, final int digitsEnd,
+                                               int digitCount, final int explicitExponent,
+                                               final boolean toFloat) {
+        byte ch;
+        int off = digitsOffset;
+
+        // skip leading zeros:
+        for (; (off < digitsEnd) && (((ch = buffer.get(off)) == '0') || (ch == '.')); off++) {
+            if (ch == '0') {
+                digitCount--;
+            }
+        }
+
+        // keep only the 19 first significant digits:
+        long mantissa = 0L;
+        int n = 0;
+        for (; (off < digitsEnd) && (n < DoubleConverter.MAX_MANTISSA_DIGITS); off++) {
+            if ((ch = buffer.get(off)) != '.') {
+                mantissa = 10L * mantissa + (ch - '0');
+                n++;
+            }
+        }
+        final int exponent = ((off <= pointOffset) ? (pointOffset - off) : (pointOffset + 1 - off)) + explicitExponent;
+
+        if (toFloat) {
+            if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+                return DoubleConverter.toFloat(mantissa, exponent);
+            }
+            // truncated mantissa:
+            final float number = DoubleConverter.toFloatTruncated(mantissa, exponent);
+            if (!Float.isNaN(number)) {
+                return number;
+            }
+            final String digits = toString(buffer, digitsOffset, digitsEnd);
+            return DoubleConverter.parseSlowFloat(digits, 0, digits.length(), explicitExponent);
+        }
+        if (digitCount <= DoubleConverter.MAX_MANTISSA_DIGITS) {
+            return DoubleConverter.toDouble(mantissa, exponent);
+        }
+        // truncated mantissa:
+        final double number = DoubleConverter.toDoubleTruncated(mantissa, exponent);
+        if (!Double.isNaN(number)) {
+            return number;
+        }
+        final String digits = toString(buffer, digitsOffset, digitsEnd);
+        return DoubleConverter.parseSlow(digits, 0, digits.length(), explicitExponent);
+    }
+
+    /*
+     Parse the hexadecimal floating-point value after the 0x prefix: HHH[.HHH](p|P)[+/-]DDD (correctly rounded)
+     */
+    private static double getHexDecimal(final ByteBuffer buffer,
+                                        final int offset, final int end, final int hexOffset,
+                                        final boolean numSign, final boolean toFloat,
+                                        final ParseResult result, final boolean scan) throws NumberFormatException {
+        int off = hexOffset;
+        byte ch;
+        int digit;
+
+        // 64 bits mantissa (extra digits are truncated):
+        long mantissa = 0L;
+        boolean sticky = false;
+        int exponent = 0;
+
+        for (; (off < end) && ((digit = hexDigit(buffer.get(off))) >= 0); off++) {
+            if ((mantissa >>> 60) == 0L) {
+                mantissa = (mantissa << 4) | digit;
+            } else {
+                exponent += 4;
+                sticky |= (digit != 0);
+            }
+        }
+        int digitCount = off - hexOffset;
+
+        if ((off < end) && (buffer.get(off) == '.')) {
+            off++;
+
+            final int startOffset = off;
+
+            for (; (off < end) && ((digit = hexDigit(buffer.get(off))) >= 0); off++) {
+                if ((mantissa >>> 60) == 0L) {
+                    mantissa = (mantissa << 4) | digit;
+                    exponent -= 4;
+                } else {
+                    sticky |= (digit != 0);
+                }
+            }
+            digitCount += off - startOffset;
+        }
+
+        // binary exponent is mandatory:
+        boolean valid = (digitCount != 0) && (off < end) && (((ch = buffer.get(off)) == 'p') || (ch == 'P'));
+
+        if (valid) {
+            off++;
+
+            boolean expSign = true;
+            if (off < end) {
+                ch = buffer.get(off);
+                if (ch == '+') {
+                    off++;
+                } else if (ch == '-') {
+                    expSign = false;
+                    off++;
+                }
+            }
+            final int expDigitsOffset = off;
+            int explicitExponent = 0;
+
+            for (; (off < end) && ((ch = buffer.get(off)) >= '0') && (ch <= '9'); off++) {
+                // saturate huge exponents (overflow):
+                if (explicitExponent < 0x10000) {
+                    explicitExponent = 10 * explicitExponent + (ch - '0');
+                }
+            }
+            exponent += (expSign) ? explicitExponent : -explicitExponent;
+
+            valid = (off != expDigitsOffset) && (scan || (off == end));
+        }
+        if (!valid) {
+            if (scan) {
+                // only the leading zero:
+                onSuccess(result, hexOffset - 1);
+                return (numSign) ? 0.0 : -0.0;
+            }
+            onError(result, ParseResult.INVALID, off, "Invalid Double : ", buffer, offset, end);
+            return Double.NaN;
+        }
+
+        final double number = DoubleConverter.toDoubleBinary(mantissa, sticky, exponent, toFloat);
+
+        onSuccess(result, off);
+        return (numSign) ? number : -number;
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD] as an exact decimal (like BigDecimal): return the unscaled value and set the
+     scale in the given (required) result (value = unscaled x 10^-scale) or NumberUtils.NULL_LONG on failure
+     */
+    public static long parseUnscaledLong(final ByteBuffer buffer,
+                                         final int offset, final int end,
+                                         final ParseResult result) {
+        return parseFixed(buffer, offset, end, false, 0, null, result);
+    }
+
+    /*
+     Parse [+/-]DDD[.DDD][(e|E)[+/-]DDD] as a long at the given scale (value x 10^scale) rounded with the given mode
+     (like BigDecimal.setScale(scale, mode).unscaledValue().longValueExact(): "1.25" at scale 2 gives 125)
+     */
+    public static long getScaledLong(final ByteBuffer buffer,
+                                     final int offset, final int end,
+                                     final int scale, final RoundingMode mode) throws NumberFormatException {
+        return parseFixed(buffer, offset, end, true, scale, mode, THROW_ERRORS);
+    }
+
+    public static long parseScaledLong(final ByteBuffer buffer,
+                                       final int offset, final int end,
+                                       final int scale, final RoundingMode mode,
+                                       final ParseResult result) {
+        return parseFixed(buffer, offset, end, true, scale, mode, result);
+    }
+
+    /*
+     Parse fixed-point decimal numbers (no double accumulation): return NumberUtils.NULL_LONG on failure
+     */
+    private static long parseFixed(final ByteBuffer buffer,
+                                   final int offset, final int end,
+                                   final boolean rescale, final int targetScale, final RoundingMode mode,
+                                   final ParseResult result) throws NumberFormatException {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final long value = parseFixed(buffer.array(), base + offset, base + end, rescale, targetScale, mode, result);
+            rebase(result, base);
+            return value;
+        }
+        if (offset == end) {
+            onError(result, ParseResult.EMPTY, offset, "", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        int off = offset;
+        byte ch;
+        boolean sign = false;
+
+        ch = buffer.get(off);
+        if (ch == '+') {
+            off++;
+        } else if (ch == '-') {
+            sign = true;
+            off++;
+        }
+
+        final int digitsOffset = off;
+
+        // unscaled value (negative accumulator):
+        long lval = 0L;
+        // trailing zeros not accumulated yet:
+        int pendingZeros = 0;
+        // digits dropped beyond the long range (rescale only) and their rounding tail (first digit x 2 + sticky bit):
+        int dropped = 0;
+        int tail = 0;
+        // accumulator limit (positive rescaled values drop the digits beyond Long.MAX_VALUE):
+        final long limit = (sign || !rescale) ? Long.MIN_VALUE : -Long.MAX_VALUE;
+
+        for (; (off < end) && ((ch = buffer.get(off)) >= '0') && (ch <= '9'); off++) {
+            if (dropped != 0) {
+                // beyond the long range (rescale only): sticky bit
+                dropped++;
+                tail |= (ch != '0') ? 1 : 0;
+                continue;
+            }
+            if (ch == '0') {
+                pendingZeros++;
+                continue;
+            }
+            for (; (pendingZeros != 0) && (lval >= (Long.MIN_VALUE / 10L)); pendingZeros--) {
+                lval *= 10L;
+            }
+            // check overflow (the subtraction may wrap):
+            final long next = 10L * lval - (ch - '0');
+            if ((pendingZeros != 0) || (lval < (Long.MIN_VALUE / 10L)) || (next > 0L) || (next < limit)) {
+                if (!rescale) {
+                    onError(result, ParseResult.OVERFLOW, off, "Invalid Decimal : ", buffer, offset, end);
+                    return NumberUtils.NULL_LONG;
+                }
+                // drop this digit and the next ones (only rounded at the target scale):
+                tail = (pendingZeros != 0) ? 1 : ((ch - '0') << 1);
+                dropped = pendingZeros + 1;
+                pendingZeros = 0;
+                continue;
+            }
+            lval = next;
+        }
+        int digitCount = off - digitsOffset;
+        int fractionDigits = 0;
+
+        if ((off < end) && (buffer.get(off) == '.')) {
+            off++;
+
+            final int startOffset = off;
+
+            for (; (off < end) && ((ch = buffer.get(off)) >= '0') && (ch <= '9'); off++) {
+                if (dropped != 0) {
+                    // beyond the long range (rescale only): sticky bit
+                    dropped++;
+                    tail |= (ch != '0') ? 1 : 0;
+                    continue;
+                }
+                if (ch == '0') {
+                    pendingZeros++;
+                    continue;
+                }
+                for (; (pendingZeros != 0) && (lval >= (Long.MIN_VALUE / 10L)); pendingZeros--) {
+                    lval *= 10L;
+                }
+                // check overflow (the subtraction may wrap):
+                final long next = 10L * lval - (ch - '0');
+                if ((pendingZeros != 0) || (lval < (Long.MIN_VALUE / 10L)) || (next > 0L) || (next < limit)) {
+                    if (!rescale) {
+                        onError(result, ParseResult.OVERFLOW, off, "Invalid Decimal : ", buffer, offset, end);
+                        return NumberUtils.NULL_LONG;
+                    }
+                    // drop this digit and the next ones (only rounded at the target scale):
+                    tail = (pendingZeros != 0) ? 1 : ((ch - '0') << 1);
+                    dropped = pendingZeros + 1;
+                    pendingZeros = 0;
+                    continue;
+                }
+                lval = next;
+            }
+            fractionDigits = off - startOffset;
+            digitCount += fractionDigits;
+        }
+
+        if (digitCount == 0) {
+            onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+
+        // Look for an exponent (saturated beyond the int range):
+        long exponent = 0L;
+
+        if ((off < end) && (((ch = buffer.get(off)) == 'e') || (ch == 'E'))) {
+            off++;
+
+            boolean expSign = true;
+            if (off < end) {
+                ch = buffer.get(off);
+                if (ch == '+') {
+                    off++;
+                } else if (ch == '-') {
+                    expSign = false;
+                    off++;
+                }
+            }
+            final int expDigitsOffset = off;
+
+            for (; (off < end) && ((ch = buffer.get(off)) >= '0') && (ch <= '9'); off++) {
+                if (exponent <= Integer.MAX_VALUE) {
+                    exponent = 10L * exponent + (ch - '0');
+                }
+            }
+            if (off == expDigitsOffset) {
+                onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            if (!expSign) {
+                exponent = -exponent;
+            }
+        }
+        // check other characters:
+        if (off != end) {
+            onError(result, ParseResult.INVALID, off, "Invalid Decimal : ", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+
+        if (!rescale) {
+            // keep trailing zeros (exact representation like BigDecimal) else
+            // they only lower the scale to avoid any useless overflow:
+            for (; pendingZeros != 0; pendingZeros--) {
+                if (lval < (Long.MIN_VALUE / 10L)) {
+                    onError(result, ParseResult.OVERFLOW, end - 1, "Invalid Decimal : ", buffer, offset, end);
+                    return NumberUtils.NULL_LONG;
+                }
+                lval *= 10L;
+            }
+        }
+        if (!sign && (lval == Long.MIN_VALUE)) {
+            onError(result, ParseResult.OVERFLOW, end - 1, "Invalid Decimal : ", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        final long unscaled = (sign) ? lval : -lval;
+        final long scale = (fractionDigits - pendingZeros - dropped) - exponent;
+
+        if (rescale) {
+            final long shift = targetScale - scale;
+            final int status = rescaleStatus(unscaled, shift, mode, tail);
+
+            if (status != ParseResult.OK) {
+                onError(result, status, offset, "Invalid Decimal : ", buffer, offset, end);
+                return NumberUtils.NULL_LONG;
+            }
+            onSuccess(result, end);
+            return rescale(unscaled, shift, mode, tail);
+        }
+        if ((scale < Integer.MIN_VALUE) || (scale > Integer.MAX_VALUE)) {
+            onError(result, ParseResult.OVERFLOW, offset, "Invalid Decimal : ", buffer, offset, end);
+            return NumberUtils.NULL_LONG;
+        }
+        onSuccess(result, end);
+        result.scale = (int) scale;
+        return unscaled;
+    }
+
+    public static int indexOf(final ByteBuffer buffer, final char c, final int off, final int end) {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final int index = indexOf(buffer.array(), c, base + off, base + end);
+            return (index == -1) ? -1 : index - base;
+        }
+        for (int i = off; i < end; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int indexOfNotDigit(final ByteBuffer buffer, final int off, final int end) {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            final int index = indexOfNotDigit(buffer.array(), base + off, base + end);
+            return (index == -1) ? -1 : index - base;
+        }
+        for (int i = off; i < end; i++) {
+            byte ch = buffer.get(i);
+            if ((ch < '0') || (ch > '9')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * White space is defined as ' ', '\t', '\n' or '\r'
+     */
+    public static int indexOfNotWhiteSpace(final ByteBuffer buffer, final int off, final int end) {
+        if (buffer.hasArray()) {
+            // heap buffer:
+            final int base = buffer.arrayOffset();
+            return indexOfNotWhiteSpace(buffer.array(), base + off, base + end) - base;
+        }
+        for (int i = off; i < end; i++) {
+            byte ch = buffer.get(i);
+            if ((ch != ' ') && (ch != '\t') && (ch != '\n') && (ch != '\r')) {
+                return i;
+            }
+        }
+        return off;
+    }
+
+    /*
+     Return the status of unscaled x 10^shift rounded with the given mode: the tail (first digit x 2 + sticky bit)
+     gives the digits dropped below the unscaled value
+     */
+    private static int rescaleStatus(final long unscaled, final long shift, final RoundingMode mode, final int tail) {
+        if (unscaled == 0L) {
+            return ParseResult.OK;
+        }
+        if (shift > 0L) {
+            // dropped digits are needed at the target scale:
+            if ((tail != 0) || (shift >= LONG_POW10.length)) {
+                return ParseResult.OVERFLOW;
+            }
+            final long pow10 = LONG_POW10[(int) shift];
+            return ((unscaled > Long.MAX_VALUE / pow10) || (unscaled < Long.MIN_VALUE / pow10))
+                    ? ParseResult.OVERFLOW : ParseResult.OK;
+        }
+        if (mode == RoundingMode.UNNECESSARY) {
+            if (tail != 0) {
+                return ParseResult.INEXACT;
+            }
+            // |unscaled| < 10^19:
+            return ((shift == 0L) || ((-shift < LONG_POW10.length) && ((unscaled % LONG_POW10[(int) -shift]) == 0L)))
+                    ? ParseResult.OK : ParseResult.INEXACT;
+        }
+        if ((shift == 0L) && (tail != 0) && ((unscaled == Long.MAX_VALUE) || (unscaled == Long.MIN_VALUE))) {
+            // rounding away from zero may wrap:
+            return ((rescale(unscaled, 0L, mode, tail) ^ unscaled) < 0L) ? ParseResult.OVERFLOW : ParseResult.OK;
+        }
+        return ParseResult.OK;
+    }
+
+    /* Return unscaled x 10^shift rounded with the given mode and tail (see rescaleStatus) */
+    private static long rescale(final long unscaled, final long shift, final RoundingMode mode, final int tail) {
+        if (unscaled == 0L) {
+            return 0L;
+        }
+        if (shift > 0L) {
+            return unscaled * LONG_POW10[(int) shift];
+        }
+        final long q;
+        final long r;
+        // comparison between the discarded fraction |r| (then the tail) and 1/2:
+        final int cmpHalf;
+
+        if (shift == 0L) {
+            q = unscaled;
+            r = 0L;
+            final int digit = tail >> 1;
+            cmpHalf = (digit < 5) ? -1 : ((digit > 5) ? 1 : (tail & 1));
+        } else if (-shift < LONG_POW10.length) {
+            final long pow10 = LONG_POW10[(int) -shift];
+            q = unscaled / pow10;
+            r = unscaled - q * pow10;
+            final long absR = (r < 0L) ? -r : r;
+            final long half = pow10 >>> 1;
+            cmpHalf = (absR < half) ? -1 : ((absR == half) ? Integer.signum(tail) : 1);
+        } else {
+            // |unscaled| < 10^19 so the fraction is below 10^19 / 10^-shift:
+            q = 0L;
+            r = unscaled;
+            final long negR = (r < 0L) ? r : -r; // no overflow
+            final long negHalf = -5000000000000000000L; // -10^19 / 2
+            cmpHalf = (shift < -19L) ? -1 : ((negR > negHalf) ? -1 : ((negR == negHalf) ? Integer.signum(tail) : 1));
+        }
+        if ((r == 0L) && (tail == 0)) {
+            return q;
+        }
+        // r has the sign of unscaled:
+        final long signum = (unscaled < 0L) ? -1L : 1L;
+        final boolean increment;
+
+        switch (mode) {
+            case UP:
+                increment = true;
+                break;
+            case CEILING:
+                increment = (signum > 0L);
+                break;
+            case FLOOR:
+                increment = (signum < 0L);
+                break;
+            case HALF_UP:
+                increment = (cmpHalf >= 0);
+                break;
+            case HALF_DOWN:
+                increment = (cmpHalf > 0);
+                break;
+            case HALF_EVEN:
+                increment = (cmpHalf > 0) || ((cmpHalf == 0) && ((q & 1L) != 0L));
+                break;
+            case DOWN:
+            default:
+                // UNNECESSARY: exact (see rescaleStatus)
+                increment = false;
+        }
+        return (increment) ? (q + signum) : q;
+    }
+
+    /* Digit value in radix 36 of the given character (char or byte) or -1 */
+    private static int radixDigit(final int ch) {
+        return ((ch & ~0x7F) == 0) ? RADIX_DIGITS[ch] : -1;
+    }
+
+    /* Hexadecimal digit value of the given character (char or byte) or -1 */
+    private static int hexDigit(final int ch) {
+        final int digit = radixDigit(ch);
+        return (digit < 16) ? digit : -1;
+    }
+
+    private static void checkRadix(final int radix) throws NumberFormatException {
+        if ((radix < Character.MIN_RADIX) || (radix > Character.MAX_RADIX)) {
+            throw new NumberFormatException("radix " + radix + " out of range [2; 36]");
+        }
+    }
+
+    private static void onSuccess(final ParseResult result, final int index) {
+        if ((result != null) && (result != THROW_ERRORS)) {
+            result.setOk(index);
+        }
+    }
+
+    private static void onError(final ParseResult result, final int status, final int index,
+                                final String message, final CharSequence csq) throws NumberFormatException {
+        if (result == THROW_ERRORS) {
+            throw new NumberFormatException(message + csq);
+        }
+        if (result != null) {
+            result.setError(status, index);
+        }
+    }
+
+    private static void onError(final ParseResult result, final int status, final int index,
+                                final String message, final byte[] bytes,
+                                final int offset, final int end) throws NumberFormatException {
+        if (result == THROW_ERRORS) {
+            throw new NumberFormatException(message + toString(bytes, offset, end));
+        }
+        if (result != null) {
+            result.setError(status, index);
+        }
+    }
+
+    private static void onError(final ParseResult result, final int status, final int index,
+                                final String message, final ByteBuffer buffer,
+                                final int offset, final int end) throws NumberFormatException {
+        if (result == THROW_ERRORS) {
+            throw new NumberFormatException(message + toString(buffer, offset, end));
+        }
+        if (result != null) {
+            result.setError(status, index);
+        }
+    }
+
+    /* Fix the indices given in array coordinates (heap buffer) */
+    private static void rebase(final ParseResult result, final int base) {
+        if ((base != 0) && (result != null) && (result != THROW_ERRORS)) {
+            if (result.status == ParseResult.OK) {
+                result.index -= base;
+            } else {
+                result.errorIndex -= base;
+            }
+        }
+    }
+
+    static String toString(final byte[] bytes, final int offset, final int end) {
+        return new String(bytes, offset, end - offset, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String toString(final ByteBuffer buffer, final int offset, final int end) {
+        final StringBuilder sb = new StringBuilder(end - offset);
+        for (int i = offset; i < end; i++) {
+            sb.append((char) (buffer.get(i) & 0xFF));
+        }
+        return sb.toString();
     }
 
     private NumberParser() {
@@ -0,0 +1,892 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Compiled DecimalFormat pattern: NumberPattern.compile("#,##0.00;(#,##0.00)") interprets the pattern once and
+ * gives an immutable (thread-safe) formatter and parser to share instead of ThreadLocal&lt;DecimalFormat&gt; instances
+ *
+ * Supported syntax (like DecimalFormat with the English symbols):
+ * - positive[;negative] subpatterns (the negative one only gives its prefix and suffix; '-' + positive otherwise)
+ * - prefix / suffix literals, 'quoted' text ('' for a quote), % (x 100) and \u2030 (per mille, x 1000)
+ * - integer part with '#', '0' and ',' grouping; fraction part with '0' then '#'; "0." always shows the point
+ * - exponent "E0" (minimum exponent digits) with a single integer digit ("0.###E0")
+ * Not supported (IllegalArgumentException): currency sign, padding, engineering exponent ("##0.##E0").
+ *
+ * Like DecimalFormat, the shortest decimal digits of the double (see NumberFormatter.appendDouble) are rounded with the
+ * given RoundingMode (HALF_EVEN by default), ties being decided by the exact binary value. Values are written without
+ * any allocation into a StringBuilder, char[] or byte[] (ASCII affixes only); NaN is written without prefix nor
+ * suffix and infinite values as "Infinity" (instead of the non-ASCII infinity sign).
+ *
+ * Parsing is strict (the whole input must match the prefix, number and suffix) and correctly rounded.
+ *
+ * @author Laurent Bourges
+ */
+public final class NumberPattern {
+
+    /** per mille sign */
+    private final static char PER_MILLE = '\u2030';
+    /** quote character */
+    private final static char QUOTE = '\'';
+    /** throwing mode of the parse methods */
+    private final static ParseResult THROW_ERRORS = new ParseResult();
+    /** largest exponent kept while parsing */
+    private final static int MAX_EXPONENT = 100000;
+
+    /**
+     * Compile the given DecimalFormat pattern (rounding mode HALF_EVEN)
+     * @param pattern DecimalFormat pattern like "#,##0.00" or "0.###E0"
+     * @return immutable NumberPattern
+     * @throws IllegalArgumentException if the pattern is invalid or not supported
+     */
+    public static NumberPattern compile(final String pattern) throws IllegalArgumentException {
+        return compile(pattern, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Compile the given DecimalFormat pattern
+     * @param pattern DecimalFormat pattern like "#,##0.00" or "0.###E0"
+     * @param mode rounding mode
+     * @return immutable NumberPattern
+     * @throws IllegalArgumentException if the pattern is invalid or not supported
+     */
+    public static NumberPattern compile(final String pattern, final RoundingMode mode) throws IllegalArgumentException {
+        if (mode == null) {
+            throw new IllegalArgumentException("null rounding mode");
+        }
+        return new Compiler(pattern).compile(mode);
+    }
+
+    /* members */
+    /** source pattern */
+    private final String pattern;
+    private final String posPrefix;
+    private final String posSuffix;
+    private final String negPrefix;
+    private final String negSuffix;
+    /** 1, 100 (percent) or 1000 (per mille) */
+    private final int multiplier;
+    /** minimum integer digits */
+    private final int minInt;
+    /** grouping size (0 means no grouping) */
+    private final int groupingSize;
+    private final int minFrac;
+    private final int maxFrac;
+    /** minimum exponent digits (0 means plain notation) */
+    private final int minExp;
+    /** true to always write the decimal point */
+    private final boolean showPoint;
+    private final RoundingMode mode;
+    /** true if all prefixes and suffixes are ASCII (byte[] output) */
+    private final boolean asciiOnly;
+
+    private NumberPattern(final String pattern,
+                          final String posPrefix, final String posSuffix,
+                          final String negPrefix, final String negSuffix,
+                          final int multiplier, final int minInt, final int groupingSize,
+                          final int minFrac, final int maxFrac, final int minExp,
+                          final boolean showPoint, final RoundingMode mode) {
+        this.pattern = pattern;
+        this.posPrefix = posPrefix;
+        this.posSuffix = posSuffix;
+        this.negPrefix = negPrefix;
+        this.negSuffix = negSuffix;
+        this.multiplier = multiplier;
+        this.minInt = minInt;
+        this.groupingSize = groupingSize;
+        this.minFrac = minFrac;
+        this.maxFrac = maxFrac;
+        this.minExp = minExp;
+        this.showPoint = showPoint;
+        this.mode = mode;
+        this.asciiOnly = isAscii(posPrefix) && isAscii(posSuffix) && isAscii(negPrefix) && isAscii(negSuffix);
+    }
+
+    private static boolean isAscii(final String value) {
+        for (int i = 0, len = value.length(); i < len; i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return mode;
+    }
+
+    /**
+     * Warning: this method creates a new StringBuilder for each invocation;
+     * use format(StringBuilder, double) or format(char[] | byte[], int, double) instead
+     * @param value value to format
+     * @return formatted value
+     */
+    public String format(final double value) {
+        return format(new StringBuilder(24), value).toString();
+    }
+
+    /**
+     * Append the given value formatted with this pattern
+     * @param sb string builder to append into
+     * @param value value to format
+     * @return given string builder
+     */
+    public StringBuilder format(final StringBuilder sb, final double value) {
+        if (value != value) {
+            return sb.append("NaN");
+        }
+        final double scaledValue = (multiplier != 1) ? (value * multiplier) : value;
+        final long bits = Double.doubleToRawLongBits(scaledValue);
+        final long abs = bits & Long.MAX_VALUE;
+        final boolean negative = (bits < 0L);
+
+        sb.append((negative) ? negPrefix : posPrefix);
+        if (abs == 0x7FF0000000000000L) {
+            sb.append("Infinity");
+        } else if (minExp == 0) {
+            appendPlain(sb, plainDigits(abs, negative), plainExponent(abs));
+        } else {
+            appendScientific(sb, abs, negative);
+        }
+        return sb.append((negative) ? negSuffix : posSuffix);
+    }
+
+    /* Append the decimal f x 10^e in plain notation */
+    private void appendPlain(final StringBuilder sb, final long f, final int e) {
+        long digits = f;
+        int exp = e;
+        if (digits != 0L) {
+            while ((digits % 10L) == 0L) {
+                digits /= 10L;
+                exp++;
+            }
+        }
+        final int nd = NumberFormatter.digitCount(digits);
+        final int fd = Math.max(minFrac, (digits != 0L) ? -exp : 0);
+        int n = Math.max((digits != 0L) ? (nd + exp) : 0, minInt);
+        if ((n == 0) && (fd == 0)) {
+            n = 1;
+        }
+        for (int p = n - 1; p >= 0; p--) {
+            sb.append((char) ('0' + digitAt(digits, nd, exp, p)));
+            if ((groupingSize != 0) && (p != 0) && ((p % groupingSize) == 0)) {
+                sb.append(',');
+            }
+        }
+        if ((fd != 0) || showPoint) {
+            sb.append('.');
+            for (int p = -1; p >= -fd; p--) {
+                sb.append((char) ('0' + digitAt(digits, nd, exp, p)));
+            }
+        }
+    }
+
+    private void appendScientific(final StringBuilder sb, final long abs, final boolean negative) {
+        long digits = 0L;
+        int exp = 0;
+        if (abs != 0L) {
+            // round the shortest digits to 1 + maxFrac digits:
+            digits = DoubleToDecimal.digits(abs);
+            exp = DoubleToDecimal.exponent(abs);
+            final int discard = NumberFormatter.digitCount(digits) - (1 + maxFrac);
+            if (discard > 0) {
+                final int k = maxFrac - (NumberFormatter.digitCount(digits) - 1 + exp);
+                digits = round(abs, negative, digits, discard, k);
+                exp += discard;
+            }
+            while ((digits % 10L) == 0L) {
+                digits /= 10L;
+                exp++;
+            }
+        }
+        final int nd = NumberFormatter.digitCount(digits);
+        final int fd = Math.max(minFrac, nd - 1);
+        final long pow10 = NumberParser.LONG_POW10[nd - 1];
+        final long high = digits / pow10;
+
+        sb.append((char) ('0' + high));
+        if ((fd != 0) || showPoint) {
+            sb.append('.');
+            if (nd > 1) {
+                NumberFormatter.appendDigits(sb, digits - high * pow10, nd - 1);
+            }
+            for (int i = nd - 1; i < fd; i++) {
+                sb.append('0');
+            }
+        }
+        sb.append('E');
+        int x = (digits != 0L) ? (nd - 1 + exp) : 0;
+        if (x < 0) {
+            sb.append('-');
+            x = -x;
+        }
+        NumberFormatter.appendDigits(sb, x, Math.max(NumberFormatter.digitCount(x), minExp));
+    }
+
+    /**
+     * Write the given value formatted with this pattern at the given offset (enough room is expected)
+     * @param buf char buffer
+     * @param off offset
+     * @param value value to format
+     * @return offset following the last written character
+     */
+    public int format(final char[] buf, final int off, final double value) {
+        if (value != value) {
+            return NumberFormatter.appendAscii(buf, off, "NaN");
+        }
+        final double scaledValue = (multiplier != 1) ? (value * multiplier) : value;
+        final long bits = Double.doubleToRawLongBits(scaledValue);
+        final long abs = bits & Long.MAX_VALUE;
+        final boolean negative = (bits < 0L);
+
+        int pos = NumberFormatter.appendAscii(buf, off, (negative) ? negPrefix : posPrefix);
+        if (abs == 0x7FF0000000000000L) {
+            pos = NumberFormatter.appendAscii(buf, pos, "Infinity");
+        } else if (minExp == 0) {
+            pos = appendPlain(buf, pos, plainDigits(abs, negative), plainExponent(abs));
+        } else {
+            pos = appendScientific(buf, pos, abs, negative);
+        }
+        return NumberFormatter.appendAscii(buf, pos, (negative) ? negSuffix : posSuffix);
+    }
+
+    /* Write the decimal f x 10^e in plain notation */
+    private int appendPlain(final char[] buf, final int off, final long f, final int e) {
+        long digits = f;
+        int exp = e;
+        if (digits != 0L) {
+            while ((digits % 10L) == 0L) {
+                digits /= 10L;
+                exp++;
+            }
+        }
+        final int nd = NumberFormatter.digitCount(digits);
+        final int fd = Math.max(minFrac, (digits != 0L) ? -exp : 0);
+        int n = Math.max((digits != 0L) ? (nd + exp) : 0, minInt);
+        if ((n == 0) && (fd == 0)) {
+            n = 1;
+        }
+        int pos = off;
+        for (int p = n - 1; p >= 0; p--) {
+            buf[pos++] = (char) ('0' + digitAt(digits, nd, exp, p));
+            if ((groupingSize != 0) && (p != 0) && ((p % groupingSize) == 0)) {
+                buf[pos++] = ',';
+            }
+        }
+        if ((fd != 0) || showPoint) {
+            buf[pos++] = '.';
+            for (int p = -1; p >= -fd; p--) {
+                buf[pos++] = (char) ('0' + digitAt(digits, nd, exp, p));
+            }
+        }
+        return pos;
+    }
+
+    private int appendScientific(final char[] buf, final int off, final long abs, final boolean negative) {
+        long digits = 0L;
+        int exp = 0;
+        if (abs != 0L) {
+            // round the shortest digits to 1 + maxFrac digits:
+            digits = DoubleToDecimal.digits(abs);
+            exp = DoubleToDecimal.exponent(abs);
+            final int discard = NumberFormatter.digitCount(digits) - (1 + maxFrac);
+            if (discard > 0) {
+                final int k = maxFrac - (NumberFormatter.digitCount(digits) - 1 + exp);
+                digits = round(abs, negative, digits, discard, k);
+                exp += discard;
+            }
+            while ((digits % 10L) == 0L) {
+                digits /= 10L;
+                exp++;
+            }
+        }
+        final int nd = NumberFormatter.digitCount(digits);
+        final int fd = Math.max(minFrac, nd - 1);
+        final long pow10 = NumberParser.LONG_POW10[nd - 1];
+        final long high = digits / pow10;
+
+        int pos = off;
+        buf[pos++] = (char) ('0' + high);
+        if ((fd != 0) || showPoint) {
+            buf[pos++] = '.';
+            if (nd > 1) {
+                pos = NumberFormatter.appendDigits(buf, pos, digits - high * pow10, nd - 1);
+            }
+            for (int i = nd - 1; i < fd; i++) {
+                buf[pos++] = '0';
+            }
+        }
+        buf[pos++] = 'E';
+        int x = (digits != 0L) ? (nd - 1 + exp) : 0;
+        if (x < 0) {
+            buf[pos++] = '-';
+            x = -x;
+        }
+        return NumberFormatter.appendDigits(buf, pos, x, Math.max(NumberFormatter.digitCount(x), minExp));
+    }
+
+    /**
+     * Write the given value formatted with this pattern at the given offset (enough room is expected)
+     * @param buf byte buffer
+     * @param off offset
+     * @param value value to format
+     * @return offset following the last written character
+     * @throws IllegalStateException if the pattern has non-ASCII prefixes or suffixes (like the per mille sign)
+     */
+    public int format(final byte[] buf, final int off, final double value) throws IllegalStateException {
+        if (!asciiOnly) {
+            throw new IllegalStateException("Non-ASCII prefix or suffix in the pattern: " + pattern);
+        }
+        if (value != value) {
+            return NumberFormatter.appendAscii(buf, off, "NaN");
+        }
+        final double scaledValue = (multiplier != 1) ? (value * multiplier) : value;
+        final long bits = Double.doubleToRawLongBits(scaledValue);
+        final long abs = bits & Long.MAX_VALUE;
+        final boolean negative = (bits < 0L);
+
+        int pos = NumberFormatter.appendAscii(buf, off, (negative) ? negPrefix : posPrefix);
+        if (abs == 0x7FF0000000000000L) {
+            pos = NumberFormatter.appendAscii(buf, pos, "Infinity");
+        } else if (minExp == 0) {
+            pos = appendPlain(buf, pos, plainDigits(abs, negative), plainExponent(abs));
+        } else {
+            pos = appendScientific(buf, pos, abs, negative);
+        }
+        return NumberFormatter.appendAscii(buf, pos, (negative) ? negSuffix : posSuffix);
+    }
+
+    /* Write the decimal f x 10^e in plain notation */
+    private int appendPlain(final byte[] buf, final int off, final long f, final int e) {
+        long digits = f;
+        int exp = e;
+        if (digits != 0L) {
+            while ((digits % 10L) == 0L) {
+                digits /= 10L;
+                exp++;
+            }
+        }
+        final int nd = NumberFormatter.digitCount(digits);
+        final int fd = Math.max(minFrac, (digits != 0L) ? -exp : 0);
+        int n = Math.max((digits != 0L) ? (nd + exp) : 0, minInt);
+        if ((n == 0) && (fd == 0)) {
+            n = 1;
+        }
+        int pos = off;
+        for (int p = n - 1; p >= 0; p--) {
+            buf[pos++] = (byte) ('0' + digitAt(digits, nd, exp, p));
+            if ((groupingSize != 0) && (p != 0) && ((p % groupingSize) == 0)) {
+                buf[pos++] = ',';
+            }
+        }
+        if ((fd != 0) || showPoint) {
+            buf[pos++] = '.';
+            for (int p = -1; p >= -fd; p--) {
+                buf[pos++] = (byte) ('0' + digitAt(digits, nd, exp, p));
+            }
+        }
+        return pos;
+    }
+
+    private int appendScientific(final byte[] buf, final int off, final long abs, final boolean negative) {
+        long digits = 0L;
+        int exp = 0;
+        if (abs != 0L) {
+            // round the shortest digits to 1 + maxFrac digits:
+            digits = DoubleToDecimal.digits(abs);
+            exp = DoubleToDecimal.exponent(abs);
+            final int discard = NumberFormatter.digitCount(digits) - (1 + maxFrac);
+            if (discard > 0) {
+                final int k = maxFrac - (NumberFormatter.digitCount(digits) - 1 + exp);
+                digits = round(abs, negative, digits, discard, k);
+                exp += discard;
+            }
+            while ((digits % 10L) == 0L) {
+                digits /= 10L;
+                exp++;
+            }
+        }
+        final int nd = NumberFormatter.digitCount(digits);
+        final int fd = Math.max(minFrac, nd - 1);
+        final long pow10 = NumberParser.LONG_POW10[nd - 1];
+        final long high = digits / pow10;
+
+        int pos = off;
+        buf[pos++] = (byte) ('0' + high);
+        if ((fd != 0) || showPoint) {
+            buf[pos++] = '.';
+            if (nd > 1) {
+                pos = NumberFormatter.appendDigits(buf, pos, digits - high * pow10, nd - 1);
+            }
+            for (int i = nd - 1; i < fd; i++) {
+                buf[pos++] = '0';
+            }
+        }
+        buf[pos++] = 'E';
+        int x = (digits != 0L) ? (nd - 1 + exp) : 0;
+        if (x < 0) {
+            buf[pos++] = '-';
+            x = -x;
+        }
+        return NumberFormatter.appendDigits(buf, pos, x, Math.max(NumberFormatter.digitCount(x), minExp));
+    }
+
+    /* Shortest digits of |v| rounded to maxFrac fraction digits (value = digits x 10^plainExponent) */
+    private long plainDigits(final long abs, final boolean negative) {
+        if (abs == 0L) {
+            return 0L;
+        }
+        final long digits = DoubleToDecimal.digits(abs);
+        final int discard = -maxFrac - DoubleToDecimal.exponent(abs);
+        return (discard > 0) ? round(abs, negative, digits, discard, maxFrac) : digits;
+    }
+
+    private int plainExponent(final long abs) {
+        return (abs == 0L) ? 0 : Math.max(DoubleToDecimal.exponent(abs), -maxFrac);
+    }
+
+    /* Digit at the position p (10^p) of the decimal digits x 10^exp (nd digits) */
+    private static int digitAt(final long digits, final int nd, final int exp, final int p) {
+        final int i = p - exp;
+        return ((i >= 0) && (i < nd)) ? (int) ((digits / NumberParser.LONG_POW10[i]) % 10L) : 0;
+    }
+
+    /*
+     Round the shortest digits by removing discard digits like DecimalFormat (DigitList): only ties (...5 exactly)
+     depend on the exact binary value, rounded at the scale k
+     */
+    private long round(final long abs, final boolean negative, final long digits,
+                       final int discard, final int k) {
+        final long q;
+        final long r;
+        final int cmpHalf;
+        if (discard < NumberParser.LONG_POW10.length) {
+            final long pow10 = NumberParser.LONG_POW10[discard];
+            q = digits / pow10;
+            r = digits - q * pow10;
+            final long half = pow10 >>> 1;
+            cmpHalf = (r < half) ? -1 : ((r == half) ? 0 : 1);
+        } else {
+            // digits < 10^18 < 10^discard / 2:
+            q = 0L;
+            r = digits;
+            cmpHalf = -1;
+        }
+        if (r == 0L) {
+            return q;
+        }
+        final boolean increment;
+
+        switch (mode) {
+            case UP:
+                increment = true;
+                break;
+            case CEILING:
+                increment = !negative;
+                break;
+            case FLOOR:
+                increment = negative;
+                break;
+            case HALF_UP:
+            case HALF_DOWN:
+            case HALF_EVEN:
+                if (cmpHalf == 0) {
+                    // tie on the shortest digits: use the exact value
+                    return exactRound(abs, negative, k);
+                }
+                increment = (cmpHalf > 0);
+                break;
+            case UNNECESSARY:
+                throw new ArithmeticException("Rounding necessary");
+            case DOWN:
+            default:
+                increment = false;
+        }
+        return (increment) ? (q + 1L) : q;
+    }
+
+    /* Round the exact value of |v| at the scale k */
+    private long exactRound(final long abs, final boolean negative, final int k) {
+        final long scaled = DoubleToFixed.scaled(abs, k, negative, mode);
+        if (scaled >= 0L) {
+            return scaled;
+        }
+        // rare slow path:
+        return new BigDecimal(Double.longBitsToDouble(abs)).setScale(k, DoubleToFixed.magnitudeMode(negative, mode))
+                .unscaledValue().longValue();
+    }
+
+    /**
+     * Parse the given text matching this pattern
+     * @param csq text to parse
+     * @return double value
+     * @throws NumberFormatException if the text does not match this pattern
+     */
+    public double parse(final CharSequence csq) throws NumberFormatException {
+        return parse(csq, 0, csq.length(), THROW_ERRORS);
+    }
+
+    /**
+     * Parse the given text matching this pattern without any exception:
+     * return NaN and set the (optional) result status on failure
+     * @param csq text to parse
+     * @param offset start offset
+     * @param end end offset (exclusive)
+     * @param result optional parse status
+     * @return double value or NaN on failure
+     */
+    public double parse(final CharSequence csq, final int offset, final int end, final ParseResult result) {
+        if (offset == end) {
+            return onError(result, ParseResult.EMPTY, offset, csq);
+        }
+        // choose the longest matching affixes:
+        final boolean posMatch = matches(csq, offset, end, posPrefix, posSuffix);
+        final boolean negMatch = matches(csq, offset, end, negPrefix, negSuffix);
+        final boolean negative;
+        if (posMatch && negMatch) {
+            negative = (negPrefix.length() + negSuffix.length()) > (posPrefix.length() + posSuffix.length());
+        } else if (posMatch || negMatch) {
+            negative = negMatch;
+        } else {
+            return onError(result, ParseResult.INVALID, offset, csq);
+        }
+        final int start = offset + ((negative) ? negPrefix.length() : posPrefix.length());
+        final int stop = end - ((negative) ? negSuffix.length() : posSuffix.length());
+
+        double number;
+        if (regionEquals(csq, start, stop, "NaN") && (start == offset) && (stop == end)) {
+            onSuccess(result, end);
+            return Double.NaN;
+        }
+        if (regionEquals(csq, start, stop, "Infinity")) {
+            number = Double.POSITIVE_INFINITY;
+        } else {
+            number = parseNumber(csq, start, stop, result);
+            if (Double.isNaN(number)) {
+                return number;
+            }
+        }
+        onSuccess(result, end);
+        return (negative) ? -number : number;
+    }
+
+    /* Parse DDD[,DDD][.DDD][E[-]DDD] (positive) divided by the multiplier or return NaN on failure */
+    private double parseNumber(final CharSequence csq, final int start, final int stop, final ParseResult result) {
+        long mantissa = 0L;
+        int digitCount = 0;
+        // divide by the multiplier (power of ten) without any extra rounding:
+        int exponent = (multiplier == 1) ? 0 : ((multiplier == 100) ? -2 : -3);
+        boolean digits = false;
+        boolean truncated = false;
+        boolean point = false;
+        int off = start;
+        char ch;
+
+        for (; off < stop; off++) {
+            ch = csq.charAt(off);
+            if ((ch >= '0') && (ch <= '9')) {
+                digits = true;
+                final int digit = ch - '0';
+                if ((mantissa == 0L) && (digit == 0)) {
+                    // leading zero:
+                    if (point) {
+                        exponent--;
+                    }
+                } else if (digitCount < DoubleConverter.MAX_MANTISSA_DIGITS) {
+                    mantissa = 10L * mantissa + digit;
+                    digitCount++;
+                    if (point) {
+                        exponent--;
+                    }
+                } else {
+                    truncated |= (digit != 0);
+                    if (!point) {
+                        exponent++;
+                    }
+                }
+            } else if ((ch == ',') && !point && (groupingSize != 0) && digits) {
+                // grouping separator
+            } else if ((ch == '.') && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (!digits) {
+            return onError(result, ParseResult.INVALID, off, csq);
+        }
+        if ((off < stop) && (csq.charAt(off) == 'E')) {
+            off++;
+            boolean expSign = false;
+            if ((off < stop) && ((csq.charAt(off) == '-') || (csq.charAt(off) == '+'))) {
+                expSign = (csq.charAt(off) == '-');
+                off++;
+            }
+            if (off == stop) {
+                return onError(result, ParseResult.INVALID, off, csq);
+            }
+            int explicitExponent = 0;
+            for (; off < stop; off++) {
+                ch = csq.charAt(off);
+                if ((ch < '0') || (ch > '9')) {
+                    break;
+                }
+                if (explicitExponent < MAX_EXPONENT) {
+                    explicitExponent = 10 * explicitExponent + (ch - '0');
+                }
+            }
+            exponent += (expSign) ? -explicitExponent : explicitExponent;
+        }
+        if (off != stop) {
+            return onError(result, ParseResult.INVALID, off, csq);
+        }
+        if (!truncated) {
+            return DoubleConverter.toDouble(mantissa, exponent);
+        }
+        final double number = DoubleConverter.toDoubleTruncated(mantissa, exponent);
+        if (!Double.isNaN(number)) {
+            return number;
+        }
+        return parseSlow(csq, start, stop) / multiplier;
+    }
+
+    /* Rare path: more than 19 significant digits (JDK parser without grouping separators) */
+    private static double parseSlow(final CharSequence csq, final int start, final int stop) {
+        final StringBuilder sb = new StringBuilder(stop - start);
+        for (int i = start; i < stop; i++) {
+            final char ch = csq.charAt(i);
+            if (ch != ',') {
+                sb.append(ch);
+            }
+        }
+        return Double.parseDouble(sb.toString());
+    }
+
+    private static boolean matches(final CharSequence csq, final int offset, final int end,
+                                   final String prefix, final String suffix) {
+        return ((end - offset) > (prefix.length() + suffix.length()))
+                && regionEquals(csq, offset, offset + prefix.length(), prefix)
+                && regionEquals(csq, end - suffix.length(), end, suffix);
+    }
+
+    private static boolean regionEquals(final CharSequence csq, final int offset, final int end, final String value) {
+        if ((end - offset) != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (csq.charAt(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void onSuccess(final ParseResult result, final int index) {
+        if ((result != null) && (result != THROW_ERRORS)) {
+            result.setOk(index);
+        }
+    }
+
+    private static double onError(final ParseResult result, final int status, final int index,
+                                  final CharSequence csq) throws NumberFormatException {
+        if (result == THROW_ERRORS) {
+            throw new NumberFormatException("Unparseable number: " + csq);
+        }
+        if (result != null) {
+            result.setError(status, index);
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return "NumberPattern[" + pattern + ']';
+    }
+
+    /**
+     * Pattern compiler (DecimalFormat.applyPattern subset)
+     */
+    private static final class Compiler {
+
+        private final String pattern;
+        private int pos = 0;
+        private int multiplier = 1;
+
+        Compiler(final String pattern) {
+            if (pattern == null) {
+                throw new IllegalArgumentException("null pattern");
+            }
+            this.pattern = pattern;
+        }
+
+        NumberPattern compile(final RoundingMode mode) {
+            final String posPrefix = affix();
+
+            // number part:
+            int hashCount = 0;
+            int zeroCount = 0;
+            int groupingSize = -1;
+            int minFrac = 0;
+            int maxFrac = 0;
+            int minExp = 0;
+            boolean point = false;
+            boolean grouping = false;
+
+            for (; pos < pattern.length(); pos++) {
+                final char ch = pattern.charAt(pos);
+                if (ch == '#') {
+                    if (point) {
+                        maxFrac++;
+                    } else {
+                        if (zeroCount != 0) {
+                            throw error("'#' after '0'");
+                        }
+                        hashCount++;
+                    }
+                } else if (ch == '0') {
+                    if (point) {
+                        if (maxFrac != minFrac) {
+                            throw error("'0' after '#'");
+                        }
+                        minFrac++;
+                        maxFrac++;
+                    } else {
+                        zeroCount++;
+                    }
+                } else if (ch == ',' && !point) {
+                    grouping = true;
+                    groupingSize = 0;
+                    continue;
+                } else if (ch == '.' && !point) {
+                    point = true;
+                    continue;
+                } else {
+                    break;
+                }
+                if (grouping && !point) {
+                    groupingSize++;
+                }
+            }
+            if ((hashCount + zeroCount + maxFrac) == 0) {
+                throw error("missing digits");
+            }
+            if (grouping && (groupingSize <= 0)) {
+                throw error("invalid grouping");
+            }
+            int minInt = zeroCount;
+            if ((zeroCount == 0) && (minFrac == 0) && (hashCount != 0)) {
+                // "#.##" like DecimalFormat: one integer digit:
+                minInt = 1;
+            }
+            if ((pos < pattern.length()) && (pattern.charAt(pos) == 'E')) {
+                pos++;
+                for (; (pos < pattern.length()) && (pattern.charAt(pos) == '0'); pos++) {
+                    minExp++;
+                }
+                if (minExp == 0) {
+                    throw error("missing exponent digits");
+                }
+                if ((zeroCount != 1) || (hashCount != 0) || grouping) {
+                    throw error("unsupported exponent pattern (single integer digit only)");
+                }
+            }
+            final String posSuffix = affix();
+
+            String negPrefix = "-" + posPrefix;
+            String negSuffix = posSuffix;
+            if ((pos < pattern.length()) && (pattern.charAt(pos) == ';')) {
+                pos++;
+                negPrefix = affix();
+                // skip the negative number part:
+                for (; (pos < pattern.length()) && ("#0,.E".indexOf(pattern.charAt(pos)) != -1); pos++) {
+                    // ignored
+                }
+                negSuffix = affix();
+            }
+            if (pos != pattern.length()) {
+                throw error("unexpected character '" + pattern.charAt(pos) + "'");
+            }
+            return new NumberPattern(pattern, posPrefix, posSuffix, negPrefix, negSuffix, multiplier,
+                                     minInt, (grouping) ? groupingSize : 0, minFrac, maxFrac, minExp,
+                                     point && (maxFrac == 0), mode);
+        }
+
+        /* Parse a prefix or suffix until the number part or the subpattern separator */
+        private String affix() {
+            final StringBuilder sb = new StringBuilder(8);
+            boolean quoted = false;
+            for (; pos < pattern.length(); pos++) {
+                final char ch = pattern.charAt(pos);
+                if (ch == QUOTE) {
+                    if ((pos + 1 < pattern.length()) && (pattern.charAt(pos + 1) == QUOTE)) {
+                        // escaped quote:
+                        sb.append(QUOTE);
+                        pos++;
+                    } else {
+                        quoted = !quoted;
+                    }
+                } else if (quoted) {
+                    sb.append(ch);
+                } else if ((ch == '#') || (ch == '0') || (ch == ',') || (ch == '.') || (ch == ';')) {
+                    break;
+                } else if (ch == '%') {
+                    setMultiplier(100);
+                    sb.append(ch);
+                } else if (ch == PER_MILLE) {
+                    setMultiplier(1000);
+                    sb.append(ch);
+                } else if (ch == '\u00A4') {
+                    throw error("currency sign not supported");
+                } else if (ch == '*') {
+                    throw error("padding not supported");
+                } else {
+                    sb.append(ch);
+                }
+            }
+            if (quoted) {
+                throw error("unterminated quote");
+            }
+            return sb.toString();
+        }
+
+        private void setMultiplier(final int value) {
+            if ((multiplier != 1) && (multiplier != value)) {
+                throw error("too many percent / per mille characters");
+            }
+            multiplier = value;
+        }
+
+        private IllegalArgumentException error(final String message) {
+            return new IllegalArgumentException("Invalid pattern \"" + pattern + "\" at " + pos + ": " + message);
+        }
+    }
+}
@@ -25,8 +25,8 @@
 package org.jnumbers;
 
 /**
- * TODO: 
- * -log exceptions in debug ... with threshold !
+ * Lenient number parsing: returns NULL_* values instead of throwing exceptions
+ * (backed by the non-throwing NumberParser.parse* methods, no allocation on failure)
  *
  * @author Laurent Bourges
  */
@@ -50,10 +50,11 @@ public final class NumberUtils {
      *         value cannot be parsed.
      */
     public static double parseDouble(final CharSequence value) {
+        if (USE_FAST_NUMBER_PARSER) {
+            // no exception: returns NULL_DOUBLE on failure
+            return NumberParser.parseDouble(value, 0, value.length(), null);
+        }
         try {
-            if (USE_FAST_NUMBER_PARSER) {
-                return NumberParser.getDouble(value, 0, value.length());
-            }
             return Double.parseDouble(value.toString());
         } catch (NumberFormatException nfe) {
             // ignore
@@ -70,26 +71,11 @@ public final class NumberUtils {
      *         cannot be parsed.
      */
     public static float parseFloat(final CharSequence value) {
+        if (USE_FAST_NUMBER_PARSER) {
+            // no exception: returns NULL_FLOAT on failure
+            return NumberParser.parseFloat(value, 0, value.length(), null);
+        }
         try {
-            if (USE_FAST_NUMBER_PARSER) {
-                final double val = NumberParser.getDouble(value, 0, value.length());
-                if (Double.isNaN(val)) {
-                    return NULL_FLOAT;
-                }
-                if (val == Double.POSITIVE_INFINITY) {
-                    return Float.POSITIVE_INFINITY;
-                }
-                if (val == Double.NEGATIVE_INFINITY) {
-                    return Float.NEGATIVE_INFINITY;
-                }
-                if (val <= Float.MIN_VALUE) {
-                    return NULL_FLOAT;
-                }
-                if (val >= Float.MAX_VALUE) {
-                    return NULL_FLOAT;
-                }
-                return (float) val;
-            }
             return Float.parseFloat(value.toString());
         } catch (NumberFormatException nfe) {
             // ignore
@@ -106,10 +92,11 @@ public final class NumberUtils {
      *         cannot be parsed.
      */
     public static int parseInt(final CharSequence value) {
+        if (USE_FAST_NUMBER_PARSER) {
+            // no exception: returns NULL_INT on failure
+            return NumberParser.parseInteger(value, null);
+        }
         try {
-            if (USE_FAST_NUMBER_PARSER) {
-                return NumberParser.getInteger(value);
-            }
             return Integer.parseInt(value.toString());
         } catch (NumberFormatException nfe) {
             // ignore
@@ -126,10 +113,11 @@ public final class NumberUtils {
      *         cannot be parsed.
      */
     public static long parseLong(final CharSequence value) {
+        if (USE_FAST_NUMBER_PARSER) {
+            // no exception: returns NULL_LONG on failure
+            return NumberParser.parseLong(value, null);
+        }
         try {
-            if (USE_FAST_NUMBER_PARSER) {
-                return NumberParser.getLong(value);
-            }
             return Long.parseLong(value.toString());
         } catch (NumberFormatException nfe) {
             // ignore
@@ -146,17 +134,18 @@ public final class NumberUtils {
      *         cannot be parsed.
      */
     public static short parseShort(final CharSequence value) {
-        try {
-            if (USE_FAST_NUMBER_PARSER) {
-                final int val = NumberParser.getInteger(value);
-                if (val <= Short.MIN_VALUE) {
-                    return Short.MIN_VALUE;
-                }
-                if (val >= Short.MAX_VALUE) {
-                    return Short.MAX_VALUE;
-                }
-                return (short) val;
+        if (USE_FAST_NUMBER_PARSER) {
+            final int val = NumberParser.parseInteger(value, null);
+            if (val <= Short.MIN_VALUE) {
+                // note: NULL_INT gives NULL_SHORT:
+                return Short.MIN_VALUE;
             }
+            if (val >= Short.MAX_VALUE) {
+                return Short.MAX_VALUE;
+            }
+            return (short) val;
+        }
+        try {
             return Short.parseShort(value.toString());
         } catch (NumberFormatException nfe) {
             // ignore
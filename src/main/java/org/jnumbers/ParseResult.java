@@ -0,0 +1,135 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+/**
+ * Reusable holder for the status of the non-throwing NumberParser.parse* methods (NOT Thread-safe)
+ *
+ * On failure, these methods return the NumberUtils.NULL_* value and set the status (EMPTY, INVALID or OVERFLOW)
+ * and the index of the offending character; nothing is allocated.
+ *
+ * It is also the cursor of the NumberParser.scan* methods: on success, the index gives the offset following
+ * the parsed number (unchanged on failure).
+ *
+ * It also gives the second part of two-part results: the scale of NumberParser.parseUnscaledLong and the
+ * nanoseconds of the DateParser.parse*Seconds methods.
+ *
+ * @author Laurent Bourges
+ */
+public final class ParseResult {
+
+    /** status: value parsed */
+    public final static int OK = 0;
+    /** status: empty input */
+    public final static int EMPTY = 1;
+    /** status: invalid character or missing digits */
+    public final static int INVALID = 2;
+    /** status: value out of range */
+    public final static int OVERFLOW = 3;
+    /** status: rounding required but RoundingMode.UNNECESSARY given */
+    public final static int INEXACT = 4;
+
+    /* members */
+    /** status of the last parse */
+    int status = OK;
+    /** index of the offending character (-1 if OK) */
+    int errorIndex = -1;
+    /** offset following the last parsed number */
+    int index = 0;
+    /** scale of the last parsed unscaled decimal (value = unscaled x 10^-scale) */
+    int scale = 0;
+    /** nanoseconds [0..999999999] of the last parsed date (epoch seconds) */
+    int nanos = 0;
+
+    public ParseResult() {
+        super();
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isOk() {
+        return (status == OK);
+    }
+
+    public int getErrorIndex() {
+        return errorIndex;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(final int index) {
+        this.index = index;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int getNanos() {
+        return nanos;
+    }
+
+    public void clear() {
+        status = OK;
+        errorIndex = -1;
+    }
+
+    void setOk(final int index) {
+        this.status = OK;
+        this.errorIndex = -1;
+        this.index = index;
+    }
+
+    void setError(final int status, final int errorIndex) {
+        this.status = status;
+        this.errorIndex = errorIndex;
+    }
+
+    public static String getStatusName(final int status) {
+        switch (status) {
+            case OK:
+                return "OK";
+            case EMPTY:
+                return "EMPTY";
+            case INVALID:
+                return "INVALID";
+            case OVERFLOW:
+                return "OVERFLOW";
+            case INEXACT:
+                return "INEXACT";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResult[" + getStatusName(status) + ((status != OK) ? (" at " + errorIndex) : (" next " + index)) + ']';
+    }
+}
@@ -0,0 +1,241 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * SWAR (SIMD within a register) routines processing 8 ASCII digits at a time as one long
+ * (first character in the lowest byte ie little-endian order)
+ *
+ * See "Number Parsing at a Gigabyte per Second" (Daniel Lemire, 2021)
+ *
+ * @author Laurent Bourges
+ */
+final class SWARDigits {
+
+    /** 8 ASCII '0' characters */
+    final static long ZEROS = 0x3030303030303030L;
+
+    /**
+     * Load 8 bytes as a little-endian long
+     * @param bytes byte array
+     * @param off offset (8 bytes available)
+     * @return 8 bytes as long (first byte in the lowest byte)
+     */
+    static long readLongLE(final byte[] bytes, final int off) {
+        return (bytes[off] & 0xFFL)
+                | ((bytes[off + 1] & 0xFFL) << 8)
+                | ((bytes[off + 2] & 0xFFL) << 16)
+                | ((bytes[off + 3] & 0xFFL) << 24)
+                | ((bytes[off + 4] & 0xFFL) << 32)
+                | ((bytes[off + 5] & 0xFFL) << 40)
+                | ((bytes[off + 6] & 0xFFL) << 48)
+                | ((bytes[off + 7] & 0xFFL) << 56);
+    }
+
+    /**
+     * Load 8 bytes as a little-endian long (single load whatever the buffer's byte order)
+     * @param buffer byte buffer
+     * @param off absolute offset (8 bytes available)
+     * @return 8 bytes as long (first byte in the lowest byte)
+     */
+    static long readLongLE(final ByteBuffer buffer, final int off) {
+        final long val = buffer.getLong(off);
+        return (buffer.order() == ByteOrder.LITTLE_ENDIAN) ? val : Long.reverseBytes(val);
+    }
+
+    /**
+     * @param val 8 characters
+     * @return true if all 8 characters are in ['0'; '9']
+     */
+    static boolean isEightDigits(final long val) {
+        return (((val + 0x4646464646464646L) | (val - ZEROS)) & 0x8080808080808080L) == 0L;
+    }
+
+    /**
+     * Convert 8 ASCII digits into their value in 3 multiply-shift steps
+     * @param val 8 digits (see isEightDigits)
+     * @return value in [0; 99999999]
+     */
+    static int parseEightDigits(long val) {
+        val -= ZEROS;
+        // pairs of digits: val = (val * 2561) >> 8
+        val = (val * 10L) + (val >>> 8);
+        // 100 + (1000000 << 32) and 1 + (10000 << 32):
+        val = (((val & 0x000000FF000000FFL) * 0x000F424000000064L)
+                + (((val >>> 16) & 0x000000FF000000FFL) * 0x0000271000000001L)) >>> 32;
+        return (int) val;
+    }
+
+    /**
+     * Parse DDDDDDDD... (8 to 18 digits, no overflow possible) using SWAR
+     * @param bytes byte array
+     * @param offset first digit
+     * @param end end offset (end - offset in [8; 18])
+     * @return positive value or -1 if any character is not a digit
+     */
+    static long parseDigits(final byte[] bytes, final int offset, final int end) {
+        int off = offset;
+        long lval = 0L;
+        long chunk;
+
+        for (; end - off >= 8; off += 8) {
+            chunk = readLongLE(bytes, off);
+            if (!isEightDigits(chunk)) {
+                return -1L;
+            }
+            lval = lval * 100000000L + parseEightDigits(chunk);
+        }
+        final int remaining = end - off;
+        if (remaining != 0) {
+            // reload the last 8 bytes and replace the already parsed digits by '0':
+            final long mask = -1L >>> (remaining << 3);
+            chunk = (readLongLE(bytes, end - 8) & ~mask) | (ZEROS & mask);
+            if (!isEightDigits(chunk)) {
+                return -1L;
+            }
+            lval = lval * NumberParser.LONG_POW10[remaining] + parseEightDigits(chunk);
+        }
+        return lval;
+    }
+
+    /**
+     * Parse DDDDDDDD... (8 to 18 digits, no overflow possible) using SWAR
+     * @param buffer byte buffer
+     * @param offset first digit (absolute)
+     * @param end end offset (end - offset in [8; 18])
+     * @return positive value or -1 if any character is not a digit
+     */
+    static long parseDigits(final ByteBuffer buffer, final int offset, final int end) {
+        int off = offset;
+        long lval = 0L;
+        long chunk;
+
+        for (; end - off >= 8; off += 8) {
+            chunk = readLongLE(buffer, off);
+            if (!isEightDigits(chunk)) {
+                return -1L;
+            }
+            lval = lval * 100000000L + parseEightDigits(chunk);
+        }
+        final int remaining = end - off;
+        if (remaining != 0) {
+            // reload the last 8 bytes and replace the already parsed digits by '0':
+            final long mask = -1L >>> (remaining << 3);
+            chunk = (readLongLE(buffer, end - 8) & ~mask) | (ZEROS & mask);
+            if (!isEightDigits(chunk)) {
+                return -1L;
+            }
+            lval = lval * NumberParser.LONG_POW10[remaining] + parseEightDigits(chunk);
+        }
+        return lval;
+    }
+
+    /**
+     * @param val 8 characters
+     * @return true if all 8 characters are in ['0'; '9'], ['a'; 'f'] or ['A'; 'F']
+     */
+    static boolean isEightHexDigits(final long val) {
+        // per byte (ASCII only): high bit set if in range [lo; hi] = (b + 0x80 - lo) & (0x80 + hi - b)
+        final long lower = val | 0x2020202020202020L;
+        final long digits = (val + 0x5050505050505050L) & (0xB9B9B9B9B9B9B9B9L - val);
+        final long letters = (lower + 0x1F1F1F1F1F1F1F1FL) & (0xE6E6E6E6E6E6E6E6L - lower);
+        return ((val & 0x8080808080808080L) == 0L)
+                && (((digits | letters) & 0x8080808080808080L) == 0x8080808080808080L);
+    }
+
+    /**
+     * Convert 8 ASCII hexadecimal digits into their value (nibbles merged in 3 shift steps)
+     * @param val 8 hexadecimal digits (see isEightHexDigits)
+     * @return value in [0; 0xFFFFFFFF]
+     */
+    static long parseEightHexDigits(final long val) {
+        // letters (bit 6 set): low nibble + 9
+        long v = (val & 0x0F0F0F0F0F0F0F0FL) + 9L * ((val >>> 6) & 0x0101010101010101L);
+        v = ((v << 4) | (v >>> 8)) & 0x00FF00FF00FF00FFL;
+        v = ((v << 8) | (v >>> 16)) & 0x0000FFFF0000FFFFL;
+        return ((v << 16) | (v >>> 32)) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Parse HHHHHHHH... (8 to 15 hexadecimal digits, no overflow possible) using SWAR
+     * @param bytes byte array
+     * @param offset first digit
+     * @param end end offset (end - offset in [8; 15])
+     * @return positive value or -1 if any character is not an hexadecimal digit
+     */
+    static long parseHexDigits(final byte[] bytes, final int offset, final int end) {
+        long chunk = readLongLE(bytes, offset);
+        if (!isEightHexDigits(chunk)) {
+            return -1L;
+        }
+        long lval = parseEightHexDigits(chunk);
+
+        final int remaining = end - offset - 8;
+        if (remaining != 0) {
+            // reload the last 8 bytes and replace the already parsed digits by '0':
+            final long mask = -1L >>> (remaining << 3);
+            chunk = (readLongLE(bytes, end - 8) & ~mask) | (ZEROS & mask);
+            if (!isEightHexDigits(chunk)) {
+                return -1L;
+            }
+            lval = (lval << (remaining << 2)) | parseEightHexDigits(chunk);
+        }
+        return lval;
+    }
+
+    /**
+     * Parse HHHHHHHH... (8 to 15 hexadecimal digits, no overflow possible) using SWAR
+     * @param buffer byte buffer
+     * @param offset first digit (absolute)
+     * @param end end offset (end - offset in [8; 15])
+     * @return positive value or -1 if any character is not an hexadecimal digit
+     */
+    static long parseHexDigits(final ByteBuffer buffer, final int offset, final int end) {
+        long chunk = readLongLE(buffer, offset);
+        if (!isEightHexDigits(chunk)) {
+            return -1L;
+        }
+        long lval = parseEightHexDigits(chunk);
+
+        final int remaining = end - offset - 8;
+        if (remaining != 0) {
+            // reload the last 8 bytes and replace the already parsed digits by '0':
+            final long mask = -1L >>> (remaining << 3);
+            chunk = (readLongLE(buffer, end - 8) & ~mask) | (ZEROS & mask);
+            if (!isEightHexDigits(chunk)) {
+                return -1L;
+            }
+            lval = (lval << (remaining << 2)) | parseEightHexDigits(chunk);
+        }
+        return lval;
+    }
+
+    private SWARDigits() {
+        // utility class
+    }
+}
@@ -0,0 +1,90 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+import junit.framework.TestCase;
+
+public class DateFormatterTest extends TestCase {
+
+    public void testFormat() {
+        final Random random = new Random(7L);
+        final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd:HH:mm:ss.SSS");
+        sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        final DateFormatter formatter = new DateFormatter();
+        final byte[] bytes = new byte[32];
+        final char[] chars = new char[32];
+
+        // 1600-01-01 to 9999-12-31 (SimpleDateFormat uses the julian calendar before 1582):
+        final long min = -11676096000000L;
+        final long max = 253402300799999L;
+
+        long time = 0L;
+        for (int i = 0; i < 200000; i++) {
+            // mix sequential timestamps (same hour) and random ones:
+            time = ((i % 4) == 0) ? (min + (long) (random.nextDouble() * (max - min)))
+                    : Math.min(max, time + random.nextInt(100000));
+
+            final String expected = sdf.format(new Date(time));
+            assertEquals(expected, formatter.format(time));
+
+            int end = formatter.append(time, bytes, 3);
+            assertEquals(expected, new String(bytes, 3, end - 3, StandardCharsets.ISO_8859_1));
+
+            end = formatter.append(time, chars, 0);
+            assertEquals(expected, new String(chars, 0, end));
+
+            assertEquals(expected, time, DateParser.parseFullDate(expected));
+        }
+    }
+
+    public void testSeparators() {
+        final DateFormatter formatter = new DateFormatter('/', '-', ':', false);
+        assertEquals(19, formatter.getLength());
+        assertEquals("1970/01/01-00:00:00", formatter.format(0L));
+        assertEquals("1969/12/31-23:59:59", formatter.format(-1L));
+        assertEquals("2016/02/29-12:34:56", formatter.format(1456749296789L));
+        assertEquals("0000/01/01-00:00:00", formatter.format(-62167219200000L));
+        assertEquals("9999/12/31-23:59:59", formatter.format(253402300799999L));
+
+        try {
+            formatter.format(253402300800000L);
+            fail("year 10000");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        try {
+            new DateFormatter('-', '1', ':', true);
+            fail("digit separator");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+}
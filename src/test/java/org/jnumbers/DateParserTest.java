@@ -0,0 +1,326 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+public class DateParserTest extends TestCase {
+
+    public void testParse() {
+        final Random random = new Random(11L);
+        final GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+
+        final DateFormatter formatter = new DateFormatter();
+        // 1600-01-01 to 9999-12-31 (GregorianCalendar uses the julian calendar before 1582):
+        final long min = -11676096000000L;
+        final long max = 253402300799999L;
+
+        for (int i = 0; i < 200000; i++) {
+            final long time = min + (long) (random.nextDouble() * (max - min));
+            final String date = formatter.format(time);
+
+            assertEquals(date, time, DateParser.parseFastDate(date));
+            assertEquals(date, time, NumberParserBenchmark.parseFastDate_OLD(date));
+            assertEquals(date, time, DateParser.parseFullDate(date));
+
+            cal.setTimeInMillis(time);
+            final long epochDay = (long) Math.floor(time / 86400000.0);
+            assertEquals(date, epochDay, DateParser.epochDay(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH) + 1,
+                    cal.get(Calendar.DAY_OF_MONTH)));
+        }
+        // sequence of days (month ends, leap years):
+        for (int i = 0; i < 366 * 8; i++) {
+            final long time = 1420070400000L + i * 86400000L;
+            final String date = formatter.format(time);
+            assertEquals(date, time, DateParser.parseFastDate(date));
+        }
+        assertEquals(951782400000L, DateParser.parseFastDate("2000-02-29:00:00:00"));
+    }
+
+    public void testISO() {
+        final Random random = new Random(13L);
+        final DateFormatter formatter = new DateFormatter('-', 'T', ':', true);
+        final String[] offsets = new String[]{"", "Z", "+02:00", "-0530", "+01", "-18:00", "+14:45"};
+        final int[] offsetSeconds = new int[]{0, 0, 7200, -19800, 3600, -64800, 53100};
+
+        for (int i = 0; i < 100000; i++) {
+            // 1700 to 2200 (epoch nanoseconds range):
+            final long time = -8520336000000L + (long) (random.nextDouble() * 15778800000000L);
+            final int nanos = random.nextInt(1000000);
+            final int k = i % offsets.length;
+            // local time (with offset) = time + offset:
+            final String local = formatter.format(time + offsetSeconds[k] * 1000L);
+            final String date = local + String.format("%06d", nanos) + offsets[k];
+
+            assertEquals(date, time, DateParser.parseISODate(date));
+            assertEquals(date, time * 1000000L + nanos, DateParser.parseISODateNanos(date));
+        }
+
+        assertEquals(1420070400000L, DateParser.parseISODate("2015-01-01T00:00Z"));
+        assertEquals(1420070400000L, DateParser.parseISODate("2015-01-01 02:00:00+02"));
+        assertEquals(1420070400100L, DateParser.parseISODate("2015-01-01t00:00:00.1z"));
+        assertEquals(1420070400123L, DateParser.parseISODate("2015-01-01T00:00:00,123456789"));
+        assertEquals(-1L, DateParser.parseISODate("1969-12-31T23:59:59.999999Z"));
+        assertEquals(-1L, DateParser.parseISODateNanos("1969-12-31T23:59:59.999999999Z"));
+        assertEquals(Long.MAX_VALUE, DateParser.parseISODateNanos("2262-04-11T23:47:16.854775807Z"));
+        assertEquals(Long.MIN_VALUE, DateParser.parseISODateNanos("1677-09-21T00:12:43.145224192Z"));
+
+        for (String date : new String[]{"2015-01-01", "2015-01-01T00", "2015-01-01X00:00", "2015/01/01T00:00",
+                                        "2015-01-01T00:00:0", "2015-01-01T00:00:00.", "2015-01-01T00:00:00.1234567890",
+                                        "2015-01-01T00:00Z1", "2015-01-01T00:00+1", "2015-01-01T00:00+01:0",
+                                        "2015-01-01T00:00+19:00", "2015-01-01T00:00+01:60", "2015-02-30T00:00Z",
+                                        "2015-01-01T24:00Z", "2015-01-01T00:00:60Z", "2015-01-01T00:00 "}) {
+            try {
+                DateParser.parseISODate(date);
+                fail(date);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+        try {
+            DateParser.parseISODateNanos("2262-04-11T23:47:16.854775808Z");
+            fail("overflow");
+        } catch (NumberFormatException nfe) {
+            // expected
+        }
+    }
+
+    public void testNanos() {
+        final Random random = new Random(17L);
+        final DateFormatter formatter = new DateFormatter('/', '-', ':', false);
+        final ParseResult result = new ParseResult();
+
+        for (int i = 0; i < 100000; i++) {
+            // 1700 to 2200 (epoch nanoseconds range):
+            final long seconds = -8520336000L + (long) (random.nextDouble() * 15778800000L);
+            final int digits = 1 + random.nextInt(9);
+            final int fraction = random.nextInt((int) NumberParser.LONG_POW10[digits]);
+            final int nanos = fraction * (int) NumberParser.LONG_POW10[9 - digits];
+            final String date = formatter.format(seconds * 1000L)
+                    + '.' + String.format("%0" + digits + "d", fraction);
+
+            assertEquals(date, seconds * 1000000000L + nanos, DateParser.parseFastDateNanos(date));
+            assertEquals(date, seconds, DateParser.parseFastDateSeconds(date, result));
+            assertEquals(date, nanos, result.getNanos());
+
+            final String iso = date.substring(0, 10).replace('/', '-') + 'T' + date.substring(11);
+            assertEquals(iso, seconds, DateParser.parseISODateSeconds(iso, result));
+            assertEquals(iso, nanos, result.getNanos());
+        }
+        assertEquals(1420070449123456789L, DateParser.parseFastDateNanos("2015-01-01:00:00:49.123456789"));
+        assertEquals(1420070449100000000L, DateParser.parseFastDateNanos("2015-01-01:00:00:49.1"));
+        assertEquals(1420070449000000000L, DateParser.parseFastDateNanos("2015-01-01:00:00:49"));
+        assertEquals(-1L, DateParser.parseFastDateNanos("1969-12-31:23:59:59.999999999"));
+
+        // beyond the epoch nanoseconds range:
+        assertEquals(253402300799L, DateParser.parseFastDateSeconds("9999-12-31:23:59:59.000001", result));
+        assertEquals(1000, result.getNanos());
+
+        for (String date : new String[]{"2015-01-01:00:00:49.", "2015-01-01:00:00:49.1234567890",
+                                        "2015-01-01:00:00:49.12x", "2300-01-01:00:00:00"}) {
+            try {
+                DateParser.parseFastDateNanos(date);
+                fail(date);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+    }
+
+    public void testCache() {
+        final Random random = new Random(23L);
+        final DateFormatter formatter = new DateFormatter();
+        final DateCache cache = new DateCache(8);
+
+        // 4 interleaved sources (different days) with increasing timestamps:
+        final long[] times = new long[]{1420070400000L, 1420243200000L, 1451606400000L, 951782400000L};
+        for (int i = 0; i < 100000; i++) {
+            final int k = i & 3;
+            times[k] += random.nextInt(5000);
+            final String date = formatter.format(times[k]);
+            assertEquals(date, times[k], DateParser.parseFastDate(date, cache));
+        }
+        assertEquals(100000L, cache.getAccesses());
+        // only new hours are missed:
+        assertTrue(cache.toString(), cache.getHitRatio() > 0.99);
+
+        // random dates:
+        cache.clear();
+        for (int i = 0; i < 10000; i++) {
+            final long time = (long) (random.nextDouble() * 253402300799999L);
+            final String date = formatter.format(time);
+            assertEquals(date, time, DateParser.parseFastDate(date, cache));
+        }
+        for (String date : new String[]{"2015-02-29:00:00:00", "2015-01-01:24:00:00", "2015-01-01:00:60:00",
+                                        "2015-13-01:00:00:00", "2015-01-01:00:00"}) {
+            try {
+                DateParser.parseFastDate(date, cache);
+                fail(date);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+    }
+
+    public void testInstance() {
+        final Random random = new Random(31L);
+        final DateFormatter formatter = new DateFormatter();
+        final DateParser parser = new DateParser(4);
+
+        for (int i = 0; i < 10000; i++) {
+            final long time = 1420070400000L + (long) random.nextInt(86400 * 5) * 1000L + random.nextInt(1000);
+            final String date = formatter.format(time);
+            assertEquals(date, time, parser.parse(date));
+            assertEquals(date, time * 1000000L, parser.parseNanos(date));
+        }
+        assertEquals(20000L, parser.getCache().getAccesses());
+
+        parser.reset();
+        assertEquals(0L, parser.getCache().getAccesses());
+        assertEquals(1420070449123456789L, parser.parseNanos("2015-01-01:00:00:49.123456789"));
+        try {
+            parser.parse("2015-02-29:00:00:00");
+            fail("invalid date");
+        } catch (NumberFormatException nfe) {
+            // expected
+        }
+    }
+
+    public void testColumn() {
+        final Random random = new Random(29L);
+        final DateFormatter formatter = new DateFormatter();
+        // invalid or other layouts (separators, fraction length) parsed like parseFastDate:
+        final String[] others = new String[]{"2015-02-29:00:00:00.000", "2015-01-01:24:00:00.000", "2015-01-01",
+                                             "2015/01/01:00:00:00.000", "2015-01-01T00:00:00.000", "2015-01-01:0a:00",
+                                             "2015-01-01:00:00:00,000", "2015-01-01:00:00:00.1234", null,
+                                             "2O15-01-01:00:00:00", "2015-01-01:00-00:00", "N/A"};
+
+        final int n = 100000;
+        final String[] dates = new String[n];
+        final long[] expected = new long[n];
+        int nInvalid = 0;
+        long time = 1420070400000L;
+        for (int i = 0; i < n; i++) {
+            time += random.nextInt(10000);
+            if (random.nextInt(100) == 0) {
+                dates[i] = others[random.nextInt(others.length)];
+            } else {
+                dates[i] = formatter.format(time);
+            }
+            expected[i] = parseFastDateOrNull(dates[i]);
+            if (expected[i] == NumberUtils.NULL_LONG) {
+                nInvalid++;
+            }
+        }
+        final byte[] bytes = new byte[n * 24];
+        final int[] offsets = new int[n];
+        final int[] lengths = new int[n];
+        for (int i = 0, off = 0; i < n; i++) {
+            final String date = (dates[i] != null) ? dates[i] : "";
+            offsets[i] = off;
+            lengths[i] = date.length();
+            for (int j = 0; j < date.length(); j++) {
+                bytes[off++] = (byte) date.charAt(j);
+            }
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (ForkJoinPool p : new ForkJoinPool[]{null, pool}) {
+                final long[] out = new long[n];
+                assertEquals(nInvalid, DateParser.parseColumn(dates, 0, n, out, p));
+                assertTrue(Arrays.equals(expected, out));
+
+                Arrays.fill(out, 0L);
+                assertEquals(nInvalid, DateParser.parseColumn(bytes, offsets, lengths, 0, n, out, p));
+                assertTrue(Arrays.equals(expected, out));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        // like parseFastDate:
+        final String[] values = new String[]{"2015-01-01:00:00:49.1", "2015-01-01:00:00:49", "2015-01-01:00:01:49.12",
+                                             "2015-01-01 10:00:00.1234", "2015-01-01 10:00:00.", "2015/01/01T10:00:00"};
+        assertColumn(values, 0);
+        assertEquals(1420106401234L, parseColumn(values)[3]);
+        // invalid first value:
+        final String valid = "2015-01-01 10:00:00.000";
+        assertColumn(new String[]{"N/A", valid, valid, valid}, 1);
+        // mixed batch:
+        assertColumn(new String[]{"2015-01-01:0a:00:00", "2015-01-01 10:00:00", "2015-01-01 10:00:00.5", null,
+                                  "2015-01-01 10:00:60", "2015-01-01T10:00:01.25", "2015-01-01 10:00:01.-1"}, 4);
+    }
+
+    private static long[] parseColumn(final String[] values) {
+        final long[] out = new long[values.length];
+        DateParser.parseColumn(values, 0, values.length, out);
+        return out;
+    }
+
+    private static void assertColumn(final String[] values, final int nInvalid) {
+        final long[] out = new long[values.length];
+        assertEquals(nInvalid, DateParser.parseColumn(values, 0, values.length, out));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], parseFastDateOrNull(values[i]), out[i]);
+        }
+    }
+
+    private static long parseFastDateOrNull(final String date) {
+        if (date == null) {
+            return NumberUtils.NULL_LONG;
+        }
+        try {
+            return DateParser.parseFastDate(date);
+        } catch (NumberFormatException nfe) {
+            return NumberUtils.NULL_LONG;
+        }
+    }
+
+    public void testInvalid() {
+        for (String date : new String[]{"2015-13-01:00:00:00", "2015-00-01:00:00:00", "2015-02-29:00:00:00",
+                                        "1900-02-29:00:00:00", "2015-04-31:00:00:00", "2015-01-01:24:00:00",
+                                        "2015-01-01:00:60:00", "2015-01-01:00:00:60", "2015-01-00:00:00:00",
+                                        "2015-01-01:00:00"}) {
+            try {
+                DateParser.parseFastDate(date);
+                fail(date);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+            try {
+                DateParser.parseFullDate(date);
+                fail(date);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+    }
+}
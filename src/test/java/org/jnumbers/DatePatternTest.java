@@ -0,0 +1,97 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+import junit.framework.TestCase;
+
+public class DatePatternTest extends TestCase {
+
+    private final static String[] PATTERNS = new String[]{"dd/MM/yyyy HH:mm:ss.SSS", "yyyy-MM-dd'T'HH:mm:ss",
+                                                          "yyyyMMddHHmmss", "yyyy-MM-dd:HH:mm:ss.SSS", "MM/dd/yyyy",
+                                                          "'at' HH'h'mm ''yyyy-MM-dd''"};
+
+    public void testParse() {
+        final Random random = new Random(19L);
+        // 1600-01-01 to 9999-12-31 (SimpleDateFormat uses the julian calendar before 1582):
+        final long min = -11676096000000L;
+        final long max = 253402300799999L;
+
+        for (String p : PATTERNS) {
+            final SimpleDateFormat sdf = new SimpleDateFormat(p);
+            sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+            final DatePattern dp = DatePattern.compile(p);
+
+            for (int i = 0; i < 20000; i++) {
+                final long time = min + (long) (random.nextDouble() * (max - min));
+                final String date = sdf.format(new Date(time));
+                // expected time truncated to the pattern precision:
+                final long expected = sdf.parse(date, new ParsePosition(0)).getTime();
+
+                assertEquals(date.length(), dp.getLength());
+                assertEquals(p + ": " + date, expected, dp.parse(date));
+                assertEquals(p + ": " + date, expected, dp.parse("##" + date, 2));
+                assertEquals(p + ": " + date, expected, dp.parse(("#" + date).getBytes(), 1));
+            }
+        }
+    }
+
+    public void testNanos() {
+        final DatePattern dp = DatePattern.compile("yyyyMMdd-HHmmss.SSSSSSSSS");
+        assertEquals(1420070449123456789L, dp.parseNanos("20150101-000049.123456789"));
+        assertEquals(1420070449123456789L, dp.parseNanos("20150101-000049.123456789".getBytes(), 0));
+        assertEquals(1420070449123L, dp.parse("20150101-000049.123456789"));
+        assertEquals(-1L, dp.parseNanos("19691231-235959.999999999"));
+        assertEquals(1420070449000100000L,
+                DatePattern.compile("yyyy-MM-dd HH:mm:ss.SSSS").parseNanos("2015-01-01 00:00:49.0001"));
+    }
+
+    public void testInvalid() {
+        final DatePattern dp = DatePattern.compile("dd/MM/yyyy HH:mm");
+        for (String date : new String[]{"01/01/2015 00:00:00", "01/01/2015 00:0", "01-01-2015 00:00", "01/01/2015T00:00",
+                                        "30/02/2015 00:00", "01/13/2015 00:00", "01/01/2015 24:00", "01/01/2015 00:60",
+                                        "0a/01/2015 00:00", "-1/01/2015 00:00"}) {
+            try {
+                dp.parse(date);
+                fail(date);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+        for (String pattern : new String[]{"dd/MM/yy", "yyyy-M-d", "yyyy-MM-dd HH:mm:ss.SSSSSSSSSS", "yyyy-MM-dd EEE",
+                                           "yyyy-MM-dd'T", "MM/dd", "yyyy/yyyy"}) {
+            try {
+                DatePattern.compile(pattern);
+                fail(pattern);
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+    }
+}
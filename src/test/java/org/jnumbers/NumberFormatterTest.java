@@ -0,0 +1,388 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class NumberFormatterTest extends TestCase {
+
+    public void testUnsigned() {
+        final Random random = new Random(9L);
+        final StringBuilder sb = new StringBuilder(32);
+        final char[] chars = new char[32];
+        final byte[] bytes = new byte[32];
+
+        final long[] values = new long[]{0L, 1L, 9L, 10L, Long.MAX_VALUE, Long.MIN_VALUE, -1L,
+                                         -8446744073709551616L, -8446744073709551617L};
+
+        for (int i = 0; i < 100000; i++) {
+            final long value = (i < values.length) ? values[i] : (random.nextLong() >>> random.nextInt(64));
+            final String expected = unsignedToString(value);
+
+            sb.setLength(0);
+            sb.append('#');
+            assertEquals(expected, '#' + expected, NumberFormatter.appendUnsignedLong(sb, value).toString());
+
+            int end = NumberFormatter.appendUnsignedLong(chars, 3, value);
+            assertEquals(expected, new String(chars, 3, end - 3));
+
+            end = NumberFormatter.appendUnsignedLong(bytes, 1, value);
+            assertEquals(expected, new String(bytes, 1, end - 1, StandardCharsets.ISO_8859_1));
+
+            final int ivalue = (int) value;
+            final String iexpected = unsignedToString(ivalue & 0xFFFFFFFFL);
+            sb.setLength(0);
+            assertEquals(iexpected, NumberFormatter.appendUnsignedInt(sb, ivalue).toString());
+            end = NumberFormatter.appendUnsignedInt(chars, 0, ivalue);
+            assertEquals(iexpected, new String(chars, 0, end));
+        }
+    }
+
+    public void testIntLong() {
+        final Random random = new Random(5L);
+        final StringBuilder sb = new StringBuilder(32);
+        final char[] chars = new char[32];
+        final byte[] bytes = new byte[32];
+        final ByteBuffer heap = ByteBuffer.allocate(32);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(32);
+
+        final long[] values = new long[]{0L, 1L, -1L, 9L, 10L, 99L, 100L, -100L, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                                         Long.MAX_VALUE, Long.MIN_VALUE, 999999999999999999L, 1000000000000000000L};
+
+        for (int i = 0; i < 100000; i++) {
+            final long value = (i < values.length) ? values[i] : (random.nextLong() >> random.nextInt(64));
+            final String expected = Long.toString(value);
+
+            sb.setLength(0);
+            sb.append('#');
+            assertEquals(expected, '#' + expected, NumberFormatter.appendLong(sb, value).toString());
+
+            int end = NumberFormatter.appendLong(chars, 3, value);
+            assertEquals(expected, new String(chars, 3, end - 3));
+
+            end = NumberFormatter.appendLong(bytes, 1, value);
+            assertEquals(expected, new String(bytes, 1, end - 1, StandardCharsets.ISO_8859_1));
+
+            for (ByteBuffer buffer : new ByteBuffer[]{heap, direct}) {
+                buffer.clear();
+                buffer.put((byte) '#');
+                NumberFormatter.appendLong(buffer, value);
+                buffer.flip();
+                buffer.get();
+                final byte[] res = new byte[buffer.remaining()];
+                buffer.get(res);
+                assertEquals(expected, new String(res, 0, res.length, StandardCharsets.ISO_8859_1));
+            }
+
+            final int ivalue = (int) value;
+            sb.setLength(0);
+            assertEquals(Integer.toString(ivalue), NumberFormatter.appendInt(sb, ivalue).toString());
+            end = NumberFormatter.appendInt(bytes, 0, ivalue);
+            assertEquals(Integer.toString(ivalue), new String(bytes, 0, end, StandardCharsets.ISO_8859_1));
+
+            assertEquals(expected, expected.length() - ((value < 0L) ? 1 : 0),
+                         (value < 0L) ? NumberFormatter.unsignedDigitCount(-value) : NumberFormatter.digitCount(value));
+        }
+    }
+
+    public void testPadding() {
+        final StringBuilder sb = new StringBuilder(32);
+        final char[] chars = new char[32];
+        final byte[] bytes = new byte[32];
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+
+        final long[] values = new long[]{0L, 7L, 42L, -42L, 123L, 123456L};
+        final int[] widths = new int[]{0, 1, 2, 3, 4, 9};
+
+        for (long value : values) {
+            for (int width : widths) {
+                final String expected = String.format("%0" + (width + ((value < 0L) ? 1 : 0) + 1) + "d", value)
+                        .replaceFirst("^(-?)0", "$1");
+                final String ref = (width == 0) ? Long.toString(value) : expected;
+
+                sb.setLength(0);
+                assertEquals(ref, NumberFormatter.appendLong(sb, value, width).toString());
+
+                int end = NumberFormatter.appendInt(chars, 2, (int) value, width);
+                assertEquals(ref, new String(chars, 2, end - 2));
+
+                end = NumberFormatter.appendLong(bytes, 0, value, width);
+                assertEquals(ref, new String(bytes, 0, end, StandardCharsets.ISO_8859_1));
+
+                buffer.clear();
+                NumberFormatter.appendInt(buffer, (int) value, width);
+                assertEquals(ref.length(), buffer.position());
+            }
+        }
+        sb.setLength(0);
+        assertEquals("-0042", NumberFormatter.appendInt(sb, -42, 4).toString());
+    }
+
+    public void testDouble() {
+        final Random random = new Random(11L);
+        final StringBuilder sb = new StringBuilder(32);
+        final char[] chars = new char[32];
+        final byte[] bytes = new byte[32];
+
+        final double[] values = new double[]{0.0, -0.0, 1.0, -1.0, 0.001, 1e-3 - 1e-19, 123.45, 1234567.0, 1e7, 1e22, 1e23,
+                                             Double.MIN_VALUE, 2.0 * Double.MIN_VALUE, Double.MAX_VALUE, Double.MIN_NORMAL,
+                                             Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        // shortest digits (Double.toString before JDK 19 may give more digits):
+        assertEquals("1.0E23", NumberFormatter.appendDouble(sb, 1e23).toString());
+        sb.setLength(0);
+        assertEquals("9.9E-324", NumberFormatter.appendDouble(sb, 2.0 * Double.MIN_VALUE).toString());
+        sb.setLength(0);
+        assertEquals("2.0E-3", "0.002", NumberFormatter.appendDouble(sb, 2.0E-3).toString());
+
+        for (int i = 0; i < 200000; i++) {
+            final double value;
+            if (i < values.length) {
+                value = values[i];
+            } else if ((i & 1) == 0) {
+                value = Double.longBitsToDouble(random.nextLong());
+            } else {
+                value = Math.round(1e6 * (random.nextDouble() - 0.5)) / Math.pow(10.0, random.nextInt(10));
+            }
+            final String ref = Double.toString(value);
+
+            sb.setLength(0);
+            final String result = NumberFormatter.appendDouble(sb, value).toString();
+
+            int end = NumberFormatter.appendDouble(chars, 2, value);
+            assertEquals(ref, result, new String(chars, 2, end - 2));
+
+            end = NumberFormatter.appendDouble(bytes, 1, value);
+            assertEquals(ref, result, new String(bytes, 1, end - 1, StandardCharsets.ISO_8859_1));
+
+            // round-trip and never longer than Double.toString:
+            assertEquals(ref, Double.doubleToLongBits(value), Double.doubleToLongBits(Double.parseDouble(result)));
+            assertTrue(ref + " <> " + result, result.length() <= ref.length());
+        }
+    }
+
+    public void testFixed() {
+        final Random random = new Random(13L);
+        final StringBuilder sb = new StringBuilder(64);
+        final char[] chars = new char[512];
+        final byte[] bytes = new byte[512];
+
+        assertFixed("12.340", 12.34, 3, RoundingMode.HALF_EVEN);
+        assertFixed("-0.00", -0.001, 2, RoundingMode.HALF_EVEN);
+        assertFixed("-0.01", -0.001, 2, RoundingMode.FLOOR);
+        assertFixed("0.12", 0.125, 2, RoundingMode.HALF_EVEN);
+        assertFixed("0.13", 0.125, 2, RoundingMode.HALF_UP);
+        // exact binary value 1.000499999999999989...:
+        assertFixed("1.000", 1.0005, 3, RoundingMode.HALF_UP);
+        assertFixed("3", 2.5, 0, RoundingMode.HALF_UP);
+        assertFixed("0.10000000000000000555", 0.1, 20, RoundingMode.HALF_EVEN);
+        assertFixed("100000000000000000000.0", 1e20, 1, RoundingMode.HALF_EVEN);
+        assertFixed("NaN", Double.NaN, 3, RoundingMode.HALF_EVEN);
+        assertFixed("-Infinity", Double.NEGATIVE_INFINITY, 3, RoundingMode.HALF_EVEN);
+
+        final RoundingMode[] modes = new RoundingMode[]{RoundingMode.HALF_EVEN, RoundingMode.HALF_UP, RoundingMode.DOWN,
+                                                        RoundingMode.CEILING, RoundingMode.FLOOR};
+
+        for (int i = 0; i < 100000; i++) {
+            final double value = ((i & 1) == 0) ? Double.longBitsToDouble(random.nextLong())
+                                 : (random.nextDouble() - 0.5) * Math.pow(10.0, random.nextInt(30) - 12);
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            final int digits = random.nextInt(22);
+            final RoundingMode mode = modes[random.nextInt(modes.length)];
+            final String expected = (value < 0.0 ? "-" : "")
+                                    + new BigDecimal(Math.abs(value)).setScale(digits, magnitudeMode(value, mode))
+                                    .toPlainString();
+
+            sb.setLength(0);
+            assertEquals(expected, NumberFormatter.appendFixed(sb, value, digits, mode).toString());
+
+            int end = NumberFormatter.appendFixed(chars, 1, value, digits, mode);
+            assertEquals(expected, new String(chars, 1, end - 1));
+
+            end = NumberFormatter.appendFixed(bytes, 0, value, digits, mode);
+            assertEquals(expected, new String(bytes, 0, end, StandardCharsets.ISO_8859_1));
+        }
+
+        // UNNECESSARY: nothing written if rounding is necessary (fast and slow paths)
+        sb.setLength(0);
+        assertEquals("-1.25", NumberFormatter.appendFixed(sb, -1.25, 2, RoundingMode.UNNECESSARY).toString());
+        for (int k = 0; k < 4; k++) {
+            sb.setLength(0);
+            try {
+                switch (k) {
+                    case 0:
+                        NumberFormatter.appendFixed(sb, -1.25, 1, RoundingMode.UNNECESSARY);
+                        break;
+                    case 1:
+                        NumberFormatter.appendFixed(sb, -0.1, 30, RoundingMode.UNNECESSARY);
+                        break;
+                    case 2:
+                        NumberFormatter.appendScientific(sb, -1.25, 1, RoundingMode.UNNECESSARY);
+                        break;
+                    default:
+                        NumberFormatter.appendSignificant(sb, -0.1, 30, RoundingMode.UNNECESSARY);
+                }
+                fail("ArithmeticException expected");
+            } catch (ArithmeticException ae) {
+                assertEquals(0, sb.length());
+            }
+        }
+    }
+
+    public void testSexagesimal() {
+        assertEquals("+00:00:00", toDMS(0.0, 0));
+        assertEquals("-02:26:56.849", toDMS(-2.449124726, 3));
+        assertEquals("+00:00:00.500000000", toDMS(0.5 / 3600.0, 9));
+        assertEquals("+123:30:00.0", toDMS(123.5, 1));
+        // exact binary value 219.455306501924291...:
+        assertEquals("+219:27:19.103406927", toDMS(219.4553065019243, 9));
+        // seconds rounded up to 60 (carry into minutes and degrees):
+        assertEquals("+60:00:00.000", toDMS(59.0 + 59.0 / 60.0 + 59.9996 / 3600.0, 3));
+        assertEquals("-13:00:00", toDMS(-(12.0 + 59.0 / 60.0 + 59.6 / 3600.0), 0));
+        assertEquals("~", toDMS(400.0, 3));
+        assertEquals("~", toDMS(Double.NaN, 3));
+
+        assertEquals("12:00:00.00", toHMS(180.0, 2));
+        assertEquals("-01:00:00", toHMS(-15.0, 0));
+        assertEquals("24:00:00.000", toHMS(359.99999999, 3));
+        assertEquals("~", toHMS(361.0, 0));
+
+        try {
+            DMSConverter.toDMS(new byte[32], 0, 1.0, 10);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+
+        // round trip:
+        final Random random = new Random(360L);
+        for (int i = 0; i < 20000; i++) {
+            final int digits = random.nextInt(10);
+            final double tolerance = 0.5 * Math.pow(10.0, -digits) / 3600.0 + 1e-12;
+
+            final double dec = (random.nextDouble() - 0.5) * 180.0;
+            final String dms = toDMS(dec, digits);
+            assertEquals(dms, 9 + ((digits != 0) ? digits + 1 : 0), dms.length());
+            assertEquals(dms, dec, DMSConverter.parseDMS(dms), tolerance);
+            assertTrue(dms, dms.endsWith(exactSeconds(dec, 3600, digits)));
+
+            final double ra = random.nextDouble() * 360.0;
+            final String hms = toHMS(ra, digits);
+            assertEquals(hms, 8 + ((digits != 0) ? digits + 1 : 0), hms.length());
+            assertEquals(hms, ra, DMSConverter.parseHMS(hms), 15.0 * tolerance);
+            assertTrue(hms, hms.endsWith(exactSeconds(ra, 240, digits)));
+        }
+    }
+
+    /* ":SS[.F]" of the exact angle x mul rounded half up */
+    private static String exactSeconds(final double angle, final int mul, final int digits) {
+        final BigDecimal seconds = new BigDecimal(Math.abs(angle)).multiply(BigDecimal.valueOf(mul))
+                                   .setScale(digits, RoundingMode.HALF_UP).remainder(BigDecimal.valueOf(60L));
+        return ((seconds.compareTo(BigDecimal.TEN) < 0) ? ":0" : ":") + seconds.toPlainString();
+    }
+
+    private static String toDMS(final double angle, final int digits) {
+        final char[] chars = new char[32];
+        final byte[] bytes = new byte[32];
+        final String value = new String(chars, 0, DMSConverter.toDMS(chars, 0, angle, digits));
+        final int end = DMSConverter.toDMS(bytes, 0, angle, digits);
+        assertEquals(value, new String(bytes, 0, end, StandardCharsets.ISO_8859_1));
+        return value;
+    }
+
+    private static String toHMS(final double angle, final int digits) {
+        final char[] chars = new char[32];
+        final byte[] bytes = new byte[32];
+        final String value = new String(chars, 0, DMSConverter.toHMS(chars, 0, angle, digits));
+        final int end = DMSConverter.toHMS(bytes, 0, angle, digits);
+        assertEquals(value, new String(bytes, 0, end, StandardCharsets.ISO_8859_1));
+        return value;
+    }
+
+    public void testSignificant() {
+        final StringBuilder sb = new StringBuilder(64);
+        final byte[] bytes = new byte[64];
+
+        sb.setLength(0);
+        assertEquals("1.235E4", NumberFormatter.appendScientific(sb, 12345.0, 3, RoundingMode.HALF_UP).toString());
+        sb.setLength(0);
+        assertEquals("1.234E4", NumberFormatter.appendScientific(sb, 12345.0, 3, RoundingMode.HALF_EVEN).toString());
+        sb.setLength(0);
+        assertEquals("1.00E1", NumberFormatter.appendScientific(sb, 9.999, 2, RoundingMode.HALF_EVEN).toString());
+        sb.setLength(0);
+        assertEquals("-1.50E-7", NumberFormatter.appendScientific(sb, -1.5e-7, 2, RoundingMode.HALF_EVEN).toString());
+        sb.setLength(0);
+        assertEquals("0.000E0", NumberFormatter.appendScientific(sb, 0.0, 3, RoundingMode.HALF_EVEN).toString());
+        sb.setLength(0);
+        assertEquals("3E0", NumberFormatter.appendScientific(sb, Math.PI, 0, RoundingMode.HALF_EVEN).toString());
+
+        final double[] values = new double[]{12.345678, 0.00012345678, 0.000012345678, 123456.0, 99999.99, 0.0, -1e300};
+        final String[] expected = new String[]{"12.35", "0.0001235", "1.235E-5", "1.235E5", "1.000E5", "0.000", "-1.000E300"};
+
+        for (int i = 0; i < values.length; i++) {
+            sb.setLength(0);
+            assertEquals(expected[i], NumberFormatter.appendSignificant(sb, values[i], 4, RoundingMode.HALF_EVEN).toString());
+            final int end = NumberFormatter.appendSignificant(bytes, 0, values[i], 4, RoundingMode.HALF_EVEN);
+            assertEquals(expected[i], new String(bytes, 0, end, StandardCharsets.ISO_8859_1));
+        }
+        // %g layout with exactly representable values:
+        sb.setLength(0);
+        assertEquals(String.format("%.6g", 1234.5), NumberFormatter.appendSignificant(sb, 1234.5, 6, RoundingMode.HALF_UP).toString());
+        // beyond the fast path (18 digits):
+        sb.setLength(0);
+        assertEquals("0.1000000000000000055511", NumberFormatter.appendSignificant(sb, 0.1, 22, RoundingMode.HALF_EVEN).toString());
+    }
+
+    private static void assertFixed(final String expected, final double value, final int digits, final RoundingMode mode) {
+        assertEquals(expected, NumberFormatter.appendFixed(new StringBuilder(), value, digits, mode).toString());
+    }
+
+    private static RoundingMode magnitudeMode(final double value, final RoundingMode mode) {
+        if (value < 0.0) {
+            if (mode == RoundingMode.CEILING) {
+                return RoundingMode.FLOOR;
+            }
+            if (mode == RoundingMode.FLOOR) {
+                return RoundingMode.CEILING;
+            }
+        }
+        return mode;
+    }
+
+    private static String unsignedToString(final long value) {
+        // note: Long.toUnsignedString requires Java 8
+        if (value >= 0L) {
+            return Long.toString(value);
+        }
+        final long q = (value >>> 1) / 5L;
+        return Long.toString(q) + (value - q * 10L);
+    }
+}
@@ -24,11 +24,17 @@
  */
 package org.jnumbers;
 
+import java.math.RoundingMode;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.Locale;
 import java.util.TimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import si.pele.microbench.TestRunner;
 import static si.pele.microbench.TestRunner.doTest;
 
@@ -40,10 +46,24 @@ public class NumberParserBenchmark extends TestRunner {
 
     final static String[] values_int;
 
+    /** dirty feed: 10% blank or "N/A" fields */
+    final static String[] values_int_dirty;
+
+    /** epoch millis (13 digits) and identifiers (10 to 18 digits) */
+    final static String[] values_long;
+    final static byte[][] values_long_bytes;
+
+    /** registers / checksums as 0xHHHH (8 to 15 hexadecimal digits) */
+    final static String[] values_hex;
+    final static byte[][] values_hex_bytes;
+
     final static String[] values_ats = new String[]{
         "-02:26:56.84901360", "+0050:35:47.11817040",
         "+0050:35:47.11210080"};
 
+    final static String[] values_hms = new String[]{
+        "02:26:56.84901360", "14 35 47.118", "-00:35:47.11210080", "23:59:59.999"};
+
     final static String[] values_date = new String[]{
         "2015-01-02:23:59:59.999",
         "2015-01-01:00:00:59.500",
@@ -70,7 +90,32 @@ public class NumberParserBenchmark extends TestRunner {
     /* , "2015/01/01-23:59:59.999" // bad format */
     };
 
+    final static String[] values_date_iso = new String[]{
+        "2015-01-02T23:59:59.999Z",
+        "2015-01-01T00:00:59.500+01:00",
+        "2015-01-01T00:59:59.500-05:30",
+        "2015-01-01T19:45:45.500Z",
+        "2015-01-01T11:23:59.500+02:00",
+        "2015-01-01T00:00:49.100Z",
+        "2015-01-01T00:00:49.100Z",
+        "2015-01-01T00:00:59.000-08:00"
+    };
+
     final static String[] values_dbl;
+    /** values_dbl as doubles (formatting) */
+    final static double[] values_dbl_num;
+
+    final static String[] values_flt;
+
+    /** short decimals (15 significant digits or fewer) */
+    final static String[] values_dbl_short;
+    /** values_dbl_short as doubles (fixed-precision formatting) */
+    final static double[] values_dbl_short_num;
+
+    /** values_date as epoch milliseconds (date formatting) */
+    final static long[] values_date_ms;
+    /** values_date_ms formatted as "yyyy-MM-dd:HH:mm:ss.SSS" (fixed layout) */
+    final static String[] values_date_fixed;
 
     static {
         TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
@@ -96,6 +141,28 @@ public class NumberParserBenchmark extends TestRunner {
             values_int[i] = Integer.toString(ints[i]);
         }
 
+        values_int_dirty = new String[ints.length];
+
+        for (int i = 0; i < ints.length; i++) {
+            values_int_dirty[i] = ((i % 10) == 5) ? (((i & 1) == 0) ? "" : "N/A") : values_int[i];
+        }
+
+        values_long = new String[ints.length];
+        values_long_bytes = new byte[ints.length][];
+
+        for (int i = 0; i < values_long.length; i++) {
+            values_long[i] = Long.toString(nextLong(i));
+            values_long_bytes[i] = toBytes(values_long[i]);
+        }
+
+        values_hex = new String[ints.length];
+        values_hex_bytes = new byte[ints.length][];
+
+        for (int i = 0; i < values_hex.length; i++) {
+            values_hex[i] = "0x" + Long.toHexString(Math.abs(nextLong(i)) >>> (4 * (i % 3)));
+            values_hex_bytes[i] = toBytes(values_hex[i]);
+        }
+
         /*, Long.toString(Long.MAX_VALUE) */
         final double[] dbls = new double[2048];
         dbls[0] = Double.MAX_VALUE;
@@ -111,11 +178,39 @@ public class NumberParserBenchmark extends TestRunner {
             dbls[i] = nextDouble();
         }
 
+        values_dbl_num = dbls;
         values_dbl = new String[dbls.length];
 
         for (int i = 0; i < dbls.length; i++) {
             values_dbl[i] = Double.toString(dbls[i]);
         }
+
+        values_flt = new String[dbls.length];
+
+        for (int i = 0; i < dbls.length; i++) {
+            values_flt[i] = Float.toString((float) nextFloat());
+        }
+
+        values_dbl_short = new String[dbls.length];
+        values_dbl_short_num = new double[dbls.length];
+
+        for (int i = 0; i < dbls.length; i++) {
+            values_dbl_short_num[i] = nextShortDouble();
+            values_dbl_short[i] = Double.toString(values_dbl_short_num[i]);
+        }
+
+        values_date_ms = new long[values_date.length];
+
+        for (int i = 0; i < values_date.length; i++) {
+            values_date_ms[i] = DateParser.parseFullDate(values_date[i]);
+        }
+
+        values_date_fixed = new String[values_date_ms.length];
+        final DateFormatter formatter = new DateFormatter();
+
+        for (int i = 0; i < values_date_ms.length; i++) {
+            values_date_fixed[i] = formatter.format(values_date_ms[i]);
+        }
     }
 
     /** 
@@ -138,6 +233,22 @@ public class NumberParserBenchmark extends TestRunner {
         return (int) (9.99999999999999999999 * (Math.random() - 0.5) * Math.pow(2.0, 30.0 * Math.random()));
     }
 
+    private static long nextLong(final int i) {
+        if ((i & 1) == 0) {
+            // epoch millis in [2015; 2018]:
+            return 1420070400000l + (long) (1e11 * Math.random());
+        }
+        return (long) Math.pow(10.0, 9.0 + 9.0 * Math.random());
+    }
+
+    private static byte[] toBytes(final String value) {
+        final byte[] bytes = new byte[value.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+
     private static double nextDouble() {
         /*
          Double.MIN_VALUE = 4.9E-324
@@ -146,6 +257,19 @@ public class NumberParserBenchmark extends TestRunner {
         return 9.99999999999999999999 * (Math.random() - 0.5) * Math.pow(10.0, 308.0 * (Math.random() - 0.5));
     }
 
+    private static double nextFloat() {
+        /*
+         Float.MIN_VALUE = 1.4E-45
+         Float.MAX_VALUE = 3.4028235E38
+         */
+        return 9.99999999999999999999 * (Math.random() - 0.5) * Math.pow(10.0, 76.0 * (Math.random() - 0.5));
+    }
+
+    private static double nextShortDouble() {
+        // ~ 3 to 6 fraction digits, 15 significant digits or fewer:
+        return Math.round(1e6 * (Math.random() - 0.5) * Math.pow(10.0, 6.0 * Math.random())) / Math.pow(10.0, 3 + (int) (4 * Math.random()));
+    }
+
     public static void main(String[] args) throws Exception {
         final boolean trace = false;
         final double th = 2e-16;
@@ -178,6 +302,30 @@ public class NumberParserBenchmark extends TestRunner {
             }
         }
 
+        if (true) {
+            for (int i = 0; i < values_long.length; i++) {
+                String value = values_long[i];
+                long v1, v2;
+                v1 = Long.parseLong(value);
+                v2 = NumberParser.getLong(values_long_bytes[i]);
+                if (v1 != v2) {
+                    System.out.println("NumberParser.getLong(byte[]): Bad case : " + v1 + " <> " + v2);
+                }
+            }
+        }
+
+        if (true) {
+            for (int i = 0; i < values_hex.length; i++) {
+                String value = values_hex[i];
+                long v1, v2;
+                v1 = Long.decode(value);
+                v2 = NumberParser.decodeLong(values_hex_bytes[i], 0, values_hex_bytes[i].length);
+                if (v1 != v2) {
+                    System.out.println("NumberParser.decodeLong(byte[]): Bad case : " + v1 + " <> " + v2);
+                }
+            }
+        }
+
         if (true) {
             for (int i = 0; i < values_int.length; i++) {
                 String value = values_int[i];
@@ -205,6 +353,24 @@ public class NumberParserBenchmark extends TestRunner {
                     System.out.println("DoubleParser.getDouble: Bad case\t" + v1 + "\t<> " + v2 + "\tdiff: " + relDiff + " ulps= " + getDiffUlps(v1, v2));
                 }
             }
+            for (int i = 0; i < values_flt.length; i++) {
+                String value = values_flt[i];
+                float v1, v2;
+                v1 = Float.parseFloat(value);
+                v2 = NumberParser.getFloat(value);
+                if (Float.floatToIntBits(v1) != Float.floatToIntBits(v2)) {
+                    System.out.println("NumberParser.getFloat: Bad case:\t" + v1 + "\t<> " + v2);
+                }
+            }
+            for (int i = 0; i < values_dbl_short.length; i++) {
+                String value = values_dbl_short[i];
+                double v1, v2;
+                v1 = parseDouble(value);
+                v2 = NumberParser.getDouble(value);
+                if (getDiffUlps(v1, v2) != 0l) {
+                    System.out.println("DoubleParser.getDouble: Bad case:\t" + v1 + "\t<> " + v2 + " ulps= " + getDiffUlps(v1, v2));
+                }
+            }
             for (int i = 0; i < values_dbl.length; i++) {
                 String value = values_dbl[i];
                 System.out.println("test[" + value + "] = ");
@@ -227,11 +393,22 @@ public class NumberParserBenchmark extends TestRunner {
                     System.out.println("Error : " + nfe);
                 }
                 double relDiff = (Math.abs(v2 - v1) / v1);
-                if (relDiff > th) {
-                    // TODO: check number of digits = max precision = 1/10 or 1/100 ?
+                // correctly rounded (1/2 ulp):
+                if (getDiffUlps(v1, v2) != 0l) {
                     System.out.println("DoubleParser.getDouble: Bad case:\t" + v1 + "\t<> " + v2 + "\tdiff: " + relDiff + " ulps= " + getDiffUlps(v1, v2));
                 }
             }
+            final StringBuilder sb = new StringBuilder(32);
+            for (int i = 0; i < values_dbl_num.length; i++) {
+                double v1 = values_dbl_num[i];
+                sb.setLength(0);
+                NumberFormatter.appendDouble(sb, v1);
+                double v2 = parseDouble(sb.toString());
+                // round-trip and never longer than Double.toString:
+                if ((getDiffUlps(v1, v2) != 0l) || (sb.length() > values_dbl[i].length())) {
+                    System.out.println("NumberFormatter.appendDouble: Bad case:\t" + values_dbl[i] + "\t<> " + sb);
+                }
+            }
             // TODO: test perf ints, fractional only, full double ...
         }
         if (false) {
@@ -338,6 +515,16 @@ public class NumberParserBenchmark extends TestRunner {
                 }
             }
         }
+        if (true) {
+            for (int i = 0; i < values_hms.length; i++) {
+                final String value = values_hms[i];
+                final double v1 = DMSConverter.parseHMS_REF(value);
+                final double v2 = DMSConverter.parseHMS(value);
+                if (Double.compare(v1, v2) != 0) {
+                    System.out.println("DMSConverter.parseHMS: Bad case:\t" + v1 + "\t<> " + v2 + " for value = " + value);
+                }
+            }
+        }
         if (true) {
             TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
             Locale.setDefault(Locale.ENGLISH);
@@ -358,6 +545,14 @@ public class NumberParserBenchmark extends TestRunner {
                     System.out.println("Bad case : " + v1 + " <> " + v2);
                 }
             }
+            for (int i = 0; i < values_date_iso.length; i++) {
+                String value = values_date_iso[i];
+                long v1 = parseISODate_REF(value);
+                long v2 = DateParser.parseISODate(value);
+                if (v1 != v2) {
+                    System.out.println("Bad ISO case : " + value + " " + v1 + " <> " + v2);
+                }
+            }
             if (false) {
                 System.exit(1);
             }
@@ -386,25 +581,105 @@ public class NumberParserBenchmark extends TestRunner {
             doTest(ParseIntTest.class, testDuration, 1, nTh, 1);
         }
 
+        if (false) {
+            // parse dirty ints (exception vs status):
+            doTest(ParseIntDirtyResultTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseIntDirtyExceptionTest.class, testDuration, 1, nTh, 1);
+        }
+
+        if (false) {
+            // parse longs:
+            doTest(ParseLongBytesParserTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseLongParserTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseLongTest.class, testDuration, 1, nTh, 1);
+        }
+
+        if (false) {
+            // parse hexadecimal longs:
+            doTest(ParseHexLongBytesParserTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseHexLongTest.class, testDuration, 1, nTh, 1);
+        }
+
         if (false) {
             // parse doubles
             doTest(ParseDblParserTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseDblParserOLDTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseDblShortParserTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseDblShortTest.class, testDuration, 1, nTh, 1);
+        }
+
+        if (false) {
+            // parse floats
+            doTest(ParseFltParserTest.class, testDuration, 1, nTh, 1);
+            doTest(ParseFltTest.class, testDuration, 1, nTh, 1);
             doTest(ParseDblTest.class, testDuration, 1, nTh, 1);
         }
 
+        if (false) {
+            // format doubles
+            doTest(FormatDblFormatterTest.class, testDuration, 1, nTh, 1);
+            doTest(FormatDblTest.class, testDuration, 1, nTh, 1);
+        }
+
+        if (false) {
+            // format doubles with 6 fraction digits ("%.6f")
+            doTest(FormatFixedFormatterTest.class, testDuration, 1, nTh, 1);
+            doTest(FormatFixedTest.class, testDuration, 1, nTh, 1);
+        }
+
         if (false) {
             // parse ATS (DMS):
             doTest(ParseATSTest.class, testDuration, nTh, nTh, 1);
             doTest(ParseATSOLDTest.class, testDuration, nTh, nTh, 1);
         }
 
+        if (false) {
+            // parse HMS:
+            doTest(ParseHMSTest.class, testDuration, nTh, nTh, 1);
+            doTest(ParseHMSOLDTest.class, testDuration, nTh, nTh, 1);
+        }
+
+        if (false) {
+            // parse HMS columns (single call) vs one call per value:
+            doTest(ParseHMSColumnTest.class, testDuration, 1, 1, 1);
+            doTest(ParseHMSTest.class, testDuration, 1, 1, 1);
+        }
+
+        if (false) {
+            // format DMS (byte[] writer vs StringBuilder):
+            doTest(FormatDMSTest.class, testDuration, nTh, nTh, 1);
+            doTest(FormatDMSREFTest.class, testDuration, nTh, nTh, 1);
+        }
+
+        if (false) {
+            // format dates
+            doTest(FormatDateTest.class, testDuration, 1, 1, 1);
+            doTest(FormatDateREFTest.class, testDuration, 1, 1, 1);
+        }
+
+        if (false) {
+            // parse ISO-8601 dates
+            doTest(ParseISODateTest.class, testDuration, 1, 1, 1);
+            doTest(ParseISODateREFTest.class, testDuration, 1, 1, 1);
+        }
+
         if (true) {
 			// parse dates
             // single thread:
             doTest(ParseDateTest.class, testDuration, 1, 1, 1);
+            doTest(ParseDateNanosTest.class, testDuration, 1, 1, 1);
+            doTest(ParseDateCacheTest.class, testDuration, 1, 1, 1);
+            doTest(ParseDatePatternTest.class, testDuration, 1, 1, 1);
+            doTest(ParseDateFixedTest.class, testDuration, 1, 1, 1);
+            doTest(ParseDateColumnTest.class, testDuration, 1, 1, 1);
             doTest(ParseDateOLDTest.class, testDuration, 1, 1, 1);
             doTest(ParseDateREFTest.class, testDuration, 1, 1, 1);
         }
+
+        if (false) {
+            // parse dates with one DateParser instance per thread:
+            doTest(ParseDateParserTest.class, testDuration, 1, nTh, 1);
+        }
         System.out.println("<< JVM END");
 
         System.exit(0);
@@ -422,7 +697,7 @@ public class NumberParserBenchmark extends TestRunner {
             while (loop.nextIteration()) {
                 res = 0.0;
                 for (int i = 0; i < values.length; i++) {
-                    res += DMSConverter.parseDMS_OLD(values[i]);
+                    res += parseDMS_OLD(values[i]);
                 }
 
                 // use array:
@@ -452,6 +727,120 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
+    public static final class ParseHMSOLDTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_hms;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    res += DMSConverter.parseHMS_REF(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseHMSTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_hms;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    res += DMSConverter.parseHMS(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseHMSColumnTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_hms;
+            final double[] out = new double[values.length];
+            final long[] invalid = new long[(values.length + 63) >> 6];
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = DMSConverter.parseHMSColumn(values, 0, values.length, out, invalid);
+                for (int i = 0; i < out.length; i++) {
+                    res += out[i];
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatDMSREFTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double[] values = new double[values_ats.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = DMSConverter.parseDMS(values_ats[i]);
+            }
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res += DMSConverter.toDMS(values[i]).length();
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatDMSTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double[] values = new double[values_ats.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = DMSConverter.parseDMS(values_ats[i]);
+            }
+            final byte[] buf = new byte[32 * values.length];
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res = DMSConverter.toDMS(buf, res, values[i], 3);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
     public static final class ParseIntTest extends TestRunner.Test {
 
         @Override
@@ -494,19 +883,23 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class ParseIntUnsafeParserTest extends TestRunner.Test {
+    public static final class ParseIntDirtyExceptionTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final String[] values = values_int;
+            final String[] values = values_int_dirty;
 
             int res;
             // work on arrays:
             while (loop.nextIteration()) {
                 res = 0;
                 for (int i = 0; i < values.length; i++) {
-                    res += NumberParser.getIntegerUnsafe(values[i]);
+                    try {
+                        res += NumberParser.getInteger(values[i]);
+                    } catch (NumberFormatException nfe) {
+                        res--;
+                    }
                 }
 
                 // use array:
@@ -515,19 +908,25 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class ParseDblTest extends TestRunner.Test {
+    public static final class ParseIntDirtyResultTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final String[] values = values_dbl;
+            final String[] values = values_int_dirty;
+            final ParseResult result = new ParseResult();
 
-            double res;
+            int res;
             // work on arrays:
             while (loop.nextIteration()) {
-                res = 0.0;
+                res = 0;
                 for (int i = 0; i < values.length; i++) {
-                    res += parseDouble(values[i]);
+                    final int value = NumberParser.parseInteger(values[i], result);
+                    if (result.isOk()) {
+                        res += value;
+                    } else {
+                        res--;
+                    }
                 }
 
                 // use array:
@@ -536,19 +935,19 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class ParseDblParserTest extends TestRunner.Test {
+    public static final class ParseIntUnsafeParserTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final String[] values = values_dbl;
+            final String[] values = values_int;
 
-            double res;
+            int res;
             // work on arrays:
             while (loop.nextIteration()) {
-                res = 0.0;
+                res = 0;
                 for (int i = 0; i < values.length; i++) {
-                    res += NumberParser.getDouble(values[i]);
+                    res += NumberParser.getIntegerUnsafe(values[i]);
                 }
 
                 // use array:
@@ -557,19 +956,19 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class ParseDateREFTest extends TestRunner.Test {
+    public static final class ParseLongTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final String[] values = values_date;
+            final String[] values = values_long;
 
             long res;
             // work on arrays:
             while (loop.nextIteration()) {
                 res = 0l;
                 for (int i = 0; i < values.length; i++) {
-                    res += parseDate_REF(values[i]);
+                    res += Long.parseLong(values[i]);
                 }
 
                 // use array:
@@ -578,19 +977,19 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class ParseDateTest extends TestRunner.Test {
+    public static final class ParseLongParserTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final String[] values = values_date;
+            final String[] values = values_long;
 
             long res;
             // work on arrays:
             while (loop.nextIteration()) {
                 res = 0l;
                 for (int i = 0; i < values.length; i++) {
-                    res += DateParser.parseFastDate(values[i]);
+                    res += NumberParser.getLong(values[i]);
                 }
 
                 // use array:
@@ -599,19 +998,19 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class ParseDateOLDTest extends TestRunner.Test {
+    public static final class ParseHexLongTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final String[] values = values_date;
+            final String[] values = values_hex;
 
             long res;
             // work on arrays:
             while (loop.nextIteration()) {
                 res = 0l;
                 for (int i = 0; i < values.length; i++) {
-                    res += DateParser.parseFastDate(values[i]);
+                    res += Long.parseLong(values[i].substring(2), 16);
                 }
 
                 // use array:
@@ -620,22 +1019,19 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class MicroTest1 extends TestRunner.Test {
+    public static final class ParseHexLongBytesParserTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final double value = 123.567E7;
+            final byte[][] values = values_hex_bytes;
 
-            double res;
+            long res;
             // work on arrays:
             while (loop.nextIteration()) {
-                res = 0.0;
-                for (int i = 0; i < 4096; i++) {
-
-                    boolean sign = (i % 17) == 0;
-
-                    res += (sign) ? value : -value;
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += NumberParser.getLong(values[i], 2, values[i].length, 16);
                 }
 
                 // use array:
@@ -644,22 +1040,19 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static final class MicroTest2 extends TestRunner.Test {
+    public static final class ParseLongBytesParserTest extends TestRunner.Test {
 
         @Override
         protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
 
-            final double value = 123.567E7;
+            final byte[][] values = values_long_bytes;
 
-            double res;
+            long res;
             // work on arrays:
             while (loop.nextIteration()) {
-                res = 0.0;
-                for (int i = 0; i < 4096; i++) {
-
-                    double sign = ((i % 17) == 0) ? 1.0 : -1.0;
-
-                    res += value * sign;
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += NumberParser.getLong(values[i]);
                 }
 
                 // use array:
@@ -668,7 +1061,567 @@ public class NumberParserBenchmark extends TestRunner {
         }
     }
 
-    public static int parseInt(final String value) {
+    public static final class ParseDblTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_dbl;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    res += parseDouble(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDblParserTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_dbl;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    res += NumberParser.getDouble(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDblParserOLDTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_dbl;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    res += getDouble_OLD(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseFltTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_flt;
+
+            float res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0f;
+                for (int i = 0; i < values.length; i++) {
+                    res += Float.parseFloat(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseFltParserTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_flt;
+
+            float res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0f;
+                for (int i = 0; i < values.length; i++) {
+                    res += NumberParser.getFloat(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatDblTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double[] values = values_dbl_num;
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res += Double.toString(values[i]).length();
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatDblFormatterTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double[] values = values_dbl_num;
+            final byte[] buf = new byte[32];
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res += NumberFormatter.appendDouble(buf, 0, values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatFixedTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double[] values = values_dbl_short_num;
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res += String.format("%.6f", values[i]).length();
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatFixedFormatterTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double[] values = values_dbl_short_num;
+            final byte[] buf = new byte[32];
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res += NumberFormatter.appendFixed(buf, 0, values[i], 6, RoundingMode.HALF_UP);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDblShortTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_dbl_short;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    res += parseDouble(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDblShortParserTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_dbl_short;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < values.length; i++) {
+                    res += NumberParser.getDouble(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateREFTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date;
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += parseDate_REF(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date;
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += DateParser.parseFastDate(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateNanosTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date;
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += DateParser.parseFastDateNanos(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDatePatternTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date_fixed;
+            final DatePattern pattern = DatePattern.compile("yyyy-MM-dd:HH:mm:ss.SSS");
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += pattern.parse(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateCacheTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date;
+            final DateCache cache = new DateCache();
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += DateParser.parseFastDate(values[i], cache);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateFixedTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date_fixed;
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += DateParser.parseFastDate(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateColumnTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date_fixed;
+            final long[] out = new long[values.length];
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = DateParser.parseColumn(values, 0, values.length, out);
+                for (int i = 0; i < out.length; i++) {
+                    res += out[i];
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateParserTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date;
+            final DateParser parser = new DateParser();
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += parser.parse(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseDateOLDTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date;
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += parseFastDate_OLD(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseISODateREFTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date_iso;
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += parseISODate_REF(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class ParseISODateTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final String[] values = values_date_iso;
+
+            long res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0l;
+                for (int i = 0; i < values.length; i++) {
+                    res += DateParser.parseISODate(values[i]);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatDateREFTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final long[] values = values_date_ms;
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res += df.format(new Date(values[i])).length();
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class FormatDateTest extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final long[] values = values_date_ms;
+            final DateFormatter formatter = new DateFormatter();
+            final byte[] buf = new byte[DateFormatter.LENGTH];
+
+            int res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0;
+                for (int i = 0; i < values.length; i++) {
+                    res += formatter.append(values[i], buf, 0);
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class MicroTest1 extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double value = 123.567E7;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < 4096; i++) {
+
+                    boolean sign = (i % 17) == 0;
+
+                    res += (sign) ? value : -value;
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static final class MicroTest2 extends TestRunner.Test {
+
+        @Override
+        protected void doLoop(TestRunner.Loop loop, TestRunner.DevNull devNull1, TestRunner.DevNull devNull2, TestRunner.DevNull devNull3, TestRunner.DevNull devNull4, TestRunner.DevNull devNull5) {
+
+            final double value = 123.567E7;
+
+            double res;
+            // work on arrays:
+            while (loop.nextIteration()) {
+                res = 0.0;
+                for (int i = 0; i < 4096; i++) {
+
+                    double sign = ((i % 17) == 0) ? 1.0 : -1.0;
+
+                    res += value * sign;
+                }
+
+                // use array:
+                devNull1.yield(res);
+            }
+        }
+    }
+
+    public static int parseInt(final String value) {
         return Integer.parseInt(value);
     }
 
@@ -688,4 +1641,344 @@ public class NumberParserBenchmark extends TestRunner {
 
         return NumberUtils.NULL_LONG;
     }
+
+    /** ISO-8601 date formatter */
+    private final static DateFormat dfISO = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+    public static long parseISODate_REF(final CharSequence date) {
+        try {
+            return dfISO.parse(date.toString()).getTime();
+        } catch (ParseException pe) {
+            // ignore
+        }
+
+        return NumberUtils.NULL_LONG;
+    }
+
+    /** Per-thread GregorianCalendar instance (previous DateParser.parseFastDate implementation) */
+    private static final ThreadLocal<GregorianCalendar> calStateThreadLocal = new ThreadLocal<GregorianCalendar>() {
+        @Override
+        protected GregorianCalendar initialValue() {
+            return new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+        }
+    };
+
+    /*
+     Previous DateParser.parseFastDate implementation (GregorianCalendar)
+     */
+    public static long parseFastDate_OLD(final CharSequence date) throws NumberFormatException {
+        // Fast DATE format "yyyy/mm/dd-hh:mm:ss.SSS"
+        // efficient formatter for “yyyyXmmXddXhhXmmXss.sss” where X is any separator character (except a digit).
+
+        final int length = date.length();
+
+        if (length < 19) {
+            throw new NumberFormatException("Invalid date format [yyyy/mm/dd-hh:mm:ss.SSS]: " + date);
+        }
+
+        // yyyyX
+        final int year = NumberParser.getInteger(date, 0, 4);
+
+        // XmmX
+        final int month = NumberParser.getInteger(date, 5, 7);
+
+        // XddX
+        final int day = NumberParser.getInteger(date, 8, 10);
+
+        // XhhX
+        final int hour = NumberParser.getInteger(date, 11, 13);
+
+        // XmmX
+        final int min = NumberParser.getInteger(date, 14, 16);
+
+        // Xss.
+        final int sec = NumberParser.getInteger(date, 17, 19);
+
+        // optional milliseconds:
+        final int millis;
+        if (length > 20) {
+            millis = NumberParser.getInteger(date, 20, length);
+        } else {
+            millis = 0;
+        }
+
+        // Check valid date ?
+        final GregorianCalendar cal = calStateThreadLocal.get();
+        cal.set(year, month - 1, day, hour, min, sec);
+        cal.set(Calendar.MILLISECOND, millis);
+
+        return cal.getTimeInMillis();
+    }
+
+    /** Logger (previous DMSConverter.parseDMS implementation) */
+    private static final Logger _logger = LoggerFactory.getLogger(DMSConverter.class.getName());
+
+    /**
+     * Convert the given DMS value.
+     *
+     * @param dms the value as a DD:MM:SS.TT string.
+     *
+     * @return the angle as a double in degrees or NaN if invalid value
+     */
+    public static double parseDMS_OLD(final CharSequence dms) {
+        return parseDMS_OLD(dms, ':');
+    }
+
+    /**
+     * Convert the given DMS value (previous DMSConverter.parseDMS implementation)
+     *
+     * @param dms the value as a DD<sep>MM<sep>SS.TT string.
+     * @param sep separator character
+     *
+     * @return the angle as a double in degrees or NaN if invalid value
+     */
+    public static double parseDMS_OLD(final CharSequence dms, final char sep) {
+
+        double dd, dm, ds;
+
+        // Parse the given string:
+        try {
+            final int length = dms.length();
+            int pos1 = NumberParser.indexOf(dms, sep, 0, length);
+
+            if (pos1 == -1) {
+                // no separator: 1st value as double ?
+                dd = NumberParser.getDouble(dms);
+                dm = ds = 0d;
+            } else {
+                dd = NumberParser.getDouble(dms, 0, pos1);
+                pos1++;
+
+                int pos2 = NumberParser.indexOf(dms, sep, pos1, length);
+
+                if (pos2 == -1) {
+                    // no separator: 2th value as double ?
+                    dm = NumberParser.getDouble(dms, pos1, length);
+                    ds = 0d;
+                } else {
+                    dm = NumberParser.getDouble(dms, pos1, pos2);
+                    pos2++;
+
+                    // 3rd value as double ?
+                    ds = NumberParser.getDouble(dms, pos2, length);
+                }
+            }
+
+        } catch (NumberFormatException nfe) {
+            _logger.debug("format exception: ", nfe);
+            dd = dm = ds = Double.NaN;
+        }
+
+        // Get sign of dd which has to be propagated to dm and ds
+        final double sign = (dms.charAt(0) == '-') ? -1d : 1d;
+
+        // Convert to degrees
+        // note : dd already includes the sign :
+        final double angle = dd + sign * (dm * DMSConverter.ARCMIN_IN_DEGREES + ds * DMSConverter.ARCSEC_IN_DEGREES);
+
+        if (_logger.isDebugEnabled()) {
+            _logger.debug("DMS : ’" + dms + "' = '" + angle + "'.");
+        }
+
+        return angle;
+    }
+
+    /* previous NumberParser.getDouble implementation (reference) */
+    private final static boolean USE_POW_TABLE = true;
+
+    // Precompute Math.pow(10, n) as table:
+    private final static int POW_RANGE = (USE_POW_TABLE) ? 256 : 0;
+    private final static double[] POS_EXPS = new double[POW_RANGE];
+    private final static double[] NEG_EXPS = new double[POW_RANGE];
+
+    static {
+        for (int i = 0; i < POW_RANGE; i++) {
+            POS_EXPS[i] = Math.pow(10., i);
+            NEG_EXPS[i] = Math.pow(10., -i);
+        }
+    }
+
+    // Calculate the value of the specified exponent - reuse a precalculated value if possible
+    private final static double getPow10(final int exp) {
+        if (USE_POW_TABLE) {
+            if (exp > -POW_RANGE) {
+                if (exp <= 0) {
+                    return NEG_EXPS[-exp];
+                } else if (exp < POW_RANGE) {
+                    return POS_EXPS[exp];
+                }
+            }
+        }
+        return Math.pow(10., exp);
+    }
+
+    /*
+     Parse double values with ~ 2 ulp accuracy (previous NumberParser.getDouble implementation)
+     */
+    public static double getDouble_OLD(final CharSequence csq) throws NumberFormatException {
+        return getDouble_OLD(csq, 0, csq.length());
+    }
+
+    /*
+     Parse double values with ~ 2 ulp accuracy (previous implementation)
+     */
+    public static double getDouble_OLD(final CharSequence csq,
+                                       final int offset, final int end) throws NumberFormatException {
+
+        int off = offset;
+        int len = end - offset;
+
+        if (len == 0) {
+            return Double.NaN;
+        }
+
+        char ch;
+        boolean numSign = true;
+
+        ch = csq.charAt(off);
+        if (ch == '+') {
+            off++;
+            len--;
+        } else if (ch == '-') {
+            numSign = false;
+            off++;
+            len--;
+        }
+
+        double number;
+
+        // Look for the special csqings NaN, Inf,
+        if (len >= 3
+                && ((ch = csq.charAt(off)) == 'n' || ch == 'N')
+                && ((ch = csq.charAt(off + 1)) == 'a' || ch == 'A')
+                && ((ch = csq.charAt(off + 2)) == 'n' || ch == 'N')) {
+
+            number = Double.NaN;
+
+            // Look for the longer csqing first then try the shorter.
+        } else if (len >= 8
+                && ((ch = csq.charAt(off)) == 'i' || ch == 'I')
+                && ((ch = csq.charAt(off + 1)) == 'n' || ch == 'N')
+                && ((ch = csq.charAt(off + 2)) == 'f' || ch == 'F')
+                && ((ch = csq.charAt(off + 3)) == 'i' || ch == 'I')
+                && ((ch = csq.charAt(off + 4)) == 'n' || ch == 'N')
+                && ((ch = csq.charAt(off + 5)) == 'i' || ch == 'I')
+                && ((ch = csq.charAt(off + 6)) == 't' || ch == 'T')
+                && ((ch = csq.charAt(off + 7)) == 'y' || ch == 'Y')) {
+
+            number = Double.POSITIVE_INFINITY;
+
+        } else if (len >= 3
+                && ((ch = csq.charAt(off)) == 'i' || ch == 'I')
+                && ((ch = csq.charAt(off + 1)) == 'n' || ch == 'N')
+                && ((ch = csq.charAt(off + 2)) == 'f' || ch == 'F')) {
+
+            number = Double.POSITIVE_INFINITY;
+
+        } else {
+
+            boolean error = true;
+
+            int startOffset = off;
+            double dval;
+
+            // TODO: check too many digits (overflow) 
+            for (dval = 0d; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
+                dval *= 10d;
+                dval += ch - '0';
+                off++;
+                len--;
+            }
+            int numberLength = off - startOffset;
+
+            number = dval;
+
+            if (numberLength > 0) {
+                error = false;
+            }
+
+            // Check for fractional values after decimal
+            if ((len > 0) && (csq.charAt(off) == '.')) {
+
+                off++;
+                len--;
+
+                startOffset = off;
+
+                // TODO: check too many digits (overflow) 
+                for (dval = 0d; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
+                    dval *= 10d;
+                    dval += ch - '0';
+                    off++;
+                    len--;
+                }
+                numberLength = off - startOffset;
+
+                if (numberLength > 0) {
+                    // TODO: try factorizing pow10 with exponent below: only 1 long + operation
+                    number += getPow10(-numberLength) * dval;
+                    error = false;
+                }
+            }
+
+            if (error) {
+                throw new NumberFormatException("Invalid Double : " + csq);
+            }
+
+            // Look for an exponent
+            if (len > 0) {
+                // note: ignore any non-digit character at end:
+
+                if ((ch = csq.charAt(off)) == 'e' || ch == 'E') {
+
+                    off++;
+                    len--;
+
+                    if (len > 0) {
+                        boolean expSign = true;
+
+                        ch = csq.charAt(off);
+                        if (ch == '+') {
+                            off++;
+                            len--;
+                        } else if (ch == '-') {
+                            expSign = false;
+                            off++;
+                            len--;
+                        }
+
+                        int exponent = 0;
+
+                        // note: ignore any non-digit character at end:
+                        for (exponent = 0; (len > 0) && ((ch = csq.charAt(off)) >= '0') && (ch <= '9');) {
+                            exponent *= 10;
+                            exponent += ch - '0';
+                            off++;
+                            len--;
+                        }
+
+                        // TODO: check exponent < 1024 (overflow)
+                        if (!expSign) {
+                            exponent = -exponent;
+                        }
+
+                        // For very small numbers we try to miminize
+                        // effects of denormalization.
+                        if (exponent > -300) {
+                            // TODO: cache Math.pow ?? see web page
+                            number *= getPow10(exponent);
+                        } else {
+                            number = 1.0E-300 * (number * getPow10(exponent + 300));
+                        }
+                    }
+                }
+            }
+            // check other characters:
+            if (len > 0) {
+                throw new NumberFormatException("Invalid Double : " + csq);
+            }
+        }
+
+        return (numSign) ? number : -number;
+    }
 }
@@ -0,0 +1,606 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+/**
+ * NumberParser tests (compared to JDK parsers)
+ * @author Laurent Bourges
+ */
+public class NumberParserTest extends TestCase {
+
+    private final static String[] HARD_DOUBLES = new String[]{
+        "0", "-0", "1", "-12.345", "-0.0625", "0.1", "1e23", "1e-400", "1e400",
+        "9007199254740993", "7.2057594037927933e16",
+        "8.98846567431158e307", "1.7976931348623157E308", "1.7976931348623158E308", "1.8e308",
+        "4.9E-324", "2.4703282292062327E-324", "2.4703282292062328E-324",
+        "2.2250738585072012e-308", "2.2250738585072011e-308", "1.1794462202530568E-20",
+        "123456789012345678901234567890", "0.000000000000000000000000000001234567890123456789012",
+        "1.00000000000000011102230246251565404236316680908203124",
+        "1.00000000000000011102230246251565404236316680908203125",
+        "1.00000000000000011102230246251565404236316680908203126",
+        ".5", "5.", "100000000000000000000000000000000000000000e-40"
+    };
+
+    public void testDoubleHardCases() {
+        for (String value : HARD_DOUBLES) {
+            assertDouble(value);
+        }
+    }
+
+    public void testDoubleRandom() {
+        final Random random = new Random(1234567890l);
+
+        for (int i = 0; i < 20000; i++) {
+            final double value = Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+            assertDouble(Double.toString(value));
+            assertDouble(Double.toString(-value * 1e-300));
+            // halfway between two doubles:
+            assertDouble(new BigDecimal(value).add(new BigDecimal(Math.ulp(value)).divide(BigDecimal.valueOf(2l))).toString());
+        }
+    }
+
+    public void testDoubleShortDecimals() {
+        final Random random = new Random(987654321l);
+
+        for (int i = 0; i < 100000; i++) {
+            final long mantissa = random.nextLong() % 1000000000000000l;
+            final int scale = random.nextInt(23);
+            assertDouble(new BigDecimal(BigInteger.valueOf(mantissa), scale).toPlainString());
+            assertDouble(mantissa + "e" + (random.nextInt(45) - 22));
+        }
+    }
+
+    public void testFloatRandom() {
+        final Random random = new Random(192837465l);
+
+        for (int i = 0; i < 20000; i++) {
+            final float value = Float.intBitsToFloat(random.nextInt() & 0x7F7FFFFF);
+            assertFloat(Float.toString(value));
+            assertFloat(Double.toString(-random.nextDouble() * Math.pow(10.0, random.nextInt(80) - 40)));
+            // halfway between two floats:
+            assertFloat(new BigDecimal(value).add(new BigDecimal(Math.ulp(value)).divide(BigDecimal.valueOf(2l))).toString());
+        }
+        for (String value : new String[]{"0", "-0", "3.4028235e38", "3.4028236e38", "1.4e-45", "7.1e-46", "16777217", "-12.345"}) {
+            assertFloat(value);
+        }
+        assertEquals(-1.5f, NumberUtils.parseFloat("-1.5"));
+        assertEquals(0f, NumberUtils.parseFloat("0"));
+    }
+
+    public void testByteInputs() throws Exception {
+        final Random random = new Random(555l);
+
+        for (int i = 0; i < 10000; i++) {
+            final String intValue = Integer.toString(random.nextInt() >> random.nextInt(32));
+            final String longValue = Long.toString(random.nextLong() >> random.nextInt(64));
+            final String dblValue = Double.toString(random.nextDouble() * Math.pow(10.0, random.nextInt(60) - 30));
+
+            assertEquals(NumberParser.getInteger(intValue), NumberParser.getInteger(toBytes(intValue)));
+            assertEquals(NumberParser.getIntegerUnsafe(intValue), NumberParser.getIntegerUnsafe(toBytes(intValue)));
+            assertEquals(NumberParser.getLong(longValue), NumberParser.getLong(toBytes(longValue)));
+            assertEquals(NumberParser.getDouble(dblValue), NumberParser.getDouble(toBytes(dblValue)));
+            assertEquals(NumberParser.getFloat(dblValue), NumberParser.getFloat(toBytes(dblValue)));
+
+            // heap & direct buffers with offsets:
+            final byte[] padded = toBytes("##" + dblValue + "##");
+            final int end = padded.length - 2;
+            final ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+            direct.put(padded).clear();
+
+            assertEquals(NumberParser.getDouble(dblValue), NumberParser.getDouble(ByteBuffer.wrap(padded), 2, end));
+            assertEquals(NumberParser.getDouble(dblValue), NumberParser.getDouble(direct, 2, end));
+            assertEquals(NumberParser.indexOf(dblValue, '.', 0, dblValue.length()) + 2, NumberParser.indexOf(direct, '.', 2, end));
+        }
+        try {
+            NumberParser.getInteger(toBytes("1x2"));
+            fail("NumberFormatException expected");
+        } catch (NumberFormatException nfe) {
+            // expected
+        }
+    }
+
+    public void testLongDigitsSWAR() throws Exception {
+        final Random random = new Random(8l);
+
+        for (int i = 0; i < 20000; i++) {
+            final StringBuilder sb = new StringBuilder(20);
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            for (int j = 8 + random.nextInt(11); j > 0; j--) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            final boolean invalid = random.nextInt(4) == 0;
+            if (invalid) {
+                sb.setCharAt(sb.length() - 1 - random.nextInt(8), (char) ('0' + 10 + random.nextInt(200)));
+            }
+            final String value = sb.toString();
+            final byte[] bytes = value.getBytes("ISO-8859-1");
+            final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+
+            try {
+                final long expected = Long.parseLong(value);
+                assertFalse(value, invalid);
+                assertEquals(value, expected, NumberParser.getLong(bytes));
+                assertEquals(value, expected, NumberParser.getLong(direct));
+                if ((int) expected == expected) {
+                    assertEquals(value, (int) expected, NumberParser.getInteger(bytes));
+                }
+            } catch (NumberFormatException nfe) {
+                assertTrue(value, invalid);
+                try {
+                    NumberParser.getLong(bytes);
+                    fail("NumberFormatException expected: " + value);
+                } catch (NumberFormatException nfe2) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    public void testDoubleSpecialValues() {
+        assertTrue(Double.isNaN(NumberParser.getDouble("NaN")));
+        assertEquals(Double.POSITIVE_INFINITY, NumberParser.getDouble("Infinity"));
+        assertEquals(Double.NEGATIVE_INFINITY, NumberParser.getDouble("-inf"));
+    }
+
+    public void testDoubleInvalid() {
+        for (String value : new String[]{"-", ".", "1.2.3", "1e5x", "abc"}) {
+            try {
+                NumberParser.getDouble(value);
+                fail("NumberFormatException expected: " + value);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+    }
+
+    public void testIntegerOverflow() throws Exception {
+        final String[] ints = new String[]{"2147483647", "-2147483648", "2147483648", "-2147483649",
+                                           "9999999999", "-00000000002147483648", "21474836470"};
+        for (String value : ints) {
+            final ParseResult result = new ParseResult();
+            final int parsed = NumberParser.parseInteger(toBytes(value), result);
+            try {
+                final int expected = Integer.parseInt(value);
+                assertEquals(value, expected, NumberParser.getInteger(value));
+                assertEquals(value, expected, parsed);
+                assertTrue(value, result.isOk());
+            } catch (NumberFormatException nfe) {
+                assertEquals(value, NumberUtils.NULL_INT, NumberParser.parseInteger(value, null));
+                assertEquals(value, ParseResult.OVERFLOW, result.getStatus());
+            }
+        }
+        final String[] longs = new String[]{"9223372036854775807", "-9223372036854775808",
+                                            "9223372036854775808", "-9223372036854775809", "99999999999999999999"};
+        for (String value : longs) {
+            final ParseResult result = new ParseResult();
+            final long parsed = NumberParser.parseLong(ByteBuffer.wrap(toBytes(value)), result);
+            try {
+                final long expected = Long.parseLong(value);
+                assertEquals(value, expected, NumberParser.getLong(value));
+                assertEquals(value, expected, parsed);
+            } catch (NumberFormatException nfe) {
+                assertEquals(value, NumberUtils.NULL_LONG, NumberParser.parseLong(value, null));
+                assertEquals(value, ParseResult.OVERFLOW, result.getStatus());
+            }
+        }
+    }
+
+    public void testParseResult() throws Exception {
+        final ParseResult result = new ParseResult();
+
+        assertEquals(NumberUtils.NULL_INT, NumberParser.parseInteger("", result));
+        assertEquals(ParseResult.EMPTY, result.getStatus());
+
+        assertEquals(NumberUtils.NULL_INT, NumberParser.parseInteger("N/A", result));
+        assertEquals(ParseResult.INVALID, result.getStatus());
+        assertEquals(0, result.getErrorIndex());
+
+        assertEquals(42, NumberParser.parseInteger("42", result));
+        assertTrue(result.isOk());
+
+        assertEquals(NumberUtils.NULL_LONG, NumberParser.parseLong(toBytes("123456789x12"), result));
+        assertEquals(ParseResult.INVALID, result.getStatus());
+        assertEquals(9, result.getErrorIndex());
+
+        // heap buffer slice: index relative to the buffer
+        final ByteBuffer buffer = ByteBuffer.wrap(toBytes("### 1.5e3x"), 4, 6).slice();
+        assertTrue(Double.isNaN(NumberParser.parseDouble(buffer, result)));
+        assertEquals(ParseResult.INVALID, result.getStatus());
+        assertEquals(5, result.getErrorIndex());
+
+        assertTrue(Float.isNaN(NumberParser.parseFloat("", result)));
+        assertEquals(ParseResult.EMPTY, result.getStatus());
+
+        assertEquals(1.5e3, NumberParser.parseDouble("1.5e3", result));
+        assertTrue(result.isOk());
+        assertTrue(Double.isNaN(NumberParser.parseDouble("NaN", result)));
+        assertTrue(result.isOk());
+
+        // lenient NumberUtils:
+        assertEquals(NumberUtils.NULL_INT, NumberUtils.parseInt("N/A"));
+        assertEquals(NumberUtils.NULL_LONG, NumberUtils.parseLong(""));
+        assertTrue(Double.isNaN(NumberUtils.parseDouble("-")));
+        assertEquals(-12, NumberUtils.parseShort("-12"));
+    }
+
+    public void testScanRow() throws Exception {
+        final String row = "42,-7,1.5e3,2e,NaN,9223372036854775807;x";
+        final byte[] bytes = toBytes(row);
+        final int end = row.length();
+        final ParseResult cursor = new ParseResult();
+
+        assertEquals(42, NumberParser.scanInteger(row, 0, end, cursor));
+        assertEquals(2, cursor.getIndex());
+        assertEquals(-7, NumberParser.scanInteger(bytes, cursor.getIndex() + 1, end, cursor));
+        assertEquals(5, cursor.getIndex());
+        assertEquals(1.5e3, NumberParser.scanDouble(row, cursor.getIndex() + 1, end, cursor));
+        assertEquals(11, cursor.getIndex());
+        // exponent without digits: stop before 'e'
+        assertEquals(2f, NumberParser.scanFloat(ByteBuffer.wrap(bytes), cursor.getIndex() + 1, end, cursor));
+        assertEquals(13, cursor.getIndex());
+        assertEquals(',', row.charAt(cursor.getIndex() + 1));
+        assertTrue(Double.isNaN(NumberParser.scanDouble(row, cursor.getIndex() + 2, end, cursor)));
+        assertTrue(cursor.isOk());
+        assertEquals(18, cursor.getIndex());
+        assertEquals(Long.MAX_VALUE, NumberParser.scanLong(row, cursor.getIndex() + 1, end, cursor));
+        assertEquals(';', row.charAt(cursor.getIndex()));
+
+        // no digit: index unchanged
+        assertEquals(NumberUtils.NULL_INT, NumberParser.scanInteger(row, cursor.getIndex() + 1, end, cursor));
+        assertEquals(ParseResult.INVALID, cursor.getStatus());
+        assertEquals(38, cursor.getIndex());
+    }
+
+    public void testParseDMS() {
+        assertEquals(-2.449124726, DMSConverter.parseDMS("-02:26:56.84901360"), 1e-12);
+        assertEquals(50.596421714, DMSConverter.parseDMS("+0050:35:47.11817040"), 1e-12);
+        assertEquals(-0.5, DMSConverter.parseDMS("-0:30"), 1e-12);
+        assertEquals(12.5, DMSConverter.parseDMS("12.5"), 1e-12);
+        assertEquals(12.508333333333333, DMSConverter.parseDMS("12:30.5"), 1e-12);
+        assertTrue(Double.isNaN(DMSConverter.parseDMS("")));
+        assertTrue(Double.isNaN(DMSConverter.parseDMS("12:-0:30")));
+        assertTrue(Double.isNaN(DMSConverter.parseDMS("1:2:3:4")));
+
+        // same results with or without cursor:
+        final ParseResult cursor = new ParseResult();
+        for (String value : new String[]{"-02:26:56.84901360", "+0050:35:47.11817040", "-0:30", "12.5", "12:30.5",
+                                         "", "12:-0:30", "1:2:3:4", "1234567890:30", "12:30:", ":30", "+", "NaN"}) {
+            final double expected = DMSConverter.parseDMS(value, ':', cursor);
+            final double actual = DMSConverter.parseDMS(value, ':');
+            if (Double.isNaN(expected)) {
+                assertTrue(value, Double.isNaN(actual));
+            } else {
+                assertEquals(value, expected, actual, 0.0);
+            }
+        }
+    }
+
+    public void testParseHMS() {
+        assertEquals(15.0 * 12.5, DMSConverter.parseHMS("12:30"), 1e-12);
+        assertEquals(-15.0 * 2.5, DMSConverter.parseHMS(" -02 30 00 "), 1e-12);
+
+        final ParseResult cursor = new ParseResult();
+        assertEquals(15.0 * 12.5, DMSConverter.parseHMS("12:30 ", cursor), 1e-12);
+        assertTrue(cursor.isOk());
+        assertEquals(6, cursor.getIndex());
+        assertTrue(Double.isNaN(DMSConverter.parseHMS("12::30", cursor)));
+        assertEquals(ParseResult.INVALID, cursor.getStatus());
+        assertTrue(Double.isNaN(DMSConverter.parseHMS("  ", cursor)));
+        assertEquals(ParseResult.EMPTY, cursor.getStatus());
+        assertTrue(Double.isNaN(DMSConverter.parseHMS("12:3O", cursor)));
+        assertEquals(ParseResult.INVALID, cursor.getStatus());
+
+        final String[] values = new String[]{
+            "00:00:00", "-02:26:56.84901360", "+0050:35:47.11817040", "23:59:59.999", "12 30 15.5",
+            "12:30 15.5", "-0:30", "-00 00 01", "12.5", "12:30.5", "1.5:2.5:3.5", ":12:30:", " 12:30 ",
+            "12:30:", "1:2:3:4", "12:-30", ".5", "12.", "1e1:30", "99999999999:30", "",
+            "12::30", "12  30", "12:3O", "abc", "-", "12:30:x", "12\t30",
+            // white spaces trimmed in fields, dangling exponents, other Double.parseDouble syntax:
+            "12:\t36", "1\t:4", "12 \t 30", "2e", "3e-", "96e", "1:2e:3", "1e+", "12:30d", "0x1p3:30", "Infinity",
+            "-12:30:1.5E-1", "+.5e1"
+        };
+        for (String value : values) {
+            final double expected = DMSConverter.parseHMS_REF(value);
+            final double actual = DMSConverter.parseHMS(value);
+            if (Double.isNaN(expected)) {
+                assertTrue(value, Double.isNaN(actual));
+                assertTrue(value, Double.isNaN(DMSConverter.parseHMS(value, cursor)));
+                assertFalse(value, cursor.isOk());
+            } else {
+                assertEquals(value, expected, actual, 0.0);
+                assertEquals(value, expected, DMSConverter.parseHMS(value, cursor), 0.0);
+                assertTrue(value, cursor.isOk());
+            }
+        }
+    }
+
+    public void testParseSexagesimalColumn() throws Exception {
+        final String[] values = new String[]{
+            "02:26:56.84901360", "-02 26 56.849", null, "12::30", "+0050:35:47.11817040", "", "23:59:59.999",
+            "12:\t36", "96e", "1\t:4"
+        };
+        final int n = 100000;
+        final String[] column = new String[n];
+        final StringBuilder sb = new StringBuilder(n * 20);
+        final int[] offsets = new int[n];
+        final int[] lengths = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            final String value = values[i % values.length];
+            column[i] = value;
+            offsets[i] = sb.length();
+            if (value != null) {
+                sb.append(value);
+                lengths[i] = value.length();
+            }
+            sb.append(',');
+        }
+        final byte[] bytes = sb.toString().getBytes("US-ASCII");
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int k = 0; k < 4; k++) {
+                final double[] out = new double[n];
+                final long[] invalid = new long[(n + 63) >> 6];
+                Arrays.fill(invalid, -1L);
+                final boolean hours = (k & 1) == 0;
+                final int count;
+                if (k < 2) {
+                    count = hours ? DMSConverter.parseHMSColumn(column, 0, n, out, invalid, pool)
+                            : DMSConverter.parseDMSColumn(column, 0, n, out, invalid, pool);
+                } else {
+                    count = hours ? DMSConverter.parseHMSColumn(bytes, offsets, lengths, 0, n, out, invalid, pool)
+                            : DMSConverter.parseDMSColumn(bytes, offsets, lengths, 0, n, out, invalid, pool);
+                }
+                int expectedCount = 0;
+                for (int i = 0; i < n; i++) {
+                    final String value = column[i];
+                    final double expected = (value == null) ? Double.NaN
+                            : (hours ? DMSConverter.parseHMS_REF(value) : DMSConverter.parseDMS_REF(value));
+                    final boolean bad = (invalid[i >> 6] & (1L << i)) != 0L;
+                    if (Double.isNaN(expected)) {
+                        expectedCount++;
+                        assertTrue(value, bad);
+                        assertTrue(value, Double.isNaN(out[i]));
+                    } else {
+                        assertFalse(value, bad);
+                        assertEquals(value, expected, out[i], 0.0);
+                    }
+                }
+                assertEquals(expectedCount, count);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // sub-range, no bitmap:
+        final double[] out = new double[n];
+        assertEquals(2, DMSConverter.parseDMSColumn(column, 1, 4, out, null));
+        assertEquals(0.0, out[0], 0.0);
+        assertEquals(DMSConverter.parseDMS_REF(values[1]), out[1], 0.0);
+        assertEquals(0, DMSConverter.parseHMSColumn(column, 5, 5, out, null));
+    }
+
+    public void testUnsigned() throws Exception {
+        final String[] values = new String[]{"0", "4294967295", "4294967296", "18446744073709551615",
+                                             "18446744073709551616", "18446744073709551619", "99999999999999999999",
+                                             "0000000000000000000018446744073709551615", "9223372036854775808",
+                                             "123456789012", "-1", "12x"};
+        final BigInteger maxLong = BigInteger.ONE.shiftLeft(64);
+        final ParseResult result = new ParseResult();
+
+        for (String value : values) {
+            final boolean digits = value.matches("[0-9]+");
+            final BigInteger big = (digits) ? new BigInteger(value) : null;
+            final byte[] bytes = toBytes(value);
+
+            final long lval = NumberParser.parseUnsignedLong(bytes, 0, bytes.length, result);
+            if ((big != null) && (big.compareTo(maxLong) < 0)) {
+                assertEquals(value, big.longValue(), lval);
+                assertEquals(value, big.longValue(), NumberParser.getUnsignedLong(value));
+                assertEquals(value, big.longValue(), NumberParser.getUnsignedLong(ByteBuffer.wrap(bytes)));
+            } else {
+                assertEquals(value, NumberUtils.NULL_LONG, lval);
+                assertEquals(value, (digits) ? ParseResult.OVERFLOW : ParseResult.INVALID, result.getStatus());
+            }
+
+            final int ival = NumberParser.parseUnsignedInteger(value, 0, value.length(), result);
+            if ((big != null) && (big.bitLength() <= 32)) {
+                assertEquals(value, big.intValue(), ival);
+                assertEquals(value, big.intValue(), NumberParser.getUnsignedInteger(bytes));
+            } else {
+                assertEquals(value, NumberUtils.NULL_INT, ival);
+                assertEquals(value, (digits) ? ParseResult.OVERFLOW : ParseResult.INVALID, result.getStatus());
+            }
+        }
+    }
+
+    public void testRadix() throws Exception {
+        final Random random = new Random(8L);
+        final ParseResult result = new ParseResult();
+
+        for (int i = 0; i < 20000; i++) {
+            final int radix = (i % 2 == 0) ? 16 : (Character.MIN_RADIX + random.nextInt(35));
+            final long value = random.nextLong() >> random.nextInt(64);
+            final String str = Long.toString(value, radix);
+            final byte[] bytes = toBytes(str);
+
+            assertEquals(str, value, NumberParser.getLong(str, 0, str.length(), radix));
+            assertEquals(str, value, NumberParser.getLong(bytes, 0, bytes.length, radix));
+            assertEquals(str, value, NumberParser.parseLong(ByteBuffer.wrap(bytes), 0, bytes.length, radix, result));
+
+            if ((int) value == value) {
+                assertEquals(str, (int) value, NumberParser.getInteger(bytes, 0, bytes.length, radix));
+            } else {
+                assertEquals(str, NumberUtils.NULL_INT, NumberParser.parseInteger(str, 0, str.length(), radix, result));
+                assertEquals(str, ParseResult.OVERFLOW, result.getStatus());
+            }
+        }
+        assertEquals(NumberUtils.NULL_LONG, NumberParser.parseLong("7fffffffffffffffF", 0, 17, 16, result));
+        assertEquals(ParseResult.OVERFLOW, result.getStatus());
+        assertEquals(NumberUtils.NULL_LONG, NumberParser.parseLong(toBytes("12345g78"), 0, 8, 16, result));
+        assertEquals(ParseResult.INVALID, result.getStatus());
+        assertEquals(5, result.getErrorIndex());
+
+        assertEquals(0x1F3A, NumberParser.decodeInteger("0x1F3A", 0, 6));
+        assertEquals(-255, NumberParser.decodeInteger(toBytes("-#ff"), 0, 4));
+        assertEquals(10L, NumberParser.decodeLong("0b1010", 0, 6));
+        assertEquals(511L, NumberParser.decodeLong("+0777", 0, 5));
+        assertEquals(Long.MIN_VALUE, NumberParser.decodeLong("-0x8000000000000000", 0, 19));
+        try {
+            NumberParser.decodeInteger("08", 0, 2);
+            fail("NumberFormatException expected");
+        } catch (NumberFormatException nfe) {
+            // expected
+        }
+    }
+
+    public void testHexFloat() throws Exception {
+        final String[] values = new String[]{"0x1.8p3", "-0X1P-1074", "0x1.fffffffffffffp1023", "0x1.fffffffffffff8p1023",
+                                             "0x0.0000000000001p-1022", "0x1.00000000000008p0", "0x1.00000000000008000001p0",
+                                             "0xABCDEF.123456789ABCDEFp-10", "0x1p-1075", "0x1.000001p-1075", "0x.8p1", "0x3p+2"};
+        for (String value : values) {
+            assertDouble(value);
+            assertFloat(value);
+            assertEquals(value, Double.parseDouble(value), NumberParser.getDouble(toBytes(value)));
+        }
+        for (String value : new String[]{"0x1.8", "0xp1", "0x1p", "0x1.8p3x"}) {
+            try {
+                NumberParser.getDouble(value);
+                fail("NumberFormatException expected: " + value);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+        final ParseResult cursor = new ParseResult();
+        assertEquals(12.0, NumberParser.scanDouble("0x1.8p3;", 0, 8, cursor));
+        assertEquals(7, cursor.getIndex());
+        // not an hexadecimal value: only the leading zero
+        assertEquals(0.0, NumberParser.scanDouble("0xZ", 0, 3, cursor));
+        assertEquals(1, cursor.getIndex());
+    }
+
+    public void testFixedPoint() throws Exception {
+        final String[] values = new String[]{"123.4500", "-0.00", "+.5", "1.", "1e3", "-12.5E-2", "9223372036854775807",
+                                             "-9223372036854775808", "-922337203685477580.8", "9223372036854775808",
+                                             "1.00000000000000000000", "1e2147483649", "", "-", ".", "1e", "1.2.3",
+                                             "NaN",
+                                             // long tails (dropped digits):
+                                             "1.00000000000000000000001", "-1.00500000000000000000001",
+                                             "1.004999999999999999999999", "1.00500000000000000000000",
+                                             "99999999999999999999.5", "-9223372036854775807.5",
+                                             "9223372036854775807.5",
+                                             "9223372036854775808e-1", "1234567890123456789012345e-3",
+                                             "120000000000000000000000000001e-10"};
+        final RoundingMode[] modes = RoundingMode.values();
+        final ParseResult result = new ParseResult();
+
+        for (String value : values) {
+            BigDecimal big;
+            try {
+                big = new BigDecimal(value);
+            } catch (NumberFormatException nfe) {
+                big = null;
+            }
+            final byte[] bytes = toBytes(value);
+
+            final long unscaled = NumberParser.parseUnscaledLong(bytes, 0, bytes.length, result);
+            if ((big != null) && (big.unscaledValue().bitLength() < 64)) {
+                assertEquals(value, big.unscaledValue().longValue(), unscaled);
+                assertEquals(value, big.scale(), result.getScale());
+            } else {
+                assertEquals(value, NumberUtils.NULL_LONG, unscaled);
+                assertFalse(value, result.isOk());
+            }
+
+            for (int scale = -20; scale <= 20; scale++) {
+                for (RoundingMode mode : modes) {
+                    final long lval = NumberParser.parseScaledLong(value, 0, value.length(), scale, mode, result);
+                    Long expected = null;
+                    if (big != null) {
+                        try {
+                            expected = big.setScale(scale, mode).unscaledValue().longValueExact();
+                        } catch (ArithmeticException ae) {
+                            expected = null;
+                        }
+                    }
+                    if (expected != null) {
+                        assertEquals(value + " " + scale + " " + mode, expected.longValue(), lval);
+                        assertEquals(value + " " + scale + " " + mode,
+                                     expected.longValue(), NumberParser.getScaledLong(ByteBuffer.wrap(bytes), 0, bytes.length, scale, mode));
+                        assertEquals(value + " " + scale + " " + mode, expected.longValue(),
+                                     NumberParser.getScaledLong(bytes, 0, bytes.length, scale, mode));
+                    } else {
+                        assertEquals(value + " " + scale + " " + mode, NumberUtils.NULL_LONG, lval);
+                        assertFalse(value, result.isOk());
+                    }
+                }
+            }
+        }
+        // digits beyond the target scale only round the result:
+        assertEquals(100L, NumberParser.getScaledLong("1.00000000000000000000001", 0, 25, 2, RoundingMode.HALF_UP));
+        assertEquals(101L, NumberParser.getScaledLong("1.00500000000000000000001", 0, 25, 2, RoundingMode.HALF_EVEN));
+        assertEquals(101L, NumberParser.getScaledLong(toBytes("1.00000000000000000000001"), 0, 25, 2, RoundingMode.UP));
+        assertEquals(NumberUtils.NULL_LONG, NumberParser.parseScaledLong("1.00000000000000000000001", 0, 25, 2,
+                                                                          RoundingMode.UNNECESSARY, result));
+        assertEquals(ParseResult.INEXACT, result.getStatus());
+        assertEquals(12345L, NumberParser.getScaledLong("123.45", 0, 6, 2, RoundingMode.UNNECESSARY));
+        assertEquals(NumberUtils.NULL_LONG, NumberParser.parseScaledLong("123.455", 0, 7, 2, RoundingMode.UNNECESSARY, result));
+        assertEquals(ParseResult.INEXACT, result.getStatus());
+        try {
+            NumberParser.getScaledLong("123.455", 0, 7, 2, RoundingMode.UNNECESSARY);
+            fail("NumberFormatException expected");
+        } catch (NumberFormatException nfe) {
+            // expected
+        }
+    }
+
+    private static byte[] toBytes(final String value) throws UnsupportedEncodingException {
+        return value.getBytes("US-ASCII");
+    }
+
+    private static void assertFloat(final String value) {
+        final float expected = Float.parseFloat(value);
+        assertEquals(value, Float.floatToIntBits(expected), Float.floatToIntBits(NumberParser.getFloat(value)));
+    }
+
+    private static void assertDouble(final String value) {
+        final double expected = Double.parseDouble(value);
+        assertEquals(value, Double.doubleToLongBits(expected), Double.doubleToLongBits(NumberParser.getDouble(value)));
+    }
+}
@@ -0,0 +1,157 @@
+/* 
+ Copyright (c) 2015, Laurent Bourges. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.jnumbers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class NumberPatternTest extends TestCase {
+
+    private final static String[] PATTERNS = new String[]{"#,##0.00;(#,##0.00)", "#.##", "#0.#%", "0.00",
+                                                          "'#'0 'units'", "#,##0.###", "00.0", "#,##,###.0##",
+                                                          "0.", ".00", "#,##0", "0.###E0", "0.00E00", "0E0"};
+
+    public void testFormat() {
+        final Random random = new Random(3L);
+        final DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.ENGLISH);
+        final StringBuilder sb = new StringBuilder(64);
+        final char[] chars = new char[64];
+        final byte[] bytes = new byte[64];
+
+        final double[] values = new double[]{0.0, -0.0, 1.0, -1.0, 0.5, 0.125, -0.001, 0.99999, 9.995, 1234567.891,
+                                             1e-7, 2.5, 3.5, -2.5, 123456789012.0};
+
+        for (String p : PATTERNS) {
+            final DecimalFormat df = new DecimalFormat(p, symbols);
+            final NumberPattern np = NumberPattern.compile(p);
+
+            for (int i = 0; i < 20000; i++) {
+                // decimal values (same shortest digits as the JDK):
+                final double value = (i < values.length) ? values[i]
+                        : (random.nextInt(2000001) - 1000000) / Math.pow(10.0, random.nextInt(9));
+                if ((p.indexOf('E') != -1) && isScientificTie(value)) {
+                    // DecimalFormat does not round exact ties to even in scientific notation
+                    continue;
+                }
+                final String expected = df.format(value);
+
+                sb.setLength(0);
+                assertEquals(p + ": " + value, expected, np.format(sb, value).toString());
+                assertEquals(expected, new String(chars, 2, np.format(chars, 2, value) - 2));
+                assertEquals(expected, new String(bytes, 0, np.format(bytes, 0, value), StandardCharsets.ISO_8859_1));
+
+                // parse round trip:
+                assertEquals(expected, df.format(np.parse(expected)), expected);
+            }
+        }
+    }
+
+    private static boolean isScientificTie(final double value) {
+        final String digits = new BigDecimal(value).stripTrailingZeros().unscaledValue().abs().toString();
+        return (digits.length() > 1) && digits.endsWith("5");
+    }
+
+    public void testScientific() {
+        final NumberPattern np = NumberPattern.compile("0.###E0");
+        assertEquals("1.75E4", np.format(17505.0));
+        assertEquals("1.752E4", np.format(17515.0));
+        assertEquals("-1.235E-7", np.format(-1.2345678e-7));
+        assertEquals("1E0", np.format(1.0));
+        assertEquals("0E0", np.format(0.0));
+        assertEquals("1E1", np.format(9.99999));
+        assertEquals("1.00E03", NumberPattern.compile("0.00E00").format(999.5));
+        assertEquals(-1.2345E-7, np.parse("-1.2345E-7"));
+    }
+
+    public void testRoundingMode() {
+        final NumberPattern np = NumberPattern.compile("0.00", RoundingMode.FLOOR);
+        assertEquals("1.23", np.format(1.239));
+        assertEquals("-1.24", np.format(-1.231));
+
+        final NumberPattern up = NumberPattern.compile("#,##0.#", RoundingMode.HALF_UP);
+        assertEquals("1,000.3", up.format(1000.25));
+        assertEquals("0.3", up.format(0.25));
+    }
+
+    public void testSpecial() {
+        final NumberPattern np = NumberPattern.compile("#,##0.00;(#,##0.00)");
+        assertEquals("NaN", np.format(Double.NaN));
+        assertEquals("Infinity", np.format(Double.POSITIVE_INFINITY));
+        assertEquals("(Infinity)", np.format(Double.NEGATIVE_INFINITY));
+        assertEquals(Double.NEGATIVE_INFINITY, np.parse("(Infinity)"));
+        assertEquals(-1234.5, np.parse("(1,234.50)"));
+        assertEquals(0.25, NumberPattern.compile("0%").parse("25%"));
+        assertEquals(0.007, NumberPattern.compile("0.0‰").parse("7.0‰"));
+
+        // non-ASCII suffix: not written as bytes
+        final NumberPattern perMille = NumberPattern.compile("0.0‰");
+        final char[] chars = new char[16];
+        assertEquals("1500.0‰", perMille.format(1.5));
+        assertEquals("1500.0‰", new String(chars, 0, perMille.format(chars, 0, 1.5)));
+        try {
+            perMille.format(new byte[16], 0, 1.5);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException ise) {
+            // expected
+        }
+        assertEquals(4, NumberPattern.compile("0.0'%'").format(new byte[16], 0, 1.5));
+    }
+
+    public void testParseErrors() {
+        final NumberPattern np = NumberPattern.compile("'$'#,##0.00");
+        final ParseResult result = new ParseResult();
+
+        assertEquals(12.5, np.parse("$12.50", 0, 6, result));
+        assertTrue(result.isOk());
+
+        for (String text : new String[]{"", "12.50", "$", "$12.5x", "$1e3", "$.", "$-1"}) {
+            assertTrue(text, Double.isNaN(np.parse(text, 0, text.length(), result)));
+            assertFalse(text, result.isOk());
+            try {
+                np.parse(text);
+                fail(text);
+            } catch (NumberFormatException nfe) {
+                // expected
+            }
+        }
+    }
+
+    public void testCompileErrors() {
+        for (String pattern : new String[]{"", "¤0.00", "*x0", "##0.##E0", "0.0.0", "0E", "#,##0E0", "'abc"}) {
+            try {
+                NumberPattern.compile(pattern);
+                fail(pattern);
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+    }
+}